@@ -117,6 +117,8 @@ public abstract class AbstractAgentMojo extends AbstractJacocoMojo {
 	 * <li>tcpserver: The agent listens for incoming connections on the TCP port
 	 * specified by the {@link #address} and {@link #port}. Execution data is
 	 * written to this TCP connection.</li>
+	 * <li>tcpmultiserver: Like tcpserver, but any number of clients can
+	 * connect and request execution data concurrently.</li>
 	 * <li>tcpclient: At startup the agent connects to the TCP port specified by
 	 * the {@link #address} and {@link #port}. Execution data is written to this
 	 * TCP connection.</li>
@@ -75,6 +75,16 @@ public abstract class AbstractReportMojo extends AbstractMojo
 	@Parameter
 	List<String> excludes;
 
+	/**
+	 * Derives the status of probes omitted by the agent option
+	 * <code>minimalprobes</code>. Must be enabled for execution data recorded
+	 * in this mode, otherwise the omitted code is reported as missed.
+	 *
+	 * @since 0.8.7-SNAPSHOT
+	 */
+	@Parameter(property = "jacoco.minimalProbes", defaultValue = "false")
+	boolean minimalProbes;
+
 	/**
 	 * Flag used to suppress execution.
 	 */
@@ -174,7 +184,8 @@ public abstract class AbstractReportMojo extends AbstractMojo
 	private void executeReport(final Locale locale)
 			throws MavenReportException {
 		try {
-			final ReportSupport support = new ReportSupport(getLog());
+			final ReportSupport support = new ReportSupport(getLog(), project);
+			support.setMinimalProbes(minimalProbes);
 			loadExecutionData(support);
 			addFormatters(support, locale);
 			final IReportVisitor visitor = support.initRootVisitor();
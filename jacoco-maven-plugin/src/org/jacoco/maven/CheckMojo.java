@@ -143,6 +143,16 @@ public class CheckMojo extends AbstractJacocoMojo implements IViolationsOutput {
 	@Parameter
 	private List<String> excludes;
 
+	/**
+	 * Derives the status of probes omitted by the agent option
+	 * <code>minimalprobes</code>. Must be enabled for execution data recorded
+	 * in this mode, otherwise the omitted code is reported as missed.
+	 *
+	 * @since 0.8.7-SNAPSHOT
+	 */
+	@Parameter(property = "jacoco.minimalProbes", defaultValue = "false")
+	private boolean minimalProbes;
+
 	private boolean violations;
 
 	private boolean canCheckCoverage() {
@@ -172,7 +182,9 @@ public class CheckMojo extends AbstractJacocoMojo implements IViolationsOutput {
 	private void executeCheck() throws MojoExecutionException {
 		violations = false;
 
-		final ReportSupport support = new ReportSupport(getLog());
+		final ReportSupport support = new ReportSupport(getLog(),
+				getProject());
+		support.setMinimalProbes(minimalProbes);
 
 		final List<Rule> checkerrules = new ArrayList<Rule>();
 		for (final RuleConfiguration r : rules) {
@@ -180,9 +192,9 @@ public class CheckMojo extends AbstractJacocoMojo implements IViolationsOutput {
 		}
 		support.addRulesChecker(checkerrules, this);
 
+		support.loadExecutionData(dataFile);
 		try {
 			final IReportVisitor visitor = support.initRootVisitor();
-			support.loadExecutionData(dataFile);
 			support.processProject(visitor, getProject(), includes, excludes);
 			visitor.visitEnd();
 		} catch (final IOException e) {
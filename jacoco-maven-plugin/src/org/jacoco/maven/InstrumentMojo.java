@@ -18,7 +18,13 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -28,7 +34,10 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
 import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.internal.diff.CodeDiffUtil;
+import org.jacoco.core.internal.diff.JsonReadUtil;
 import org.jacoco.core.runtime.OfflineInstrumentationAccessGenerator;
+import org.jacoco.core.tools.InstrumentationManifest;
 
 /**
  * Performs offline instrumentation. Note that after execution of test you must
@@ -63,6 +72,52 @@ public class InstrumentMojo extends AbstractJacocoMojo {
 	@Parameter
 	private List<String> excludes;
 
+	/**
+	 * Number of threads used to instrument class files. With the default value
+	 * of 1 all class files are instrumented sequentially.
+	 *
+	 * @since 0.8.7
+	 */
+	@Parameter(property = "jacoco.threads", defaultValue = "1")
+	private int threads;
+
+	/**
+	 * If set to <code>true</code> the instrumented class files are kept in
+	 * <code>generated-classes/jacoco-instrumented</code> together with a
+	 * manifest of checksums of the original class files. Subsequent builds only
+	 * instrument new or changed class files and copy the kept version of all
+	 * other class files.
+	 *
+	 * @since 0.8.7
+	 */
+	@Parameter(property = "jacoco.incremental", defaultValue = "false")
+	private boolean incremental;
+
+	/**
+	 * Diff in the JSON format of the <code>report</code> command line
+	 * option. If set only the classes contained in the diff are instrumented
+	 * and only the changed methods get probes.
+	 *
+	 * @since 0.8.7
+	 */
+	@Parameter(property = "jacoco.diffCode")
+	private String diffCode;
+
+	/**
+	 * File with a diff in the same format as {@link #diffCode}. Takes
+	 * precedence over {@link #diffCode}.
+	 *
+	 * @since 0.8.7
+	 */
+	@Parameter(property = "jacoco.diffCodeFiles")
+	private File diffCodeFiles;
+
+	private File instrumentedClassesDir;
+
+	private InstrumentationManifest previous;
+
+	private InstrumentationManifest current;
+
 	@Override
 	public void executeMojo()
 			throws MojoExecutionException, MojoFailureException {
@@ -90,26 +145,148 @@ public class InstrumentMojo extends AbstractJacocoMojo {
 
 		final Instrumenter instrumenter = new Instrumenter(
 				new OfflineInstrumentationAccessGenerator());
+		instrumentedClassesDir = new File(
+				getProject().getBuild().getDirectory(),
+				"generated-classes/jacoco-instrumented");
+		final File manifestFile = new File(instrumentedClassesDir,
+				".jacoco-manifest");
+		final String diff = readDiff();
+		if (diff != null) {
+			instrumenter.setDiffScope(CodeDiffUtil.parseClassInfos(diff));
+		}
+		if (incremental) {
+			final String settings = diff == null ? "" : diff;
+			previous = new InstrumentationManifest(settings);
+			current = new InstrumentationManifest(settings);
+			try {
+				previous.load(manifestFile);
+			} catch (final IOException e) {
+				throw new MojoExecutionException(
+						"Unable to read instrumentation manifest.", e);
+			}
+			// Only a completed run leaves a valid manifest:
+			manifestFile.delete();
+		}
+		final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
 		for (final String fileName : fileNames) {
 			if (fileName.endsWith(".class")) {
 				final File source = new File(classesDir, fileName);
 				final File backup = new File(originalClassesDir, fileName);
-				InputStream input = null;
-				OutputStream output = null;
+				tasks.add(new Callable<Void>() {
+					public Void call() throws IOException {
+						if (incremental) {
+							instrumentIncremental(instrumenter, source, backup,
+									fileName);
+						} else {
+							instrument(instrumenter, source, backup);
+						}
+						return null;
+					}
+				});
+			}
+		}
+		try {
+			if (threads > 1) {
+				instrumentParallel(tasks);
+			} else {
+				for (final Callable<Void> task : tasks) {
+					task.call();
+				}
+			}
+		} catch (final Exception e) {
+			throw new MojoExecutionException("Unable to instrument file.", e);
+		}
+		if (incremental) {
+			try {
+				instrumentedClassesDir.mkdirs();
+				current.save(manifestFile);
+			} catch (final IOException e) {
+				throw new MojoExecutionException(
+						"Unable to write instrumentation manifest.", e);
+			}
+		}
+	}
+
+	private void instrumentParallel(final List<Callable<Void>> tasks)
+			throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			// Results are evaluated in the original order, so the first
+			// failure is reported like in serial execution:
+			for (final Future<Void> result : executor.invokeAll(tasks)) {
 				try {
-					FileUtils.copyFile(source, backup);
-					input = new FileInputStream(backup);
-					output = new FileOutputStream(source);
-					instrumenter.instrument(input, output, source.getPath());
-				} catch (final IOException e2) {
-					throw new MojoExecutionException(
-							"Unable to instrument file.", e2);
-				} finally {
-					IOUtil.close(input);
-					IOUtil.close(output);
+					result.get();
+				} catch (final ExecutionException e) {
+					throw e.getCause() instanceof Exception
+							? (Exception) e.getCause()
+							: e;
 				}
 			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private String readDiff() throws MojoExecutionException {
+		if (diffCodeFiles == null) {
+			return diffCode;
+		}
+		final String diff = JsonReadUtil
+				.readJsonToString(diffCodeFiles.getPath());
+		if (diff == null) {
+			throw new MojoExecutionException(
+					"Unable to read diff " + diffCodeFiles + ".");
+		}
+		return diff;
+	}
+
+	private static void instrument(final Instrumenter instrumenter,
+			final File source, final File backup) throws IOException {
+		InputStream input = null;
+		OutputStream output = null;
+		try {
+			FileUtils.copyFile(source, backup);
+			input = new FileInputStream(backup);
+			output = new FileOutputStream(source);
+			instrumenter.instrument(input, output, source.getPath());
+		} finally {
+			IOUtil.close(input);
+			IOUtil.close(output);
+		}
+	}
+
+	/**
+	 * Instruments the class file into the kept copy if it has changed since the
+	 * last build. The kept copy is copied instead of linked, as the restore goal
+	 * overwrites the class file in place.
+	 */
+	private void instrumentIncremental(final Instrumenter instrumenter,
+			final File source, final File backup, final String fileName)
+			throws IOException {
+		FileUtils.copyFile(source, backup);
+		final String location = fileName.replace(File.separatorChar, '/');
+		final long checksum = InstrumentationManifest.checksum(backup);
+		final File instrumented = new File(instrumentedClassesDir, fileName);
+		if (!previous.isUnchanged(location, checksum)
+				|| !instrumented.isFile()) {
+			instrumented.getParentFile().mkdirs();
+			InputStream input = null;
+			OutputStream output = null;
+			try {
+				input = new FileInputStream(backup);
+				output = new FileOutputStream(instrumented);
+				instrumenter.instrument(input, output, source.getPath());
+			} catch (final IOException e) {
+				IOUtil.close(output);
+				instrumented.delete();
+				throw e;
+			} finally {
+				IOUtil.close(input);
+				IOUtil.close(output);
+			}
 		}
+		FileUtils.copyFile(instrumented, source);
+		current.put(location, checksum);
 	}
 
 }
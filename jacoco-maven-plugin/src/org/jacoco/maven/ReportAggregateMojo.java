@@ -82,6 +82,17 @@ public class ReportAggregateMojo extends AbstractReportMojo {
 	@Parameter(defaultValue = "${project.reporting.outputDirectory}/jacoco-aggregate")
 	private File outputDirectory;
 
+	/**
+	 * Number of threads used to analyze the class files of the dependency
+	 * modules concurrently. The modules are always added to the report in the
+	 * order of the dependencies. With the default value of 1 all modules are
+	 * analyzed sequentially.
+	 *
+	 * @since 0.8.7-SNAPSHOT
+	 */
+	@Parameter(property = "jacoco.threads", defaultValue = "1")
+	private int threads;
+
 	/**
 	 * The projects in the reactor.
 	 */
@@ -133,12 +144,10 @@ public class ReportAggregateMojo extends AbstractReportMojo {
 	void createReport(final IReportGroupVisitor visitor,
 			final ReportSupport support) throws IOException {
 		final IReportGroupVisitor group = visitor.visitGroup(title);
-		for (final MavenProject dependency : findDependencies(
-				Artifact.SCOPE_COMPILE, Artifact.SCOPE_RUNTIME,
-				Artifact.SCOPE_PROVIDED)) {
-			support.processProject(group, dependency.getArtifactId(),
-					dependency, getIncludes(), getExcludes(), sourceEncoding);
-		}
+		support.processProjects(group,
+				findDependencies(Artifact.SCOPE_COMPILE,
+						Artifact.SCOPE_RUNTIME, Artifact.SCOPE_PROVIDED),
+				getIncludes(), getExcludes(), sourceEncoding, threads);
 	}
 
 	public File getReportOutputDirectory() {
@@ -20,11 +20,19 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.Reader;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
@@ -32,6 +40,7 @@ import org.jacoco.core.analysis.Analyzer;
 import org.jacoco.core.analysis.CoverageBuilder;
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.tools.AnalysisCache;
 import org.jacoco.core.tools.ExecFileLoader;
 import org.jacoco.report.FileMultiReportOutput;
 import org.jacoco.report.IReportGroupVisitor;
@@ -57,36 +66,103 @@ import org.jacoco.report.xml.XMLFormatter;
  * <li>Create the root visitor with <code>initRootVisitor()</code></li>
  * <li>Process one or multiple projects with <code>processProject()</code></li>
  * </ol>
+ *
+ * Loaded execution data and analyzed classes are kept in an
+ * {@link AnalysisCache} attached to the Maven project. So report and check
+ * goals executed for the same project within one build only load and analyze
+ * unchanged files once.
  */
 final class ReportSupport {
 
+	private static final String CACHE_KEY = AnalysisCache.class.getName();
+
+	/**
+	 * Maximum number of projects analyzed ahead of the project emitted next.
+	 */
+	private static final int MAX_PENDING_PROJECTS = 64;
+
 	private final Log log;
-	private final ExecFileLoader loader;
+	private final AnalysisCache cache;
+	private final List<File> execFiles;
 	private final List<IReportVisitor> formatters;
 
+	private ExecFileLoader loader;
+	private AnalysisCache.Key loaderKey;
+	private boolean minimalProbes;
+
 	/**
 	 * Construct a new instance with the given log output.
 	 *
 	 * @param log
 	 *            for log output
+	 * @param project
+	 *            project the analysis cache of the current build is attached
+	 *            to
 	 */
-	public ReportSupport(final Log log) {
+	public ReportSupport(final Log log, final MavenProject project) {
 		this.log = log;
-		this.loader = new ExecFileLoader();
+		this.cache = getAnalysisCache(project);
+		this.execFiles = new ArrayList<File>();
 		this.formatters = new ArrayList<IReportVisitor>();
 	}
 
 	/**
-	 * Loads the given execution data file.
+	 * Determines whether the status of probes omitted by the agent option
+	 * <code>minimalprobes</code> is derived during analysis.
+	 *
+	 * @param flag
+	 *            <code>true</code> if omitted probes should be derived
+	 */
+	public void setMinimalProbes(final boolean flag) {
+		this.minimalProbes = flag;
+	}
+
+	private static AnalysisCache getAnalysisCache(final MavenProject project) {
+		synchronized (project) {
+			final Object value = project.getContextValue(CACHE_KEY);
+			if (value instanceof AnalysisCache) {
+				return (AnalysisCache) value;
+			}
+			final AnalysisCache cache = new AnalysisCache();
+			project.setContextValue(CACHE_KEY, cache);
+			return cache;
+		}
+	}
+
+	/**
+	 * Adds the given execution data file. All files are loaded together when
+	 * the data is required for the first time, unless the same unchanged files
+	 * have already been loaded before in this build.
 	 *
 	 * @param execFile
 	 *            execution data file to load
-	 * @throws IOException
-	 *             if the file can't be loaded
 	 */
-	public void loadExecutionData(final File execFile) throws IOException {
-		log.info("Loading execution data file " + execFile);
-		loader.load(execFile);
+	public void loadExecutionData(final File execFile) {
+		execFiles.add(execFile);
+	}
+
+	private ExecFileLoader getLoader() throws IOException {
+		if (loader == null) {
+			final AnalysisCache.Key key = new AnalysisCache.Key();
+			for (final File execFile : execFiles) {
+				key.addFile(execFile);
+			}
+			loader = cache.getExecutionData(key);
+			if (loader == null) {
+				loader = new ExecFileLoader();
+				for (final File execFile : execFiles) {
+					log.info("Loading execution data file " + execFile);
+					loader.load(execFile);
+				}
+				cache.putExecutionData(key, loader);
+			} else {
+				log.info(format(
+						"Reusing %s execution data files loaded before in this build",
+						Integer.valueOf(execFiles.size())));
+			}
+			loaderKey = key;
+		}
+		return loader;
 	}
 
 	public void addXmlFormatter(final File targetfile, final String encoding)
@@ -131,6 +207,7 @@ final class ReportSupport {
 	}
 
 	public IReportVisitor initRootVisitor() throws IOException {
+		final ExecFileLoader loader = getLoader();
 		final IReportVisitor visitor = new MultiReportVisitor(formatters);
 		visitor.visitInfo(loader.getSessionInfoStore().getInfos(),
 				loader.getExecutionDataStore().getContents());
@@ -186,29 +263,169 @@ final class ReportSupport {
 				new SourceFileCollection(project, srcEncoding));
 	}
 
+	/**
+	 * Calculates coverage for the given projects and emits it to the report
+	 * group including source references. The class files of the projects are
+	 * analyzed concurrently, the bundles are emitted in the order of the given
+	 * list with the artifact id as name. Analysis only runs a limited number of
+	 * projects ahead of the next project to emit, so the memory held by
+	 * finished analyses stays bounded.
+	 *
+	 * @param visitor
+	 *            group visitor to emit the projects' coverage to
+	 * @param projects
+	 *            the MavenProjects
+	 * @param includes
+	 *            list of includes patterns
+	 * @param excludes
+	 *            list of excludes patterns
+	 * @param srcEncoding
+	 *            encoding of the source files within the projects
+	 * @param threads
+	 *            maximum number of threads used for analysis
+	 * @throws IOException
+	 *             if class files can't be read
+	 */
+	public void processProjects(final IReportGroupVisitor visitor,
+			final List<MavenProject> projects, final List<String> includes,
+			final List<String> excludes, final String srcEncoding,
+			final int threads) throws IOException {
+		if (threads <= 1 || projects.size() <= 1) {
+			for (final MavenProject project : projects) {
+				processProject(visitor, project.getArtifactId(), project,
+						includes, excludes, srcEncoding);
+			}
+			return;
+		}
+
+		// Initialize the shared execution data before analysis is started:
+		getLoader();
+		final Deque<FutureTask<CoverageBuilder>> pending = new ArrayDeque<FutureTask<CoverageBuilder>>();
+		final ExecutorService executor = Executors
+				.newFixedThreadPool(Math.min(threads, projects.size()));
+		int emitted = 0;
+		try {
+			for (final MavenProject project : projects) {
+				final FutureTask<CoverageBuilder> task = createTask(project,
+						includes, excludes);
+				pending.add(task);
+				executor.execute(task);
+				if (pending.size() >= MAX_PENDING_PROJECTS) {
+					emitProject(visitor, projects.get(emitted++),
+							pending.remove(), srcEncoding);
+				}
+			}
+			while (!pending.isEmpty()) {
+				emitProject(visitor, projects.get(emitted++), pending.remove(),
+						srcEncoding);
+			}
+		} finally {
+			for (final FutureTask<CoverageBuilder> task : pending) {
+				task.cancel(false);
+			}
+			executor.shutdown();
+		}
+	}
+
+	private FutureTask<CoverageBuilder> createTask(final MavenProject project,
+			final List<String> includes, final List<String> excludes) {
+		// Analyze with the diff and merge data of the calling thread:
+		return new FutureTask<CoverageBuilder>(ExecFileLoader
+				.withThreadData(new Callable<CoverageBuilder>() {
+					public CoverageBuilder call() throws IOException {
+						return analyze(
+								getClassFiles(project, includes, excludes));
+					}
+				}));
+	}
+
+	private void emitProject(final IReportGroupVisitor visitor,
+			final MavenProject project, final FutureTask<CoverageBuilder> task,
+			final String srcEncoding) throws IOException {
+		emitBundle(visitor, await(task), project.getArtifactId(),
+				new SourceFileCollection(project, srcEncoding));
+	}
+
+	/**
+	 * Waits for the given task. If the task has not been started yet it is
+	 * executed on the calling thread.
+	 */
+	private static CoverageBuilder await(final FutureTask<CoverageBuilder> task)
+			throws IOException {
+		task.run();
+		try {
+			return task.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
 	private void processProject(final IReportGroupVisitor visitor,
 			final String bundleName, final MavenProject project,
 			final List<String> includes, final List<String> excludes,
 			final ISourceFileLocator locator) throws IOException {
-		final CoverageBuilder builder = new CoverageBuilder();
+		final CoverageBuilder builder = analyze(
+				getClassFiles(project, includes, excludes));
+		emitBundle(visitor, builder, bundleName, locator);
+	}
+
+	private static List<File> getClassFiles(final MavenProject project,
+			final List<String> includes, final List<String> excludes)
+			throws IOException {
 		final File classesDir = new File(
 				project.getBuild().getOutputDirectory());
-
 		if (classesDir.isDirectory()) {
-			final Analyzer analyzer = new Analyzer(
-					loader.getExecutionDataStore(), builder);
-			final FileFilter filter = new FileFilter(includes, excludes);
-			for (final File file : filter.getFiles(classesDir)) {
-				analyzer.analyzeAll(file);
-			}
+			return new FileFilter(includes, excludes).getFiles(classesDir);
 		}
+		return new ArrayList<File>();
+	}
 
+	private void emitBundle(final IReportGroupVisitor visitor,
+			final CoverageBuilder builder, final String bundleName,
+			final ISourceFileLocator locator) throws IOException {
 		final IBundleCoverage bundle = builder.getBundle(bundleName);
 		logBundleInfo(bundle, builder.getNoMatchClasses());
 
 		visitor.visitBundle(bundle, locator);
 	}
 
+	private CoverageBuilder analyze(final List<File> files) throws IOException {
+		final ExecFileLoader loader = getLoader();
+		final AnalysisCache.Key key = new AnalysisCache.Key().add(loaderKey)
+				.add(Boolean.valueOf(minimalProbes));
+		for (final File file : files) {
+			key.addFile(file);
+		}
+		CoverageBuilder builder = cache.getAnalysis(key);
+		if (builder == null) {
+			builder = new CoverageBuilder();
+			final Analyzer analyzer = new Analyzer(
+					loader.getExecutionDataStore(), builder);
+			analyzer.setMinimalProbes(minimalProbes);
+			for (final File file : files) {
+				analyzer.analyzeAll(file);
+			}
+			cache.putAnalysis(key, builder);
+		} else {
+			log.info(format("Reusing analysis of %s class files from this build",
+					Integer.valueOf(files.size())));
+		}
+		return builder;
+	}
+
 	private void logBundleInfo(final IBundleCoverage bundle,
 			final Collection<IClassCoverage> nomatch) {
 		log.info(format("Analyzed bundle '%s' with %s classes",
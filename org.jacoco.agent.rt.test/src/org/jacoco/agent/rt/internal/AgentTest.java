@@ -29,7 +29,9 @@ import javax.management.ObjectName;
 import org.jacoco.agent.rt.internal.output.FileOutput;
 import org.jacoco.agent.rt.internal.output.IAgentOutput;
 import org.jacoco.agent.rt.internal.output.NoneOutput;
+import org.jacoco.agent.rt.internal.output.SegmentedFileOutput;
 import org.jacoco.agent.rt.internal.output.TcpClientOutput;
+import org.jacoco.agent.rt.internal.output.TcpMultiServerOutput;
 import org.jacoco.agent.rt.internal.output.TcpServerOutput;
 import org.jacoco.core.JaCoCo;
 import org.jacoco.core.runtime.AgentOptions;
@@ -66,10 +68,19 @@ public class AgentTest implements IExceptionLogger, IAgentOutput {
 		options.setOutput(OutputMode.file);
 		assertEquals(FileOutput.class, agent.createAgentOutput().getClass());
 
+		options.setDumpInterval(60);
+		assertEquals(SegmentedFileOutput.class,
+				agent.createAgentOutput().getClass());
+		options.setDumpInterval(0);
+
 		options.setOutput(OutputMode.tcpserver);
 		assertEquals(TcpServerOutput.class,
 				agent.createAgentOutput().getClass());
 
+		options.setOutput(OutputMode.tcpmultiserver);
+		assertEquals(TcpMultiServerOutput.class,
+				agent.createAgentOutput().getClass());
+
 		options.setOutput(OutputMode.tcpclient);
 		assertEquals(TcpClientOutput.class,
 				agent.createAgentOutput().getClass());
@@ -193,6 +204,33 @@ public class AgentTest implements IExceptionLogger, IAgentOutput {
 		assertNull(loggedException);
 	}
 
+	@Test
+	public void shutdown_should_stop_deinstrumenter() throws Exception {
+		options.setDeinstrumentInterval(60);
+		Agent agent = createAgent();
+		agent.startup();
+		// no scan is due, so instrumentation and transformer are not used:
+		agent.startDeinstrumenter(null, null);
+		final Thread thread = findThread(Deinstrumenter.class.getName());
+
+		agent.shutdown();
+
+		thread.join(10000);
+		assertFalse(thread.isAlive());
+	}
+
+	@Test
+	public void startDeinstrumenter_should_do_nothing_when_disabled()
+			throws Exception {
+		Agent agent = createAgent();
+		agent.startup();
+
+		agent.startDeinstrumenter(null, null);
+
+		assertNull(findThread(Deinstrumenter.class.getName()));
+		agent.shutdown();
+	}
+
 	@Test
 	public void shutdown_should_log_exception() throws Exception {
 		final Exception expected = new Exception();
@@ -348,6 +386,15 @@ public class AgentTest implements IExceptionLogger, IAgentOutput {
 		assertNull(loggedException);
 	}
 
+	private static Thread findThread(final String name) {
+		for (final Thread t : Thread.getAllStackTraces().keySet()) {
+			if (name.equals(t.getName())) {
+				return t;
+			}
+		}
+		return null;
+	}
+
 	private Agent createAgent() {
 		return new Agent(options, this) {
 			@Override
@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.jacoco.agent.rt.internal;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -19,6 +20,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.instrument.IllegalClassFormatException;
@@ -27,11 +29,15 @@ import java.security.ProtectionDomain;
 import java.security.cert.Certificate;
 
 import org.jacoco.core.JaCoCo;
+import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.internal.data.CRC64;
 import org.jacoco.core.runtime.AbstractRuntime;
 import org.jacoco.core.runtime.AgentOptions;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.objectweb.asm.MethodVisitor;
 
 /**
@@ -39,6 +45,9 @@ import org.objectweb.asm.MethodVisitor;
  */
 public class CoverageTransformerTest {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	private ExceptionRecorder recorder;
 
 	private AgentOptions options;
@@ -233,6 +242,84 @@ public class CoverageTransformerTest {
 				protectionDomain, getClassData(target)));
 	}
 
+	@Test
+	public void transform_should_instrument_retransformed_class_when_not_released()
+			throws Exception {
+		options.setDeinstrumentInterval(1);
+		final CoverageTransformer t = createTransformer();
+		final byte[] original = getClassData(JaCoCo.class);
+
+		final byte[] expected = new Instrumenter(runtime).instrument(original,
+				"Test");
+		assertArrayEquals(expected, t.transform(classLoader,
+				"org/example/Foo", JaCoCo.class, protectionDomain, original));
+	}
+
+	@Test
+	public void transform_should_remove_probes_when_released()
+			throws Exception {
+		options.setDeinstrumentInterval(1);
+		final CoverageTransformer t = createTransformer();
+		final byte[] original = getClassData(JaCoCo.class);
+
+		t.release(CRC64.classId(original));
+
+		assertTrue(t.isReleased(CRC64.classId(original)));
+		final byte[] expected = new Instrumenter(runtime)
+				.instrumentWithoutProbes(original, "Test");
+		assertArrayEquals(expected, t.transform(classLoader,
+				"org/example/Foo", JaCoCo.class, protectionDomain, original));
+	}
+
+	@Test
+	public void transform_should_use_class_cache_when_enabled()
+			throws Exception {
+		final File cacheDir = folder.newFolder("cache");
+		options.setClassCacheDir(cacheDir.getAbsolutePath());
+		final byte[] original = getClassData(JaCoCo.class);
+
+		final byte[] instrumented = createTransformer().transform(classLoader,
+				"org/example/Foo", null, protectionDomain, original);
+		assertEquals(1, cacheDir.list().length);
+
+		final CoverageTransformer t = createTransformer();
+		assertArrayEquals(instrumented, t.transform(classLoader,
+				"org/example/Foo", null, protectionDomain, original));
+	}
+
+	@Test
+	public void getInstrumentationSettings_should_depend_on_accessor() {
+		final String handshake = CoverageTransformer
+				.getInstrumentationSettings(runtime, options);
+		options.setAccessor(AgentOptions.AccessorMode.bridge);
+		final String bridge = CoverageTransformer
+				.getInstrumentationSettings(runtime, options);
+
+		assertFalse(handshake.equals(bridge));
+	}
+
+	@Test
+	public void getInstrumentationSettings_should_depend_on_probes() {
+		final String unconditional = CoverageTransformer
+				.getInstrumentationSettings(runtime, options);
+		options.setProbes(AgentOptions.ProbeMode.conditional);
+		final String conditional = CoverageTransformer
+				.getInstrumentationSettings(runtime, options);
+
+		assertFalse(unconditional.equals(conditional));
+	}
+
+	@Test
+	public void getInstrumentationSettings_should_depend_on_minimal_probes() {
+		final String all = CoverageTransformer
+				.getInstrumentationSettings(runtime, options);
+		options.setMinimalProbes(true);
+		final String minimal = CoverageTransformer
+				.getInstrumentationSettings(runtime, options);
+
+		assertFalse(all.equals(minimal));
+	}
+
 	private CoverageTransformer createTransformer() {
 		return new CoverageTransformer(runtime, options, recorder);
 	}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.instrument.UnmodifiableClassException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jacoco.core.runtime.AbstractRuntime;
+import org.jacoco.core.runtime.AgentOptions;
+import org.jacoco.core.runtime.RuntimeData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.asm.MethodVisitor;
+
+/**
+ * Unit tests for {@link Deinstrumenter}.
+ */
+public class DeinstrumenterTest implements InvocationHandler {
+
+	private final List<Class<?>> retransformed = new ArrayList<Class<?>>();
+
+	private ExceptionRecorder logger;
+
+	private RuntimeData data;
+
+	private CoverageTransformer transformer;
+
+	private Deinstrumenter deinstrumenter;
+
+	private boolean fail;
+
+	@Before
+	public void setup() {
+		logger = new ExceptionRecorder();
+		data = new RuntimeData();
+		final AgentOptions options = new AgentOptions();
+		options.setDeinstrumentInterval(1);
+		transformer = new CoverageTransformer(new AbstractRuntime() {
+			public int generateDataAccessor(final long classid,
+					final String classname, final int probecount,
+					final MethodVisitor mv) {
+				return 0;
+			}
+
+			public void shutdown() {
+			}
+		}, options, logger);
+		final Instrumentation inst = (Instrumentation) Proxy.newProxyInstance(
+				getClass().getClassLoader(),
+				new Class<?>[] { Instrumentation.class }, this);
+		deinstrumenter = new Deinstrumenter(data, inst, transformer, logger);
+	}
+
+	@After
+	public void teardown() {
+		logger.assertNoException();
+	}
+
+	@Test
+	public void scan_should_retransform_fully_covered_classes() {
+		Arrays.fill(data.getExecutionData(Long.valueOf(1),
+				"java/lang/String", 3).getProbes(), true);
+		data.getExecutionData(Long.valueOf(2), "java/lang/Integer", 3)
+				.getProbes()[0] = true;
+
+		assertEquals(1, deinstrumenter.scan());
+
+		assertEquals(Arrays.<Class<?>> asList(String.class), retransformed);
+		assertTrue(transformer.isReleased(1));
+		assertFalse(transformer.isReleased(2));
+	}
+
+	@Test
+	public void scan_should_retransform_classes_only_once() {
+		Arrays.fill(data.getExecutionData(Long.valueOf(1),
+				"java/lang/String", 3).getProbes(), true);
+
+		assertEquals(1, deinstrumenter.scan());
+		assertEquals(0, deinstrumenter.scan());
+
+		assertEquals(1, retransformed.size());
+	}
+
+	@Test
+	public void scan_should_retain_coverage_data() {
+		Arrays.fill(data.getExecutionData(Long.valueOf(1),
+				"java/lang/String", 3).getProbes(), true);
+
+		deinstrumenter.scan();
+
+		assertTrue(data.getExecutionData(Long.valueOf(1), "java/lang/String",
+				3).hasHits());
+	}
+
+	@Test
+	public void scan_should_log_exceptions() {
+		fail = true;
+		Arrays.fill(data.getExecutionData(Long.valueOf(1),
+				"java/lang/String", 3).getProbes(), true);
+
+		assertEquals(0, deinstrumenter.scan());
+
+		logger.assertException(UnmodifiableClassException.class, "String");
+		logger.clear();
+	}
+
+	public Object invoke(final Object proxy, final Method method,
+			final Object[] args) throws Throwable {
+		if ("getAllLoadedClasses".equals(method.getName())) {
+			return new Class<?>[] { Integer.class, String.class,
+					Object.class };
+		}
+		if ("isModifiableClass".equals(method.getName())) {
+			return Boolean.TRUE;
+		}
+		if ("retransformClasses".equals(method.getName())) {
+			final Class<?>[] classes = (Class<?>[]) args[0];
+			if (fail) {
+				throw new UnmodifiableClassException("String");
+			}
+			retransformed.addAll(Arrays.asList(classes));
+			return null;
+		}
+		throw new UnsupportedOperationException(method.getName());
+	}
+
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jacoco.agent.rt.internal.output.IAgentOutput;
+import org.jacoco.core.runtime.AgentOptions;
+import org.jacoco.core.runtime.RuntimeData;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link DumpScheduler}.
+ */
+public class DumpSchedulerTest implements IAgentOutput {
+
+	private final CountDownLatch dumps = new CountDownLatch(3);
+
+	private final ExceptionRecorder logger = new ExceptionRecorder();
+
+	private volatile boolean reset;
+
+	private volatile boolean fail;
+
+	@Test
+	public void should_dump_periodically_without_reset() throws Exception {
+		final DumpScheduler scheduler = new DumpScheduler(this, 10,
+				TimeUnit.MILLISECONDS, logger);
+
+		assertTrue(dumps.await(5, TimeUnit.SECONDS));
+		scheduler.shutdown();
+
+		assertFalse(reset);
+		logger.assertNoException();
+	}
+
+	@Test
+	public void should_log_exceptions_and_continue() throws Exception {
+		fail = true;
+		final List<Exception> logged = new CopyOnWriteArrayList<Exception>();
+		final DumpScheduler scheduler = new DumpScheduler(this, 10,
+				TimeUnit.MILLISECONDS, new IExceptionLogger() {
+					public void logExeption(final Exception ex) {
+						logged.add(ex);
+					}
+				});
+
+		assertTrue(dumps.await(5, TimeUnit.SECONDS));
+		scheduler.shutdown();
+
+		assertTrue(logged.size() >= 2);
+		assertEquals("failed", logged.get(0).getMessage());
+	}
+
+	@Test
+	public void shutdown_should_stop_dumps() throws Exception {
+		final DumpScheduler scheduler = new DumpScheduler(this, 10,
+				TimeUnit.MILLISECONDS, logger);
+		scheduler.shutdown();
+		final long count = dumps.getCount();
+
+		Thread.sleep(50);
+
+		assertEquals(count, dumps.getCount());
+	}
+
+	// === IAgentOutput ===
+
+	public void startup(final AgentOptions options, final RuntimeData data) {
+	}
+
+	public void writeExecutionData(final boolean reset) throws IOException {
+		this.reset |= reset;
+		dumps.countDown();
+		if (fail) {
+			throw new IOException("failed");
+		}
+	}
+
+	public void shutdown() {
+	}
+
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link InstrumentedClassCache}.
+ */
+public class InstrumentedClassCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File location;
+
+	private byte[] contents;
+
+	@Before
+	public void setup() {
+		location = new File(folder.getRoot(), "cache");
+		contents = new byte[] { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA,
+				(byte) 0xBE, 0x00, 0x00, 0x00, 0x34 };
+	}
+
+	@Test
+	public void get_should_return_null_when_not_cached() throws IOException {
+		final InstrumentedClassCache cache = new InstrumentedClassCache(
+				location.toString(), "settings");
+
+		assertTrue(cache.isEnabled());
+		assertNull(cache.get(0x1234));
+	}
+
+	@Test
+	public void get_should_return_cached_contents() throws IOException {
+		final InstrumentedClassCache cache = new InstrumentedClassCache(
+				location.toString(), "settings");
+
+		cache.put(0x1234, contents);
+
+		assertArrayEquals(contents, cache.get(0x1234));
+		assertNull(cache.get(0x5678));
+	}
+
+	@Test
+	public void get_should_share_entries_for_same_settings()
+			throws IOException {
+		new InstrumentedClassCache(location.toString(), "settings")
+				.put(0x1234, contents);
+
+		final InstrumentedClassCache cache = new InstrumentedClassCache(
+				location.toString(), "settings");
+
+		assertArrayEquals(contents, cache.get(0x1234));
+	}
+
+	@Test
+	public void get_should_ignore_entries_for_other_settings()
+			throws IOException {
+		new InstrumentedClassCache(location.toString(), "settings")
+				.put(0x1234, contents);
+
+		final InstrumentedClassCache cache = new InstrumentedClassCache(
+				location.toString(), "other");
+
+		assertNull(cache.get(0x1234));
+	}
+
+	@Test
+	public void get_should_ignore_invalid_entries() throws IOException {
+		final InstrumentedClassCache cache = new InstrumentedClassCache(
+				location.toString(), "settings");
+		cache.put(0x1234, contents);
+		final File[] dirs = location.listFiles();
+		assertEquals(1, dirs.length);
+		final OutputStream out = new FileOutputStream(
+				new File(dirs[0], "0000000000001234.class"));
+		out.write(new byte[] { 1, 2 });
+		out.close();
+
+		assertNull(cache.get(0x1234));
+	}
+
+	@Test
+	public void get_should_delete_invalid_entries() throws IOException {
+		final InstrumentedClassCache cache = new InstrumentedClassCache(
+				location.toString(), "settings");
+		cache.put(0x1234, contents);
+		final File[] dirs = location.listFiles();
+		final File entry = new File(dirs[0], "0000000000001234.class");
+		final OutputStream out = new FileOutputStream(entry);
+		out.write(new byte[] { 1, 2, 3, 4, 5 });
+		out.close();
+
+		assertNull(cache.get(0x1234));
+
+		assertFalse(entry.exists());
+		cache.put(0x1234, contents);
+		assertArrayEquals(contents, cache.get(0x1234));
+	}
+
+	@Test
+	public void put_should_not_leave_temporary_files() throws IOException {
+		final InstrumentedClassCache cache = new InstrumentedClassCache(
+				location.toString(), "settings");
+
+		cache.put(0x1234, contents);
+		cache.put(0x1234, contents);
+
+		final File[] dirs = location.listFiles();
+		assertEquals(1, dirs.length);
+		assertEquals(1, dirs[0].list().length);
+	}
+
+	@Test
+	public void isEnabled_should_return_false_without_location() {
+		final InstrumentedClassCache cache = new InstrumentedClassCache(null,
+				"settings");
+
+		assertFalse(cache.isEnabled());
+	}
+
+}
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataReader;
+import org.jacoco.core.data.IExecutionDataVisitor;
+import org.jacoco.core.data.ISessionInfoVisitor;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.runtime.AgentOptions;
+import org.jacoco.core.runtime.RuntimeData;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link SegmentedFileOutput}.
+ */
+public class SegmentedFileOutputTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private AgentOptions options;
+
+	private RuntimeData data;
+
+	private SegmentedFileOutput controller;
+
+	@Before
+	public void setup() {
+		options = new AgentOptions();
+		options.setDestfile(
+				new File(folder.getRoot(), "jacoco.exec").getAbsolutePath());
+		data = new RuntimeData();
+		controller = new SegmentedFileOutput();
+	}
+
+	@Test
+	public void startup_should_create_first_segment() throws Exception {
+		controller.startup(options, data);
+
+		final File segment = new File(folder.getRoot(), "jacoco-0001.exec");
+		assertTrue(segment.exists());
+		assertEquals(0, segment.length());
+	}
+
+	@Test
+	public void startup_should_continue_after_existing_segments_in_append_mode()
+			throws Exception {
+		folder.newFile("jacoco-0003.exec");
+		options.setAppend(true);
+
+		controller.startup(options, data);
+
+		assertTrue(new File(folder.getRoot(), "jacoco-0004.exec").exists());
+	}
+
+	@Test
+	public void startup_should_delete_existing_segments_without_append_mode()
+			throws Exception {
+		folder.newFile("jacoco-0002.exec");
+		folder.newFile("jacoco-0003.exec");
+		options.setAppend(false);
+
+		controller.startup(options, data);
+
+		assertFalse(new File(folder.getRoot(), "jacoco-0002.exec").exists());
+		assertFalse(new File(folder.getRoot(), "jacoco-0003.exec").exists());
+		assertTrue(new File(folder.getRoot(), "jacoco-0001.exec").exists());
+	}
+
+	@Test(expected = IOException.class)
+	public void startup_should_fail_when_segment_can_not_be_created()
+			throws Exception {
+		final File parent = folder.newFile("file");
+		options.setDestfile(
+				new File(parent, "jacoco.exec").getAbsolutePath());
+
+		controller.startup(options, data);
+	}
+
+	@Test
+	public void writeExecutionData_should_append_to_current_segment()
+			throws Exception {
+		hit(1, 0);
+		controller.startup(options, data);
+
+		controller.writeExecutionData(false);
+		controller.writeExecutionData(false);
+
+		final List<ExecutionData> dumped = read(1);
+		assertEquals(2, dumped.size());
+		assertFalse(new File(folder.getRoot(), "jacoco-0002.exec").exists());
+	}
+
+	@Test
+	public void writeExecutionData_should_rotate_and_delete_old_segments()
+			throws Exception {
+		hit(1, 0);
+		options.setSegmentSize(1);
+		options.setSegmentCount(2);
+		controller.startup(options, data);
+
+		controller.writeExecutionData(false);
+		controller.writeExecutionData(false);
+		controller.writeExecutionData(false);
+
+		assertFalse(new File(folder.getRoot(), "jacoco-0001.exec").exists());
+		assertEquals(1, read(2).size());
+		assertEquals(1, read(3).size());
+	}
+
+	@Test
+	public void writeExecutionData_should_write_deltas_when_enabled()
+			throws Exception {
+		hit(1, 0);
+		hit(2, 0);
+		options.setDumpDelta(true);
+		controller.startup(options, data);
+
+		controller.writeExecutionData(false);
+		controller.writeExecutionData(false);
+		hit(2, 1);
+		controller.writeExecutionData(false);
+
+		final List<ExecutionData> dumped = read(1);
+		assertEquals(3, dumped.size());
+		assertEquals(2, dumped.get(2).getId());
+	}
+
+	@Test
+	public void writeExecutionData_should_start_segments_with_full_dump_in_delta_mode()
+			throws Exception {
+		hit(1, 0);
+		options.setDumpDelta(true);
+		options.setSegmentSize(1);
+		controller.startup(options, data);
+
+		controller.writeExecutionData(false);
+		controller.writeExecutionData(false);
+
+		assertEquals(1, read(2).size());
+	}
+
+	@Test
+	public void writeExecutionData_should_write_probes_again_after_dump_with_reset()
+			throws Exception {
+		hit(1, 0);
+		options.setDumpDelta(true);
+		controller.startup(options, data);
+
+		controller.writeExecutionData(true);
+		hit(1, 0);
+		controller.writeExecutionData(false);
+
+		assertEquals(2, read(1).size());
+	}
+
+	@Test
+	public void writeExecutionData_should_write_probes_again_after_reset()
+			throws Exception {
+		hit(1, 0);
+		options.setDumpDelta(true);
+		controller.startup(options, data);
+
+		controller.writeExecutionData(false);
+		// Make sure the new session gets a different start time:
+		final long start = System.currentTimeMillis();
+		while (System.currentTimeMillis() == start) {
+			Thread.sleep(1);
+		}
+		data.reset();
+		hit(1, 0);
+		controller.writeExecutionData(false);
+
+		assertEquals(2, read(1).size());
+	}
+
+	private void hit(final long id, final int probe) {
+		data.getExecutionData(Long.valueOf(id), "Foo" + id, 2)
+				.getProbes()[probe] = true;
+	}
+
+	private List<ExecutionData> read(final int segment) throws IOException {
+		final List<ExecutionData> result = new ArrayList<ExecutionData>();
+		final InputStream in = new FileInputStream(
+				controller.getSegmentFile(segment));
+		try {
+			final ExecutionDataReader reader = new ExecutionDataReader(in);
+			reader.setSessionInfoVisitor(new ISessionInfoVisitor() {
+				public void visitSessionInfo(final SessionInfo info) {
+				}
+			});
+			reader.setExecutionDataVisitor(new IExecutionDataVisitor() {
+				public void visitClassExecution(final ExecutionData data) {
+					result.add(data);
+				}
+			});
+			reader.read();
+		} finally {
+			in.close();
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jacoco.agent.rt.internal.ExceptionRecorder;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.SessionInfoStore;
+import org.jacoco.core.runtime.AgentOptions;
+import org.jacoco.core.runtime.RemoteControlReader;
+import org.jacoco.core.runtime.RemoteControlWriter;
+import org.jacoco.core.runtime.RuntimeData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TcpMultiServerOutput}.
+ */
+public class TcpMultiServerOutputTest {
+
+	private ExceptionRecorder logger;
+
+	private TcpMultiServerOutput controller;
+
+	private RuntimeData data;
+
+	private ServerSocketChannel serverChannel;
+
+	private List<Socket> sockets;
+
+	@Before
+	public void setup() throws Exception {
+		logger = new ExceptionRecorder();
+		controller = new TcpMultiServerOutput(logger) {
+			@Override
+			protected ServerSocketChannel createServerChannel(
+					AgentOptions options) throws IOException {
+				serverChannel = ServerSocketChannel.open();
+				serverChannel.socket().bind(new InetSocketAddress(
+						InetAddress.getLoopbackAddress(), 0));
+				return serverChannel;
+			}
+		};
+		data = new RuntimeData();
+		data.setSessionId("stubid");
+		controller.startup(new AgentOptions(), data);
+		sockets = new ArrayList<Socket>();
+	}
+
+	@After
+	public void teardown() throws Exception {
+		for (final Socket s : sockets) {
+			s.close();
+		}
+	}
+
+	@Test
+	public void shutdown_should_succeed_without_connection()
+			throws Exception {
+		controller.shutdown();
+		assertFalse(serverChannel.isOpen());
+		logger.assertNoException();
+	}
+
+	@Test
+	public void shutdown_should_close_open_connections() throws Exception {
+		final Client client = new Client();
+		client.writer.visitDumpCommand(false, false);
+		client.reader.read();
+
+		controller.shutdown();
+
+		assertEquals(-1, client.socket.getInputStream().read());
+		logger.assertNoException();
+	}
+
+	@Test
+	public void should_serve_multiple_concurrent_clients() throws Exception {
+		data.getExecutionData(Long.valueOf(0x12345678), "Foo", 42)
+				.getProbes()[0] = true;
+
+		final Client client1 = new Client();
+		final Client client2 = new Client();
+		final Client client3 = new Client();
+
+		client1.writer.visitDumpCommand(true, false);
+		client2.writer.visitDumpCommand(true, false);
+		client3.writer.visitDumpCommand(true, false);
+
+		client1.assertDump();
+		client2.assertDump();
+		client3.assertDump();
+
+		// Connections stay open for further requests:
+		client2.writer.visitDumpCommand(true, false);
+		client2.assertDump();
+
+		logger.assertNoException();
+		controller.shutdown();
+	}
+
+	@Test
+	public void reset_command_should_clear_execution_data() throws Exception {
+		final boolean[] probes = data
+				.getExecutionData(Long.valueOf(0x12345678), "Foo", 42)
+				.getProbes();
+		probes[0] = true;
+
+		final Client client = new Client();
+		client.writer.visitDumpCommand(false, true);
+		client.reader.read();
+
+		assertFalse(probes[0]);
+		logger.assertNoException();
+		controller.shutdown();
+	}
+
+	@Test
+	public void writeExecutionData_should_send_data_to_all_clients()
+			throws Exception {
+		data.getExecutionData(Long.valueOf(0x12345678), "Foo", 42)
+				.getProbes()[0] = true;
+
+		final Client client1 = new Client();
+		final Client client2 = new Client();
+
+		// First process a NOP command to ensure the connections are
+		// initialized:
+		client1.writer.visitDumpCommand(false, false);
+		client1.reader.read();
+		client2.writer.visitDumpCommand(false, false);
+		client2.reader.read();
+
+		controller.writeExecutionData(false);
+
+		client1.assertDump();
+		client2.assertDump();
+
+		logger.assertNoException();
+		controller.shutdown();
+	}
+
+	@Test
+	public void writeExecutionData_should_be_transferred_on_shutdown()
+			throws Exception {
+		data.getExecutionData(Long.valueOf(0x12345678), "Foo", 42)
+				.getProbes()[0] = true;
+
+		final Client client = new Client();
+		client.writer.visitDumpCommand(false, false);
+		client.reader.read();
+
+		controller.writeExecutionData(false);
+		controller.shutdown();
+
+		client.assertDump();
+		logger.assertNoException();
+	}
+
+	@Test
+	public void should_log_invalid_header() throws Exception {
+		final Socket socket = connect();
+		final OutputStream out = socket.getOutputStream();
+		out.write(new byte[] { (byte) 0xca, (byte) 0xfe, (byte) 0xba,
+				(byte) 0xbe });
+		out.flush();
+
+		// Server closes the connection:
+		final byte[] buffer = new byte[16];
+		try {
+			while (socket.getInputStream().read(buffer) != -1) {
+			}
+		} catch (final SocketException e) {
+			// connection might also be reset as the input is not consumed
+		}
+
+		logger.assertException(IOException.class,
+				"Invalid execution data file.");
+		controller.shutdown();
+	}
+
+	@Test
+	public void testGetInetAddressLoopback() throws UnknownHostException {
+		final InetAddress addr = controller.getInetAddress(null);
+		assertTrue(addr.isLoopbackAddress());
+	}
+
+	@Test
+	public void testGetInetAddressAny() throws UnknownHostException {
+		final InetAddress addr = controller.getInetAddress("*");
+		assertNull(addr);
+	}
+
+	private Socket connect() throws IOException {
+		final Socket socket = new Socket(InetAddress.getLoopbackAddress(),
+				serverChannel.socket().getLocalPort());
+		sockets.add(socket);
+		return socket;
+	}
+
+	private class Client {
+
+		final Socket socket;
+
+		final RemoteControlWriter writer;
+
+		final RemoteControlReader reader;
+
+		final ExecutionDataStore execStore = new ExecutionDataStore();
+
+		final SessionInfoStore infoStore = new SessionInfoStore();
+
+		Client() throws IOException {
+			socket = connect();
+			writer = new RemoteControlWriter(socket.getOutputStream());
+			reader = new RemoteControlReader(socket.getInputStream());
+			reader.setExecutionDataVisitor(execStore);
+			reader.setSessionInfoVisitor(infoStore);
+		}
+
+		void assertDump() throws IOException {
+			reader.read();
+			assertEquals("Foo", execStore.get(0x12345678).getName());
+			assertEquals("stubid",
+					infoStore.getInfos().get(infoStore.getInfos().size() - 1)
+							.getId());
+		}
+
+	}
+
+}
@@ -14,14 +14,18 @@ package org.jacoco.agent.rt.internal;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.lang.instrument.Instrumentation;
 import java.net.InetAddress;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 import org.jacoco.agent.rt.IAgent;
 import org.jacoco.agent.rt.internal.output.FileOutput;
 import org.jacoco.agent.rt.internal.output.IAgentOutput;
 import org.jacoco.agent.rt.internal.output.NoneOutput;
+import org.jacoco.agent.rt.internal.output.SegmentedFileOutput;
 import org.jacoco.agent.rt.internal.output.TcpClientOutput;
+import org.jacoco.agent.rt.internal.output.TcpMultiServerOutput;
 import org.jacoco.agent.rt.internal.output.TcpServerOutput;
 import org.jacoco.core.JaCoCo;
 import org.jacoco.core.data.ExecutionDataWriter;
@@ -89,6 +93,10 @@ public class Agent implements IAgent {
 
 	private Callable<Void> jmxRegistration;
 
+	private DumpScheduler dumpScheduler;
+
+	private Deinstrumenter deinstrumenter;
+
 	/**
 	 * Creates a new agent with the given agent options.
 	 *
@@ -127,6 +135,10 @@ public class Agent implements IAgent {
 			data.setSessionId(sessionId);
 			output = createAgentOutput();
 			output.startup(options, data);
+			if (options.getDumpInterval() > 0) {
+				dumpScheduler = new DumpScheduler(output,
+						options.getDumpInterval(), TimeUnit.SECONDS, logger);
+			}
 			if (options.getJmx()) {
 				jmxRegistration = new JmxRegistration(this);
 			}
@@ -136,11 +148,37 @@ public class Agent implements IAgent {
 		}
 	}
 
+	/**
+	 * Starts periodic retransformation of fully covered classes if a
+	 * <code>deinstrumentinterval</code> is configured. The scans stop when the
+	 * agent is shut down.
+	 *
+	 * @param inst
+	 *            instrumentation used to retransform classes
+	 * @param transformer
+	 *            transformer registered for retransformation
+	 */
+	void startDeinstrumenter(final Instrumentation inst,
+			final CoverageTransformer transformer) {
+		final int interval = options.getDeinstrumentInterval();
+		if (interval > 0) {
+			deinstrumenter = new Deinstrumenter(data, inst, transformer,
+					logger);
+			deinstrumenter.start(interval, TimeUnit.SECONDS);
+		}
+	}
+
 	/**
 	 * Shutdown the agent again.
 	 */
 	public void shutdown() {
 		try {
+			if (dumpScheduler != null) {
+				dumpScheduler.shutdown();
+			}
+			if (deinstrumenter != null) {
+				deinstrumenter.shutdown();
+			}
 			if (options.getDumpOnExit()) {
 				output.writeExecutionData(false);
 				// 把exec文件上传到服务器
@@ -163,9 +201,14 @@ public class Agent implements IAgent {
 		final OutputMode controllerType = options.getOutput();
 		switch (controllerType) {
 		case file:
+			if (options.getDumpInterval() > 0) {
+				return new SegmentedFileOutput();
+			}
 			return new FileOutput();
 		case tcpserver:
 			return new TcpServerOutput(logger);
+		case tcpmultiserver:
+			return new TcpMultiServerOutput(logger);
 		case tcpclient:
 			return new TcpClientOutput(logger);
 		case none:
@@ -12,14 +12,22 @@
  *******************************************************************************/
 package org.jacoco.agent.rt.internal;
 
+import java.io.IOException;
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.IllegalClassFormatException;
 import java.security.CodeSource;
 import java.security.ProtectionDomain;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.jacoco.core.JaCoCo;
 import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.internal.data.CRC64;
 import org.jacoco.core.runtime.AgentOptions;
+import org.jacoco.core.runtime.AgentOptions.ProbeMode;
 import org.jacoco.core.runtime.IRuntime;
+import org.jacoco.core.runtime.ProbeArena;
 import org.jacoco.core.runtime.WildcardMatcher;
 
 /**
@@ -46,10 +54,19 @@ public class CoverageTransformer implements ClassFileTransformer {
 
 	private final ClassFileDumper classFileDumper;
 
+	private final InstrumentedClassCache classCache;
+
 	private final boolean inclBootstrapClasses;
 
 	private final boolean inclNoLocationClasses;
 
+	private final boolean retransform;
+
+	private boolean probeArena;
+
+	private final Set<Long> released = Collections
+			.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+
 	/**
 	 * New transformer with the given delegates.
 	 *
@@ -63,6 +80,9 @@ public class CoverageTransformer implements ClassFileTransformer {
 	public CoverageTransformer(final IRuntime runtime,
 			final AgentOptions options, final IExceptionLogger logger) {
 		this.instrumenter = new Instrumenter(runtime);
+		this.instrumenter.setConditionalProbes(
+				options.getProbes() == ProbeMode.conditional);
+		this.instrumenter.setMinimalProbes(options.getMinimalProbes());
 		this.logger = logger;
 		// Class names will be reported in VM notation:
 		includes = new WildcardMatcher(toVMName(options.getIncludes()));
@@ -71,8 +91,45 @@ public class CoverageTransformer implements ClassFileTransformer {
 		excludes = new WildcardMatcher(toVMName(expr));
 		exclClassloader = new WildcardMatcher(options.getExclClassloader());
 		classFileDumper = new ClassFileDumper(options.getClassDumpDir());
+		classCache = new InstrumentedClassCache(options.getClassCacheDir(),
+				getInstrumentationSettings(runtime, options));
 		inclBootstrapClasses = options.getInclBootstrapClasses();
 		inclNoLocationClasses = options.getInclNoLocationClasses();
+		retransform = options.getDeinstrumentInterval() > 0;
+	}
+
+	/**
+	 * Stores the probes of instrumented classes in the given arena. As the
+	 * instrumented classes depend on the arena they are not cached.
+	 *
+	 * @param arena
+	 *            arena of the runtime or <code>null</code>
+	 */
+	public void setProbeArena(final ProbeArena arena) {
+		instrumenter.setProbeArena(arena);
+		probeArena = arena != null;
+	}
+
+	/**
+	 * Marks the class with the given id as released. When such a class is
+	 * retransformed its probes are removed.
+	 *
+	 * @param classId
+	 *            CRC64 id of the original class file
+	 */
+	void release(final long classId) {
+		released.add(Long.valueOf(classId));
+	}
+
+	/**
+	 * Checks whether the class with the given id has been released.
+	 *
+	 * @param classId
+	 *            CRC64 id of the original class file
+	 * @return <code>true</code> if the class has been released
+	 */
+	boolean isReleased(final long classId) {
+		return released.contains(Long.valueOf(classId));
 	}
 
 	public byte[] transform(final ClassLoader loader, final String classname,
@@ -80,8 +137,8 @@ public class CoverageTransformer implements ClassFileTransformer {
 			final ProtectionDomain protectionDomain,
 			final byte[] classfileBuffer) throws IllegalClassFormatException {
 
-		// We do not support class retransformation:
-		if (classBeingRedefined != null) {
+		// Retransformation is only supported for de-instrumentation:
+		if (classBeingRedefined != null && !retransform) {
 			return null;
 		}
 
@@ -90,8 +147,15 @@ public class CoverageTransformer implements ClassFileTransformer {
 		}
 
 		try {
-			classFileDumper.dump(classname, classfileBuffer);
-			return instrumenter.instrument(classfileBuffer, classname);
+			if (classBeingRedefined == null) {
+				classFileDumper.dump(classname, classfileBuffer);
+			} else if (isReleased(CRC64.classId(classfileBuffer))) {
+				return instrumenter.instrumentWithoutProbes(classfileBuffer,
+						classname);
+			}
+			// Retransformation always starts from the original class file,
+			// so classes not released yet have to be instrumented again:
+			return instrument(classfileBuffer, classname);
 		} catch (final Exception ex) {
 			final IllegalClassFormatException wrapper = new IllegalClassFormatException(
 					ex.getMessage());
@@ -102,6 +166,42 @@ public class CoverageTransformer implements ClassFileTransformer {
 		}
 	}
 
+	private byte[] instrument(final byte[] classfileBuffer,
+			final String classname) throws IOException {
+		if (!classCache.isEnabled() || probeArena) {
+			return instrumenter.instrument(classfileBuffer, classname);
+		}
+		final long classId = CRC64.classId(classfileBuffer);
+		byte[] instrumented = classCache.get(classId);
+		if (instrumented == null) {
+			instrumented = instrumenter.instrument(classfileBuffer, classname);
+			try {
+				classCache.put(classId, instrumented);
+			} catch (final IOException e) {
+				// The cache is only an optimization, keep instrumenting:
+				logger.logExeption(e);
+			}
+		}
+		return instrumented;
+	}
+
+	/**
+	 * Describes all settings which have an effect on the instrumented class
+	 * files. Cached class files are only used for identical settings.
+	 *
+	 * @param runtime
+	 *            coverage runtime
+	 * @param options
+	 *            configuration options
+	 * @return description of the settings
+	 */
+	static String getInstrumentationSettings(final IRuntime runtime,
+			final AgentOptions options) {
+		return JaCoCo.VERSION + "," + JaCoCo.RUNTIMEPACKAGE + ","
+				+ runtime.getClass().getName() + "," + options.getAccessor()
+				+ "," + options.getProbes() + "," + options.getMinimalProbes();
+	}
+
 	/**
 	 * Checks whether this class should be instrumented.
 	 *
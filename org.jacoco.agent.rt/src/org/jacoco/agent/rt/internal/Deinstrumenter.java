@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal;
+
+import java.lang.instrument.Instrumentation;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.IExecutionDataVisitor;
+import org.jacoco.core.data.ISessionInfoVisitor;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.runtime.RuntimeData;
+
+/**
+ * Background thread which periodically scans the execution data for classes
+ * where all probes have been executed. Such classes are released at the
+ * {@link CoverageTransformer} and retransformed to remove their probes. The
+ * probe arrays stay referenced by the classes, so the recorded coverage is
+ * retained. The thread is a daemon thread and therefore does not prevent the
+ * VM from terminating. Classes instrumented with minimal probes never have all
+ * probes set, therefore the agent does not allow to combine both modes.
+ */
+class Deinstrumenter {
+
+	private final RuntimeData data;
+
+	private final Instrumentation inst;
+
+	private final CoverageTransformer transformer;
+
+	private final IExceptionLogger logger;
+
+	private ScheduledExecutorService executor;
+
+	/**
+	 * Creates a new de-instrumenter. Scans are only executed when
+	 * {@link #start(long, TimeUnit)} has been called.
+	 *
+	 * @param data
+	 *            execution data to scan
+	 * @param inst
+	 *            instrumentation services to retransform classes
+	 * @param transformer
+	 *            transformer registered for retransformation
+	 * @param logger
+	 *            logger for exceptions during retransformation
+	 */
+	Deinstrumenter(final RuntimeData data, final Instrumentation inst,
+			final CoverageTransformer transformer,
+			final IExceptionLogger logger) {
+		this.data = data;
+		this.inst = inst;
+		this.transformer = transformer;
+		this.logger = logger;
+	}
+
+	/**
+	 * Starts periodic scans.
+	 *
+	 * @param period
+	 *            delay between two scans
+	 * @param unit
+	 *            time unit of the period
+	 */
+	void start(final long period, final TimeUnit unit) {
+		executor = Executors
+				.newSingleThreadScheduledExecutor(new ThreadFactory() {
+					public Thread newThread(final Runnable r) {
+						final Thread thread = new Thread(r);
+						thread.setName(Deinstrumenter.class.getName());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		executor.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				scan();
+			}
+		}, period, period, unit);
+	}
+
+	/**
+	 * Stops periodic scans.
+	 */
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Releases all fully covered classes and retransforms them.
+	 *
+	 * @return number of retransformed classes
+	 */
+	int scan() {
+		final Map<String, Long> covered = new HashMap<String, Long>();
+		data.collect(new IExecutionDataVisitor() {
+			public void visitClassExecution(final ExecutionData ed) {
+				if (!transformer.isReleased(ed.getId())
+						&& isFullyCovered(ed.getProbes())) {
+					covered.put(ed.getName(), Long.valueOf(ed.getId()));
+				}
+			}
+		}, new ISessionInfoVisitor() {
+			public void visitSessionInfo(final SessionInfo info) {
+				// not required
+			}
+		}, false);
+		if (covered.isEmpty()) {
+			return 0;
+		}
+		for (final Long id : covered.values()) {
+			transformer.release(id.longValue());
+		}
+		final List<Class<?>> classes = new ArrayList<Class<?>>();
+		for (final Class<?> c : inst.getAllLoadedClasses()) {
+			if (covered.containsKey(c.getName().replace('.', '/'))
+					&& inst.isModifiableClass(c)) {
+				classes.add(c);
+			}
+		}
+		int count = 0;
+		for (final Class<?> c : classes) {
+			// Retransform classes individually so a single failure does not
+			// affect other classes:
+			try {
+				inst.retransformClasses(c);
+				count++;
+			} catch (final Exception e) {
+				logger.logExeption(e);
+			}
+		}
+		return count;
+	}
+
+	private static boolean isFullyCovered(final boolean[] probes) {
+		for (final boolean p : probes) {
+			if (!p) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jacoco.agent.rt.internal.output.IAgentOutput;
+
+/**
+ * Background thread which periodically writes the execution data to an agent
+ * output. The thread is a daemon thread and therefore does not prevent the VM
+ * from terminating.
+ */
+class DumpScheduler {
+
+	private static final long SHUTDOWN_TIMEOUT = 5000;
+
+	private final ScheduledExecutorService executor;
+
+	/**
+	 * Starts periodic dumps to the given output.
+	 *
+	 * @param output
+	 *            output to dump to
+	 * @param period
+	 *            delay between two dumps
+	 * @param unit
+	 *            time unit of the period
+	 * @param logger
+	 *            logger for exceptions during dumps
+	 */
+	DumpScheduler(final IAgentOutput output, final long period,
+			final TimeUnit unit, final IExceptionLogger logger) {
+		executor = Executors
+				.newSingleThreadScheduledExecutor(new ThreadFactory() {
+					public Thread newThread(final Runnable r) {
+						final Thread thread = new Thread(r);
+						thread.setName(DumpScheduler.class.getName());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		executor.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				try {
+					output.writeExecutionData(false);
+				} catch (final Exception e) {
+					logger.logExeption(e);
+				}
+			}
+		}, period, period, unit);
+	}
+
+	/**
+	 * Stops periodic dumps and waits for a dump which is currently in progress.
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	void shutdown() throws InterruptedException {
+		executor.shutdown();
+		executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+	}
+
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.jacoco.core.internal.data.CRC64;
+
+/**
+ * Internal on-disk cache for instrumented class files. Entries are stored in a
+ * sub-directory specific to the given instrumentation settings, so entries
+ * created by a different agent version or with a different configuration are
+ * never used. Every entry is written to a temporary file first which is then
+ * atomically moved to its final name. Therefore multiple JVMs can share the
+ * same cache directory concurrently and readers never see partial entries.
+ */
+class InstrumentedClassCache {
+
+	private static final int MAGIC = 0xCAFEBABE;
+
+	private final File location;
+
+	/**
+	 * Create a new cache for the given location.
+	 *
+	 * @param location
+	 *            relative path to cache directory. <code>null</code> if no
+	 *            cache should be used
+	 * @param settings
+	 *            description of all settings which influence the
+	 *            instrumented class files
+	 */
+	InstrumentedClassCache(final String location, final String settings) {
+		if (location == null) {
+			this.location = null;
+		} else {
+			this.location = new File(location,
+					String.format("%016x", Long.valueOf(settingsId(settings))));
+		}
+	}
+
+	private static long settingsId(final String settings) {
+		try {
+			return CRC64.classId(settings.getBytes("UTF-8"));
+		} catch (final UnsupportedEncodingException e) {
+			// UTF-8 is always supported
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if a location has been specified
+	 */
+	boolean isEnabled() {
+		return location != null;
+	}
+
+	/**
+	 * Returns the cached instrumented class file for the given original class.
+	 * Invalid entries are deleted, so they are not read again by later
+	 * lookups.
+	 *
+	 * @param classId
+	 *            CRC64 id of the original class file
+	 * @return instrumented class file or <code>null</code> if not cached
+	 * @throws IOException
+	 *             in case of problems while reading the entry
+	 */
+	byte[] get(final long classId) throws IOException {
+		final File file = getFile(classId);
+		final FileChannel channel;
+		try {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		} catch (final NoSuchFileException e) {
+			return null;
+		}
+		final byte[] contents;
+		try {
+			contents = read(channel);
+		} finally {
+			channel.close();
+		}
+		if (contents == null) {
+			// In the unlikely case that another JVM has just replaced the
+			// entry this only results in an additional cache miss:
+			file.delete();
+		}
+		return contents;
+	}
+
+	private static byte[] read(final FileChannel channel) throws IOException {
+		final MappedByteBuffer buffer = channel
+				.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		if (buffer.remaining() < 4 || buffer.getInt(0) != MAGIC) {
+			return null;
+		}
+		final byte[] contents = new byte[buffer.remaining()];
+		buffer.get(contents);
+		return contents;
+	}
+
+	/**
+	 * Stores the instrumented class file for the given original class.
+	 *
+	 * @param classId
+	 *            CRC64 id of the original class file
+	 * @param contents
+	 *            instrumented class file
+	 * @throws IOException
+	 *             in case of problems while writing the entry
+	 */
+	void put(final long classId, final byte[] contents) throws IOException {
+		location.mkdirs();
+		final File file = getFile(classId);
+		final File tmp = File.createTempFile(file.getName(), ".tmp", location);
+		try {
+			final OutputStream out = new FileOutputStream(tmp);
+			try {
+				out.write(contents);
+			} finally {
+				out.close();
+			}
+			try {
+				Files.move(tmp.toPath(), file.toPath(),
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				// Entry is only written if not available yet
+				if (!file.exists()) {
+					Files.move(tmp.toPath(), file.toPath());
+				}
+			}
+		} finally {
+			tmp.delete();
+		}
+	}
+
+	private File getFile(final long classId) {
+		return new File(location,
+				String.format("%016x.class", Long.valueOf(classId)));
+	}
+
+}
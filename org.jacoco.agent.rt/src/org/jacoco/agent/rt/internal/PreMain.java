@@ -18,6 +18,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.jacoco.core.runtime.AgentOptions;
+import org.jacoco.core.runtime.AgentOptions.AccessorMode;
 import org.jacoco.core.runtime.IRuntime;
 import org.jacoco.core.runtime.InjectedClassRuntime;
 import org.jacoco.core.runtime.ModifiedSystemClassRuntime;
@@ -46,21 +47,29 @@ public final class PreMain {
 			throws Exception {
 		final AgentOptions agentOptions = new AgentOptions(options);
 		final Agent agent = Agent.getInstance(agentOptions);
-		final IRuntime runtime = createRuntime(inst);
+		final IRuntime runtime = createRuntime(inst,
+				agentOptions.getAccessor() == AccessorMode.bridge);
 		runtime.startup(agent.getData());
 		System.out.println("【" + agent.getSessionId() + "】启动成功！");
-		inst.addTransformer(new CoverageTransformer(runtime, agentOptions, IExceptionLogger.SYSTEM_ERR));
+		final CoverageTransformer transformer = new CoverageTransformer(runtime,
+				agentOptions, IExceptionLogger.SYSTEM_ERR);
+		if (agentOptions.getProbeArena()) {
+			transformer.setProbeArena(agent.getData().getProbeArena());
+		}
+		final int deinstrumentInterval = agentOptions.getDeinstrumentInterval();
+		inst.addTransformer(transformer, deinstrumentInterval > 0);
+		agent.startDeinstrumenter(inst, transformer);
 	}
 
-	private static IRuntime createRuntime(final Instrumentation inst)
-			throws Exception {
+	private static IRuntime createRuntime(final Instrumentation inst,
+			final boolean bridge) throws Exception {
 
 		if (redefineJavaBaseModule(inst)) {
-			return new InjectedClassRuntime(Object.class, "$JaCoCo");
+			return new InjectedClassRuntime(Object.class, "$JaCoCo", bridge);
 		}
 
 		return ModifiedSystemClassRuntime.createFor(inst,
-				"java/lang/UnknownError");
+				"java/lang/UnknownError", "$jacocoAccess", bridge);
 	}
 
 	/**
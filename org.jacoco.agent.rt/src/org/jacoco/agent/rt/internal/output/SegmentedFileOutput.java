@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal.output;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.IExecutionDataVisitor;
+import org.jacoco.core.data.ISessionInfoVisitor;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.runtime.AgentOptions;
+import org.jacoco.core.runtime.RuntimeData;
+
+/**
+ * Local only agent output that writes coverage data to rotating segment files.
+ * The segment files are named after the destination file with a sequence
+ * number, e.g. <code>jacoco-0001.exec</code> for <code>jacoco.exec</code>. A
+ * new segment is started as soon as the current one exceeds the configured
+ * size and only the most recent segments are kept. In delta mode every segment
+ * starts with a complete dump followed by dumps which only contain classes with
+ * probes hit since the previous dump, so the latest segment always represents
+ * the complete coverage. After a reset of the runtime data all classes with
+ * probes hit again are written again. This controller uses the following
+ * agent options:
+ * <ul>
+ * <li>destfile</li>
+ * <li>append</li>
+ * <li>segmentsize</li>
+ * <li>segmentcount</li>
+ * <li>dumpdelta</li>
+ * </ul>
+ */
+public class SegmentedFileOutput implements IAgentOutput {
+
+	private RuntimeData data;
+
+	private File folder;
+
+	private String prefix;
+
+	private String suffix;
+
+	private Pattern segmentPattern;
+
+	private long segmentSize;
+
+	private int segmentCount;
+
+	private boolean delta;
+
+	private int segment;
+
+	private final Map<Long, boolean[]> written = new HashMap<Long, boolean[]>();
+
+	/** Start of the session the written probes belong to */
+	private long sessionStart = Long.MIN_VALUE;
+
+	public final void startup(final AgentOptions options,
+			final RuntimeData data) throws IOException {
+		this.data = data;
+		final File destFile = new File(options.getDestfile())
+				.getAbsoluteFile();
+		this.folder = destFile.getParentFile();
+		final String name = destFile.getName();
+		final int dot = name.lastIndexOf('.');
+		this.prefix = (dot == -1 ? name : name.substring(0, dot)) + "-";
+		this.suffix = dot == -1 ? "" : name.substring(dot);
+		this.segmentPattern = Pattern.compile(
+				Pattern.quote(prefix) + "(\\d+)" + Pattern.quote(suffix));
+		this.segmentSize = options.getSegmentSize();
+		this.segmentCount = options.getSegmentCount();
+		this.delta = options.getDumpDelta();
+		if (folder != null) {
+			folder.mkdirs();
+		}
+
+		final int last = findLastSegment();
+		if (options.getAppend()) {
+			segment = last + 1;
+		} else {
+			deleteSegments(last + 1);
+			segment = 1;
+		}
+		// Make sure we can write to the file:
+		openFile(getSegmentFile(segment)).close();
+	}
+
+	public synchronized void writeExecutionData(final boolean reset)
+			throws IOException {
+		File file = getSegmentFile(segment);
+		if (file.length() >= segmentSize) {
+			segment++;
+			deleteSegments(segment - segmentCount + 1);
+			file = getSegmentFile(segment);
+		}
+		if (file.length() == 0) {
+			written.clear();
+		}
+		final OutputStream output = openFile(file);
+		try {
+			final ExecutionDataWriter writer = new ExecutionDataWriter(output);
+			if (delta) {
+				final DeltaFilter filter = new DeltaFilter(writer);
+				data.collect(filter, filter, reset);
+			} else {
+				data.collect(writer, writer, reset);
+			}
+			if (reset) {
+				written.clear();
+			}
+		} finally {
+			output.close();
+		}
+	}
+
+	public void shutdown() throws IOException {
+		// Nothing to do
+	}
+
+	/**
+	 * Returns the file for the segment with the given number.
+	 *
+	 * @param number
+	 *            segment number
+	 * @return segment file
+	 */
+	File getSegmentFile(final int number) {
+		return new File(folder,
+				prefix + String.format("%04d", Integer.valueOf(number))
+						+ suffix);
+	}
+
+	private int findLastSegment() {
+		int last = 0;
+		final String[] names = folder == null ? null : folder.list();
+		if (names != null) {
+			for (final String name : names) {
+				final Matcher m = segmentPattern.matcher(name);
+				if (m.matches()) {
+					last = Math.max(last, Integer.parseInt(m.group(1)));
+				}
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * Deletes all segments with a number lower than the given one.
+	 */
+	private void deleteSegments(final int before) {
+		for (int i = before - 1; i > 0; i--) {
+			final File file = getSegmentFile(i);
+			if (!file.exists()) {
+				break;
+			}
+			file.delete();
+		}
+	}
+
+	private OutputStream openFile(final File file) throws IOException {
+		final FileOutputStream stream = new FileOutputStream(file, true);
+		// Avoid concurrent writes from different agents running in parallel:
+		stream.getChannel().lock();
+		return stream;
+	}
+
+	/**
+	 * Only passes classes with probes hit since they have been written to the
+	 * current segment the last time. A new session start time indicates that
+	 * the runtime data has been reset in the meantime, e.g. through JMX or a
+	 * TCP command, therefore all probes are considered as not written then.
+	 */
+	private class DeltaFilter
+			implements IExecutionDataVisitor, ISessionInfoVisitor {
+
+		private final ExecutionDataWriter next;
+
+		DeltaFilter(final ExecutionDataWriter next) {
+			this.next = next;
+		}
+
+		public void visitSessionInfo(final SessionInfo info) {
+			if (info.getStartTimeStamp() != sessionStart) {
+				written.clear();
+				sessionStart = info.getStartTimeStamp();
+			}
+			next.visitSessionInfo(info);
+		}
+
+		public void visitClassExecution(final ExecutionData data) {
+			final boolean[] probes = data.getProbes();
+			final Long id = Long.valueOf(data.getId());
+			boolean[] previous = written.get(id);
+			if (previous == null || previous.length != probes.length) {
+				previous = new boolean[probes.length];
+				written.put(id, previous);
+			}
+			boolean changed = false;
+			for (int i = 0; i < probes.length; i++) {
+				if (probes[i] && !previous[i]) {
+					previous[i] = true;
+					changed = true;
+				}
+			}
+			if (changed) {
+				next.visitClassExecution(data);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,443 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal.output;
+
+import static java.lang.String.format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.jacoco.agent.rt.internal.IExceptionLogger;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.IncompatibleExecDataVersionException;
+import org.jacoco.core.runtime.AgentOptions;
+import org.jacoco.core.runtime.RemoteControlWriter;
+import org.jacoco.core.runtime.RuntimeData;
+
+/**
+ * Output that opens a non-blocking TCP server socket and serves any number of
+ * concurrent clients from a single selector thread. All dump and reset
+ * commands received within the same selection round are answered from one
+ * shared snapshot of the runtime data. The memory used per client is bounded
+ * by a small input buffer and a limited number of pending responses. This
+ * controller uses the following agent options:
+ * <ul>
+ * <li>address</li>
+ * <li>port</li>
+ * </ul>
+ */
+public class TcpMultiServerOutput implements IAgentOutput {
+
+	/** Maximum number of responses queued for a single client */
+	static final int MAX_PENDING_RESPONSES = 4;
+
+	private static final int BACKLOG = 50;
+
+	private static final int INPUT_BUFFER_SIZE = 64;
+
+	private static final long SHUTDOWN_TIMEOUT = 5000;
+
+	private static final byte[] HEADER = ExecutionDataWriter.getFileHeader();
+
+	private static final byte[] CMDOK = new byte[] {
+			RemoteControlWriter.BLOCK_CMDOK };
+
+	private final IExceptionLogger logger;
+
+	private final Queue<byte[]> broadcasts = new ConcurrentLinkedQueue<byte[]>();
+
+	private final List<Connection> connections = new ArrayList<Connection>();
+
+	private final List<Connection> requests = new ArrayList<Connection>();
+
+	private RuntimeData data;
+
+	private Selector selector;
+
+	private ServerSocketChannel serverChannel;
+
+	private Thread worker;
+
+	private volatile boolean running;
+
+	/**
+	 * New controller instance.
+	 *
+	 * @param logger
+	 *            logger to use in case of exceptions is spawned threads
+	 */
+	public TcpMultiServerOutput(final IExceptionLogger logger) {
+		this.logger = logger;
+	}
+
+	public void startup(final AgentOptions options, final RuntimeData data)
+			throws IOException {
+		this.data = data;
+		selector = Selector.open();
+		serverChannel = createServerChannel(options);
+		serverChannel.configureBlocking(false);
+		serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		running = true;
+		worker = new Thread(new Runnable() {
+			public void run() {
+				serve();
+			}
+		});
+		worker.setName(getClass().getName());
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	public void shutdown() throws Exception {
+		running = false;
+		selector.wakeup();
+		worker.join(SHUTDOWN_TIMEOUT);
+		if (worker.isAlive()) {
+			// Clients which do not consume their data must not block the VM
+			// termination:
+			selector.close();
+			worker.join();
+		}
+	}
+
+	/**
+	 * Sends the current execution data to all connected clients. The data is
+	 * captured immediately, the actual transfer is performed asynchronously by
+	 * the selector thread.
+	 */
+	public void writeExecutionData(final boolean reset) throws IOException {
+		broadcasts.add(snapshot(reset));
+		selector.wakeup();
+	}
+
+	/**
+	 * Opens a server socket channel based on the given configuration.
+	 *
+	 * @param options
+	 *            address and port configuration
+	 * @return opened server socket channel
+	 * @throws IOException
+	 */
+	protected ServerSocketChannel createServerChannel(
+			final AgentOptions options) throws IOException {
+		final ServerSocketChannel channel = ServerSocketChannel.open();
+		channel.socket().bind(new InetSocketAddress(
+				getInetAddress(options.getAddress()), options.getPort()),
+				BACKLOG);
+		return channel;
+	}
+
+	/**
+	 * Returns the {@link InetAddress} object to open the server socket on.
+	 *
+	 * @param address
+	 *            address specified as a string
+	 * @return address to open the server socket
+	 * @throws UnknownHostException
+	 */
+	protected InetAddress getInetAddress(final String address)
+			throws UnknownHostException {
+		if ("*".equals(address)) {
+			return null;
+		} else {
+			return InetAddress.getByName(address);
+		}
+	}
+
+	private void serve() {
+		try {
+			while (true) {
+				selector.select();
+				final Iterator<SelectionKey> i = selector.selectedKeys()
+						.iterator();
+				while (i.hasNext()) {
+					final SelectionKey key = i.next();
+					i.remove();
+					if (key.isValid()) {
+						handle(key);
+					}
+				}
+				answerRequests();
+				// Read the flag first to send all data dumped before shutdown:
+				final boolean stopping = !running;
+				distributeBroadcasts();
+				if (stopping) {
+					serverChannel.close();
+					if (!hasPendingOutput()) {
+						break;
+					}
+				}
+			}
+		} catch (final ClosedSelectorException e) {
+			// Forced shutdown
+		} catch (final IOException e) {
+			logger.logExeption(e);
+		} finally {
+			for (final Connection c : new ArrayList<Connection>(connections)) {
+				c.close();
+			}
+			try {
+				serverChannel.close();
+				selector.close();
+			} catch (final IOException e) {
+				logger.logExeption(e);
+			}
+		}
+	}
+
+	private void handle(final SelectionKey key) throws IOException {
+		if (key.isAcceptable()) {
+			accept();
+			return;
+		}
+		final Connection connection = (Connection) key.attachment();
+		try {
+			if (key.isWritable()) {
+				connection.write();
+			}
+			if (key.isValid() && key.isReadable() && running) {
+				connection.read();
+			}
+		} catch (final IOException e) {
+			logger.logExeption(e);
+			connection.close();
+		}
+	}
+
+	private void accept() throws IOException {
+		final SocketChannel channel = serverChannel.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		final Connection connection = new Connection(channel);
+		connections.add(connection);
+		connection.enqueue(HEADER);
+	}
+
+	private void distributeBroadcasts() {
+		byte[] snapshot;
+		while ((snapshot = broadcasts.poll()) != null) {
+			for (final Connection c : new ArrayList<Connection>(connections)) {
+				if (c.initialized) {
+					c.enqueue(snapshot);
+				}
+			}
+		}
+	}
+
+	private boolean hasPendingOutput() {
+		for (final Connection c : connections) {
+			if (!c.output.isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void answerRequests() throws IOException {
+		if (requests.isEmpty()) {
+			return;
+		}
+		boolean dump = false;
+		boolean reset = false;
+		for (final Connection c : requests) {
+			dump |= c.dumpRequested;
+			reset |= c.resetRequested;
+		}
+		byte[] snapshot = null;
+		if (dump) {
+			snapshot = snapshot(reset);
+		} else if (reset) {
+			data.reset();
+		}
+		for (final Connection c : new ArrayList<Connection>(requests)) {
+			c.requestPending = false;
+			c.enqueue(c.dumpRequested ? snapshot : CMDOK);
+		}
+		requests.clear();
+	}
+
+	/**
+	 * Creates the response for a dump command, i.e. the session info and
+	 * execution data blocks followed by the OK command, without the header.
+	 */
+	private byte[] snapshot(final boolean reset) throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final ExecutionDataWriter writer = new ExecutionDataWriter(buffer);
+		data.collect(writer, writer, reset);
+		buffer.write(RemoteControlWriter.BLOCK_CMDOK);
+		final byte[] bytes = buffer.toByteArray();
+		return Arrays.copyOfRange(bytes, HEADER.length, bytes.length);
+	}
+
+	/**
+	 * State of a single client connection.
+	 */
+	private class Connection {
+
+		private final SocketChannel channel;
+
+		private final SelectionKey key;
+
+		private final ByteBuffer input = ByteBuffer
+				.allocate(INPUT_BUFFER_SIZE);
+
+		private final Queue<ByteBuffer> output = new LinkedList<ByteBuffer>();
+
+		private boolean initialized;
+
+		private boolean requestPending;
+
+		private boolean dumpRequested;
+
+		private boolean resetRequested;
+
+		Connection(final SocketChannel channel) throws IOException {
+			this.channel = channel;
+			this.key = channel.register(selector, SelectionKey.OP_READ, this);
+		}
+
+		/**
+		 * Queues the given shared response data for this client. Clients which
+		 * do not consume their responses are disconnected.
+		 */
+		void enqueue(final byte[] response) {
+			if (output.size() >= MAX_PENDING_RESPONSES) {
+				close();
+				return;
+			}
+			output.add(ByteBuffer.wrap(response));
+			updateInterest();
+		}
+
+		void write() throws IOException {
+			while (!output.isEmpty()) {
+				final ByteBuffer buffer = output.peek();
+				channel.write(buffer);
+				if (buffer.hasRemaining()) {
+					return;
+				}
+				output.remove();
+			}
+			updateInterest();
+			if (running) {
+				// Commands might have been buffered while we were writing:
+				parse();
+			}
+		}
+
+		void read() throws IOException {
+			if (channel.read(input) == -1) {
+				close();
+				return;
+			}
+			parse();
+		}
+
+		private void parse() throws IOException {
+			input.flip();
+			try {
+				while (!requestPending && input.hasRemaining()) {
+					if (!parseBlock(input.get(input.position()))) {
+						break;
+					}
+				}
+			} finally {
+				input.compact();
+			}
+			updateInterest();
+		}
+
+		private boolean parseBlock(final byte blockid) throws IOException {
+			if (!initialized && blockid != ExecutionDataWriter.BLOCK_HEADER) {
+				throw new IOException("Invalid execution data file.");
+			}
+			switch (blockid) {
+			case ExecutionDataWriter.BLOCK_HEADER:
+				if (input.remaining() < HEADER.length) {
+					return false;
+				}
+				input.get();
+				if (input.getChar() != ExecutionDataWriter.MAGIC_NUMBER) {
+					throw new IOException("Invalid execution data file.");
+				}
+				final char version = input.getChar();
+				if (version != ExecutionDataWriter.FORMAT_VERSION) {
+					throw new IncompatibleExecDataVersionException(version);
+				}
+				initialized = true;
+				return true;
+			case RemoteControlWriter.BLOCK_CMDDUMP:
+				if (input.remaining() < 3) {
+					return false;
+				}
+				input.get();
+				dumpRequested = input.get() != 0;
+				resetRequested = input.get() != 0;
+				requestPending = true;
+				requests.add(this);
+				return true;
+			case RemoteControlWriter.BLOCK_CMDOK:
+				input.get();
+				return true;
+			default:
+				throw new IOException(format("Unknown block type %x.",
+						Byte.valueOf(blockid)));
+			}
+		}
+
+		private void updateInterest() {
+			if (!key.isValid()) {
+				return;
+			}
+			int ops = 0;
+			if (!output.isEmpty()) {
+				ops |= SelectionKey.OP_WRITE;
+			} else if (!requestPending && running) {
+				ops |= SelectionKey.OP_READ;
+			}
+			key.interestOps(ops);
+		}
+
+		void close() {
+			connections.remove(this);
+			requests.remove(this);
+			output.clear();
+			key.cancel();
+			try {
+				channel.close();
+			} catch (final IOException e) {
+				logger.logExeption(e);
+			}
+		}
+
+	}
+
+}
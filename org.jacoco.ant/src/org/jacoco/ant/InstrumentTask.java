@@ -18,7 +18,14 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Task;
@@ -27,6 +34,8 @@ import org.apache.tools.ant.types.ResourceCollection;
 import org.apache.tools.ant.types.resources.Union;
 import org.apache.tools.ant.util.FileUtils;
 import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.internal.diff.CodeDiffUtil;
+import org.jacoco.core.internal.diff.JsonReadUtil;
 import org.jacoco.core.runtime.OfflineInstrumentationAccessGenerator;
 
 /**
@@ -40,6 +49,12 @@ public class InstrumentTask extends Task {
 
 	private boolean removesignatures = true;
 
+	private int threads = 1;
+
+	private String diffcode;
+
+	private File diffcodefile;
+
 	/**
 	 * Sets the location of the instrumented classes.
 	 *
@@ -60,6 +75,41 @@ public class InstrumentTask extends Task {
 		this.removesignatures = removesignatures;
 	}
 
+	/**
+	 * Sets the number of threads used for instrumentation. Resources and the
+	 * entries of JAR files are instrumented in parallel if more than one
+	 * thread is specified.
+	 *
+	 * @param threads
+	 *            number of threads
+	 */
+	public void setThreads(final int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * Sets a diff in the JSON format of the <code>report</code> command line
+	 * option. If set only the classes contained in the diff are instrumented
+	 * and only the changed methods get probes.
+	 *
+	 * @param diffcode
+	 *            diff in JSON format
+	 */
+	public void setDiffcode(final String diffcode) {
+		this.diffcode = diffcode;
+	}
+
+	/**
+	 * Sets a file with a diff in JSON format. Takes precedence over
+	 * {@link #setDiffcode(String)}.
+	 *
+	 * @param diffcodefile
+	 *            file with the diff
+	 */
+	public void setDiffcodefile(final File diffcodefile) {
+		this.diffcodefile = diffcodefile;
+	}
+
 	/**
 	 * This task accepts any number of class file resources.
 	 *
@@ -80,18 +130,80 @@ public class InstrumentTask extends Task {
 		final Instrumenter instrumenter = new Instrumenter(
 				new OfflineInstrumentationAccessGenerator());
 		instrumenter.setRemoveSignatures(removesignatures);
+		final String diff = readDiff();
+		if (diff != null) {
+			instrumenter.setDiffScope(CodeDiffUtil.parseClassInfos(diff));
+		}
+		final List<Resource> resources = new ArrayList<Resource>();
 		final Iterator<?> resourceIterator = files.iterator();
 		while (resourceIterator.hasNext()) {
 			final Resource resource = (Resource) resourceIterator.next();
 			if (resource.isDirectory()) {
 				continue;
 			}
-			total += instrument(instrumenter, resource);
+			resources.add(resource);
+		}
+		if (threads > 1) {
+			total = instrumentParallel(instrumenter, resources);
+		} else {
+			for (final Resource resource : resources) {
+				total += instrument(instrumenter, resource);
+			}
 		}
 		log(format("Instrumented %s classes to %s", Integer.valueOf(total),
 				destdir.getAbsolutePath()));
 	}
 
+	private String readDiff() {
+		if (diffcodefile == null) {
+			return diffcode;
+		}
+		final String diff = JsonReadUtil
+				.readJsonToString(diffcodefile.getPath());
+		if (diff == null) {
+			throw new BuildException(
+					format("Unable to read diff %s", diffcodefile),
+					getLocation());
+		}
+		return diff;
+	}
+
+	private int instrumentParallel(final Instrumenter instrumenter,
+			final List<Resource> resources) {
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			instrumenter.setExecutor(executor);
+			final List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+			for (final Resource resource : resources) {
+				tasks.add(new Callable<Integer>() {
+					public Integer call() {
+						return Integer.valueOf(
+								instrument(instrumenter, resource));
+					}
+				});
+			}
+			int total = 0;
+			// Results are evaluated in the original order, so the first
+			// failure is reported like in serial execution:
+			for (final Future<Integer> result : executor.invokeAll(tasks)) {
+				try {
+					total += result.get().intValue();
+				} catch (final ExecutionException e) {
+					if (e.getCause() instanceof BuildException) {
+						throw (BuildException) e.getCause();
+					}
+					throw new BuildException(e.getCause(), getLocation());
+				}
+			}
+			return total;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BuildException(e, getLocation());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	private int instrument(final Instrumenter instrumenter,
 			final Resource resource) {
 		final File file = new File(destdir, resource.getName());
@@ -24,6 +24,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
@@ -39,13 +41,14 @@ import org.jacoco.core.analysis.IClassCoverage;
 import org.jacoco.core.analysis.ICoverageNode;
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.data.SessionInfoStore;
+import org.jacoco.core.tools.AnalysisCache;
 import org.jacoco.core.tools.ExecFileLoader;
 import org.jacoco.report.FileMultiReportOutput;
 import org.jacoco.report.IMultiReportOutput;
 import org.jacoco.report.IReportGroupVisitor;
 import org.jacoco.report.IReportVisitor;
 import org.jacoco.report.MultiReportVisitor;
-import org.jacoco.report.ZipMultiReportOutput;
+import org.jacoco.report.ParallelZipMultiReportOutput;
 import org.jacoco.report.check.IViolationsOutput;
 import org.jacoco.report.check.Limit;
 import org.jacoco.report.check.Rule;
@@ -55,10 +58,14 @@ import org.jacoco.report.html.HTMLFormatter;
 import org.jacoco.report.xml.XMLFormatter;
 
 /**
- * Task for coverage report generation.
+ * Task for coverage report generation. Loaded execution data and analyzed
+ * class files are cached for the current Ant project, so multiple report tasks
+ * in one build only load and analyze unchanged files once.
  */
 public class ReportTask extends Task {
 
+	private static final String CACHE_REFERENCE = "jacoco.analysiscache";
+
 	/**
 	 * The source files are specified in a resource collection with additional
 	 * attributes.
@@ -158,6 +165,9 @@ public class ReportTask extends Task {
 
 		void finish() {
 		}
+
+		void dispose() {
+		}
 	}
 
 	/**
@@ -175,6 +185,10 @@ public class ReportTask extends Task {
 
 		private Locale locale = Locale.getDefault();
 
+		private int threads = 1;
+
+		private ExecutorService executor;
+
 		/**
 		 * Sets the output directory for the report.
 		 *
@@ -227,8 +241,22 @@ public class ReportTask extends Task {
 			this.locale = parseLocale(locale);
 		}
 
+		/**
+		 * Sets the number of threads used to render the report pages and to
+		 * compress the files of a Zip output file. Default is 1.
+		 *
+		 * @param threads
+		 *            number of threads
+		 */
+		public void setThreads(final int threads) {
+			this.threads = threads;
+		}
+
 		@Override
 		public IReportVisitor createVisitor() throws IOException {
+			if (threads > 1) {
+				executor = Executors.newFixedThreadPool(threads);
+			}
 			final IMultiReportOutput output;
 			if (destfile != null) {
 				if (destdir != null) {
@@ -237,7 +265,7 @@ public class ReportTask extends Task {
 							getLocation());
 				}
 				final FileOutputStream stream = new FileOutputStream(destfile);
-				output = new ZipMultiReportOutput(stream);
+				output = new ParallelZipMultiReportOutput(stream, executor);
 
 			} else {
 				if (destdir == null) {
@@ -251,9 +279,18 @@ public class ReportTask extends Task {
 			formatter.setFooterText(footer);
 			formatter.setOutputEncoding(encoding);
 			formatter.setLocale(locale);
+			formatter.setExecutor(executor);
 			return formatter.createVisitor(output);
 		}
 
+		@Override
+		void dispose() {
+			if (executor != null) {
+				executor.shutdown();
+				executor = null;
+			}
+		}
+
 	}
 
 	/**
@@ -420,10 +457,28 @@ public class ReportTask extends Task {
 
 	private ExecutionDataStore executionDataStore;
 
+	private AnalysisCache cache;
+
+	private AnalysisCache.Key executionDataKey;
+
 	private final GroupElement structure = new GroupElement();
 
 	private final List<FormatterElement> formatters = new ArrayList<FormatterElement>();
 
+	private boolean minimalProbes = false;
+
+	/**
+	 * Sets whether the status of probes omitted by the agent option
+	 * <code>minimalprobes</code> is derived during analysis. Default is
+	 * <code>false</code>.
+	 *
+	 * @param flag
+	 *            <code>true</code> if omitted probes should be derived
+	 */
+	public void setMinimalProbes(final boolean flag) {
+		this.minimalProbes = flag;
+	}
+
 	/**
 	 * Returns the nested resource collection for execution data files.
 	 *
@@ -488,6 +543,7 @@ public class ReportTask extends Task {
 
 	@Override
 	public void execute() throws BuildException {
+		cache = getAnalysisCache();
 		loadExecutionData();
 		try {
 			final IReportVisitor visitor = createVisitor();
@@ -501,10 +557,44 @@ public class ReportTask extends Task {
 		} catch (final IOException e) {
 			throw new BuildException("Error while creating report", e,
 					getLocation());
+		} finally {
+			for (final FormatterElement f : formatters) {
+				f.dispose();
+			}
+		}
+	}
+
+	private AnalysisCache getAnalysisCache() {
+		final Project project = getProject();
+		synchronized (project) {
+			final Object value = project.getReference(CACHE_REFERENCE);
+			if (value instanceof AnalysisCache) {
+				return (AnalysisCache) value;
+			}
+			final AnalysisCache newCache = new AnalysisCache();
+			project.addReference(CACHE_REFERENCE, newCache);
+			return newCache;
 		}
 	}
 
 	private void loadExecutionData() {
+		executionDataKey = new AnalysisCache.Key();
+		for (final Iterator<?> i = executiondataElement.iterator(); i
+				.hasNext();) {
+			addToKey(executionDataKey, (Resource) i.next());
+		}
+		ExecFileLoader loader = cache.getExecutionData(executionDataKey);
+		if (loader != null) {
+			log("Reusing execution data loaded before in this build");
+		} else {
+			loader = load();
+			cache.putExecutionData(executionDataKey, loader);
+		}
+		sessionInfoStore = loader.getSessionInfoStore();
+		executionDataStore = loader.getExecutionDataStore();
+	}
+
+	private ExecFileLoader load() {
 		final ExecFileLoader loader = new ExecFileLoader();
 		for (final Iterator<?> i = executiondataElement.iterator(); i
 				.hasNext();) {
@@ -523,8 +613,18 @@ public class ReportTask extends Task {
 				FileUtils.close(in);
 			}
 		}
-		sessionInfoStore = loader.getSessionInfoStore();
-		executionDataStore = loader.getExecutionDataStore();
+		return loader;
+	}
+
+	private static void addToKey(final AnalysisCache.Key key,
+			final Resource resource) {
+		if (resource instanceof FileResource) {
+			key.addFile(((FileResource) resource).getFile());
+		} else {
+			key.add(resource.toString())
+					.add(Long.valueOf(resource.getSize()))
+					.add(Long.valueOf(resource.getLastModified()));
+		}
 	}
 
 	private IReportVisitor createVisitor() throws IOException {
@@ -562,8 +662,29 @@ public class ReportTask extends Task {
 
 	private IBundleCoverage createBundle(final GroupElement group)
 			throws IOException {
+		final AnalysisCache.Key key = new AnalysisCache.Key()
+				.add(executionDataKey).add(Boolean.valueOf(minimalProbes));
+		for (final Iterator<?> i = group.classfiles.iterator(); i.hasNext();) {
+			addToKey(key, (Resource) i.next());
+		}
+		CoverageBuilder builder = cache.getAnalysis(key);
+		if (builder != null) {
+			log(format("Reusing analysis of bundle '%s' from this build",
+					group.name));
+		} else {
+			builder = analyze(group);
+			cache.putAnalysis(key, builder);
+		}
+		final IBundleCoverage bundle = builder.getBundle(group.name);
+		logBundleInfo(bundle, builder.getNoMatchClasses());
+		return bundle;
+	}
+
+	private CoverageBuilder analyze(final GroupElement group)
+			throws IOException {
 		final CoverageBuilder builder = new CoverageBuilder();
 		final Analyzer analyzer = new Analyzer(executionDataStore, builder);
+		analyzer.setMinimalProbes(minimalProbes);
 		for (final Iterator<?> i = group.classfiles.iterator(); i.hasNext();) {
 			final Resource resource = (Resource) i.next();
 			if (resource.isDirectory() && resource instanceof FileResource) {
@@ -574,9 +695,7 @@ public class ReportTask extends Task {
 				in.close();
 			}
 		}
-		final IBundleCoverage bundle = builder.getBundle(group.name);
-		logBundleInfo(bundle, builder.getNoMatchClasses());
-		return bundle;
+		return builder;
 	}
 
 	private void logBundleInfo(final IBundleCoverage bundle,
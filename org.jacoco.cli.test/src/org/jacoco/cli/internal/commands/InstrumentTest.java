@@ -13,6 +13,7 @@
 package org.jacoco.cli.internal.commands;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -25,6 +26,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 import org.jacoco.cli.internal.CommandTestBase;
 import org.jacoco.core.internal.InputStreams;
@@ -76,6 +80,24 @@ public class InstrumentTest extends CommandTestBase {
 				"org/jacoco/cli/internal/commands/InstrumentTest.class"));
 	}
 
+	@Test
+	public void should_instrument_class_files_in_parallel_when_threads_are_given()
+			throws Exception {
+		File destdir = tmp.getRoot();
+
+		execute("instrument", "--dest", destdir.getAbsolutePath(),
+				"--threads", "4", getClassPath());
+
+		assertOk();
+		assertContains("[INFO] 14 classes instrumented to "
+				+ destdir.getAbsolutePath(), out);
+		assertTrue(new File(destdir,
+				"org/jacoco/cli/internal/commands/test-resource.properties")
+						.isFile());
+		assertInstrumented(new File(destdir,
+				"org/jacoco/cli/internal/commands/InstrumentTest.class"));
+	}
+
 	@Test
 	public void should_instrument_class_files_to_dest_folder_when_class_files_are_given()
 			throws Exception {
@@ -136,6 +158,102 @@ public class InstrumentTest extends CommandTestBase {
 		assertFalse(new File(destdir, "Broken.class").exists());
 	}
 
+	@Test
+	public void should_skip_unchanged_files_when_incremental()
+			throws Exception {
+		File destdir = tmp.getRoot();
+		File src = new File(getClassPath(),
+				"org/jacoco/cli/internal/commands/InstrumentTest.class");
+		execute("instrument", "--dest", destdir.getAbsolutePath(),
+				"--incremental", src.getAbsolutePath());
+		assertOk();
+		assertTrue(new File(destdir, Instrument.MANIFEST).isFile());
+
+		execute("instrument", "--dest", destdir.getAbsolutePath(),
+				"--incremental", src.getAbsolutePath());
+
+		assertOk();
+		assertContains(
+				"[INFO] 0 classes instrumented to " + destdir.getAbsolutePath(),
+				out);
+		assertContains("[INFO] 1 unchanged files skipped.", out);
+		assertInstrumented(new File(destdir, "InstrumentTest.class"));
+	}
+
+	@Test
+	public void should_instrument_files_without_output_when_incremental()
+			throws Exception {
+		File destdir = tmp.getRoot();
+		File src = new File(getClassPath(),
+				"org/jacoco/cli/internal/commands/InstrumentTest.class");
+		execute("instrument", "--dest", destdir.getAbsolutePath(),
+				"--incremental", src.getAbsolutePath());
+		assertOk();
+		new File(destdir, "InstrumentTest.class").delete();
+
+		execute("instrument", "--dest", destdir.getAbsolutePath(),
+				"--incremental", src.getAbsolutePath());
+
+		assertOk();
+		assertContains(
+				"[INFO] 1 classes instrumented to " + destdir.getAbsolutePath(),
+				out);
+		assertInstrumented(new File(destdir, "InstrumentTest.class"));
+	}
+
+	@Test
+	public void should_reuse_unchanged_archive_entries_when_incremental()
+			throws Exception {
+		File srcdir = new File(tmp.getRoot(), "src");
+		srcdir.mkdir();
+		File destdir = new File(tmp.getRoot(), "dest");
+		File jar = new File(srcdir, "test.jar");
+		byte[] clazz = readClass();
+		createJar(jar, "A.class", clazz);
+		execute("instrument", "--dest", destdir.getAbsolutePath(),
+				"--incremental", jar.getAbsolutePath());
+		assertOk();
+		// Marker to detect reused entries:
+		createJar(new File(destdir, "test.jar"), "A.class",
+				new byte[] { 1, 2, 3 });
+		createJar(jar, "A.class", clazz, "B.class", clazz);
+
+		execute("instrument", "--dest", destdir.getAbsolutePath(),
+				"--incremental", jar.getAbsolutePath());
+
+		assertOk();
+		assertContains(
+				"[INFO] 2 classes instrumented to " + destdir.getAbsolutePath(),
+				out);
+		ZipFile result = new ZipFile(new File(destdir, "test.jar"));
+		assertArrayEquals(new byte[] { 1, 2, 3 }, InputStreams
+				.readFully(result.getInputStream(result.getEntry("A.class"))));
+		assertEquals(2, result.size());
+		result.close();
+		assertFalse(new File(destdir, "test.jar.previous").exists());
+	}
+
+	private byte[] readClass() throws IOException {
+		InputStream in = new FileInputStream(new File(getClassPath(),
+				"org/jacoco/cli/internal/commands/InstrumentTest.class"));
+		try {
+			return InputStreams.readFully(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	private static void createJar(File file, Object... entries)
+			throws IOException {
+		file.getParentFile().mkdirs();
+		ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+		for (int i = 0; i < entries.length; i += 2) {
+			out.putNextEntry(new ZipEntry((String) entries[i]));
+			out.write((byte[]) entries[i + 1]);
+		}
+		out.close();
+	}
+
 	private void assertInstrumented(File classfile) throws IOException {
 		InputStream in = new FileInputStream(classfile);
 		final ClassReader reader = InstrSupport
@@ -12,9 +12,12 @@
  *******************************************************************************/
 package org.jacoco.cli.internal.commands;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.*;
+import java.util.zip.ZipFile;
 
 import org.jacoco.cli.internal.CommandTestBase;
 import org.jacoco.cli.internal.Main;
@@ -60,6 +63,14 @@ public class ReportTest extends CommandTestBase {
 		assertContains("[INFO] Analyzing 14 classes.", out);
 	}
 
+	@Test
+	public void should_analyze_with_minimal_probes() throws Exception {
+		execute("report", "--classfiles", getClassPath(), "--minimalProbes");
+
+		assertOk();
+		assertContains("[INFO] Analyzing 14 classes.", out);
+	}
+
 	@Test
 	public void should_print_warning_when_exec_data_does_not_match()
 			throws Exception {
@@ -119,6 +130,75 @@ public class ReportTest extends CommandTestBase {
 		assertOk();
 	}
 
+	@Test
+	public void should_create_html_report_with_multiple_threads()
+			throws Exception {
+		File html = new File(tmp.getRoot(), "coverage");
+
+		execute("report", "--classfiles", getClassPath(), "--threads", "2",
+				"--html", html.getAbsolutePath());
+
+		assertOk();
+		assertTrue(new File(html, "index.html").isFile());
+		assertTrue(new File(html, "org.jacoco.cli.internal.commands/index.html")
+				.isFile());
+	}
+
+	@Test
+	public void should_create_incremental_html_report() throws Exception {
+		File html = new File(tmp.getRoot(), "coverage");
+
+		execute("report", "--classfiles", getClassPath(), "--incremental",
+				"--html", html.getAbsolutePath());
+
+		assertOk();
+		assertTrue(new File(html, "index.html").isFile());
+		assertTrue(new File(html, ".jacoco-manifest").isFile());
+	}
+
+	@Test
+	public void should_create_html_zip_report_when_html_zip_option_is_provided()
+			throws Exception {
+		File zip = new File(tmp.getRoot(), "coverage.zip");
+
+		execute("report", "--classfiles", getClassPath(), "--threads", "4",
+				"--htmlZip", zip.getAbsolutePath());
+
+		assertOk();
+		final ZipFile zipFile = new ZipFile(zip);
+		try {
+			assertNotNull(zipFile.getEntry("index.html"));
+			assertNotNull(zipFile.getEntry(
+					"org.jacoco.cli.internal.commands/ReportTest.html"));
+		} finally {
+			zipFile.close();
+		}
+	}
+
+	@Test
+	public void should_create_diff_only_html_report() throws Exception {
+		File html = new File(tmp.getRoot(), "coverage");
+
+		execute("report", "--classfiles", getClassPath(), "--diffOnly",
+				"--html", html.getAbsolutePath());
+
+		assertOk();
+		assertTrue(new File(html, "index.html").isFile());
+		assertTrue(new File(html, "diff.html").isFile());
+	}
+
+	@Test
+	public void should_create_html_report_with_indexed_sources()
+			throws Exception {
+		File html = new File(tmp.getRoot(), "coverage");
+
+		execute("report", "--classfiles", getClassPath(), "--sourcefiles",
+				"./src", "--indexSources", "--html", html.getAbsolutePath());
+
+		assertOk();
+		assertTrue(new File(html, "index.html").isFile());
+	}
+
 	@Test
 	public void should_create_xml_report_when_xml_option_is_provided()
 			throws Exception {
@@ -131,6 +211,21 @@ public class ReportTest extends CommandTestBase {
 		assertTrue(xml.isFile());
 	}
 
+	@Test
+	public void should_create_gzip_xml_report_when_xmlGzip_option_is_provided()
+			throws Exception {
+		File xml = new File(tmp.getRoot(), "coverage.xml.gz");
+
+		execute("report", "--classfiles", getClassPath(), "--xml",
+				xml.getAbsolutePath(), "--xmlGzip", "--xmlNoLines");
+
+		assertOk();
+		final InputStream in = new FileInputStream(xml);
+		assertEquals(0x1f, in.read());
+		assertEquals(0x8b, in.read());
+		in.close();
+	}
+
 	@Test
 	public void should_create_csv_report_when_csv_option_is_provided()
 			throws Exception {
@@ -143,6 +238,18 @@ public class ReportTest extends CommandTestBase {
 		assertTrue(csv.isFile());
 	}
 
+	@Test
+	public void should_create_json_report_when_json_option_is_provided()
+			throws Exception {
+		File json = new File(tmp.getRoot(), "coverage.json");
+
+		execute("report", "--classfiles", getClassPath(), "--json",
+				json.getAbsolutePath(), "--jsonDiff");
+
+		assertOk();
+		assertTrue(json.isFile());
+	}
+
 	@Test
 	public void should_create_html_report_when_html_option_is_provided()
 			throws Exception {
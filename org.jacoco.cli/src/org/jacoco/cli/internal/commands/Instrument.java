@@ -18,14 +18,30 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import org.jacoco.cli.internal.Command;
+import org.jacoco.core.instr.IInstrumentationCache;
 import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.internal.InputStreams;
+import org.jacoco.core.internal.diff.CodeDiffUtil;
+import org.jacoco.core.internal.diff.JsonReadUtil;
 import org.jacoco.core.runtime.OfflineInstrumentationAccessGenerator;
+import org.jacoco.core.tools.InstrumentationManifest;
 import org.kohsuke.args4j.Argument;
 import org.kohsuke.args4j.Option;
 
@@ -34,14 +50,42 @@ import org.kohsuke.args4j.Option;
  */
 public class Instrument extends Command {
 
+	/**
+	 * Name of the manifest file written to the destination directory in
+	 * incremental mode.
+	 */
+	static final String MANIFEST = ".jacoco-manifest";
+
 	@Option(name = "--dest", usage = "path to write instrumented Java classes to", metaVar = "<dir>", required = true)
 	File dest;
 
+	@Option(name = "--threads", usage = "number of threads used for instrumentation (default 1)", metaVar = "<n>")
+	int threads = 1;
+
+	@Option(name = "--diffCode", usage = "only instrument changed classes and methods of the given diff", metaVar = "<json>")
+	String diffCode;
+
+	@Option(name = "--diffCodeFiles", usage = "file with the diff to restrict instrumentation to", metaVar = "<path>")
+	String diffCodeFiles;
+
+	@Option(name = "--incremental", usage = "only instrument files and archive entries which changed since the last run")
+	boolean incremental;
+
 	@Argument(usage = "list of folder or files to instrument recusively", metaVar = "<sourcefiles>")
 	List<File> source = new ArrayList<File>();
 
 	private Instrumenter instrumenter;
 
+	private File absoluteDest;
+
+	private InstrumentationManifest previous;
+
+	private InstrumentationManifest current;
+
+	private final Map<String, PreviousOutput> previousOutputs = new ConcurrentHashMap<String, PreviousOutput>();
+
+	private final AtomicInteger skipped = new AtomicInteger();
+
 	@Override
 	public String description() {
 		return "Off-line instrumentation of Java class files and JAR files.";
@@ -50,37 +94,164 @@ public class Instrument extends Command {
 	@Override
 	public int execute(final PrintWriter out, final PrintWriter err)
 			throws IOException {
-		final File absoluteDest = dest.getAbsoluteFile();
+		absoluteDest = dest.getAbsoluteFile();
 		instrumenter = new Instrumenter(
 				new OfflineInstrumentationAccessGenerator());
-		int total = 0;
+		final String diff = readDiff();
+		if (diff != null) {
+			instrumenter.setDiffScope(CodeDiffUtil.parseClassInfos(diff));
+		}
+		final File manifestFile = new File(absoluteDest, MANIFEST);
+		if (incremental) {
+			final String settings = diff == null ? "" : diff;
+			previous = new InstrumentationManifest(settings);
+			previous.load(manifestFile);
+			// Only a completed run leaves a valid manifest:
+			manifestFile.delete();
+			current = new InstrumentationManifest(settings);
+			instrumenter.setCache(new PreviousOutputCache());
+		}
+		final List<File[]> files = new ArrayList<File[]>();
 		for (final File s : source) {
 			if (s.isFile()) {
-				total += instrument(s, new File(absoluteDest, s.getName()));
+				files.add(new File[] { s, new File(absoluteDest, s.getName()) });
 			} else {
-				total += instrumentRecursive(s, absoluteDest);
+				collectRecursive(files, s, absoluteDest);
+			}
+		}
+		int total = 0;
+		if (threads > 1) {
+			total = instrumentParallel(files);
+		} else {
+			for (final File[] f : files) {
+				total += instrument(f[0], f[1]);
 			}
 		}
 		out.printf("[INFO] %s classes instrumented to %s.%n",
 				Integer.valueOf(total), absoluteDest);
+		if (incremental) {
+			absoluteDest.mkdirs();
+			current.save(manifestFile);
+			out.printf("[INFO] %s unchanged files skipped.%n",
+					Integer.valueOf(skipped.get()));
+		}
 		return 0;
 	}
 
-	private int instrumentRecursive(final File src, final File dest)
-			throws IOException {
-		int total = 0;
+	private String readDiff() throws IOException {
+		if (diffCodeFiles == null) {
+			return diffCode;
+		}
+		final String diff = JsonReadUtil.readJsonToString(diffCodeFiles);
+		if (diff == null) {
+			throw new IOException(
+					String.format("Unable to read diff %s.", diffCodeFiles));
+		}
+		return diff;
+	}
+
+	private void collectRecursive(final List<File[]> files, final File src,
+			final File dest) {
 		if (src.isDirectory()) {
 			for (final File child : src.listFiles()) {
-				total += instrumentRecursive(child,
-						new File(dest, child.getName()));
+				collectRecursive(files, child, new File(dest, child.getName()));
 			}
 		} else {
-			total += instrument(src, dest);
+			files.add(new File[] { src, dest });
+		}
+	}
+
+	private int instrumentParallel(final List<File[]> files)
+			throws IOException {
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			instrumenter.setExecutor(executor);
+			final List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+			for (final File[] f : files) {
+				tasks.add(new Callable<Integer>() {
+					public Integer call() throws IOException {
+						return Integer.valueOf(instrument(f[0], f[1]));
+					}
+				});
+			}
+			int total = 0;
+			// Results are evaluated in the original order, so the first
+			// failure is reported like in serial execution:
+			for (final Future<Integer> result : executor.invokeAll(tasks)) {
+				total += get(result);
+			}
+			return total;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static int get(final Future<Integer> result)
+			throws IOException, InterruptedException {
+		try {
+			return result.get().intValue();
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
 		}
-		return total;
 	}
 
 	private int instrument(final File src, final File dest) throws IOException {
+		if (!incremental) {
+			return instrumentFile(src, dest);
+		}
+		final String location = getLocation(dest);
+		final long checksum = InstrumentationManifest.checksum(src);
+		if (previous.isUnchanged(location, checksum) && dest.isFile()) {
+			current.put(location, checksum);
+			skipped.incrementAndGet();
+			return 0;
+		}
+		// The previous output is kept to reuse unchanged archive entries:
+		final File old = new File(dest.getPath() + ".previous");
+		old.delete();
+		if (!dest.renameTo(old)) {
+			old.delete();
+		}
+		final PreviousOutput output = new PreviousOutput(location,
+				openArchive(old));
+		previousOutputs.put(src.getAbsolutePath(), output);
+		try {
+			final int count = instrumentFile(src, dest);
+			current.put(location, checksum);
+			return count;
+		} finally {
+			previousOutputs.remove(src.getAbsolutePath());
+			output.close();
+			old.delete();
+		}
+	}
+
+	private String getLocation(final File file) {
+		final String path = file.getPath();
+		return path.substring(absoluteDest.getPath().length() + 1)
+				.replace(File.separatorChar, '/');
+	}
+
+	private static ZipFile openArchive(final File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			return new ZipFile(file);
+		} catch (final IOException e) {
+			// Not an archive, nothing to reuse
+			return null;
+		}
+	}
+
+	private int instrumentFile(final File src, final File dest)
+			throws IOException {
 		dest.getParentFile().mkdirs();
 		final InputStream input = new FileInputStream(src);
 		try {
@@ -99,4 +270,94 @@ public class Instrument extends Command {
 		}
 	}
 
+	/**
+	 * Output of the previous run for a file which is currently instrumented.
+	 */
+	private static class PreviousOutput {
+
+		final String location;
+
+		final ZipFile archive;
+
+		PreviousOutput(final String location, final ZipFile archive) {
+			this.location = location;
+			this.archive = archive;
+		}
+
+		byte[] getEntry(final String name) throws IOException {
+			final ZipEntry entry = archive.getEntry(name);
+			if (entry == null) {
+				return null;
+			}
+			final InputStream in = archive.getInputStream(entry);
+			try {
+				return InputStreams.readFully(in);
+			} finally {
+				in.close();
+			}
+		}
+
+		void close() throws IOException {
+			if (archive != null) {
+				archive.close();
+			}
+		}
+
+	}
+
+	/**
+	 * Takes unchanged entries of archives from the output of the previous run.
+	 */
+	private class PreviousOutputCache implements IInstrumentationCache {
+
+		public byte[] get(final long classId, final String name)
+				throws IOException {
+			final int sep = findOutput(name);
+			if (sep == -1) {
+				return null;
+			}
+			final PreviousOutput output = previousOutputs
+					.get(name.substring(0, sep));
+			if (output.archive == null) {
+				return null;
+			}
+			final String entry = name.substring(sep + 1);
+			final String location = output.location + "@" + entry;
+			if (!previous.isUnchanged(location, classId)) {
+				return null;
+			}
+			final byte[] instrumented = output.getEntry(entry);
+			if (instrumented != null) {
+				current.put(location, classId);
+			}
+			return instrumented;
+		}
+
+		public void put(final long classId, final String name,
+				final byte[] instrumented) {
+			final int sep = findOutput(name);
+			if (sep != -1) {
+				final PreviousOutput output = previousOutputs
+						.get(name.substring(0, sep));
+				current.put(output.location + "@" + name.substring(sep + 1),
+						classId);
+			}
+		}
+
+		/**
+		 * Archive entries are named <code>archive@entry</code>. As paths may
+		 * contain <code>@</code> as well every separator is tried.
+		 */
+		private int findOutput(final String name) {
+			for (int i = name.indexOf('@'); i != -1; i = name.indexOf('@',
+					i + 1)) {
+				if (previousOutputs.containsKey(name.substring(0, i))) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+	}
+
 }
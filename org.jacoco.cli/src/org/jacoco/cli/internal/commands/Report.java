@@ -24,6 +24,7 @@ import org.jacoco.core.tools.ExecFileLoader;
 import org.jacoco.report.*;
 import org.jacoco.report.csv.CSVFormatter;
 import org.jacoco.report.html.HTMLFormatter;
+import org.jacoco.report.json.JSONFormatter;
 import org.jacoco.report.xml.XMLFormatter;
 import org.kohsuke.args4j.Argument;
 import org.kohsuke.args4j.Option;
@@ -32,6 +33,9 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * The <code>report</code> command.
@@ -47,6 +51,9 @@ public class Report extends Command {
 	@Option(name = "--sourcefiles", usage = "location of the source files", metaVar = "<path>")
 	List<File> sourcefiles = new ArrayList<File>();
 
+	@Option(name = "--indexSources", usage = "scan all source locations once and look up source files in an index")
+	boolean indexSources = false;
+
 	// 多版本覆盖率合并用，需要合并版本的exec文件
 	@Option(name = "--mergeExecfilepath", usage = "need to merge execfile", metaVar = "<path>")
 	List<File> mergeExecfiles = new ArrayList<File>();;
@@ -61,6 +68,9 @@ public class Report extends Command {
 	@Option(name = "--diffCodeFiles", usage = "input file for diff", metaVar = "<path>")
 	String diffCodeFiles;
 
+	@Option(name = "--minimalProbes", usage = "derive probes omitted by the agent option minimalprobes")
+	boolean minimalProbes = false;
+
 	@Option(name = "--tabwith", usage = "tab stop width for the source pages (default 4)", metaVar = "<n>")
 	int tabwidth = 4;
 
@@ -79,12 +89,39 @@ public class Report extends Command {
 	@Option(name = "--xml", usage = "output file for the XML report", metaVar = "<file>")
 	File xml;
 
+	@Option(name = "--xmlGzip", usage = "compress the XML report with gzip")
+	boolean xmlGzip = false;
+
+	@Option(name = "--xmlNoLines", usage = "omit the coverage of single lines from the XML report")
+	boolean xmlNoLines = false;
+
 	@Option(name = "--csv", usage = "output file for the CSV report", metaVar = "<file>")
 	File csv;
 
+	@Option(name = "--json", usage = "output file for the JSON report", metaVar = "<file>")
+	File json;
+
+	@Option(name = "--jsonDiff", usage = "include the diff information of changed classes and methods in the JSON report")
+	boolean jsonDiff = false;
+
 	@Option(name = "--html", usage = "output directory for the HTML report", metaVar = "<dir>")
 	File html;
 
+	@Option(name = "--htmlZip", usage = "output file for the HTML report as ZIP archive", metaVar = "<file>")
+	File htmlZip;
+
+	@Option(name = "--threads", usage = "number of threads used to render and compress the HTML report (default 1)", metaVar = "<n>")
+	int threads = 1;
+
+	@Option(name = "--incremental", usage = "only write HTML pages whose content changed since the last report")
+	boolean incremental = false;
+
+	@Option(name = "--diffOnly", usage = "only report packages, classes and source files with changed code")
+	boolean diffOnly = false;
+
+	@Option(name = "--virtualTables", usage = "minimum number of rows for HTML tables rendered from JSON row data (default 0, never)", metaVar = "<n>")
+	int virtualTables = 0;
+
 	@Override
 	public String description() {
 		return "Generate reports in different formats by reading exec and Java class files.";
@@ -153,6 +190,7 @@ public class Report extends Command {
 		}
 		builder.setOnlyAnaly(isOnlyAnaly);
 		final Analyzer analyzer = new Analyzer(data, builder);
+		analyzer.setMinimalProbes(minimalProbes);
 		// class类用于类方法的比较，源码只用于最后的着色
 		for (final File f : classfiles) {
 			analyzer.analyzeAll(f);
@@ -181,18 +219,31 @@ public class Report extends Command {
 			throws IOException {
 		out.printf("[INFO] Analyzing %s classes.%n",
 				Integer.valueOf(bundle.getClassCounter().getTotalCount()));
-		final IReportVisitor visitor = createReportVisitor();
-		visitor.visitInfo(loader.getSessionInfoStore().getInfos(),
-				loader.getExecutionDataStore().getContents());
-		visitor.visitBundle(bundle, getSourceLocator());
-		visitor.visitEnd();
+		final ExecutorService executor = (html != null || htmlZip != null)
+				&& threads > 1
+				? Executors.newFixedThreadPool(threads)
+				: null;
+		try {
+			final IReportVisitor visitor = createReportVisitor(executor);
+			visitor.visitInfo(loader.getSessionInfoStore().getInfos(),
+					loader.getExecutionDataStore().getContents());
+			visitor.visitBundle(bundle, getSourceLocator(executor));
+			visitor.visitEnd();
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
+			}
+		}
 	}
 
-	private IReportVisitor createReportVisitor() throws IOException {
+	private IReportVisitor createReportVisitor(final Executor executor)
+			throws IOException {
 		final List<IReportVisitor> visitors = new ArrayList<IReportVisitor>();
 
 		if (xml != null) {
 			final XMLFormatter formatter = new XMLFormatter();
+			formatter.setGzip(xmlGzip);
+			formatter.setIncludeLines(!xmlNoLines);
 			visitors.add(formatter.createVisitor(new FileOutputStream(xml)));
 		}
 
@@ -201,21 +252,46 @@ public class Report extends Command {
 			visitors.add(formatter.createVisitor(new FileOutputStream(csv)));
 		}
 
+		if (json != null) {
+			final JSONFormatter formatter = new JSONFormatter();
+			formatter.setIncludeDiff(jsonDiff);
+			visitors.add(formatter.createVisitor(new FileOutputStream(json)));
+		}
+
 		if (html != null) {
-			final HTMLFormatter formatter = new HTMLFormatter();
+			final HTMLFormatter formatter = createHTMLFormatter(executor);
+			formatter.setIncremental(incremental);
 			visitors.add(
 					formatter.createVisitor(new FileMultiReportOutput(html)));
 		}
 
+		if (htmlZip != null) {
+			final HTMLFormatter formatter = createHTMLFormatter(executor);
+			visitors.add(formatter.createVisitor(new ParallelZipMultiReportOutput(
+					new FileOutputStream(htmlZip), executor)));
+		}
+
 		return new MultiReportVisitor(visitors);
 	}
 
-	private ISourceFileLocator getSourceLocator() {
+	private HTMLFormatter createHTMLFormatter(final Executor executor) {
+		final HTMLFormatter formatter = new HTMLFormatter();
+		formatter.setExecutor(executor);
+		formatter.setVirtualTableThreshold(virtualTables);
+		formatter.setDiffOnly(diffOnly);
+		return formatter;
+	}
+
+	private ISourceFileLocator getSourceLocator(final Executor executor)
+			throws IOException {
 		final MultiSourceFileLocator multi = new MultiSourceFileLocator(
 				tabwidth);
 		for (final File f : sourcefiles) {
 			multi.add(new DirectorySourceFileLocator(f, encoding, tabwidth));
 		}
+		if (indexSources) {
+			multi.buildIndex(executor);
+		}
 		return multi;
 	}
 
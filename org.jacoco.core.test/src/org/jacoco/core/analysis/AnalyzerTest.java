@@ -16,6 +16,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -38,6 +39,7 @@ import java.util.zip.ZipOutputStream;
 
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.internal.Pack200Streams;
+import org.jacoco.core.internal.analysis.StringPool;
 import org.jacoco.core.internal.data.CRC64;
 import org.jacoco.core.test.TargetLoader;
 import org.junit.AssumptionViolatedException;
@@ -159,12 +161,53 @@ public class AnalyzerTest {
 				.isNoMatch());
 	}
 
+	@Test
+	public void analyzeClass_should_work_with_bounded_string_pool()
+			throws IOException {
+		analyzer = new Analyzer(executionData, new EmptyStructureVisitor(),
+				1);
+		analyzer.analyzeClass(
+				TargetLoader.getClassDataAsBytes(AnalyzerTest.class), "Test");
+		assertClasses("org/jacoco/core/analysis/AnalyzerTest");
+	}
+
+	@Test
+	public void analyzeClass_should_share_string_pool_between_analyzers()
+			throws IOException {
+		final StringPool pool = new StringPool();
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(AnalyzerTest.class);
+		final CoverageBuilder first = new CoverageBuilder();
+		new Analyzer(executionData, first, pool).analyzeClass(bytes, "Test");
+		final CoverageBuilder second = new CoverageBuilder();
+		new Analyzer(executionData, second, pool).analyzeClass(bytes, "Test");
+
+		assertSame(
+				first.getClasses().iterator().next().getMethods().iterator()
+						.next().getName(),
+				second.getClasses().iterator().next().getMethods().iterator()
+						.next().getName());
+	}
+
+	@Test
+	public void analyzeClass_should_report_missed_coverage_without_execution_data()
+			throws IOException {
+		analyzer.analyzeClass(
+				TargetLoader.getClassDataAsBytes(AnalyzerTest.class), "Test");
+
+		final IClassCoverage coverage = classes
+				.get("org/jacoco/core/analysis/AnalyzerTest");
+		assertEquals(0, coverage.getInstructionCounter().getCoveredCount());
+		assertTrue(coverage.getInstructionCounter().getMissedCount() > 0);
+		assertTrue(executionData.getContents().isEmpty());
+	}
+
 	@Test
 	public void testAnalyzeClassIdMatch() throws IOException {
 		final byte[] bytes = TargetLoader
 				.getClassDataAsBytes(AnalyzerTest.class);
 		executionData.get(Long.valueOf(CRC64.classId(bytes)),
-				"org/jacoco/core/analysis/AnalyzerTest", 200);
+				"org/jacoco/core/analysis/AnalyzerTest", 300);
 		analyzer.analyzeClass(bytes, "Test");
 		assertFalse(classes.get("org/jacoco/core/analysis/AnalyzerTest")
 				.isNoMatch());
@@ -173,7 +216,7 @@ public class AnalyzerTest {
 	@Test
 	public void testAnalyzeClassNoIdMatch() throws IOException {
 		executionData.get(Long.valueOf(0),
-				"org/jacoco/core/analysis/AnalyzerTest", 200);
+				"org/jacoco/core/analysis/AnalyzerTest", 300);
 		analyzer.analyzeClass(
 				TargetLoader.getClassDataAsBytes(AnalyzerTest.class), "Test");
 		assertTrue(classes.get("org/jacoco/core/analysis/AnalyzerTest")
@@ -14,11 +14,23 @@ package org.jacoco.core.instr;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.CRC32;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -26,12 +38,23 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
+import org.jacoco.core.analysis.Analyzer;
 import org.jacoco.core.analysis.AnalyzerTest;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.ILine;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.SessionInfoStore;
 import org.jacoco.core.internal.InputStreams;
 import org.jacoco.core.internal.Pack200Streams;
 import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.core.internal.diff.CodeDiffUtil;
 import org.jacoco.core.internal.instr.InstrSupport;
 import org.jacoco.core.runtime.IExecutionDataAccessorGenerator;
+import org.jacoco.core.runtime.IRuntime;
+import org.jacoco.core.runtime.LoggerRuntime;
+import org.jacoco.core.runtime.RuntimeData;
 import org.jacoco.core.test.TargetLoader;
 import org.junit.AssumptionViolatedException;
 import org.junit.Before;
@@ -65,6 +88,14 @@ public class InstrumenterTest {
 
 	}
 
+	public static class JoinTarget {
+
+		public static int select(final boolean flag) {
+			return flag ? 1 : 2;
+		}
+
+	}
+
 	private static final class AccessorGenerator
 			implements IExecutionDataAccessorGenerator {
 
@@ -138,6 +169,313 @@ public class InstrumenterTest {
 		assertEquals("org.jacoco.core.instr.InstrumenterTest", clazz.getName());
 	}
 
+	@Test
+	public void conditional_probes_should_record_same_coverage()
+			throws Exception {
+		assertEquals(Arrays.toString(executeSerializationTarget(false)),
+				Arrays.toString(executeSerializationTarget(true)));
+	}
+
+	@Test
+	public void probe_arena_should_record_same_coverage() throws Exception {
+		final RuntimeData data = new RuntimeData();
+		final IRuntime runtime = new LoggerRuntime();
+		runtime.startup(data);
+		final Instrumenter instr = new Instrumenter(runtime);
+		instr.setProbeArena(data.getProbeArena());
+		data.getProbeArena().allocate(1, "Other", 7);
+		final byte[] original = TargetLoader
+				.getClassDataAsBytes(SerializationTarget.class);
+		final Class<?> clazz = new TargetLoader().add(SerializationTarget.class,
+				instr.instrument(original, "Test"));
+		final Object target = clazz.getConstructor(String.class, int.class)
+				.newInstance("Hello", Integer.valueOf(42));
+		assertEquals("Hello42", target.toString());
+		runtime.shutdown();
+
+		final ExecutionDataStore store = new ExecutionDataStore();
+		data.collect(store, new SessionInfoStore(), false);
+		assertEquals(Arrays.toString(executeSerializationTarget(false)),
+				Arrays.toString(store.get(CRC64.classId(original)).getProbes()));
+		assertEquals("[false, false, false, false, false, false, false]",
+				Arrays.toString(store.get(1).getProbes()));
+	}
+
+	@Test
+	public void instrument_should_use_and_fill_cache() throws Exception {
+		final Map<String, byte[]> entries = new HashMap<String, byte[]>();
+		instrumenter.setCache(new IInstrumentationCache() {
+			public byte[] get(final long classId, final String name) {
+				return entries.get(String.format("%016x %s",
+						Long.valueOf(classId), name));
+			}
+
+			public void put(final long classId, final String name,
+					final byte[] instrumented) {
+				entries.put(String.format("%016x %s", Long.valueOf(classId),
+						name), instrumented);
+			}
+		});
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(InstrumenterTest.class);
+		final String key = String.format("%016x Test",
+				Long.valueOf(CRC64.classId(bytes)));
+
+		final byte[] instrumented = instrumenter.instrument(bytes, "Test");
+
+		assertSame(instrumented, entries.get(key));
+		final byte[] cached = new byte[] { 1, 2, 3 };
+		entries.put(key, cached);
+		assertSame(cached, instrumenter.instrument(bytes, "Test"));
+	}
+
+	@Test
+	public void minimal_probes_should_report_same_coverage()
+			throws Exception {
+		final byte[] original = TargetLoader
+				.getClassDataAsBytes(JoinTarget.class);
+		final boolean[] probes = executeJoinTarget(false);
+		final boolean[] minimalProbes = executeJoinTarget(true);
+
+		assertFalse(Arrays.equals(probes, minimalProbes));
+		assertEquals(getCoverage(original, probes),
+				getCoverage(original, minimalProbes));
+	}
+
+	private boolean[] executeJoinTarget(final boolean minimalProbes)
+			throws Exception {
+		final RuntimeData data = new RuntimeData();
+		final IRuntime runtime = new LoggerRuntime();
+		runtime.startup(data);
+		final Instrumenter instr = new Instrumenter(runtime);
+		instr.setMinimalProbes(minimalProbes);
+		final byte[] original = TargetLoader
+				.getClassDataAsBytes(JoinTarget.class);
+		final Class<?> clazz = new TargetLoader().add(JoinTarget.class,
+				instr.instrument(original, "Test"));
+		assertEquals(Integer.valueOf(1), clazz
+				.getMethod("select", boolean.class).invoke(null, Boolean.TRUE));
+		runtime.shutdown();
+
+		final ExecutionDataStore store = new ExecutionDataStore();
+		data.collect(store, new SessionInfoStore(), false);
+		return store.get(CRC64.classId(original)).getProbes();
+	}
+
+	private static String getCoverage(final byte[] original,
+			final boolean[] probes) throws IOException {
+		final ExecutionDataStore store = new ExecutionDataStore();
+		store.put(new ExecutionData(CRC64.classId(original),
+				"org/jacoco/core/instr/InstrumenterTest$JoinTarget", probes));
+		final CoverageBuilder builder = new CoverageBuilder();
+		final Analyzer analyzer = new Analyzer(store, builder);
+		analyzer.setMinimalProbes(true);
+		analyzer.analyzeClass(original, "Test");
+		final StringBuilder result = new StringBuilder();
+		for (final IMethodCoverage m : builder.getClasses().iterator().next()
+				.getMethods()) {
+			for (int line = m.getFirstLine(); line <= m.getLastLine(); line++) {
+				final ILine l = m.getLine(line);
+				result.append(line).append(':')
+						.append(l.getInstructionCounter().getCoveredCount())
+						.append('/')
+						.append(l.getBranchCounter().getCoveredCount())
+						.append(' ');
+			}
+		}
+		return result.toString();
+	}
+
+	@Test
+	public void diffScope_should_not_modify_classes_outside_of_diff()
+			throws Exception {
+		instrumenter.setDiffScope(CodeDiffUtil.parseClassInfos(
+				"[{\"classFile\":\"org/example/Other\",\"type\":\"ADD\"}]"));
+		final byte[] original = TargetLoader
+				.getClassDataAsBytes(SerializationTarget.class);
+
+		assertArrayEquals(original, instrumenter.instrument(original, "Test"));
+	}
+
+	@Test
+	public void diffScope_should_only_add_probes_to_changed_methods()
+			throws Exception {
+		final RuntimeData data = new RuntimeData();
+		final IRuntime runtime = new LoggerRuntime();
+		runtime.startup(data);
+		final Instrumenter instr = new Instrumenter(runtime);
+		instr.setDiffScope(CodeDiffUtil.parseClassInfos("[{"
+				+ "\"classFile\":\"org/jacoco/core/instr/InstrumenterTest\","
+				+ "\"type\":\"MODIFY\","
+				+ "\"methodInfos\":[{\"methodName\":\"toString\",\"parameters\":[]}]"
+				+ "}]"));
+		final byte[] original = TargetLoader
+				.getClassDataAsBytes(SerializationTarget.class);
+		final Class<?> clazz = new TargetLoader().add(SerializationTarget.class,
+				instr.instrument(original, "Test"));
+		final Object target = clazz.getConstructor(String.class, int.class)
+				.newInstance("Hello", Integer.valueOf(42));
+		assertEquals("Hello42", target.toString());
+		runtime.shutdown();
+
+		final ExecutionDataStore store = new ExecutionDataStore();
+		data.collect(store, new SessionInfoStore(), false);
+		// The constructor keeps its probe id but has no probe:
+		assertEquals("[false, true]", Arrays
+				.toString(store.get(CRC64.classId(original)).getProbes()));
+	}
+
+	@Test
+	public void diffScope_should_not_count_classes_outside_of_diff()
+			throws Exception {
+		instrumenter.setDiffScope(CodeDiffUtil.parseClassInfos(
+				"[{\"classFile\":\"org/example/Other\",\"type\":\"ADD\"}]"));
+		final byte[] original = TargetLoader
+				.getClassDataAsBytes(SerializationTarget.class);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		final int count = instrumenter.instrumentAll(
+				new ByteArrayInputStream(original), out, "Test");
+
+		assertEquals(0, count);
+		assertArrayEquals(original, out.toByteArray());
+	}
+
+	@Test
+	public void diffScope_should_keep_single_clinit_of_java8_interfaces()
+			throws Exception {
+		instrumenter.setDiffScope(CodeDiffUtil.parseClassInfos("[{"
+				+ "\"classFile\":\"org/jacoco/core/instr/InterfaceWithClinit\","
+				+ "\"type\":\"MODIFY\","
+				+ "\"methodInfos\":[{\"methodName\":\"get\",\"parameters\":[]}]"
+				+ "}]"));
+		final byte[] original = createInterfaceWithClinit();
+		final byte[] instrumented = instrumenter.instrument(original, "Test");
+		final Class<?> clazz = new TargetLoader().add(INTERFACE_NAME,
+				instrumented);
+
+		assertEquals("value", clazz.getMethod("get").invoke(null));
+		clazz.getDeclaredField(InstrSupport.DATAFIELD_NAME);
+	}
+
+	@Test
+	public void instrumentWithoutProbes_should_declare_same_members()
+			throws Exception {
+		final byte[] original = TargetLoader
+				.getClassDataAsBytes(SerializationTarget.class);
+		final Class<?> instrumented = new TargetLoader().add(
+				SerializationTarget.class,
+				instrumenter.instrument(original, "Test"));
+		final Class<?> stripped = new TargetLoader().add(
+				SerializationTarget.class,
+				instrumenter.instrumentWithoutProbes(original, "Test"));
+
+		assertEquals(getMembers(instrumented), getMembers(stripped));
+	}
+
+	@Test
+	public void instrumentWithoutProbes_should_not_record_coverage()
+			throws Exception {
+		final RuntimeData data = new RuntimeData();
+		final IRuntime runtime = new LoggerRuntime();
+		runtime.startup(data);
+		final Instrumenter instr = new Instrumenter(runtime);
+		final byte[] original = TargetLoader
+				.getClassDataAsBytes(SerializationTarget.class);
+		final Class<?> clazz = new TargetLoader().add(SerializationTarget.class,
+				instr.instrumentWithoutProbes(original, "Test"));
+		final Object target = clazz.getConstructor(String.class, int.class)
+				.newInstance("Hello", Integer.valueOf(42));
+		assertEquals("Hello42", target.toString());
+		runtime.shutdown();
+
+		final ExecutionDataStore store = new ExecutionDataStore();
+		data.collect(store, new SessionInfoStore(), false);
+		assertNull(store.get(CRC64.classId(original)));
+	}
+
+	@Test
+	public void instrumentWithoutProbes_should_keep_single_clinit_of_java8_interfaces()
+			throws Exception {
+		final byte[] original = createInterfaceWithClinit();
+		final Class<?> instrumented = new TargetLoader().add(INTERFACE_NAME,
+				instrumenter.instrument(original, "Test"));
+		final Class<?> stripped = new TargetLoader().add(INTERFACE_NAME,
+				instrumenter.instrumentWithoutProbes(original, "Test"));
+
+		assertEquals(getMembers(instrumented), getMembers(stripped));
+		assertEquals("value", stripped.getMethod("get").invoke(null));
+	}
+
+	private static final String INTERFACE_NAME = "org.jacoco.core.instr.InterfaceWithClinit";
+
+	/**
+	 * Creates a Java 8 interface with a static initializer and a static method,
+	 * which is instrumented with a probe array field.
+	 */
+	private static byte[] createInterfaceWithClinit() {
+		final String name = INTERFACE_NAME.replace('.', '/');
+		final ClassWriter writer = new ClassWriter(0);
+		writer.visit(Opcodes.V1_8,
+				Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT
+						| Opcodes.ACC_INTERFACE,
+				name, null, "java/lang/Object", null);
+		writer.visitField(
+				Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL,
+				"VALUE", "Ljava/lang/Object;", null, null);
+		MethodVisitor mv = writer.visitMethod(Opcodes.ACC_STATIC, "<clinit>",
+				"()V", null, null);
+		mv.visitCode();
+		mv.visitLdcInsn("value");
+		mv.visitFieldInsn(Opcodes.PUTSTATIC, name, "VALUE",
+				"Ljava/lang/Object;");
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(1, 0);
+		mv.visitEnd();
+		mv = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "get",
+				"()Ljava/lang/Object;", null, null);
+		mv.visitCode();
+		mv.visitFieldInsn(Opcodes.GETSTATIC, name, "VALUE",
+				"Ljava/lang/Object;");
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(1, 0);
+		mv.visitEnd();
+		writer.visitEnd();
+		return writer.toByteArray();
+	}
+
+	private static String getMembers(final Class<?> c) {
+		final List<String> members = new ArrayList<String>();
+		for (final Field f : c.getDeclaredFields()) {
+			members.add(f.toString());
+		}
+		for (final Method m : c.getDeclaredMethods()) {
+			members.add(m.toString());
+		}
+		Collections.sort(members);
+		return members.toString();
+	}
+
+	private boolean[] executeSerializationTarget(
+			final boolean conditionalProbes) throws Exception {
+		final RuntimeData data = new RuntimeData();
+		final IRuntime runtime = new LoggerRuntime();
+		runtime.startup(data);
+		final Instrumenter instr = new Instrumenter(runtime);
+		instr.setConditionalProbes(conditionalProbes);
+		final byte[] original = TargetLoader
+				.getClassDataAsBytes(SerializationTarget.class);
+		final Class<?> clazz = new TargetLoader().add(SerializationTarget.class,
+				instr.instrument(original, "Test"));
+		final Object target = clazz.getConstructor(String.class, int.class)
+				.newInstance("Hello", Integer.valueOf(42));
+		assertEquals("Hello42", target.toString());
+		runtime.shutdown();
+
+		final ExecutionDataStore store = new ExecutionDataStore();
+		data.collect(store, new SessionInfoStore(), false);
+		return store.get(CRC64.classId(original)).getProbes();
+	}
 
 	@Test
 	public void testInstrumentClassFile() throws Exception {
@@ -523,4 +861,142 @@ public class InstrumenterTest {
 		assertNull(zipin.getNextEntry());
 	}
 
+	@Test
+	public void instrumentAll_should_create_identical_output_with_executor()
+			throws IOException {
+		final byte[] archive = createArchive();
+		final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		final int expectedCount = instrumenter.instrumentAll(
+				new ByteArrayInputStream(archive), expected, "Test");
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			instrumenter.setExecutor(executor);
+			final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+			final int actualCount = instrumenter.instrumentAll(
+					new ByteArrayInputStream(archive), actual, "Test");
+
+			assertEquals(expectedCount, actualCount);
+			assertEquals(describeArchive(expected.toByteArray()),
+					describeArchive(actual.toByteArray()));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void instrumentAll_should_process_entries_when_executor_does_not_run_tasks()
+			throws IOException {
+		final byte[] archive = createArchive();
+		final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		instrumenter.instrumentAll(new ByteArrayInputStream(archive), expected,
+				"Test");
+
+		instrumenter.setExecutor(new Executor() {
+			public void execute(final Runnable command) {
+				// never executed, tasks are processed by waiting threads
+			}
+		});
+		final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+		instrumenter.instrumentAll(new ByteArrayInputStream(archive), actual,
+				"Test");
+
+		assertEquals(describeArchive(expected.toByteArray()),
+				describeArchive(actual.toByteArray()));
+	}
+
+	@Test
+	public void instrumentAll_should_report_broken_entry_with_executor()
+			throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final ZipOutputStream zipout = new ZipOutputStream(buffer);
+		zipout.putNextEntry(new ZipEntry("Valid.class"));
+		zipout.write(TargetLoader.getClassDataAsBytes(getClass()));
+		zipout.putNextEntry(new ZipEntry("Test.class"));
+		final byte[] brokenclass = TargetLoader.getClassDataAsBytes(getClass());
+		brokenclass[10] = 0x23;
+		zipout.write(brokenclass);
+		zipout.finish();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			instrumenter.setExecutor(executor);
+			instrumenter.instrumentAll(
+					new ByteArrayInputStream(buffer.toByteArray()),
+					new ByteArrayOutputStream(), "test.zip");
+			fail("exception expected");
+		} catch (IOException e) {
+			assertEquals("Error while instrumenting test.zip@Test.class.",
+					e.getMessage());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private byte[] createArchive() throws IOException {
+		final byte[] classBytes = TargetLoader.getClassDataAsBytes(getClass());
+		final ByteArrayOutputStream nestedBuffer = new ByteArrayOutputStream();
+		final ZipOutputStream nested = new ZipOutputStream(nestedBuffer);
+		for (int i = 0; i < 10; i++) {
+			nested.putNextEntry(new ZipEntry("nested/Test" + i + ".class"));
+			nested.write(classBytes);
+		}
+		nested.finish();
+
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final ZipOutputStream zipout = new ZipOutputStream(buffer);
+		zipout.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+		zipout.write("Manifest-Version: 1.0\r\n".getBytes("UTF-8"));
+		zipout.putNextEntry(new ZipEntry("META-INF/ALIAS.SF"));
+		for (int i = 0; i < 150; i++) {
+			final ZipEntry entry = new ZipEntry("Test" + i + ".class");
+			if (i % 3 == 0) {
+				entry.setMethod(ZipEntry.STORED);
+				entry.setSize(classBytes.length);
+				entry.setCrc(crc(classBytes));
+			}
+			zipout.putNextEntry(entry);
+			zipout.write(classBytes);
+		}
+		zipout.putNextEntry(new ZipEntry("readme.txt"));
+		zipout.write("Hello".getBytes("UTF-8"));
+		zipout.putNextEntry(new ZipEntry("lib/nested.jar"));
+		zipout.write(nestedBuffer.toByteArray());
+		zipout.finish();
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * Describes all properties of the entries except the modification time
+	 * which is set to the current time when the entry is written. Nested
+	 * archives are described recursively for the same reason.
+	 */
+	private static List<String> describeArchive(final byte[] archive)
+			throws IOException {
+		final List<String> entries = new ArrayList<String>();
+		final ZipInputStream zipin = new ZipInputStream(
+				new ByteArrayInputStream(archive));
+		ZipEntry entry;
+		while ((entry = zipin.getNextEntry()) != null) {
+			final byte[] content = InputStreams.readFully(zipin);
+			if (entry.getName().endsWith(".jar")) {
+				entries.add(entry.getName() + " " + describeArchive(content));
+				continue;
+			}
+			entries.add(String.format("%s %s %s %s %x %s", entry.getName(),
+					Integer.valueOf(entry.getMethod()),
+					Long.valueOf(entry.getSize()),
+					Long.valueOf(entry.getCompressedSize()),
+					Long.valueOf(entry.getCrc()),
+					Arrays.toString(content)));
+		}
+		return entries;
+	}
+
+	private static long crc(final byte[] bytes) {
+		final CRC32 crc = new CRC32();
+		crc.update(bytes);
+		return crc.getValue();
+	}
+
 }
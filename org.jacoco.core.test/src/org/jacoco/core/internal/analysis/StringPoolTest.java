@@ -15,6 +15,14 @@ package org.jacoco.core.internal.analysis;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -70,4 +78,52 @@ public class StringPoolTest {
 		assertSame(arr1[0], arr2[0]);
 	}
 
+	@Test
+	public void get_should_return_same_instance_for_concurrent_lookups()
+			throws Exception {
+		final int threads = 4;
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<String[]>> futures = new ArrayList<Future<String[]>>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(new Callable<String[]>() {
+					public String[] call() {
+						final String[] result = new String[1000];
+						for (int i = 0; i < result.length; i++) {
+							result[i] = pool.get(String.valueOf(i));
+						}
+						return result;
+					}
+				}));
+			}
+			final String[] first = futures.get(0).get();
+			for (final Future<String[]> f : futures) {
+				final String[] result = f.get();
+				for (int i = 0; i < result.length; i++) {
+					assertSame(first[i], result[i]);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(1000, pool.size());
+	}
+
+	@Test
+	public void get_should_keep_size_within_maximum() {
+		pool = new StringPool(10);
+
+		for (int i = 0; i < 25; i++) {
+			assertEquals(String.valueOf(i), pool.get(String.valueOf(i)));
+			assertTrue(pool.size() <= 10);
+		}
+		final String a = pool.get(new String("JaCoCo"));
+		assertSame(a, pool.get(new String("JaCoCo")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_should_reject_invalid_maximum_size() {
+		new StringPool(0);
+	}
+
 }
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.analysis.filter;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.jacoco.core.internal.instr.InstrSupport;
+import org.junit.Test;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Unit tests for {@link MethodSummary}.
+ */
+public class MethodSummaryTest {
+
+	private final MethodNode m = new MethodNode(InstrSupport.ASM_API_VERSION, 0,
+			"name", "()V", null, null);
+
+	@Test
+	public void containsAll_should_require_all_opcodes() {
+		m.visitInsn(Opcodes.NOP);
+		m.visitInsn(Opcodes.MONITOREXIT);
+		m.visitInsn(Opcodes.RETURN);
+		final MethodSummary summary = new MethodSummary(m);
+
+		assertTrue(summary.containsAll(MethodSummary.opcodes()));
+		assertTrue(summary.containsAll(
+				MethodSummary.opcodes(Opcodes.NOP, Opcodes.MONITOREXIT)));
+		assertFalse(summary.containsAll(
+				MethodSummary.opcodes(Opcodes.NOP, Opcodes.ATHROW)));
+	}
+
+	@Test
+	public void containsAny_should_require_one_opcode() {
+		m.visitInsn(Opcodes.NOP);
+		m.visitTableSwitchInsn(0, 0, new Label(), new Label());
+		final MethodSummary summary = new MethodSummary(m);
+
+		assertTrue(summary.containsAny(MethodSummary
+				.opcodes(Opcodes.LOOKUPSWITCH, Opcodes.TABLESWITCH)));
+		assertFalse(summary.containsAny(
+				MethodSummary.opcodes(Opcodes.LOOKUPSWITCH, Opcodes.ATHROW)));
+		assertFalse(summary.containsAny(MethodSummary.opcodes()));
+	}
+
+	@Test
+	public void should_ignore_pseudo_instructions() {
+		m.visitLabel(new Label());
+		m.visitLineNumber(42, new Label());
+		final MethodSummary summary = new MethodSummary(m);
+
+		assertFalse(summary.containsAny(MethodSummary.opcodes(Opcodes.NOP)));
+	}
+
+	@Test
+	public void should_record_handlers() {
+		final Label start = new Label();
+		final Label end = new Label();
+		final Label handler = new Label();
+		m.visitTryCatchBlock(start, end, handler, null);
+		final MethodSummary summary = new MethodSummary(m);
+
+		assertTrue(summary.hasAnyHandler());
+		assertFalse(summary.hasThrowableHandler());
+	}
+
+	@Test
+	public void should_record_throwable_handlers() {
+		final Label start = new Label();
+		final Label end = new Label();
+		final Label handler = new Label();
+		m.visitTryCatchBlock(start, end, handler, "java/lang/Exception");
+		m.visitTryCatchBlock(start, end, handler, "java/lang/Throwable");
+		final MethodSummary summary = new MethodSummary(m);
+
+		assertFalse(summary.hasAnyHandler());
+		assertTrue(summary.hasThrowableHandler());
+	}
+
+}
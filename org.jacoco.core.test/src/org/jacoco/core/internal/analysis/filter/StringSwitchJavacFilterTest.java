@@ -12,6 +12,9 @@
  *******************************************************************************/
 package org.jacoco.core.internal.analysis.filter;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 import org.jacoco.core.internal.instr.InstrSupport;
 import org.junit.Test;
 import org.objectweb.asm.Label;
@@ -162,4 +165,16 @@ public class StringSwitchJavacFilterTest extends FilterTestBase {
 		assertIgnored();
 	}
 
+	@Test
+	public void isApplicable_should_require_switch_on_hashCode() {
+		final IFilterPrecondition precondition = new StringSwitchJavacFilter();
+		m.visitInsn(Opcodes.ICONST_M1);
+		m.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/String", "hashCode",
+				"()I", false);
+		assertFalse(precondition.isApplicable(new MethodSummary(m)));
+
+		m.visitLookupSwitchInsn(new Label(), new int[0], new Label[0]);
+		assertTrue(precondition.isApplicable(new MethodSummary(m)));
+	}
+
 }
@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.flow;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Unit tests for {@link ImpliedProbesAnalyzer}.
+ */
+public class ImpliedProbesAnalyzerTest {
+
+	private List<String> implied;
+
+	private ClassProbesAdapter adapter;
+
+	@Before
+	public void setup() {
+		implied = new ArrayList<String>();
+		final ClassProbesVisitor cv = new ClassProbesVisitor() {
+			@Override
+			public MethodProbesVisitor visitMethod(int access, String name,
+					String desc, String signature, String[] exceptions) {
+				return new MethodProbesVisitor() {
+					@Override
+					public void visitImpliedProbe(int probeId,
+							int[] sourceIds) {
+						implied.add(probeId + "<-" + Arrays.toString(sourceIds));
+					}
+				};
+			}
+
+			@Override
+			public void visitTotalProbeCount(int count) {
+			}
+		};
+		adapter = new ClassProbesAdapter(cv, false, true);
+		adapter.visit(Opcodes.V1_5, 0, "Foo", null, "java/lang/Object", null);
+	}
+
+	@Test
+	public void should_report_probe_after_join_of_probed_edges() {
+		final MethodVisitor mv = createMethod();
+		final Label l1 = new Label();
+		final Label l2 = new Label();
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitJumpInsn(Opcodes.IFEQ, l1);
+		mv.visitInsn(Opcodes.ICONST_1);
+		mv.visitJumpInsn(Opcodes.GOTO, l2); // probe 0
+		mv.visitLabel(l1);
+		mv.visitInsn(Opcodes.ICONST_2);
+		mv.visitLabel(l2); // probe 1
+		mv.visitVarInsn(Opcodes.ISTORE, 2);
+		mv.visitVarInsn(Opcodes.ILOAD, 2);
+		mv.visitInsn(Opcodes.IRETURN); // probe 2
+		mv.visitEnd();
+
+		assertEquals(Arrays.asList("2<-[0, 1]"), implied);
+	}
+
+	@Test
+	public void should_not_report_probe_after_method_invocation() {
+		final MethodVisitor mv = createMethod();
+		final Label l1 = new Label();
+		final Label l2 = new Label();
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitJumpInsn(Opcodes.IFEQ, l1);
+		mv.visitInsn(Opcodes.ICONST_1);
+		mv.visitJumpInsn(Opcodes.GOTO, l2);
+		mv.visitLabel(l1);
+		mv.visitInsn(Opcodes.ICONST_2);
+		mv.visitLabel(l2);
+		mv.visitMethodInsn(Opcodes.INVOKESTATIC, "Foo", "foo", "(I)I", false);
+		mv.visitInsn(Opcodes.IRETURN);
+		mv.visitEnd();
+
+		assertEquals(Arrays.asList(), implied);
+	}
+
+	@Test
+	public void should_not_report_probe_in_exception_handler() {
+		final MethodVisitor mv = createMethod();
+		final Label start = new Label();
+		final Label end = new Label();
+		final Label handler = new Label();
+		mv.visitTryCatchBlock(start, end, handler, null);
+		mv.visitLabel(start);
+		mv.visitMethodInsn(Opcodes.INVOKESTATIC, "Foo", "foo", "()V", false);
+		mv.visitLabel(end);
+		mv.visitLabel(handler); // probe 0
+		mv.visitInsn(Opcodes.RETURN); // probe 1
+		mv.visitEnd();
+
+		assertEquals(Arrays.asList(), implied);
+	}
+
+	@Test
+	public void should_not_report_probe_implying_itself() {
+		final MethodVisitor mv = createMethod();
+		final Label loop = new Label();
+		mv.visitInsn(Opcodes.NOP);
+		mv.visitLabel(loop); // probe 0
+		mv.visitIincInsn(1, 1);
+		mv.visitJumpInsn(Opcodes.GOTO, loop); // probe 1
+		mv.visitEnd();
+
+		assertEquals(Arrays.asList(), implied);
+	}
+
+	@Test
+	public void should_not_use_implied_probe_as_source() {
+		final MethodVisitor mv = createMethod();
+		final Label l1 = new Label();
+		final Label l2 = new Label();
+		final Label l3 = new Label();
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitJumpInsn(Opcodes.IFLT, l3); // probe 0
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitJumpInsn(Opcodes.IFEQ, l1);
+		mv.visitInsn(Opcodes.ICONST_1);
+		mv.visitJumpInsn(Opcodes.GOTO, l2); // probe 1
+		mv.visitLabel(l1);
+		mv.visitInsn(Opcodes.ICONST_2);
+		mv.visitLabel(l2); // probe 2
+		mv.visitVarInsn(Opcodes.ISTORE, 2);
+		mv.visitJumpInsn(Opcodes.GOTO, l3); // probe 3
+		mv.visitLabel(l3);
+		mv.visitInsn(Opcodes.RETURN); // probe 4
+		mv.visitEnd();
+
+		assertEquals(Arrays.asList("3<-[1, 2]"), implied);
+	}
+
+	@Test
+	public void should_not_report_probe_after_loop_at_method_start() {
+		final MethodVisitor mv = createMethod();
+		final Label outer = new Label();
+		final Label inner = new Label();
+		mv.visitLabel(outer);
+		mv.visitIincInsn(1, 1);
+		mv.visitLabel(inner); // probe 0
+		mv.visitIincInsn(1, 3);
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitIntInsn(Opcodes.BIPUSH, 10);
+		mv.visitJumpInsn(Opcodes.IF_ICMPLT, inner); // probe 1
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitIntInsn(Opcodes.BIPUSH, 50);
+		mv.visitJumpInsn(Opcodes.IF_ICMPLT, outer); // probe 2
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitInsn(Opcodes.IRETURN); // probe 3
+		mv.visitEnd();
+
+		assertEquals(Arrays.asList(), implied);
+	}
+
+	@Test
+	public void should_not_report_probe_after_try_block_at_method_start() {
+		final MethodVisitor mv = createMethod();
+		final Label start = new Label();
+		final Label inner = new Label();
+		final Label end = new Label();
+		final Label handler = new Label();
+		mv.visitTryCatchBlock(start, end, handler, null);
+		mv.visitLabel(start);
+		mv.visitIincInsn(1, 1);
+		mv.visitLabel(inner); // probe 0
+		mv.visitIincInsn(1, 3);
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitIntInsn(Opcodes.BIPUSH, 10);
+		mv.visitJumpInsn(Opcodes.IF_ICMPLT, inner); // probe 1
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitIntInsn(Opcodes.BIPUSH, 50);
+		mv.visitJumpInsn(Opcodes.IF_ICMPLT, start); // probe 2
+		mv.visitLabel(end);
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitInsn(Opcodes.IRETURN); // probe 3
+		mv.visitLabel(handler); // probe 4
+		mv.visitInsn(Opcodes.ICONST_0);
+		mv.visitInsn(Opcodes.IRETURN); // probe 5
+		mv.visitEnd();
+
+		assertEquals(Arrays.asList(), implied);
+	}
+
+	@Test
+	public void should_not_report_probes_when_disabled() {
+		final List<String> reported = implied;
+		adapter = new ClassProbesAdapter(new ClassProbesVisitor() {
+			@Override
+			public MethodProbesVisitor visitMethod(int access, String name,
+					String desc, String signature, String[] exceptions) {
+				return new MethodProbesVisitor() {
+					@Override
+					public void visitImpliedProbe(int probeId,
+							int[] sourceIds) {
+						reported.add(String.valueOf(probeId));
+					}
+				};
+			}
+
+			@Override
+			public void visitTotalProbeCount(int count) {
+			}
+		}, false);
+		final MethodVisitor mv = createMethod();
+		final Label l1 = new Label();
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitJumpInsn(Opcodes.IFEQ, l1); // probe 0
+		mv.visitInsn(Opcodes.NOP);
+		mv.visitLabel(l1); // probe 1
+		mv.visitInsn(Opcodes.RETURN); // probe 2
+		mv.visitEnd();
+
+		assertEquals(Arrays.asList(), implied);
+	}
+
+	private MethodVisitor createMethod() {
+		final MethodVisitor mv = adapter.visitMethod(0, "m", "(I)I", null,
+				null);
+		mv.visitCode();
+		return mv;
+	}
+
+}
@@ -12,12 +12,19 @@
  *******************************************************************************/
 package org.jacoco.core.internal.instr;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
 
 /**
  * Unit tests for {@link ClassInstrumenter}.
@@ -61,6 +68,59 @@ public class ClassInstrumenterTest implements IProbeArrayStrategy {
 		assertNull(instrumenter.visitMethod(0, "foo", "()V", null, null));
 	}
 
+	@Test(expected = IllegalStateException.class)
+	public void testInstrumentInstrumentedClass3() {
+		instrumenter.visitMethod(InstrSupport.PROBEMETHOD_ACC,
+				InstrSupport.PROBEMETHOD_NAME, InstrSupport.PROBEMETHOD_DESC,
+				null, null);
+	}
+
+	@Test
+	public void should_add_probe_method_for_conditional_probes() {
+		final List<String> methods = visitConditional(Opcodes.V1_8, 0, 1);
+		assertEquals(Arrays.asList(InstrSupport.PROBEMETHOD_NAME), methods);
+	}
+
+	@Test
+	public void should_add_probe_method_to_java8_interfaces() {
+		final List<String> methods = visitConditional(Opcodes.V1_8,
+				Opcodes.ACC_INTERFACE, 1);
+		assertEquals(Arrays.asList(InstrSupport.PROBEMETHOD_NAME), methods);
+	}
+
+	@Test
+	public void should_not_add_probe_method_to_java7_interfaces() {
+		final List<String> methods = visitConditional(Opcodes.V1_7,
+				Opcodes.ACC_INTERFACE, 1);
+		assertEquals(Collections.emptyList(), methods);
+	}
+
+	@Test
+	public void should_not_add_probe_method_without_probes() {
+		final List<String> methods = visitConditional(Opcodes.V1_8, 0, 0);
+		assertEquals(Collections.emptyList(), methods);
+	}
+
+	private List<String> visitConditional(final int version, final int access,
+			final int probeCount) {
+		final List<String> methods = new ArrayList<String>();
+		instrumenter = new ClassInstrumenter(this, true,
+				new ClassVisitor(InstrSupport.ASM_API_VERSION) {
+					@Override
+					public MethodVisitor visitMethod(int access, String name,
+							String desc, String signature,
+							String[] exceptions) {
+						methods.add(name);
+						return new MethodVisitor(InstrSupport.ASM_API_VERSION) {
+						};
+					}
+				});
+		instrumenter.visit(version, access, "Foo", null, "java/lang/Object",
+				null);
+		instrumenter.visitTotalProbeCount(probeCount);
+		return methods;
+	}
+
 	// === IProbeArrayStrategy ===
 
 	public int storeInstance(MethodVisitor mv, boolean clinit, int variable) {
@@ -70,4 +130,8 @@ public class ClassInstrumenterTest implements IProbeArrayStrategy {
 	public void addMembers(ClassVisitor cv, int probeCount) {
 	}
 
+	public int getProbeOffset() {
+		return 0;
+	}
+
 }
@@ -22,6 +22,7 @@ import java.util.List;
 
 import org.jacoco.core.runtime.IExecutionDataAccessorGenerator;
 import org.jacoco.core.runtime.OfflineInstrumentationAccessGenerator;
+import org.jacoco.core.runtime.ProbeArena;
 import org.junit.Before;
 import org.junit.Test;
 import org.objectweb.asm.ClassReader;
@@ -274,8 +275,60 @@ public class ProbeArrayStrategyFactoryTest {
 				new ClassReader(writer.toByteArray()), generator);
 	}
 
+	@Test
+	public void test_arena_class() {
+		final ProbeArena arena = new ProbeArena(100);
+		arena.allocate(1, "Other", 5);
+
+		final IProbeArrayStrategy strategy = ProbeArrayStrategyFactory
+				.createFor(0, new ClassReader(
+						createClass(Opcodes.V1_8, 0, true, true, false)),
+						generator, arena);
+		strategy.addMembers(cv, 2);
+
+		assertEquals(ArenaProbeArrayStrategy.class, strategy.getClass());
+		assertEquals(5, strategy.getProbeOffset());
+		assertDataField(InstrSupport.DATAFIELD_ACC);
+		assertInitMethod(true);
+	}
+
+	@Test
+	public void test_arena_class_without_code() {
+		final IProbeArrayStrategy strategy = ProbeArrayStrategyFactory
+				.createFor(0, new ClassReader(
+						createClass(Opcodes.V1_8, 0, false, false, true)),
+						generator, new ProbeArena(100));
+
+		assertEquals(NoneProbeArrayStrategy.class, strategy.getClass());
+	}
+
+	@Test
+	public void test_arena_interface() {
+		final IProbeArrayStrategy strategy = ProbeArrayStrategyFactory
+				.createFor(0,
+						new ClassReader(createClass(Opcodes.V1_8,
+								Opcodes.ACC_INTERFACE, true, true, true)),
+						generator, new ProbeArena(100));
+
+		assertEquals(InterfaceFieldProbeArrayStrategy.class,
+				strategy.getClass());
+		assertEquals(0, strategy.getProbeOffset());
+	}
+
 	private IProbeArrayStrategy test(int version, int access, boolean clinit,
 			boolean method, boolean abstractMethod) {
+		final IProbeArrayStrategy strategy = ProbeArrayStrategyFactory
+				.createFor(0,
+						new ClassReader(createClass(version, access, clinit,
+								method, abstractMethod)),
+						generator);
+
+		strategy.addMembers(cv, 123);
+		return strategy;
+	}
+
+	private static byte[] createClass(int version, int access, boolean clinit,
+			boolean method, boolean abstractMethod) {
 		final ClassWriter writer = new ClassWriter(0);
 		writer.visit(version, access, "Foo", "java/lang/Object", null, null);
 		if (clinit) {
@@ -302,12 +355,7 @@ public class ProbeArrayStrategyFactoryTest {
 			mv.visitEnd();
 		}
 		writer.visitEnd();
-
-		final IProbeArrayStrategy strategy = ProbeArrayStrategyFactory
-				.createFor(0, new ClassReader(writer.toByteArray()), generator);
-
-		strategy.addMembers(cv, 123);
-		return strategy;
+		return writer.toByteArray();
 	}
 
 	private static class AddedMethod {
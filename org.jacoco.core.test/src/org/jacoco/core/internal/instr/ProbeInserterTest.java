@@ -35,6 +35,8 @@ public class ProbeInserterTest {
 
 	private IProbeArrayStrategy arrayStrategy;
 
+	private int probeOffset;
+
 	@Before
 	public void setup() {
 		actual = new MethodRecorder();
@@ -50,6 +52,10 @@ public class ProbeInserterTest {
 
 			public void addMembers(ClassVisitor delegate, int probeCount) {
 			}
+
+			public int getProbeOffset() {
+				return probeOffset;
+			}
 		};
 	}
 
@@ -106,6 +112,31 @@ public class ProbeInserterTest {
 		expectedVisitor.visitInsn(Opcodes.BASTORE);
 	}
 
+	@Test
+	public void testConditionalProbe() {
+		ProbeInserter pi = new ProbeInserter(Opcodes.ACC_STATIC, "m", "()V",
+				actualVisitor, arrayStrategy, "Foo", false);
+		pi.insertProbe(0);
+
+		expectedVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+		expectedVisitor.visitInsn(Opcodes.ICONST_0);
+		expectedVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, "Foo",
+				"$jacocoHit", "([ZI)V", false);
+	}
+
+	@Test
+	public void testProbeOffset() {
+		probeOffset = 1000;
+		ProbeInserter pi = new ProbeInserter(Opcodes.ACC_STATIC, "m", "()V",
+				actualVisitor, arrayStrategy);
+		pi.insertProbe(3);
+
+		expectedVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+		expectedVisitor.visitIntInsn(Opcodes.SIPUSH, 1003);
+		expectedVisitor.visitInsn(Opcodes.ICONST_1);
+		expectedVisitor.visitInsn(Opcodes.BASTORE);
+	}
+
 	@Test
 	public void testVisitCode() {
 		ProbeInserter pi = new ProbeInserter(0, "m", "()V", actualVisitor,
@@ -52,7 +52,21 @@ public class AgentOptionsTest {
 		assertEquals(AgentOptions.DEFAULT_ADDRESS, options.getAddress());
 		assertEquals(AgentOptions.DEFAULT_PORT, options.getPort());
 		assertNull(options.getClassDumpDir());
+		assertNull(options.getClassCacheDir());
 		assertFalse(options.getJmx());
+		assertEquals(AgentOptions.AccessorMode.handshake,
+				options.getAccessor());
+		assertEquals(AgentOptions.ProbeMode.unconditional,
+				options.getProbes());
+		assertEquals(0, options.getDumpInterval());
+		assertEquals(AgentOptions.DEFAULT_SEGMENTSIZE,
+				options.getSegmentSize());
+		assertEquals(AgentOptions.DEFAULT_SEGMENTCOUNT,
+				options.getSegmentCount());
+		assertFalse(options.getDumpDelta());
+		assertEquals(0, options.getDeinstrumentInterval());
+		assertFalse(options.getProbeArena());
+		assertFalse(options.getMinimalProbes());
 
 		assertEquals("", options.toString());
 	}
@@ -314,6 +328,239 @@ public class AgentOptionsTest {
 		options.setOutput("foo");
 	}
 
+	@Test
+	public void testGetAccessor() {
+		AgentOptions options = new AgentOptions("accessor=bridge");
+		assertEquals(AgentOptions.AccessorMode.bridge, options.getAccessor());
+	}
+
+	@Test
+	public void testSetAccessor1() {
+		AgentOptions options = new AgentOptions();
+		options.setAccessor("bridge");
+		assertEquals(AgentOptions.AccessorMode.bridge, options.getAccessor());
+		assertEquals("accessor=bridge", options.toString());
+	}
+
+	@Test
+	public void testSetAccessor2() {
+		AgentOptions options = new AgentOptions();
+		options.setAccessor(AgentOptions.AccessorMode.bridge);
+		assertEquals(AgentOptions.AccessorMode.bridge, options.getAccessor());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidAccessor1() {
+		new AgentOptions("accessor=foo");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidAccessor2() {
+		AgentOptions options = new AgentOptions();
+		options.setAccessor("foo");
+	}
+
+	@Test
+	public void testGetProbes() {
+		AgentOptions options = new AgentOptions("probes=conditional");
+		assertEquals(AgentOptions.ProbeMode.conditional, options.getProbes());
+	}
+
+	@Test
+	public void testSetProbes1() {
+		AgentOptions options = new AgentOptions();
+		options.setProbes("conditional");
+		assertEquals(AgentOptions.ProbeMode.conditional, options.getProbes());
+		assertEquals("probes=conditional", options.toString());
+	}
+
+	@Test
+	public void testSetProbes2() {
+		AgentOptions options = new AgentOptions();
+		options.setProbes(AgentOptions.ProbeMode.conditional);
+		assertEquals(AgentOptions.ProbeMode.conditional, options.getProbes());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidProbes() {
+		new AgentOptions("probes=foo");
+	}
+
+	@Test
+	public void testGetClassCacheDir() {
+		AgentOptions options = new AgentOptions("classcachedir=target/cache");
+		assertEquals("target/cache", options.getClassCacheDir());
+	}
+
+	@Test
+	public void testSetClassCacheDir() {
+		AgentOptions options = new AgentOptions();
+		options.setClassCacheDir("target/cache");
+		assertEquals("target/cache", options.getClassCacheDir());
+		assertEquals("classcachedir=target/cache", options.toString());
+	}
+
+	@Test
+	public void testGetDumpInterval() {
+		AgentOptions options = new AgentOptions("dumpinterval=30");
+		assertEquals(30, options.getDumpInterval());
+	}
+
+	@Test
+	public void testSetDumpInterval() {
+		AgentOptions options = new AgentOptions();
+		options.setDumpInterval(30);
+		assertEquals(30, options.getDumpInterval());
+		assertEquals("dumpinterval=30", options.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseNegativeDumpInterval() {
+		new AgentOptions("dumpinterval=-1");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetNegativeDumpInterval() {
+		AgentOptions options = new AgentOptions();
+		options.setDumpInterval(-1);
+	}
+
+	@Test
+	public void testGetSegmentSize() {
+		AgentOptions options = new AgentOptions("segmentsize=4096");
+		assertEquals(4096, options.getSegmentSize());
+	}
+
+	@Test
+	public void testSetSegmentSize() {
+		AgentOptions options = new AgentOptions();
+		options.setSegmentSize(4096);
+		assertEquals(4096, options.getSegmentSize());
+		assertEquals("segmentsize=4096", options.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseInvalidSegmentSize() {
+		new AgentOptions("segmentsize=0");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetInvalidSegmentSize() {
+		AgentOptions options = new AgentOptions();
+		options.setSegmentSize(0);
+	}
+
+	@Test
+	public void testGetSegmentCount() {
+		AgentOptions options = new AgentOptions("segmentcount=3");
+		assertEquals(3, options.getSegmentCount());
+	}
+
+	@Test
+	public void testSetSegmentCount() {
+		AgentOptions options = new AgentOptions();
+		options.setSegmentCount(3);
+		assertEquals(3, options.getSegmentCount());
+		assertEquals("segmentcount=3", options.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseInvalidSegmentCount() {
+		new AgentOptions("segmentcount=0");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetInvalidSegmentCount() {
+		AgentOptions options = new AgentOptions();
+		options.setSegmentCount(0);
+	}
+
+	@Test
+	public void testGetDumpDelta() {
+		AgentOptions options = new AgentOptions("dumpdelta=true");
+		assertTrue(options.getDumpDelta());
+	}
+
+	@Test
+	public void testSetDumpDelta() {
+		AgentOptions options = new AgentOptions();
+		options.setDumpDelta(true);
+		assertTrue(options.getDumpDelta());
+		assertEquals("dumpdelta=true", options.toString());
+	}
+
+	@Test
+	public void testGetDeinstrumentInterval() {
+		AgentOptions options = new AgentOptions("deinstrumentinterval=60");
+		assertEquals(60, options.getDeinstrumentInterval());
+	}
+
+	@Test
+	public void testSetDeinstrumentInterval() {
+		AgentOptions options = new AgentOptions();
+		options.setDeinstrumentInterval(60);
+		assertEquals(60, options.getDeinstrumentInterval());
+		assertEquals("deinstrumentinterval=60", options.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseNegativeDeinstrumentInterval() {
+		new AgentOptions("deinstrumentinterval=-1");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetNegativeDeinstrumentInterval() {
+		AgentOptions options = new AgentOptions();
+		options.setDeinstrumentInterval(-1);
+	}
+
+	@Test
+	public void testGetProbeArena() {
+		AgentOptions options = new AgentOptions("probearena=true");
+		assertTrue(options.getProbeArena());
+	}
+
+	@Test
+	public void testSetProbeArena() {
+		AgentOptions options = new AgentOptions();
+		options.setProbeArena(true);
+		assertTrue(options.getProbeArena());
+		assertEquals("probearena=true", options.toString());
+	}
+
+	@Test
+	public void testGetMinimalProbes() {
+		AgentOptions options = new AgentOptions("minimalprobes=true");
+		assertTrue(options.getMinimalProbes());
+	}
+
+	@Test
+	public void testSetMinimalProbes() {
+		AgentOptions options = new AgentOptions();
+		options.setMinimalProbes(true);
+		assertTrue(options.getMinimalProbes());
+		assertEquals("minimalprobes=true", options.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseMinimalProbesWithDeinstrumentInterval() {
+		new AgentOptions("minimalprobes=true,deinstrumentinterval=60");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetMinimalProbesWithDeinstrumentInterval() {
+		AgentOptions options = new AgentOptions();
+		options.setDeinstrumentInterval(60);
+		options.setMinimalProbes(true);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetDeinstrumentIntervalWithMinimalProbes() {
+		AgentOptions options = new AgentOptions();
+		options.setMinimalProbes(true);
+		options.setDeinstrumentInterval(60);
+	}
+
 	@Test
 	public void testGetPort() {
 		AgentOptions options = new AgentOptions("port=1234");
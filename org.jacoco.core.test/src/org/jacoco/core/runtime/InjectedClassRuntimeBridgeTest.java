@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Evgeny Mandrikov - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.runtime;
+
+/**
+ * Unit test for {@link InjectedClassRuntime} in bridge mode.
+ */
+public class InjectedClassRuntimeBridgeTest extends InjectedClassRuntimeTest {
+
+	@Override
+	public IRuntime createRuntime() {
+		return new InjectedClassRuntime(InjectedClassRuntimeBridgeTest.class,
+				"Bridge_" + testName.getMethodName(), true);
+	}
+
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LongHashMap}.
+ */
+public class LongHashMapTest {
+
+	private LongHashMap<String> map;
+
+	@Before
+	public void setup() {
+		map = new LongHashMap<String>();
+	}
+
+	@Test
+	public void get_should_return_null_for_unknown_key() {
+		assertNull(map.get(42));
+		assertEquals(0, map.size());
+	}
+
+	@Test
+	public void put_should_add_and_replace_entries() {
+		map.put(42, "a");
+		map.put(0, "b");
+		map.put(42, "c");
+
+		assertEquals("c", map.get(42));
+		assertEquals("b", map.get(0));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	public void put_should_keep_entries_with_colliding_hashes() {
+		// Both keys have the same folded hash code:
+		map.put(0x0000000100000001L, "a");
+		map.put(0L, "b");
+
+		assertEquals("a", map.get(0x0000000100000001L));
+		assertEquals("b", map.get(0L));
+	}
+
+	@Test
+	public void put_should_grow_map() {
+		for (long i = 0; i < 10000; i++) {
+			map.put(i * 0x9E3779B97F4A7C15L, String.valueOf(i));
+		}
+
+		assertEquals(10000, map.size());
+		for (long i = 0; i < 10000; i++) {
+			assertEquals(String.valueOf(i), map.get(i * 0x9E3779B97F4A7C15L));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void put_should_reject_null_value() {
+		map.put(1, null);
+	}
+
+}
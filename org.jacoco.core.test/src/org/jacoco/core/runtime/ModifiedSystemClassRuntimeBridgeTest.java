@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.jacoco.core.internal.instr.InstrSupport;
+import org.jacoco.core.test.TargetLoader;
+import org.junit.Test;
+import org.objectweb.asm.MethodVisitor;
+
+/**
+ * Unit tests for {@link ModifiedSystemClassRuntime} in bridge mode.
+ */
+public class ModifiedSystemClassRuntimeBridgeTest extends RuntimeTestBase {
+
+	@Override
+	IRuntime createRuntime() {
+		return new ModifiedSystemClassRuntime(
+				ModifiedSystemClassRuntimeBridgeTest.class, "accessBridge",
+				true);
+	}
+
+	/** This static member emulates the instrumented system class. */
+	public static MethodHandle accessBridge;
+
+	/**
+	 * This static method emulates the bridge method of the instrumented system
+	 * class.
+	 */
+	public static boolean[] accessBridge(final long classid,
+			final String classname, final int probecount) throws Throwable {
+		return (boolean[]) accessBridge.invokeExact(classid, classname,
+				probecount);
+	}
+
+	@Test
+	public void generateDataAccessor_should_not_create_objects() {
+		final int size = createRuntime().generateDataAccessor(1001, "Target",
+				5, new MethodVisitor(InstrSupport.ASM_API_VERSION) {
+					@Override
+					public void visitTypeInsn(final int opcode,
+							final String type) {
+						throw new AssertionError("No allocation allowed.");
+					}
+
+					@Override
+					public void visitMethodInsn(final int opcode,
+							final String owner, final String name,
+							final String descriptor, final boolean isInterface) {
+						assertEquals(
+								"org/jacoco/core/runtime/ModifiedSystemClassRuntimeBridgeTest",
+								owner);
+						assertEquals("accessBridge", name);
+						assertEquals("(JLjava/lang/String;I)[Z", descriptor);
+					}
+				});
+		assertEquals(4, size);
+	}
+
+	@Test
+	public void instrument_should_add_bridge_members() throws Exception {
+		final String name = Target.class.getName();
+		final byte[] source = TargetLoader.getClassDataAsBytes(Target.class);
+		final Class<?> targetClass = new TargetLoader().add(name,
+				ModifiedSystemClassRuntime.instrument(source, "$jacocoAccess",
+						true));
+
+		final Field f = targetClass.getField("$jacocoAccess");
+		assertTrue(Modifier.isPublic(f.getModifiers()));
+		assertTrue(Modifier.isStatic(f.getModifiers()));
+		assertTrue(Modifier.isTransient(f.getModifiers()));
+		assertEquals(MethodHandle.class, f.getType());
+
+		final Method m = targetClass.getMethod("$jacocoAccess", long.class,
+				String.class, int.class);
+		assertTrue(Modifier.isPublic(m.getModifiers()));
+		assertTrue(Modifier.isStatic(m.getModifiers()));
+		assertEquals(boolean[].class, m.getReturnType());
+
+		final RuntimeData data = new RuntimeData();
+		RuntimeBridge.connect(targetClass, "$jacocoAccess", data);
+		final boolean[] probes = (boolean[]) m.invoke(null,
+				Long.valueOf(42), "Foo", Integer.valueOf(3));
+		assertSame(data.getProbes(42, "Foo", 3), probes);
+	}
+
+	public static class Target {
+	}
+
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.jacoco.core.data.ExecutionDataStore;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ProbeArena}.
+ */
+public class ProbeArenaTest {
+
+	private ProbeArena arena;
+
+	@Before
+	public void setup() {
+		arena = new ProbeArena(10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void should_reject_invalid_segment_size() {
+		new ProbeArena(0);
+	}
+
+	@Test
+	public void allocate_should_assign_consecutive_ranges() {
+		assertEquals(0, arena.allocate(1, "A", 3));
+		assertEquals(3, arena.allocate(2, "B", 4));
+		assertEquals(7, arena.allocate(3, "C", 3));
+
+		assertSame(arena.getSegment(1), arena.getSegment(3));
+		assertEquals(10, arena.getSegment(1).length);
+	}
+
+	@Test
+	public void allocate_should_return_existing_range_for_same_id() {
+		arena.allocate(1, "A", 3);
+		assertEquals(3, arena.allocate(2, "B", 4));
+
+		assertEquals(3, arena.allocate(2, "B", 4));
+	}
+
+	@Test
+	public void allocate_should_reject_incompatible_probe_count() {
+		arena.allocate(1, "A", 3);
+		try {
+			arena.allocate(1, "A", 4);
+			fail("IllegalStateException expected");
+		} catch (final IllegalStateException e) {
+			assertEquals(
+					"Incompatible execution data for class A with id 0000000000000001.",
+					e.getMessage());
+		}
+	}
+
+	@Test
+	public void allocate_should_start_new_segment_when_full() {
+		arena.allocate(1, "A", 8);
+
+		assertEquals(0, arena.allocate(2, "B", 3));
+
+		assertNotSame(arena.getSegment(1), arena.getSegment(2));
+	}
+
+	@Test
+	public void allocate_should_create_dedicated_segment_for_large_classes() {
+		arena.allocate(1, "A", 2);
+
+		assertEquals(0, arena.allocate(2, "B", 25));
+		assertEquals(0, arena.allocate(3, "C", 2));
+
+		assertEquals(25, arena.getSegment(2).length);
+		assertNotSame(arena.getSegment(1), arena.getSegment(3));
+		assertNotSame(arena.getSegment(2), arena.getSegment(3));
+	}
+
+	@Test
+	public void getSegment_should_return_null_for_unknown_class() {
+		assertNull(arena.getSegment(1));
+	}
+
+	@Test
+	public void collect_should_write_ranges_as_execution_data() {
+		arena.allocate(1, "A", 3);
+		arena.allocate(2, "B", 2);
+		final boolean[] segment = arena.getSegment(1);
+		segment[1] = true;
+		segment[3] = true;
+
+		final ExecutionDataStore store = new ExecutionDataStore();
+		arena.collect(store, false);
+
+		assertEquals("A", store.get(1).getName());
+		assertEquals("[false, true, false]",
+				Arrays.toString(store.get(1).getProbes()));
+		assertEquals("B", store.get(2).getName());
+		assertEquals("[true, false]",
+				Arrays.toString(store.get(2).getProbes()));
+		assertTrue(segment[1]);
+	}
+
+	@Test
+	public void collect_should_copy_probes() {
+		arena.allocate(1, "A", 3);
+		final ExecutionDataStore store = new ExecutionDataStore();
+		arena.collect(store, false);
+
+		arena.getSegment(1)[0] = true;
+
+		assertFalse(store.get(1).getProbes()[0]);
+	}
+
+	@Test
+	public void collect_should_reset_probes() {
+		arena.allocate(1, "A", 3);
+		arena.getSegment(1)[2] = true;
+
+		final ExecutionDataStore store = new ExecutionDataStore();
+		arena.collect(store, true);
+
+		assertTrue(store.get(1).getProbes()[2]);
+		assertFalse(arena.getSegment(1)[2]);
+	}
+
+	@Test
+	public void reset_should_keep_ranges() {
+		arena.allocate(1, "A", 3);
+		arena.getSegment(1)[0] = true;
+
+		arena.reset();
+
+		assertFalse(arena.getSegment(1)[0]);
+		assertEquals(0, arena.allocate(1, "A", 3));
+	}
+
+}
@@ -18,6 +18,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.concurrent.Callable;
 
 import org.jacoco.core.test.TargetLoader;
@@ -68,6 +69,18 @@ public class RuntimeDataTest {
 		assertEquals("Foo", storage.getData(123).getName());
 	}
 
+	@Test
+	public void testGetProbesWithPrimitives() {
+		boolean[] probes = data.getProbes(123, "Foo", 3);
+
+		assertEquals(3, probes.length);
+		assertSame(probes, data.getProbes(123, "Foo", 3));
+
+		data.collect(storage, storage, false);
+		assertSame(storage.getData(123).getProbes(), probes);
+		assertEquals("Foo", storage.getData(123).getName());
+	}
+
 	@Test
 	public void testCollectEmpty() {
 		data.collect(storage, storage, false);
@@ -100,6 +113,53 @@ public class RuntimeDataTest {
 		assertEquals("testsession", storage.getSessionInfo().getId());
 	}
 
+	@Test
+	public void getProbes_should_return_same_array_for_same_class() {
+		final boolean[] probes = data.getProbes(123, "Foo", 3);
+
+		assertSame(probes, data.getProbes(123, "Foo", 3));
+		assertSame(probes,
+				data.getExecutionData(Long.valueOf(123), "Foo", 3).getProbes());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void getProbes_should_check_compatibility_of_known_class() {
+		data.getProbes(123, "Foo", 3);
+
+		data.getProbes(123, "Foo", 4);
+	}
+
+	@Test
+	public void getProbeArena_should_create_arena_once() {
+		final ProbeArena arena = data.getProbeArena();
+
+		assertNotNull(arena);
+		assertSame(arena, data.getProbeArena());
+	}
+
+	@Test
+	public void getProbes_should_return_arena_segment() {
+		data.getProbeArena().allocate(123, "Foo", 3);
+
+		final boolean[] probes = data.getProbes(123, "Foo", 3);
+
+		assertSame(data.getProbeArena().getSegment(123), probes);
+	}
+
+	@Test
+	public void collect_should_include_arena_probes() {
+		final int offset = data.getProbeArena().allocate(123, "Foo", 2);
+		final boolean[] segment = data.getProbes(123, "Foo", 2);
+		segment[offset + 1] = true;
+
+		data.collect(storage, storage, true);
+
+		assertEquals("[false, true]",
+				Arrays.toString(storage.getData(123).getProbes()));
+		assertEquals("Foo", storage.getData(123).getName());
+		assertFalse(segment[offset + 1]);
+	}
+
 	@Test
 	public void testEquals() {
 		assertTrue(data.equals(data));
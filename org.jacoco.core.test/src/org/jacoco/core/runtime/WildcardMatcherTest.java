@@ -12,9 +12,13 @@
  *******************************************************************************/
 package org.jacoco.core.runtime;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
+import java.util.regex.Pattern;
+
 import org.junit.Test;
 
 public class WildcardMatcherTest {
@@ -75,4 +79,100 @@ public class WildcardMatcherTest {
 				.matches("org/example/Enity$$$generated123"));
 	}
 
+	@Test
+	public void should_match_prefix_and_exact_expressions_together() {
+		final WildcardMatcher matcher = new WildcardMatcher(
+				"org/example/*:org/example:org/exam:com/*/Foo");
+		assertTrue(matcher.matches("org/example"));
+		assertTrue(matcher.matches("org/example/"));
+		assertTrue(matcher.matches("org/example/Foo"));
+		assertTrue(matcher.matches("org/exam"));
+		assertTrue(matcher.matches("com/example/Foo"));
+		assertFalse(matcher.matches("org/exa"));
+		assertFalse(matcher.matches("org/exampl"));
+		assertFalse(matcher.matches("org/examples"));
+		assertFalse(matcher.matches("com/example/Bar"));
+	}
+
+	@Test
+	public void should_handle_empty_expressions() {
+		assertTrue(new WildcardMatcher(":abc").matches(""));
+		assertTrue(new WildcardMatcher("abc::def").matches(""));
+		assertFalse(new WildcardMatcher("abc:").matches(""));
+	}
+
+	@Test
+	public void wildcards_should_not_match_line_terminators() {
+		assertFalse(new WildcardMatcher("*").matches("a\nb"));
+		assertFalse(new WildcardMatcher("a?b").matches("a\rb"));
+		assertTrue(new WildcardMatcher("a\nb").matches("a\nb"));
+	}
+
+	@Test
+	public void questionmark_should_match_surrogate_pairs() {
+		assertTrue(new WildcardMatcher("a?b").matches("a\ud83d\ude00b"));
+		assertFalse(new WildcardMatcher("a??b").matches("a\ud83d\ude00b"));
+	}
+
+	@Test
+	public void should_give_same_results_as_regular_expression() {
+		final Random random = new Random(42);
+		final char[] patternChars = "ab/*?".toCharArray();
+		final char[] stringChars = "ab/".toCharArray();
+		for (int i = 0; i < 2000; i++) {
+			final StringBuilder expression = new StringBuilder();
+			final int parts = 1 + random.nextInt(3);
+			for (int p = 0; p < parts; p++) {
+				if (p > 0) {
+					expression.append(':');
+				}
+				expression.append(randomString(random, patternChars, 6));
+			}
+			final WildcardMatcher matcher = new WildcardMatcher(
+					expression.toString());
+			final Pattern regex = toRegex(expression.toString());
+			for (int j = 0; j < 20; j++) {
+				final String s = randomString(random, stringChars, 8);
+				assertEquals(expression + " / " + s,
+						Boolean.valueOf(regex.matcher(s).matches()),
+						Boolean.valueOf(matcher.matches(s)));
+			}
+		}
+	}
+
+	private static String randomString(final Random random, final char[] chars,
+			final int maxLength) {
+		final int length = random.nextInt(maxLength + 1);
+		final StringBuilder s = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			s.append(chars[random.nextInt(chars.length)]);
+		}
+		return s.toString();
+	}
+
+	private static Pattern toRegex(final String expression) {
+		final StringBuilder regex = new StringBuilder();
+		for (final String part : expression.split("\\:")) {
+			if (regex.length() > 0) {
+				regex.append('|');
+			}
+			regex.append('(');
+			for (final char c : part.toCharArray()) {
+				switch (c) {
+				case '?':
+					regex.append(".");
+					break;
+				case '*':
+					regex.append(".*");
+					break;
+				default:
+					regex.append(Pattern.quote(String.valueOf(c)));
+					break;
+				}
+			}
+			regex.append(')');
+		}
+		return Pattern.compile(regex.toString());
+	}
+
 }
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.test.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.runtime.IRuntime;
+import org.jacoco.core.runtime.LoggerRuntime;
+import org.jacoco.core.runtime.RuntimeData;
+import org.jacoco.core.test.TargetLoader;
+
+/**
+ * This scenario executes the same instrumented instance of a given target from
+ * multiple threads concurrently and reports the execution time: Once with
+ * conditional probes, once with unconditional probes as the reference. The
+ * threads are started before the measurement, so only the execution of the
+ * target is timed.
+ */
+public class ConcurrentProbesScenario extends TimedScenario {
+
+	private final Class<? extends Callable<Void>> target;
+
+	private final int threads;
+
+	private ThreadPoolExecutor executor;
+
+	protected ConcurrentProbesScenario(final String description,
+			final Class<? extends Callable<Void>> target, final int threads) {
+		super(String.format("%s, %s threads", description,
+				Integer.valueOf(threads)));
+		this.target = target;
+		this.threads = threads;
+	}
+
+	@Override
+	public void run(final IPerfOutput output) throws Exception {
+		executor = new ThreadPoolExecutor(threads, threads, 0L,
+				TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+		executor.prestartAllCoreThreads();
+		try {
+			super.run(output);
+		} finally {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	@Override
+	protected Callable<Void> getInstrumentedCallable() throws Exception {
+		return concurrent(instrument(true));
+	}
+
+	@Override
+	protected Callable<Void> getReferenceCallable() throws Exception {
+		return concurrent(instrument(false));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Callable<Void> instrument(final boolean conditionalProbes)
+			throws Exception {
+		final IRuntime runtime = new LoggerRuntime();
+		runtime.startup(new RuntimeData());
+		final Instrumenter instr = new Instrumenter(runtime);
+		instr.setConditionalProbes(conditionalProbes);
+		final byte[] original = TargetLoader.getClassDataAsBytes(target);
+		final byte[] instrumentedBuffer = instr.instrument(original, "");
+		final TargetLoader loader = new TargetLoader();
+
+		return (Callable<Void>) loader.add(target, instrumentedBuffer)
+				.newInstance();
+	}
+
+	private Callable<Void> concurrent(final Callable<Void> subject) {
+		return new Callable<Void>() {
+			public Void call() throws Exception {
+				final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+				for (int i = 0; i < threads; i++) {
+					futures.add(executor.submit(subject));
+				}
+				for (final Future<Void> f : futures) {
+					f.get();
+				}
+				return null;
+			}
+		};
+	}
+
+}
@@ -33,6 +33,11 @@ public class PerformanceSuite implements IPerfScenario {
 		new InstrumentationSizeSzenario(Target03.class).run(output);
 		new InstrumentationTimeScenario(Target03.class, 1000).run(output);
 		new AnalysisTimeScenario(Target03.class, 1000).run(output);
+		new ConcurrentProbesScenario("loop only", Target02.class, 8)
+				.run(output);
+		new ConcurrentProbesScenario("game of life", Target03.class, 8)
+				.run(output);
+		new WildcardMatcherScenario(200, 10000).run(output);
 	}
 
 	public static void main(String[] args) throws Exception {
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.internal.diff.ClassInfoDto;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link AnalysisCache}.
+ */
+public class AnalysisCacheTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private AnalysisCache cache;
+
+	@Before
+	public void setup() {
+		cache = new AnalysisCache();
+	}
+
+	@After
+	public void teardown() {
+		ExecFileLoader.classInfoDto.remove();
+		ExecFileLoader.probesMap.remove();
+	}
+
+	@Test
+	public void getExecutionData_should_return_loader_for_equal_key() {
+		final ExecFileLoader loader = new ExecFileLoader();
+		cache.putExecutionData(new AnalysisCache.Key().add("a"), loader);
+
+		assertSame(loader,
+				cache.getExecutionData(new AnalysisCache.Key().add("a")));
+		assertNull(cache.getExecutionData(new AnalysisCache.Key().add("b")));
+	}
+
+	@Test
+	public void getAnalysis_should_return_builder_for_equal_key() {
+		final CoverageBuilder builder = new CoverageBuilder();
+		cache.putAnalysis(new AnalysisCache.Key().add("a"), builder);
+
+		assertSame(builder,
+				cache.getAnalysis(new AnalysisCache.Key().add("a")));
+		assertNull(cache.getAnalysis(new AnalysisCache.Key().add("b")));
+	}
+
+	@Test
+	public void getAnalysis_should_not_cache_analysis_in_diff_scope() {
+		ExecFileLoader.classInfoDto
+				.set(Collections.<ClassInfoDto> emptyList());
+		cache.putAnalysis(new AnalysisCache.Key().add("a"),
+				new CoverageBuilder());
+		ExecFileLoader.classInfoDto.remove();
+
+		assertNull(cache.getAnalysis(new AnalysisCache.Key().add("a")));
+	}
+
+	@Test
+	public void getAnalysis_should_not_return_cached_analysis_in_diff_scope() {
+		cache.putAnalysis(new AnalysisCache.Key().add("a"),
+				new CoverageBuilder());
+		ExecFileLoader.classInfoDto.set(new ArrayList<ClassInfoDto>());
+
+		assertNull(cache.getAnalysis(new AnalysisCache.Key().add("a")));
+	}
+
+	@Test
+	public void getAnalysis_should_not_cache_analysis_with_merge_data() {
+		ExecFileLoader.probesMap.set(new HashMap<String, boolean[]>());
+		cache.putAnalysis(new AnalysisCache.Key().add("a"),
+				new CoverageBuilder());
+		ExecFileLoader.probesMap.remove();
+
+		assertNull(cache.getAnalysis(new AnalysisCache.Key().add("a")));
+	}
+
+	@Test
+	public void key_should_include_state_of_files_in_directories()
+			throws IOException {
+		final File dir = folder.newFolder();
+		final File file = new File(new File(dir, "sub"), "A.class");
+		file.getParentFile().mkdir();
+		write(file, 1);
+		final AnalysisCache.Key key = new AnalysisCache.Key().addFile(dir);
+
+		assertEquals(key, new AnalysisCache.Key().addFile(dir));
+		assertEquals(key.hashCode(),
+				new AnalysisCache.Key().addFile(dir).hashCode());
+
+		write(file, 2);
+		assertNotEquals(key, new AnalysisCache.Key().addFile(dir));
+	}
+
+	@Test
+	public void key_should_distinguish_order_of_values() {
+		assertNotEquals(new AnalysisCache.Key().add("a").add("b"),
+				new AnalysisCache.Key().add("b").add("a"));
+		assertNotEquals(new AnalysisCache.Key().add("a"), "a");
+	}
+
+	private static void write(final File file, final int size)
+			throws IOException {
+		final FileOutputStream out = new FileOutputStream(file);
+		out.write(new byte[size]);
+		out.close();
+	}
+
+}
@@ -13,6 +13,7 @@
 package org.jacoco.core.tools;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -21,14 +22,25 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
 import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.ExecutionDataReader;
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.data.ExecutionDataWriter;
 import org.jacoco.core.data.SessionInfo;
 import org.jacoco.core.data.SessionInfoStore;
+import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.core.internal.instr.InstrSupport;
+import org.jacoco.core.internal.instr.ProbeArrayStrategyFactory;
+import org.jacoco.core.test.TargetLoader;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -114,6 +126,56 @@ public class ExecFileLoaderTest {
 		assertFileContents(file, "a");
 	}
 
+	@Test
+	public void withThreadData_should_merge_on_other_threads()
+			throws Exception {
+		final byte[] bytes = TargetLoader.getClassDataAsBytes(Target.class);
+		final long id = CRC64.classId(bytes);
+		final String name = "org/jacoco/core/tools/ExecFileLoaderTest$Target";
+		final boolean[] previous = new boolean[ProbeArrayStrategyFactory
+				.getProbeCounter(InstrSupport.classReaderFor(bytes))
+				.getCount()];
+		Arrays.fill(previous, true);
+		final ExecutionDataStore previousStore = new ExecutionDataStore();
+		previousStore.put(new ExecutionData(id, name, previous));
+		final CoverageBuilder merge = new CoverageBuilder();
+		merge.setOnlyAnaly(true);
+		new Analyzer(previousStore, merge).analyzeClass(bytes, "Target");
+
+		final ExecutionDataStore store = new ExecutionDataStore();
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			final Callable<Integer> task = ExecFileLoader
+					.withThreadData(new Callable<Integer>() {
+						public Integer call() throws IOException {
+							final CoverageBuilder builder = new CoverageBuilder();
+							new Analyzer(store, builder).analyzeClass(bytes,
+									"Target");
+							return Integer.valueOf(builder.getClasses()
+									.iterator().next().getInstructionCounter()
+									.getCoveredCount());
+						}
+					});
+			final Future<Integer> first = executor.submit(task);
+			final Future<Integer> second = executor.submit(task);
+
+			assertTrue(first.get().intValue() > 0);
+			assertEquals(first.get(), second.get());
+		} finally {
+			executor.shutdown();
+			ExecFileLoader.instrunctionsThreadLocal.remove();
+			ExecFileLoader.probesMap.remove();
+		}
+	}
+
+	public static class Target {
+
+		public int run(final int x) {
+			return x > 0 ? 1 : 2;
+		}
+
+	}
+
 	private File createFile(String id) throws IOException {
 		final File file = new File(sourceFolder.getRoot(), id + ".exec");
 		final FileOutputStream out = new FileOutputStream(file);
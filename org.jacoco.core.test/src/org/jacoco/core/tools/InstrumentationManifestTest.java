@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link InstrumentationManifest}.
+ */
+public class InstrumentationManifestTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void isUnchanged_should_compare_recorded_checksum() {
+		final InstrumentationManifest manifest = new InstrumentationManifest();
+		manifest.put("a/B.class", 0x1234);
+
+		assertTrue(manifest.isUnchanged("a/B.class", 0x1234));
+		assertFalse(manifest.isUnchanged("a/B.class", 0x5678));
+		assertFalse(manifest.isUnchanged("a/C.class", 0x1234));
+	}
+
+	@Test
+	public void load_should_read_saved_manifest() throws IOException {
+		final File file = new File(folder.getRoot(), "manifest");
+		final InstrumentationManifest manifest = new InstrumentationManifest(
+				"settings");
+		manifest.put("lib/a b.jar", 0x1234);
+		manifest.put("lib/a b.jar@C.class", 0xfedcba9876543210L);
+		manifest.save(file);
+
+		final InstrumentationManifest loaded = new InstrumentationManifest(
+				"settings");
+		loaded.load(file);
+
+		assertEquals(2, loaded.size());
+		assertTrue(loaded.isUnchanged("lib/a b.jar", 0x1234));
+		assertTrue(loaded.isUnchanged("lib/a b.jar@C.class",
+				0xfedcba9876543210L));
+	}
+
+	@Test
+	public void load_should_ignore_manifest_with_other_settings()
+			throws IOException {
+		final File file = new File(folder.getRoot(), "manifest");
+		final InstrumentationManifest manifest = new InstrumentationManifest(
+				"settings");
+		manifest.put("a/B.class", 0x1234);
+		manifest.save(file);
+
+		final InstrumentationManifest loaded = new InstrumentationManifest(
+				"other");
+		loaded.load(file);
+
+		assertEquals(0, loaded.size());
+	}
+
+	@Test
+	public void load_should_ignore_missing_file() throws IOException {
+		final InstrumentationManifest manifest = new InstrumentationManifest();
+
+		manifest.load(new File(folder.getRoot(), "missing"));
+
+		assertEquals(0, manifest.size());
+	}
+
+	@Test
+	public void load_should_throw_exception_for_invalid_format()
+			throws IOException {
+		final File file = new File(folder.getRoot(), "manifest");
+		new InstrumentationManifest().save(file);
+		final OutputStream out = new FileOutputStream(file, true);
+		out.write("xyz a/B.class\n".getBytes("UTF-8"));
+		out.close();
+
+		try {
+			new InstrumentationManifest().load(file);
+			fail("IOException expected");
+		} catch (final IOException e) {
+			assertEquals("Invalid instrumentation manifest " + file + ".",
+					e.getMessage());
+		}
+	}
+
+	@Test
+	public void checksum_should_depend_on_content() throws IOException {
+		final File a = new File(folder.getRoot(), "a");
+		final File b = new File(folder.getRoot(), "b");
+		write(a, new byte[] { 1, 2, 3 });
+		write(b, new byte[] { 1, 2, 4 });
+
+		assertEquals(InstrumentationManifest.checksum(a),
+				InstrumentationManifest.checksum(a));
+		assertFalse(InstrumentationManifest.checksum(a) == InstrumentationManifest
+				.checksum(b));
+	}
+
+	private static void write(final File file, final byte[] content)
+			throws IOException {
+		final OutputStream out = new FileOutputStream(file);
+		out.write(content);
+		out.close();
+	}
+
+}
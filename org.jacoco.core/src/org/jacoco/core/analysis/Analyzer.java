@@ -66,6 +66,8 @@ public class Analyzer {
 
 	private List<ClassInfoDto> classInfos;
 
+	private boolean minimalProbes;
+
 	/**
 	 * Creates a new analyzer reporting to the given output.
 	 *
@@ -77,9 +79,64 @@ public class Analyzer {
 	 */
 	public Analyzer(final ExecutionDataStore executionData,
 			final ICoverageVisitor coverageVisitor) {
+		this(executionData, coverageVisitor, new StringPool());
+	}
+
+	/**
+	 * Creates a new analyzer reporting to the given output which holds at
+	 * most about the given number of distinct names and descriptors for
+	 * deduplication. This limits the memory footprint of long-lived analyzer
+	 * instances.
+	 *
+	 * @param executionData
+	 *            execution data
+	 * @param coverageVisitor
+	 *            the output instance that will coverage data for every analyzed
+	 *            class
+	 * @param stringPoolSize
+	 *            maximum number of strings kept for deduplication
+	 */
+	public Analyzer(final ExecutionDataStore executionData,
+			final ICoverageVisitor coverageVisitor, final int stringPoolSize) {
+		this(executionData, coverageVisitor, new StringPool(stringPoolSize));
+	}
+
+	/**
+	 * Creates a new analyzer reporting to the given output which deduplicates
+	 * names and descriptors with the given pool. Analyzers running in parallel
+	 * can share one pool, therefore the pool must be thread safe, which is the
+	 * case for {@link StringPool}.
+	 *
+	 * @param executionData
+	 *            execution data
+	 * @param coverageVisitor
+	 *            the output instance that will coverage data for every analyzed
+	 *            class
+	 * @param stringPool
+	 *            thread safe pool used for deduplication
+	 */
+	public Analyzer(final ExecutionDataStore executionData,
+			final ICoverageVisitor coverageVisitor,
+			final StringPool stringPool) {
 		this.executionData = executionData;
 		this.coverageVisitor = coverageVisitor;
-		this.stringPool = new StringPool();
+		this.stringPool = stringPool;
+	}
+
+	/**
+	 * Determines whether the status of probes implied by other probes of the
+	 * same method is derived from these probes. This is required for execution
+	 * data of classes instrumented with
+	 * {@link org.jacoco.core.instr.Instrumenter#setMinimalProbes(boolean)}
+	 * and costs an additional pass over every method otherwise. Default is
+	 * <code>false</code>.
+	 *
+	 * @param flag
+	 *            <code>true</code> if the status of implied probes should be
+	 *            derived
+	 */
+	public void setMinimalProbes(final boolean flag) {
+		this.minimalProbes = flag;
 	}
 
 	/**
@@ -93,18 +150,27 @@ public class Analyzer {
 	 */
 	private ClassVisitor createAnalyzingVisitor(final long classid,
 			final String className, boolean onlyAnaly,ClassReader reader) {
-		final ExecutionData data = executionData.get(classid);
 		final boolean[] probes;
 		final boolean noMatch;
-		if (data == null) {
-			int probeCount = ProbeArrayStrategyFactory.getProbeCounter(reader).getCount();
-			probes = new boolean[probeCount];
-			ExecutionData addEmptyExecutionData=new ExecutionData(classid,className,probes);
-			executionData.put(addEmptyExecutionData);
-			noMatch = false;
-		} else {
-			probes = data.getProbes();
-			noMatch = false;
+		// Analyzers running in parallel may share the store and add entries:
+		synchronized (executionData) {
+			final ExecutionData data = executionData.get(classid);
+			if (data != null) {
+				probes = data.getProbes();
+				noMatch = false;
+			} else if (onlyAnaly || hasMergeData(className)) {
+				// 合并exec时需要探针数组记录合并结果，并写回到执行数据中
+				int probeCount = ProbeArrayStrategyFactory.getProbeCounter(reader).getCount();
+				probes = new boolean[probeCount];
+				ExecutionData addEmptyExecutionData=new ExecutionData(classid,className,probes);
+				executionData.put(addEmptyExecutionData);
+				noMatch = false;
+			} else {
+				// The class has not been executed: without probe array all
+				// instructions and branches are reported as missed
+				probes = null;
+				noMatch = false;
+			}
 		}
 		final ClassCoverageImpl coverage = new ClassCoverageImpl(className, classid, noMatch);
 		final ClassAnalyzer analyzer = new ClassAnalyzer(coverage, probes, stringPool, this.classInfos, onlyAnaly) {
@@ -116,7 +182,13 @@ public class Analyzer {
 				coverageVisitor.visitCoverage(coverage);
 			}
 		};
-		return new ClassProbesAdapter(analyzer, false);
+		return new ClassProbesAdapter(analyzer, false, minimalProbes);
+	}
+
+	private static boolean hasMergeData(final String className) {
+		final Map<String, Map<String, Map<String, Instruction>>> instructions = ExecFileLoader.instrunctionsThreadLocal
+				.get();
+		return instructions != null && instructions.containsKey(className);
 	}
 
 	private void analyzeClass(final byte[] source) {
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.instr;
+
+import java.io.IOException;
+
+/**
+ * Storage for instrumented class definitions which allows an
+ * {@link Instrumenter} to reuse the results of a previous run for unchanged
+ * classes. Implementations must be thread safe if the instrumenter is used with
+ * an executor.
+ */
+public interface IInstrumentationCache {
+
+	/**
+	 * Returns a previously instrumented version of the given class.
+	 *
+	 * @param classId
+	 *            CRC64 id of the original class definition
+	 * @param name
+	 *            name of the class as passed to the {@link Instrumenter}, for
+	 *            archive entries the name of the archive followed by
+	 *            <code>@</code> and the entry name
+	 * @return instrumented definition or <code>null</code> if the class has
+	 *         to be instrumented
+	 * @throws IOException
+	 *             if the cached definition can't be read
+	 */
+	byte[] get(long classId, String name) throws IOException;
+
+	/**
+	 * Stores the instrumented version of the given class.
+	 *
+	 * @param classId
+	 *            CRC64 id of the original class definition
+	 * @param name
+	 *            name of the class as passed to the {@link Instrumenter}
+	 * @param instrumented
+	 *            instrumented definition
+	 * @throws IOException
+	 *             if the definition can't be stored
+	 */
+	void put(long classId, String name, byte[] instrumented) throws IOException;
+
+}
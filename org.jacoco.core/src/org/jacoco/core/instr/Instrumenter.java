@@ -12,10 +12,19 @@
  *******************************************************************************/
 package org.jacoco.core.instr;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.zip.CRC32;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -27,6 +36,8 @@ import org.jacoco.core.internal.ContentTypeDetector;
 import org.jacoco.core.internal.InputStreams;
 import org.jacoco.core.internal.Pack200Streams;
 import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.core.internal.diff.ClassInfoDto;
+import org.jacoco.core.internal.diff.CodeDiffUtil;
 import org.jacoco.core.internal.flow.ClassProbesAdapter;
 import org.jacoco.core.internal.instr.ClassInstrumenter;
 import org.jacoco.core.internal.instr.IProbeArrayStrategy;
@@ -34,6 +45,7 @@ import org.jacoco.core.internal.instr.InstrSupport;
 import org.jacoco.core.internal.instr.ProbeArrayStrategyFactory;
 import org.jacoco.core.internal.instr.SignatureRemover;
 import org.jacoco.core.runtime.IExecutionDataAccessorGenerator;
+import org.jacoco.core.runtime.ProbeArena;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
@@ -43,10 +55,27 @@ import org.objectweb.asm.ClassWriter;
  */
 public class Instrumenter {
 
+	/**
+	 * Maximum number of ZIP entries kept in memory for parallel processing.
+	 */
+	private static final int MAX_PENDING_ENTRIES = 64;
+
 	private final IExecutionDataAccessorGenerator accessorGenerator;
 
 	private final SignatureRemover signatureRemover;
 
+	private boolean conditionalProbes;
+
+	private boolean minimalProbes;
+
+	private ProbeArena probeArena;
+
+	private Executor executor;
+
+	private IInstrumentationCache cache;
+
+	private List<ClassInfoDto> diffScope;
+
 	/**
 	 * Creates a new instance based on the given runtime.
 	 *
@@ -71,7 +100,95 @@ public class Instrumenter {
 		signatureRemover.setActive(flag);
 	}
 
-	private byte[] instrument(final byte[] source) {
+	/**
+	 * Determines whether probes should only write to the probe array if the
+	 * probe has not been set before. Such conditional probes avoid repeated
+	 * writes to the same memory from multiple threads which can slow down
+	 * highly concurrent applications. Default is <code>false</code>.
+	 *
+	 * @param flag
+	 *            <code>true</code> if conditional probes should be inserted
+	 */
+	public void setConditionalProbes(final boolean flag) {
+		this.conditionalProbes = flag;
+	}
+
+	/**
+	 * Determines whether probes are omitted if their execution status is
+	 * implied by other probes of the same method. This is the case for probes
+	 * in blocks which can only be entered through edges with probes and which
+	 * do not contain instructions that may throw exceptions before the probe.
+	 * The {@link org.jacoco.core.analysis.Analyzer} derives the status of such
+	 * probes if enabled with
+	 * {@link org.jacoco.core.analysis.Analyzer#setMinimalProbes(boolean)}, so
+	 * the reported coverage is the same. Default is <code>false</code>.
+	 *
+	 * @param flag
+	 *            <code>true</code> if implied probes should be omitted
+	 */
+	public void setMinimalProbes(final boolean flag) {
+		this.minimalProbes = flag;
+	}
+
+	/**
+	 * Sets an arena in which the probes of regular classes are stored. The
+	 * probe indexes of such classes are assigned during instrumentation,
+	 * therefore the instrumented classes can only be used with the runtime
+	 * owning the arena. Default is <code>null</code> which gives every class
+	 * its own probe array.
+	 *
+	 * @param arena
+	 *            arena for probes or <code>null</code>
+	 */
+	public void setProbeArena(final ProbeArena arena) {
+		this.probeArena = arena;
+	}
+
+	/**
+	 * Sets an executor to instrument the entries of ZIP archives in parallel.
+	 * The entries are still read and written by the calling thread in their
+	 * original order, so the output is identical to the output created without
+	 * executor. Threads waiting for an entry process it themselves if it has
+	 * not been started yet, therefore the same executor can also be used to
+	 * call this instrumenter for multiple files in parallel. Default is
+	 * <code>null</code> which processes all entries on the calling thread.
+	 *
+	 * @param executor
+	 *            executor for entries or <code>null</code>
+	 */
+	public void setExecutor(final Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets a cache for instrumented classes. Classes found in the cache are not
+	 * instrumented again, newly instrumented classes are added to the cache.
+	 * The cache is only used for regular instrumentation with probes. Default
+	 * is <code>null</code> which instruments every class.
+	 *
+	 * @param cache
+	 *            cache for instrumented classes or <code>null</code>
+	 */
+	public void setCache(final IInstrumentationCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Restricts instrumentation to the changed classes and methods described
+	 * by the given diff. Classes outside the diff are not modified and not
+	 * counted as instrumented, within changed classes only changed methods
+	 * get probes. Such classes should be
+	 * analyzed with the same diff. Default is <code>null</code> which
+	 * instruments all classes.
+	 *
+	 * @param classInfos
+	 *            changed classes and methods or <code>null</code>
+	 */
+	public void setDiffScope(final List<ClassInfoDto> classInfos) {
+		this.diffScope = classInfos;
+	}
+
+	private byte[] instrument(final byte[] source, final boolean probes) {
 		final long classId = CRC64.classId(source);
 		final ClassReader reader = InstrSupport.classReaderFor(source);
 		final ClassWriter writer = new ClassWriter(reader, 0) {
@@ -82,13 +199,17 @@ public class Instrumenter {
 			}
 		};
 		// 根据jdk版本创建插桩策略类，非模块和接口类使用ClassFieldProbeArrayStrategy，这个类插入jacocoData和方法jacocoinit()方法
-		final IProbeArrayStrategy strategy = ProbeArrayStrategyFactory
-				.createFor(classId, reader, accessorGenerator);
+		final IProbeArrayStrategy strategy = probeArena == null
+				? ProbeArrayStrategyFactory.createFor(classId, reader,
+						accessorGenerator)
+				: ProbeArrayStrategyFactory.createFor(classId, reader,
+						accessorGenerator, probeArena);
 		final int version = InstrSupport.getMajorVersion(reader);
 		// 插桩的核心适配类ClassProbesAdapter，整个插桩的入口类，继承asm的ClassVisitor，成员变量cv赋值为ClassInstrumenter，这也是一个ClassVisitor
 		final ClassVisitor visitor = new ClassProbesAdapter(
-				new ClassInstrumenter(strategy, writer),
-				InstrSupport.needsFrames(version));
+				new ClassInstrumenter(strategy, conditionalProbes, probes,
+						diffScope, writer),
+				InstrSupport.needsFrames(version), minimalProbes);
 		// 开始遍历类文件，通过访问者策略模式依次访问visit，visitSource，visitModule等等，我们主要关注的是this.readMethod(classVisitor,
 		// context, currentOffset)方法
 		// 此方法会调用classVisitor.visitMethod,因为传入的是ClassProbesAdapter，所以ClassProbesAdapter的visitMethod会被调用，接着看ClassProbesAdapter的visitMethod
@@ -109,8 +230,63 @@ public class Instrumenter {
 	 */
 	public byte[] instrument(final byte[] buffer, final String name)
 			throws IOException {
+		if (!isInDiffScope(buffer, name)) {
+			return buffer;
+		}
+		if (cache == null) {
+			return instrumentWithProbes(buffer, name);
+		}
+		final long classId = CRC64.classId(buffer);
+		byte[] result = cache.get(classId, name);
+		if (result == null) {
+			result = instrumentWithProbes(buffer, name);
+			cache.put(classId, name, result);
+		}
+		return result;
+	}
+
+	private boolean isInDiffScope(final byte[] buffer, final String name)
+			throws IOException {
+		if (diffScope == null) {
+			return true;
+		}
+		try {
+			final String className = InstrSupport.classReaderFor(buffer)
+					.getClassName();
+			return CodeDiffUtil.checkClassIn(className, diffScope)
+					.booleanValue();
+		} catch (final RuntimeException e) {
+			throw instrumentError(name, e);
+		}
+	}
+
+	private byte[] instrumentWithProbes(final byte[] buffer,
+			final String name) throws IOException {
+		try {
+			return instrument(buffer, true);
+		} catch (final RuntimeException e) {
+			throw instrumentError(name, e);
+		}
+	}
+
+	/**
+	 * Creates a version of the given class which declares the same members as
+	 * the instrumented version but contains no probes. Such a version can
+	 * replace an instrumented class through retransformation to remove the
+	 * overhead of the probes, e.g. once all probes have been executed.
+	 *
+	 * @param buffer
+	 *            original definition of the class
+	 * @param name
+	 *            a name used for exception messages
+	 * @return definition without probes
+	 * @throws IOException
+	 *             if the class can't be processed
+	 */
+	public byte[] instrumentWithoutProbes(final byte[] buffer,
+			final String name) throws IOException {
 		try {
-			return instrument(buffer);
+			return instrument(buffer, false);
 		} catch (final RuntimeException e) {
 			throw instrumentError(name, e);
 		}
@@ -196,8 +372,7 @@ public class Instrumenter {
 		}
 		switch (detector.getType()) {
 		case ContentTypeDetector.CLASSFILE:
-			instrument(detector.getInputStream(), output, name);
-			return 1;
+			return instrumentClass(detector.getInputStream(), output, name);
 		case ContentTypeDetector.ZIPFILE:
 			return instrumentZip(detector.getInputStream(), output, name);
 		case ContentTypeDetector.GZFILE:
@@ -210,8 +385,28 @@ public class Instrumenter {
 		}
 	}
 
+	/**
+	 * @return 1 if the class has been instrumented, 0 if it has been copied
+	 *         unchanged as it is not within the diff scope
+	 */
+	private int instrumentClass(final InputStream input,
+			final OutputStream output, final String name) throws IOException {
+		final byte[] source;
+		try {
+			source = InputStreams.readFully(input);
+		} catch (final IOException e) {
+			throw instrumentError(name, e);
+		}
+		final byte[] result = instrument(source, name);
+		output.write(result);
+		return result == source ? 0 : 1;
+	}
+
 	private int instrumentZip(final InputStream input,
 			final OutputStream output, final String name) throws IOException {
+		if (executor != null) {
+			return instrumentZipParallel(input, output, name);
+		}
 		final ZipInputStream zipin = new ZipInputStream(input);
 		final ZipOutputStream zipout = new ZipOutputStream(output);
 		ZipEntry entry;
@@ -250,6 +445,127 @@ public class Instrumenter {
 		return count;
 	}
 
+	private int instrumentZipParallel(final InputStream input,
+			final OutputStream output, final String name) throws IOException {
+		final ZipInputStream zipin = new ZipInputStream(input);
+		final ZipOutputStream zipout = new ZipOutputStream(output);
+		final Deque<EntryTask> pending = new ArrayDeque<EntryTask>();
+		ZipEntry entry;
+		int count = 0;
+		try {
+			while ((entry = nextEntry(zipin, name)) != null) {
+				final String entryName = entry.getName();
+				if (signatureRemover.removeEntry(entryName)) {
+					continue;
+				}
+				final byte[] source;
+				try {
+					source = InputStreams.readFully(zipin);
+				} catch (final IOException e) {
+					throw instrumentError(name + "@" + entryName, e);
+				}
+				final EntryTask task = new EntryTask(name, entryName,
+						entry.getMethod(), source);
+				pending.add(task);
+				executor.execute(task.future);
+				if (pending.size() >= MAX_PENDING_ENTRIES) {
+					count += writeEntry(pending.remove(), zipout);
+				}
+			}
+			while (!pending.isEmpty()) {
+				count += writeEntry(pending.remove(), zipout);
+			}
+		} finally {
+			for (final EntryTask task : pending) {
+				task.future.cancel(false);
+			}
+		}
+		zipout.finish();
+		return count;
+	}
+
+	private static int writeEntry(final EntryTask task,
+			final ZipOutputStream zipout) throws IOException {
+		final byte[] bytes = await(task.future);
+		final ZipEntry newEntry = new ZipEntry(task.entryName);
+		newEntry.setMethod(task.method);
+		switch (task.method) {
+		case ZipEntry.DEFLATED:
+			break;
+		case ZipEntry.STORED:
+			newEntry.setSize(bytes.length);
+			newEntry.setCompressedSize(bytes.length);
+			newEntry.setCrc(crc(bytes));
+			break;
+		default:
+			throw new AssertionError(task.method);
+		}
+		zipout.putNextEntry(newEntry);
+		zipout.write(bytes);
+		zipout.closeEntry();
+		return task.count;
+	}
+
+	/**
+	 * Waits for the result of the given task. If the task has not been
+	 * started yet it is executed on the calling thread. Therefore waiting
+	 * threads only block for tasks which are already running and nested
+	 * archives can not dead-lock a bounded executor.
+	 */
+	private static <T> T await(final FutureTask<T> future) throws IOException {
+		future.run();
+		try {
+			return future.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * Instrumentation of a single ZIP entry which has been read into memory.
+	 */
+	private class EntryTask implements Callable<byte[]> {
+
+		final FutureTask<byte[]> future = new FutureTask<byte[]>(this);
+
+		final String name;
+		final String entryName;
+		final int method;
+		final byte[] source;
+
+		int count;
+
+		EntryTask(final String name, final String entryName, final int method,
+				final byte[] source) {
+			this.name = name;
+			this.entryName = entryName;
+			this.method = method;
+			this.source = source;
+		}
+
+		public byte[] call() throws IOException {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream(
+					source.length);
+			count = filterOrInstrument(new ByteArrayInputStream(source), out,
+					name, entryName);
+			return out.toByteArray();
+		}
+
+	}
+
 	private int filterOrInstrument(final InputStream in, final OutputStream out,
 			final String name, final String entryName) throws IOException {
 		if (signatureRemover.filterEntry(entryName, in, out)) {
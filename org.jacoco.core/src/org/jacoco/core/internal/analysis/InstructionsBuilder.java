@@ -38,6 +38,11 @@ public class InstructionsBuilder {
      */
     private final boolean[] probes;
 
+    /**
+     * Source probes of probes which are implied by other probes.
+     */
+    private final Map<Integer, int[]> impliedProbes = new HashMap<Integer, int[]>();
+
     /**
      * The line which belong to subsequently added instructions.
      */
@@ -209,6 +214,33 @@ public class InstructionsBuilder {
         jumps.add(new Jump(currentInsn, target, branch));
     }
 
+    /**
+     * Declares a probe whose status is implied by other probes. Such probes
+     * might not have been inserted into the instrumented class, their status
+     * is derived from the source probes instead.
+     *
+     * @param probeId   index of the implied probe in the probe array
+     * @param sourceIds indexes of the probes implying the probe
+     */
+    void addImpliedProbe(final int probeId, final int[] sourceIds) {
+        impliedProbes.put(Integer.valueOf(probeId), sourceIds);
+    }
+
+    private boolean isExecuted(final int probeId) {
+        if (probes[probeId]) {
+            return true;
+        }
+        final int[] sourceIds = impliedProbes.get(Integer.valueOf(probeId));
+        if (sourceIds != null) {
+            for (final int id : sourceIds) {
+                if (probes[id]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Adds a new probe for the last instruction.
      *
@@ -216,7 +248,7 @@ public class InstructionsBuilder {
      * @param branch  unique branch number for the last instruction
      */
     void addProbe(final int probeId, final int branch) {
-        final boolean executed = probes != null && probes[probeId];
+        final boolean executed = probes != null && isExecuted(probeId);
         // 记录指令probeId
         if (probes != null) {
             currentInsn.setProbeIndex(probeId);
@@ -206,6 +206,11 @@ public class MethodAnalyzer extends MethodProbesVisitor {
         builder.addInstruction(currentNode, sign, currentProbeId);
     }
 
+    @Override
+    public void visitImpliedProbe(final int probeId, final int[] sourceIds) {
+        builder.addImpliedProbe(probeId, sourceIds);
+    }
+
     @Override
     public void visitProbe(final int probeId) {
         builder.addProbe(probeId, 0);
@@ -13,22 +13,55 @@
  *******************************************************************************/
 package org.jacoco.core.internal.analysis;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utility to normalize {@link String} instances in a way that if
  * <code>equals()</code> is <code>true</code> for two strings they will be
  * represented the same instance. While this is exactly what
  * {@link String#intern()} does, this implementation avoids VM specific side
- * effects and is supposed to be faster, as neither native code is called nor
- * synchronization is required for concurrent lookup.
+ * effects and is supposed to be faster, as no native code is called. Lookups
+ * are lock-free, so a single pool can be shared by analyzers running in
+ * parallel.
+ * <p>
+ * A pool can be created with a maximum size for long-lived instances. Once the
+ * maximum is exceeded the pool is cleared and starts over. As the pool only
+ * saves memory this does not affect the results, strings added before the
+ * reset are merely not shared with strings added after it.
  */
 public final class StringPool {
 
 	private static final String[] EMPTY_ARRAY = new String[0];
 
-	private final Map<String, String> pool = new HashMap<String, String>(1024);
+	private final int maximumSize;
+
+	private final ConcurrentMap<String, String> pool = new ConcurrentHashMap<String, String>(
+			1024);
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * Creates a pool without size limit.
+	 */
+	public StringPool() {
+		this(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Creates a pool which holds at most about the given number of strings.
+	 *
+	 * @param maximumSize
+	 *            maximum number of strings in the pool
+	 */
+	public StringPool(final int maximumSize) {
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException(
+					"maximum size must be greater than zero");
+		}
+		this.maximumSize = maximumSize;
+	}
 
 	/**
 	 * Returns a normalized instance that is equal to the given {@link String} .
@@ -42,11 +75,34 @@ public final class StringPool {
 			return null;
 		}
 		final String norm = pool.get(s);
-		if (norm == null) {
-			pool.put(s, s);
-			return s;
+		if (norm != null) {
+			return norm;
+		}
+		final String concurrent = pool.putIfAbsent(s, s);
+		if (concurrent != null) {
+			return concurrent;
+		}
+		if (size.incrementAndGet() > maximumSize) {
+			reset();
+		}
+		return s;
+	}
+
+	private synchronized void reset() {
+		// Another thread might have reset the pool in the meantime:
+		if (size.get() > maximumSize) {
+			pool.clear();
+			size.set(0);
 		}
-		return norm;
+	}
+
+	/**
+	 * Returns the number of strings currently held by this pool.
+	 *
+	 * @return number of strings
+	 */
+	public int size() {
+		return pool.size();
 	}
 
 	/**
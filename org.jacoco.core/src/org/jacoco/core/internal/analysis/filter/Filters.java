@@ -26,6 +26,8 @@ public final class Filters implements IFilter {
 
 	private final IFilter[] filters;
 
+	private final IFilterPrecondition[] preconditions;
+
 	/**
 	 * Creates filter that combines all other filters.
 	 *
@@ -51,12 +53,28 @@ public final class Filters implements IFilter {
 
 	private Filters(final IFilter... filters) {
 		this.filters = filters;
+		this.preconditions = new IFilterPrecondition[filters.length];
+		for (int i = 0; i < filters.length; i++) {
+			if (filters[i] instanceof IFilterPrecondition) {
+				preconditions[i] = (IFilterPrecondition) filters[i];
+			}
+		}
 	}
 
 	public void filter(final MethodNode methodNode,
 			final IFilterContext context, final IFilterOutput output) {
-		for (final IFilter filter : filters) {
-			filter.filter(methodNode, context, output);
+		MethodSummary summary = null;
+		for (int i = 0; i < filters.length; i++) {
+			final IFilterPrecondition precondition = preconditions[i];
+			if (precondition != null) {
+				if (summary == null) {
+					summary = new MethodSummary(methodNode);
+				}
+				if (!precondition.isApplicable(summary)) {
+					continue;
+				}
+			}
+			filters[i].filter(methodNode, context, output);
 		}
 	}
 
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.analysis.filter;
+
+/**
+ * Optional interface for filters which can only match methods with certain
+ * opcodes or exception handlers. {@link Filters} only invokes such filters for
+ * methods that fulfill their precondition.
+ */
+public interface IFilterPrecondition {
+
+	/**
+	 * Checks whether the filter could match the method with the given summary.
+	 * The check must never reject a method the filter would match.
+	 *
+	 * @param summary
+	 *            summary of the method
+	 * @return <code>false</code> if the filter can't match the method
+	 */
+	boolean isApplicable(MethodSummary summary);
+
+}
@@ -20,7 +20,15 @@ import org.objectweb.asm.tree.MethodNode;
  * Filters branch in bytecode that Kotlin compiler generates for reading from
  * <code>lateinit</code> properties.
  */
-public class KotlinLateinitFilter implements IFilter {
+public class KotlinLateinitFilter implements IFilter,
+		IFilterPrecondition {
+
+	private static final long[] REQUIRED = MethodSummary
+			.opcodes(Opcodes.IFNONNULL, Opcodes.LDC, Opcodes.INVOKESTATIC);
+
+	public boolean isApplicable(final MethodSummary summary) {
+		return summary.containsAll(REQUIRED);
+	}
 
 	public void filter(final MethodNode methodNode,
 			final IFilterContext context, final IFilterOutput output) {
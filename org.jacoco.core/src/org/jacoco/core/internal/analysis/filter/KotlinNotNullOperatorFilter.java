@@ -20,7 +20,15 @@ import org.objectweb.asm.tree.MethodNode;
  * Filters branch in bytecode that Kotlin compiler generates for not-null
  * assertion operator.
  */
-public final class KotlinNotNullOperatorFilter implements IFilter {
+public final class KotlinNotNullOperatorFilter implements IFilter,
+		IFilterPrecondition {
+
+	private static final long[] REQUIRED = MethodSummary
+			.opcodes(Opcodes.IFNONNULL, Opcodes.INVOKESTATIC);
+
+	public boolean isApplicable(final MethodSummary summary) {
+		return summary.containsAll(REQUIRED);
+	}
 
 	public void filter(final MethodNode methodNode,
 			final IFilterContext context, final IFilterOutput output) {
@@ -22,7 +22,16 @@ import org.objectweb.asm.tree.MethodNode;
  * Filters branch in bytecode that Kotlin compiler generates for "unsafe" cast
  * operator.
  */
-public final class KotlinUnsafeCastOperatorFilter implements IFilter {
+public final class KotlinUnsafeCastOperatorFilter implements IFilter,
+		IFilterPrecondition {
+
+	private static final long[] REQUIRED = MethodSummary
+			.opcodes(Opcodes.IFNONNULL, Opcodes.NEW, Opcodes.DUP, Opcodes.LDC,
+			Opcodes.INVOKESPECIAL, Opcodes.ATHROW);
+
+	public boolean isApplicable(final MethodSummary summary) {
+		return summary.containsAll(REQUIRED);
+	}
 
 	public void filter(final MethodNode methodNode,
 			final IFilterContext context, final IFilterOutput output) {
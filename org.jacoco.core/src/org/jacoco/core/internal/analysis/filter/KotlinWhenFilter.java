@@ -30,10 +30,19 @@ import org.objectweb.asm.tree.TableSwitchInsnNode;
  * <code>sealed class</code>, i.e. which don't require explicit
  * <code>else</code>.
  */
-public final class KotlinWhenFilter implements IFilter {
+public final class KotlinWhenFilter implements IFilter,
+		IFilterPrecondition {
+
+	private static final long[] REQUIRED = MethodSummary
+			.opcodes(Opcodes.NEW, Opcodes.DUP, Opcodes.INVOKESPECIAL,
+			Opcodes.ATHROW);
 
 	private static final String EXCEPTION = "kotlin/NoWhenBranchMatchedException";
 
+	public boolean isApplicable(final MethodSummary summary) {
+		return summary.containsAll(REQUIRED);
+	}
+
 	public void filter(final MethodNode methodNode,
 			final IFilterContext context, final IFilterOutput output) {
 		final Matcher matcher = new Matcher();
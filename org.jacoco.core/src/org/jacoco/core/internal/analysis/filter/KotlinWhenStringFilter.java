@@ -28,7 +28,18 @@ import org.objectweb.asm.tree.VarInsnNode;
  * Filters bytecode that Kotlin compiler generates for <code>when</code>
  * expressions with a <code>String</code>.
  */
-public final class KotlinWhenStringFilter implements IFilter {
+public final class KotlinWhenStringFilter implements IFilter,
+		IFilterPrecondition {
+
+	private static final long[] REQUIRED = MethodSummary
+			.opcodes(Opcodes.ALOAD, Opcodes.INVOKEVIRTUAL);
+
+	private static final long[] SWITCHES = MethodSummary
+			.opcodes(Opcodes.LOOKUPSWITCH, Opcodes.TABLESWITCH);
+
+	public boolean isApplicable(final MethodSummary summary) {
+		return summary.containsAll(REQUIRED) && summary.containsAny(SWITCHES);
+	}
 
 	public void filter(final MethodNode methodNode,
 			final IFilterContext context, final IFilterOutput output) {
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.analysis.filter;
+
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+
+/**
+ * Opcodes and exception handlers present in a method. The summary is computed
+ * in a single pass over the instructions, so filters can cheaply rule out
+ * methods which can't contain the pattern they are looking for.
+ */
+public final class MethodSummary {
+
+	private final long[] opcodes = new long[4];
+
+	private boolean anyHandler;
+
+	private boolean throwableHandler;
+
+	/**
+	 * Creates the summary of the given method.
+	 *
+	 * @param methodNode
+	 *            method to summarize
+	 */
+	public MethodSummary(final MethodNode methodNode) {
+		for (final AbstractInsnNode i : methodNode.instructions) {
+			final int opcode = i.getOpcode();
+			if (opcode >= 0) {
+				opcodes[opcode >>> 6] |= 1L << (opcode & 63);
+			}
+		}
+		for (final TryCatchBlockNode t : methodNode.tryCatchBlocks) {
+			if (t.type == null) {
+				anyHandler = true;
+			} else if ("java/lang/Throwable".equals(t.type)) {
+				throwableHandler = true;
+			}
+		}
+	}
+
+	/**
+	 * Creates a set of opcodes for use with {@link #containsAll(long[])} and
+	 * {@link #containsAny(long[])}.
+	 *
+	 * @param opcodes
+	 *            opcodes of the set
+	 * @return opaque representation of the set
+	 */
+	public static long[] opcodes(final int... opcodes) {
+		final long[] set = new long[4];
+		for (final int opcode : opcodes) {
+			set[opcode >>> 6] |= 1L << (opcode & 63);
+		}
+		return set;
+	}
+
+	/**
+	 * @param set
+	 *            set created with {@link #opcodes(int...)}
+	 * @return <code>true</code> if the method contains all opcodes of the set
+	 */
+	public boolean containsAll(final long[] set) {
+		for (int i = 0; i < set.length; i++) {
+			if ((opcodes[i] & set[i]) != set[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param set
+	 *            set created with {@link #opcodes(int...)}
+	 * @return <code>true</code> if the method contains at least one opcode of
+	 *         the set
+	 */
+	public boolean containsAny(final long[] set) {
+		for (int i = 0; i < set.length; i++) {
+			if ((opcodes[i] & set[i]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return <code>true</code> if the method has a handler for any exception
+	 *         as used for <code>finally</code> and <code>synchronized</code>
+	 *         blocks
+	 */
+	public boolean hasAnyHandler() {
+		return anyHandler;
+	}
+
+	/**
+	 * @return <code>true</code> if the method has a handler for
+	 *         <code>java.lang.Throwable</code>
+	 */
+	public boolean hasThrowableHandler() {
+		return throwableHandler;
+	}
+
+}
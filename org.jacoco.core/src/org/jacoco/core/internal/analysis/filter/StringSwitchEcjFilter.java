@@ -28,7 +28,18 @@ import org.objectweb.asm.tree.VarInsnNode;
  * Filters code that is generated by ECJ for a <code>switch</code> statement
  * with a <code>String</code>.
  */
-public final class StringSwitchEcjFilter implements IFilter {
+public final class StringSwitchEcjFilter implements IFilter,
+		IFilterPrecondition {
+
+	private static final long[] REQUIRED = MethodSummary
+			.opcodes(Opcodes.ASTORE, Opcodes.INVOKEVIRTUAL);
+
+	private static final long[] SWITCHES = MethodSummary
+			.opcodes(Opcodes.LOOKUPSWITCH, Opcodes.TABLESWITCH);
+
+	public boolean isApplicable(final MethodSummary summary) {
+		return summary.containsAll(REQUIRED) && summary.containsAny(SWITCHES);
+	}
 
 	public void filter(final MethodNode methodNode,
 			final IFilterContext context, final IFilterOutput output) {
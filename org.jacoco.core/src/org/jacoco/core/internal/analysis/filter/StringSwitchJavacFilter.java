@@ -23,7 +23,18 @@ import org.objectweb.asm.tree.TableSwitchInsnNode;
 /**
  * Filters code that is generated by javac for a switch statement with a String.
  */
-public final class StringSwitchJavacFilter implements IFilter {
+public final class StringSwitchJavacFilter implements IFilter,
+		IFilterPrecondition {
+
+	private static final long[] REQUIRED = MethodSummary
+			.opcodes(Opcodes.ICONST_M1, Opcodes.INVOKEVIRTUAL);
+
+	private static final long[] SWITCHES = MethodSummary
+			.opcodes(Opcodes.LOOKUPSWITCH, Opcodes.TABLESWITCH);
+
+	public boolean isApplicable(final MethodSummary summary) {
+		return summary.containsAll(REQUIRED) && summary.containsAny(SWITCHES);
+	}
 
 	public void filter(final MethodNode methodNode,
 			final IFilterContext context, final IFilterOutput output) {
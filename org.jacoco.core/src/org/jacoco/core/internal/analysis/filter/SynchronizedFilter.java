@@ -20,7 +20,15 @@ import org.objectweb.asm.tree.TryCatchBlockNode;
 /**
  * Filters code that is generated for synchronized statement.
  */
-public final class SynchronizedFilter implements IFilter {
+public final class SynchronizedFilter implements IFilter,
+		IFilterPrecondition {
+
+	private static final long[] REQUIRED = MethodSummary
+			.opcodes(Opcodes.MONITOREXIT, Opcodes.ATHROW);
+
+	public boolean isApplicable(final MethodSummary summary) {
+		return summary.hasAnyHandler() && summary.containsAll(REQUIRED);
+	}
 
 	public void filter(final MethodNode methodNode,
 			final IFilterContext context, final IFilterOutput output) {
@@ -26,7 +26,15 @@ import org.objectweb.asm.tree.TryCatchBlockNode;
 /**
  * Filters code that ECJ generates for try-with-resources statement.
  */
-public final class TryWithResourcesEcjFilter implements IFilter {
+public final class TryWithResourcesEcjFilter implements IFilter,
+		IFilterPrecondition {
+
+	private static final long[] REQUIRED = MethodSummary
+			.opcodes(Opcodes.ATHROW);
+
+	public boolean isApplicable(final MethodSummary summary) {
+		return summary.hasAnyHandler() && summary.containsAll(REQUIRED);
+	}
 
 	public void filter(final MethodNode methodNode,
 			final IFilterContext context, final IFilterOutput output) {
@@ -22,7 +22,15 @@ import org.objectweb.asm.tree.TryCatchBlockNode;
  * Filters code which is generated for try-with-resources statement by javac
  * starting from version 11.
  */
-public final class TryWithResourcesJavac11Filter implements IFilter {
+public final class TryWithResourcesJavac11Filter implements IFilter,
+		IFilterPrecondition {
+
+	private static final long[] REQUIRED = MethodSummary
+			.opcodes(Opcodes.ATHROW);
+
+	public boolean isApplicable(final MethodSummary summary) {
+		return summary.hasThrowableHandler() && summary.containsAll(REQUIRED);
+	}
 
 	public void filter(final MethodNode methodNode,
 			final IFilterContext context, final IFilterOutput output) {
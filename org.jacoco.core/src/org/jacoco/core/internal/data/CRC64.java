@@ -12,6 +12,9 @@
  *******************************************************************************/
 package org.jacoco.core.internal.data;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import org.objectweb.asm.Opcodes;
 
 /**
@@ -98,6 +101,27 @@ public final class CRC64 {
 		return update(0, bytes, 0, bytes.length);
 	}
 
+	/**
+	 * Calculates the checksum of all remaining bytes of the given stream. In
+	 * contrast to {@link #classId(byte[])} the content is not interpreted. The
+	 * stream is not closed by this method.
+	 *
+	 * @param input
+	 *            stream to read from
+	 * @return checksum of the content
+	 * @throws IOException
+	 *             if reading from the stream fails
+	 */
+	public static long checksum(final InputStream input) throws IOException {
+		final byte[] buffer = new byte[0x2000];
+		long sum = 0;
+		int len;
+		while ((len = input.read(buffer)) != -1) {
+			sum = update(sum, buffer, 0, len);
+		}
+		return sum;
+	}
+
 	private CRC64() {
 	}
 
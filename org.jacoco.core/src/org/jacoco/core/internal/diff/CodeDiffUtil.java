@@ -15,6 +15,10 @@ package org.jacoco.core.internal.diff;
 import org.jacoco.core.analysis.CoverageBuilder;
 import org.objectweb.asm.Type;
 
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -32,6 +36,24 @@ public class CodeDiffUtil {
 
 	private final static String OPERATE_ADD = "ADD";
 
+	/**
+	 * 解析差异代码的json描述
+	 *
+	 * @param json
+	 *            差异代码，{@link ClassInfoDto}的json数组
+	 * @return 差异类列表，json为空时返回空列表
+	 */
+	public static List<ClassInfoDto> parseClassInfos(String json) {
+		if (null == json || json.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<ClassInfoDto> classInfos = new Gson().fromJson(json,
+				new TypeToken<List<ClassInfoDto>>() {
+				}.getType());
+		return null == classInfos ? Collections.<ClassInfoDto> emptyList()
+				: classInfos;
+	}
+
 	/**
 	 * 检测类是否在差异代码中
 	 *
@@ -36,6 +36,8 @@ public class ClassProbesAdapter extends ClassVisitor
 
 	private final boolean trackFrames;
 
+	private final boolean impliedProbes;
+
 	private int counter = 0;
 
 	private String name;
@@ -50,9 +52,27 @@ public class ClassProbesAdapter extends ClassVisitor
 	 */
 	public ClassProbesAdapter(final ClassProbesVisitor cv,
 			final boolean trackFrames) {
+		this(cv, trackFrames, false);
+	}
+
+	/**
+	 * Creates a new adapter that delegates to the given visitor.
+	 *
+	 * @param cv
+	 *            instance to delegate to
+	 * @param trackFrames
+	 *            if <code>true</code> stackmap frames are tracked and provided
+	 * @param impliedProbes
+	 *            if <code>true</code> probes implied by other probes are
+	 *            reported to the method visitors
+	 * @see MethodProbesVisitor#visitImpliedProbe(int, int[])
+	 */
+	public ClassProbesAdapter(final ClassProbesVisitor cv,
+			final boolean trackFrames, final boolean impliedProbes) {
 		super(InstrSupport.ASM_API_VERSION, cv);
 		this.cv = cv;
 		this.trackFrames = trackFrames;
+		this.impliedProbes = impliedProbes;
 	}
 
 	@Override
@@ -98,6 +118,11 @@ public class ClassProbesAdapter extends ClassVisitor
 			public void visitEnd() {
 				super.visitEnd();
 				LabelFlowAnalyzer.markLabels(this);
+				if (impliedProbes
+						&& methodProbes != EMPTY_METHOD_PROBES_VISITOR) {
+					ImpliedProbesAnalyzer.analyze(this, counter,
+							methodProbes);
+				}
 				final MethodProbesAdapter probesAdapter = new MethodProbesAdapter(
 						methodProbes, ClassProbesAdapter.this);
 				// 插桩采用的是(version & 0xFFFF) >= Opcodes.V1_6，大于1.6的JDK
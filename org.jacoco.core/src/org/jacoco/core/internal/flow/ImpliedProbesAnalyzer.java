@@ -0,0 +1,399 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.flow;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+
+/**
+ * Finds the probes of a method whose execution status is implied by other
+ * probes. A probe is implied if it is placed in a block which can only be
+ * entered through edges that already carry a probe and no instruction between
+ * the block start and the probe can throw an exception or leave the block. The
+ * probe is then executed exactly when one of the probes on the entry edges has
+ * been executed.
+ * <p>
+ * Only probes which are executed whenever their position is reached are
+ * considered, i.e. probes before labels, before return and throw instructions
+ * and before unconditional jumps. Source probes are never implied themselves,
+ * so the status of all implied probes can be derived from the probe array in
+ * one step.
+ */
+final class ImpliedProbesAnalyzer extends MethodProbesVisitor
+		implements IProbeIdGenerator {
+
+	/** Event for instructions which may throw or leave the block */
+	private static final Object OPAQUE = new Object();
+
+	/** Sequence of labels, probe ids and opaque instructions */
+	private final List<Object> events = new ArrayList<Object>();
+
+	private final Map<Label, Integer> fallThroughProbes = new HashMap<Label, Integer>();
+
+	private final Map<Label, List<Integer>> jumpProbes = new HashMap<Label, List<Integer>>();
+
+	private final Set<Label> handlers = new HashSet<Label>();
+
+	/**
+	 * Labels with entry edges without probes: the method entry, the start of
+	 * try blocks and targets of jumps without probes
+	 */
+	private final Set<Label> unprobedEntries = new HashSet<Label>();
+
+	private Integer pendingProbe;
+
+	private int counter;
+
+	private ImpliedProbesAnalyzer(final int firstId) {
+		this.counter = firstId;
+	}
+
+	/**
+	 * Reports all implied probes of the given method to the given visitor. The
+	 * labels of the method must have been marked with
+	 * {@link LabelFlowAnalyzer} before.
+	 *
+	 * @param method
+	 *            method to analyze
+	 * @param firstId
+	 *            id of the first probe of the method
+	 * @param visitor
+	 *            visitor to report implied probes to
+	 */
+	static void analyze(final MethodNode method, final int firstId,
+			final MethodProbesVisitor visitor) {
+		final ImpliedProbesAnalyzer analyzer = new ImpliedProbesAnalyzer(
+				firstId);
+		final MethodProbesAdapter adapter = new MethodProbesAdapter(analyzer,
+				analyzer);
+		for (final TryCatchBlockNode n : method.tryCatchBlocks) {
+			n.accept(adapter);
+		}
+		for (final AbstractInsnNode i : method.instructions) {
+			i.accept(adapter);
+		}
+		analyzer.report(visitor);
+	}
+
+	private void report(final MethodProbesVisitor visitor) {
+		final BitSet implied = new BitSet();
+		final BitSet sources = new BitSet();
+		for (int i = 0; i < events.size(); i++) {
+			final Object event = events.get(i);
+			if (!(event instanceof Integer)) {
+				continue;
+			}
+			final int probeId = ((Integer) event).intValue();
+			final int[] entries = findEntries(i);
+			if (entries == null || sources.get(probeId)
+					|| !isIndependent(probeId, entries, implied)) {
+				continue;
+			}
+			implied.set(probeId);
+			for (final int e : entries) {
+				sources.set(e);
+			}
+			visitor.visitImpliedProbe(probeId, entries);
+		}
+	}
+
+	private static boolean isIndependent(final int probeId,
+			final int[] entries, final BitSet implied) {
+		for (final int e : entries) {
+			if (e == probeId || implied.get(e)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Walks back from the probe at the given event index to the start of its
+	 * block and returns the probes on all entry edges of the block.
+	 */
+	private int[] findEntries(final int index) {
+		for (int i = index - 1; i >= 0; i--) {
+			final Object event = events.get(i);
+			if (!(event instanceof Label)) {
+				return null;
+			}
+			final Label label = (Label) event;
+			if (handlers.contains(label)) {
+				return null;
+			}
+			if (LabelInfo.isMultiTarget(label)) {
+				return getEntries(label);
+			}
+			if (!LabelInfo.isSuccessor(label)) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	private int[] getEntries(final Label label) {
+		if (unprobedEntries.contains(label)) {
+			return null;
+		}
+		final List<Integer> entries = new ArrayList<Integer>();
+		final List<Integer> jumps = jumpProbes.get(label);
+		if (jumps != null) {
+			entries.addAll(jumps);
+		}
+		if (LabelInfo.isSuccessor(label)) {
+			final Integer fallThrough = fallThroughProbes.get(label);
+			if (fallThrough == null) {
+				return null;
+			}
+			entries.add(fallThrough);
+		}
+		if (entries.isEmpty()) {
+			return null;
+		}
+		final int[] result = new int[entries.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = entries.get(i).intValue();
+		}
+		return result;
+	}
+
+	private void addJumpProbe(final Label label, final int probeId) {
+		List<Integer> probes = jumpProbes.get(label);
+		if (probes == null) {
+			probes = new ArrayList<Integer>(2);
+			jumpProbes.put(label, probes);
+		}
+		probes.add(Integer.valueOf(probeId));
+	}
+
+	// === IProbeIdGenerator ===
+
+	public int nextId() {
+		return counter++;
+	}
+
+	public int getId() {
+		return counter;
+	}
+
+	// === MethodProbesVisitor ===
+
+	@Override
+	public void visitTryCatchBlock(final Label start, final Label end,
+			final Label handler, final String type) {
+		handlers.add(handler);
+		unprobedEntries.add(start);
+	}
+
+	@Override
+	public void visitLabel(final Label label) {
+		if (isMethodStart()) {
+			unprobedEntries.add(label);
+		}
+		if (pendingProbe != null) {
+			fallThroughProbes.put(label, pendingProbe);
+			pendingProbe = null;
+		}
+		events.add(label);
+	}
+
+	private boolean isMethodStart() {
+		for (final Object event : events) {
+			if (!(event instanceof Label)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void visitProbe(final int probeId) {
+		pendingProbe = Integer.valueOf(probeId);
+		events.add(pendingProbe);
+	}
+
+	@Override
+	public void visitInsnWithProbe(final int opcode, final int probeId) {
+		events.add(Integer.valueOf(probeId));
+		events.add(OPAQUE);
+	}
+
+	@Override
+	public void visitJumpInsnWithProbe(final int opcode, final Label label,
+			final int probeId, final IFrame frame) {
+		addJumpProbe(label, probeId);
+		if (opcode == Opcodes.GOTO) {
+			events.add(Integer.valueOf(probeId));
+		}
+		events.add(OPAQUE);
+	}
+
+	@Override
+	public void visitTableSwitchInsnWithProbes(final int min, final int max,
+			final Label dflt, final Label[] labels, final IFrame frame) {
+		visitSwitchInsnWithProbes(dflt, labels);
+	}
+
+	@Override
+	public void visitLookupSwitchInsnWithProbes(final Label dflt,
+			final int[] keys, final Label[] labels, final IFrame frame) {
+		visitSwitchInsnWithProbes(dflt, labels);
+	}
+
+	private void visitSwitchInsnWithProbes(final Label dflt,
+			final Label[] labels) {
+		final Set<Label> done = new HashSet<Label>();
+		visitSwitchTarget(dflt, done);
+		for (final Label l : labels) {
+			visitSwitchTarget(l, done);
+		}
+		events.add(OPAQUE);
+	}
+
+	private void visitSwitchTarget(final Label label, final Set<Label> done) {
+		final int probeId = LabelInfo.getProbeId(label);
+		if (done.add(label)) {
+			if (probeId == LabelInfo.NO_PROBE) {
+				unprobedEntries.add(label);
+			} else {
+				addJumpProbe(label, probeId);
+			}
+		}
+	}
+
+	@Override
+	public void visitJumpInsn(final int opcode, final Label label) {
+		unprobedEntries.add(label);
+		events.add(OPAQUE);
+	}
+
+	@Override
+	public void visitTableSwitchInsn(final int min, final int max,
+			final Label dflt, final Label... labels) {
+		visitSwitchInsn(dflt, labels);
+	}
+
+	@Override
+	public void visitLookupSwitchInsn(final Label dflt, final int[] keys,
+			final Label[] labels) {
+		visitSwitchInsn(dflt, labels);
+	}
+
+	private void visitSwitchInsn(final Label dflt, final Label[] labels) {
+		unprobedEntries.add(dflt);
+		for (final Label l : labels) {
+			unprobedEntries.add(l);
+		}
+		events.add(OPAQUE);
+	}
+
+	@Override
+	public void visitInsn(final int opcode) {
+		switch (opcode) {
+		case Opcodes.IALOAD:
+		case Opcodes.LALOAD:
+		case Opcodes.FALOAD:
+		case Opcodes.DALOAD:
+		case Opcodes.AALOAD:
+		case Opcodes.BALOAD:
+		case Opcodes.CALOAD:
+		case Opcodes.SALOAD:
+		case Opcodes.IASTORE:
+		case Opcodes.LASTORE:
+		case Opcodes.FASTORE:
+		case Opcodes.DASTORE:
+		case Opcodes.AASTORE:
+		case Opcodes.BASTORE:
+		case Opcodes.CASTORE:
+		case Opcodes.SASTORE:
+		case Opcodes.IDIV:
+		case Opcodes.LDIV:
+		case Opcodes.IREM:
+		case Opcodes.LREM:
+		case Opcodes.ARRAYLENGTH:
+		case Opcodes.MONITORENTER:
+		case Opcodes.MONITOREXIT:
+			events.add(OPAQUE);
+			break;
+		default:
+			// Constants, stack operations and arithmetic never throw
+			break;
+		}
+	}
+
+	@Override
+	public void visitIntInsn(final int opcode, final int operand) {
+		if (opcode == Opcodes.NEWARRAY) {
+			events.add(OPAQUE);
+		}
+	}
+
+	@Override
+	public void visitVarInsn(final int opcode, final int var) {
+		if (opcode == Opcodes.RET) {
+			events.add(OPAQUE);
+		}
+	}
+
+	@Override
+	public void visitTypeInsn(final int opcode, final String type) {
+		events.add(OPAQUE);
+	}
+
+	@Override
+	public void visitFieldInsn(final int opcode, final String owner,
+			final String name, final String descriptor) {
+		events.add(OPAQUE);
+	}
+
+	@Override
+	public void visitMethodInsn(final int opcode, final String owner,
+			final String name, final String descriptor,
+			final boolean isInterface) {
+		events.add(OPAQUE);
+	}
+
+	@Override
+	public void visitInvokeDynamicInsn(final String name,
+			final String descriptor, final Handle bsm,
+			final Object... bsmArgs) {
+		events.add(OPAQUE);
+	}
+
+	@Override
+	public void visitLdcInsn(final Object value) {
+		// Only class, method type and dynamic constants need to be resolved
+		if (!(value instanceof Number || value instanceof String)) {
+			events.add(OPAQUE);
+		}
+	}
+
+	@Override
+	public void visitMultiANewArrayInsn(final String descriptor,
+			final int numDimensions) {
+		events.add(OPAQUE);
+	}
+
+}
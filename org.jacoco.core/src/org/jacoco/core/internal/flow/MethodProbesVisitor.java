@@ -149,6 +149,22 @@ public abstract class MethodProbesVisitor extends MethodVisitor {
 			final int[] keys, final Label[] labels, final IFrame frame) {
 	}
 
+	/**
+	 * Visits a probe whose execution status is implied by other probes of this
+	 * method: The probe is executed exactly when one of the given source probes
+	 * has been executed, therefore it does not need to be inserted. Implied
+	 * probes are only calculated on request and are visited before the
+	 * instructions of the method.
+	 *
+	 * @param probeId
+	 *            id of the implied probe
+	 * @param sourceIds
+	 *            ids of the probes implying the probe
+	 */
+	@SuppressWarnings("unused")
+	public void visitImpliedProbe(final int probeId, final int[] sourceIds) {
+	}
+
 	/**
 	 * This method can be overwritten to hook into the process of emitting the
 	 * instructions of this method as <code>visitX()</code> events.
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.instr;
+
+import org.jacoco.core.runtime.IExecutionDataAccessorGenerator;
+import org.jacoco.core.runtime.ProbeArena;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+
+/**
+ * The strategy for classes using a {@link ProbeArena}. The static data field
+ * holds the shared segment of the arena and every probe index is shifted by
+ * the offset assigned to the class. The offset is assigned at instrumentation
+ * time, therefore the instrumented class is only valid for the runtime owning
+ * the given arena.
+ */
+class ArenaProbeArrayStrategy implements IProbeArrayStrategy {
+
+	private final ClassFieldProbeArrayStrategy delegate;
+
+	private final int offset;
+
+	ArenaProbeArrayStrategy(final String className, final long classId,
+			final int probeCount, final boolean withFrames,
+			final IExecutionDataAccessorGenerator accessorGenerator,
+			final ProbeArena arena) {
+		this.delegate = new ClassFieldProbeArrayStrategy(className, classId,
+				withFrames, accessorGenerator);
+		this.offset = arena.allocate(classId, className, probeCount);
+	}
+
+	public int storeInstance(final MethodVisitor mv, final boolean clinit,
+			final int variable) {
+		return delegate.storeInstance(mv, clinit, variable);
+	}
+
+	public void addMembers(final ClassVisitor cv, final int probeCount) {
+		delegate.addMembers(cv, probeCount);
+	}
+
+	public int getProbeOffset() {
+		return offset;
+	}
+
+}
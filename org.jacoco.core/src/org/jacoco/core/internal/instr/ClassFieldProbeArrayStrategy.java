@@ -135,4 +135,8 @@ class ClassFieldProbeArrayStrategy implements IProbeArrayStrategy {
 		return Math.max(size, 2); // Maximum local stack size is 2
 	}
 
+	public int getProbeOffset() {
+		return 0;
+	}
+
 }
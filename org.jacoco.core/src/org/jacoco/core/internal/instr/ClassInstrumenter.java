@@ -12,11 +12,17 @@
  *******************************************************************************/
 package org.jacoco.core.internal.instr;
 
+import java.util.List;
+
+import org.jacoco.core.internal.diff.ClassInfoDto;
+import org.jacoco.core.internal.diff.CodeDiffUtil;
 import org.jacoco.core.internal.flow.ClassProbesVisitor;
 import org.jacoco.core.internal.flow.MethodProbesVisitor;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
 
 /**
  * Adapter that instruments a class for coverage tracing.
@@ -25,8 +31,20 @@ public class ClassInstrumenter extends ClassProbesVisitor {
 
 	private final IProbeArrayStrategy probeArrayStrategy;
 
+	private final boolean conditionalProbes;
+
+	private final boolean insertProbes;
+
+	private final List<ClassInfoDto> diffScope;
+
 	private String className;
 
+	private boolean probeMethod;
+
+	private boolean itf;
+
+	private boolean frames;
+
 	/**
 	 * Emits a instrumented version of this class to the given class visitor.
 	 *
@@ -38,8 +56,79 @@ public class ClassInstrumenter extends ClassProbesVisitor {
 	 */
 	public ClassInstrumenter(final IProbeArrayStrategy probeArrayStrategy,
 			final ClassVisitor cv) {
+		this(probeArrayStrategy, false, cv);
+	}
+
+	/**
+	 * Emits a instrumented version of this class to the given class visitor.
+	 *
+	 * @param probeArrayStrategy
+	 *            this strategy will be used to access the probe array
+	 * @param conditionalProbes
+	 *            if <code>true</code> probes only write to the probe array if
+	 *            the probe is not set yet. This is not possible for interfaces
+	 *            before Java 8 which always get unconditional probes.
+	 * @param cv
+	 *            next delegate in the visitor chain will receive the
+	 *            instrumented class
+	 */
+	public ClassInstrumenter(final IProbeArrayStrategy probeArrayStrategy,
+			final boolean conditionalProbes, final ClassVisitor cv) {
+		this(probeArrayStrategy, conditionalProbes, true, cv);
+	}
+
+	/**
+	 * Emits a instrumented version of this class to the given class visitor.
+	 * Optionally the probes can be omitted. In this case the class declares
+	 * the same members as the instrumented version but the methods contain
+	 * the original code only. Such a class can replace the instrumented class
+	 * through retransformation.
+	 *
+	 * @param probeArrayStrategy
+	 *            this strategy will be used to access the probe array
+	 * @param conditionalProbes
+	 *            if <code>true</code> probes only write to the probe array if
+	 *            the probe is not set yet
+	 * @param insertProbes
+	 *            if <code>false</code> no probes are inserted into methods
+	 * @param cv
+	 *            next delegate in the visitor chain will receive the
+	 *            instrumented class
+	 */
+	public ClassInstrumenter(final IProbeArrayStrategy probeArrayStrategy,
+			final boolean conditionalProbes, final boolean insertProbes,
+			final ClassVisitor cv) {
+		this(probeArrayStrategy, conditionalProbes, insertProbes, null, cv);
+	}
+
+	/**
+	 * Emits a instrumented version of this class to the given class visitor.
+	 * Optionally probes are only inserted into the methods of the given diff
+	 * scope. The probe ids of all other methods are still reserved, so the
+	 * probe array matches the one expected by the analysis.
+	 *
+	 * @param probeArrayStrategy
+	 *            this strategy will be used to access the probe array
+	 * @param conditionalProbes
+	 *            if <code>true</code> probes only write to the probe array if
+	 *            the probe is not set yet
+	 * @param insertProbes
+	 *            if <code>false</code> no probes are inserted into methods
+	 * @param diffScope
+	 *            changed classes and methods which get probes or
+	 *            <code>null</code> for all methods
+	 * @param cv
+	 *            next delegate in the visitor chain will receive the
+	 *            instrumented class
+	 */
+	public ClassInstrumenter(final IProbeArrayStrategy probeArrayStrategy,
+			final boolean conditionalProbes, final boolean insertProbes,
+			final List<ClassInfoDto> diffScope, final ClassVisitor cv) {
 		super(cv);
 		this.probeArrayStrategy = probeArrayStrategy;
+		this.conditionalProbes = conditionalProbes;
+		this.insertProbes = insertProbes;
+		this.diffScope = diffScope;
 	}
 
 	@Override
@@ -47,6 +136,13 @@ public class ClassInstrumenter extends ClassProbesVisitor {
 			final String signature, final String superName,
 			final String[] interfaces) {
 		this.className = name;
+		final int major = version & 0xFFFF;
+		this.itf = (access & Opcodes.ACC_INTERFACE) != 0;
+		this.frames = InstrSupport.needsFrames(major);
+		// Interfaces can only declare static methods since Java 8:
+		this.probeMethod = conditionalProbes
+				&& (access & Opcodes.ACC_MODULE) == 0
+				&& (!itf || major >= Opcodes.V1_8);
 		super.visit(version, access, name, signature, superName, interfaces);
 	}
 
@@ -71,8 +167,19 @@ public class ClassInstrumenter extends ClassProbesVisitor {
 			return null;
 		}
 		final MethodVisitor frameEliminator = new DuplicateFrameEliminator(mv);
+		if (!insertProbes || (diffScope != null && !CodeDiffUtil
+				.checkMethodIn(className, name, desc, diffScope).booleanValue())) {
+			if (InstrSupport.CLINIT_NAME.equals(name)) {
+				// Strategies like the one for Java 8 interfaces rely on an
+				// existing static initializer to initialize the probe array:
+				return new ProbeFreeMethodInstrumenter(new ProbeInserter(access,
+						name, desc, frameEliminator, probeArrayStrategy));
+			}
+			return new ProbeFreeMethodInstrumenter(frameEliminator);
+		}
 		final ProbeInserter probeVariableInserter = new ProbeInserter(access,
-				name, desc, frameEliminator, probeArrayStrategy);
+				name, desc, frameEliminator, probeArrayStrategy,
+				probeMethod ? className : null, itf);
 		return new MethodInstrumenter(probeVariableInserter,
 				probeVariableInserter);
 	}
@@ -80,6 +187,39 @@ public class ClassInstrumenter extends ClassProbesVisitor {
 	@Override
 	public void visitTotalProbeCount(final int count) {
 		probeArrayStrategy.addMembers(cv, count);
+		if (probeMethod && count > 0) {
+			createProbeMethod();
+		}
+	}
+
+	/**
+	 * Creates the probe method which sets the probe with the given index only
+	 * if it is not set yet.
+	 */
+	private void createProbeMethod() {
+		final MethodVisitor mv = cv.visitMethod(InstrSupport.PROBEMETHOD_ACC,
+				InstrSupport.PROBEMETHOD_NAME, InstrSupport.PROBEMETHOD_DESC,
+				null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitInsn(Opcodes.BALOAD);
+		final Label done = new Label();
+		mv.visitJumpInsn(Opcodes.IFNE, done);
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitInsn(Opcodes.ICONST_1);
+		mv.visitInsn(Opcodes.BASTORE);
+		mv.visitLabel(done);
+		if (frames) {
+			mv.visitFrame(Opcodes.F_NEW, 2,
+					new Object[] { InstrSupport.DATAFIELD_DESC,
+							Opcodes.INTEGER },
+					0, new Object[0]);
+		}
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(3, 2);
+		mv.visitEnd();
 	}
 
 }
@@ -71,4 +71,8 @@ public class CondyProbeArrayStrategy implements IProbeArrayStrategy {
 		mv.visitEnd();
 	}
 
+	public int getProbeOffset() {
+		return 0;
+	}
+
 }
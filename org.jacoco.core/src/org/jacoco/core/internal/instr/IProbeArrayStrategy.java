@@ -46,4 +46,13 @@ public interface IProbeArrayStrategy {
 	 */
 	void addMembers(ClassVisitor cv, int probeCount);
 
+	/**
+	 * Returns the index of the first probe of this type within the probe
+	 * array. Probes of a type are stored at consecutive indexes starting at
+	 * this offset.
+	 *
+	 * @return index of the first probe
+	 */
+	int getProbeOffset();
+
 }
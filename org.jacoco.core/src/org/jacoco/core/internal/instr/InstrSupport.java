@@ -98,6 +98,25 @@ public final class InstrSupport {
 	public static final int INITMETHOD_ACC = Opcodes.ACC_SYNTHETIC
 			| Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC;
 
+	// === Probe Method ===
+
+	/**
+	 * Name of the method which sets a probe only if it is not set yet. This
+	 * method is used for conditional probes.
+	 */
+	public static final String PROBEMETHOD_NAME = "$jacocoHit";
+
+	/**
+	 * Descriptor of the probe method.
+	 */
+	public static final String PROBEMETHOD_DESC = "([ZI)V";
+
+	/**
+	 * Access modifiers of the probe method.
+	 */
+	public static final int PROBEMETHOD_ACC = Opcodes.ACC_SYNTHETIC
+			| Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC;
+
 	/**
 	 * Name of the interface initialization method.
 	 *
@@ -234,7 +253,8 @@ public final class InstrSupport {
 	 */
 	public static void assertNotInstrumented(final String member,
 			final String owner) throws IllegalStateException {
-		if (member.equals(DATAFIELD_NAME) || member.equals(INITMETHOD_NAME)) {
+		if (member.equals(DATAFIELD_NAME) || member.equals(INITMETHOD_NAME)
+				|| member.equals(PROBEMETHOD_NAME)) {
 			throw new IllegalStateException(format(
 					"Cannot process instrumented class %s. Please supply original non-instrumented classes.",
 					owner));
@@ -153,4 +153,8 @@ class InterfaceFieldProbeArrayStrategy implements IProbeArrayStrategy {
 		mv.visitEnd();
 	}
 
+	public int getProbeOffset() {
+		return 0;
+	}
+
 }
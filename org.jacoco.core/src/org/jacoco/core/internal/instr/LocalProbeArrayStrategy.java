@@ -51,4 +51,8 @@ class LocalProbeArrayStrategy implements IProbeArrayStrategy {
 		// nothing to do
 	}
 
+	public int getProbeOffset() {
+		return 0;
+	}
+
 }
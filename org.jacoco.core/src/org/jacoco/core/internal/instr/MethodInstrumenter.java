@@ -12,6 +12,8 @@
  *******************************************************************************/
 package org.jacoco.core.internal.instr;
 
+import java.util.BitSet;
+
 import org.jacoco.core.internal.flow.IFrame;
 import org.jacoco.core.internal.flow.LabelInfo;
 import org.jacoco.core.internal.flow.MethodProbesVisitor;
@@ -27,6 +29,8 @@ class MethodInstrumenter extends MethodProbesVisitor {
 
 	private final IProbeInserter probeInserter;
 
+	private final BitSet impliedProbes = new BitSet();
+
 	/**
 	 * Create a new instrumenter instance for the given method.
 	 *
@@ -41,16 +45,27 @@ class MethodInstrumenter extends MethodProbesVisitor {
 		this.probeInserter = probeInserter;
 	}
 
+	private void insertProbe(final int probeId) {
+		if (!impliedProbes.get(probeId)) {
+			probeInserter.insertProbe(probeId);
+		}
+	}
+
 	// === IMethodProbesVisitor ===
 
+	@Override
+	public void visitImpliedProbe(final int probeId, final int[] sourceIds) {
+		impliedProbes.set(probeId);
+	}
+
 	@Override
 	public void visitProbe(final int probeId) {
-		probeInserter.insertProbe(probeId);
+		insertProbe(probeId);
 	}
 
 	@Override
 	public void visitInsnWithProbe(final int opcode, final int probeId) {
-		probeInserter.insertProbe(probeId);
+		insertProbe(probeId);
 		mv.visitInsn(opcode);
 	}
 
@@ -58,7 +73,7 @@ class MethodInstrumenter extends MethodProbesVisitor {
 	public void visitJumpInsnWithProbe(final int opcode, final Label label,
 			final int probeId, final IFrame frame) {
 		if (opcode == Opcodes.GOTO) {
-			probeInserter.insertProbe(probeId);
+			insertProbe(probeId);
 			mv.visitJumpInsn(Opcodes.GOTO, label);
 		} else {
 			final Label intermediate = new Label();
@@ -30,4 +30,8 @@ class NoneProbeArrayStrategy implements IProbeArrayStrategy {
 		// nothing to do
 	}
 
+	public int getProbeOffset() {
+		return 0;
+	}
+
 }
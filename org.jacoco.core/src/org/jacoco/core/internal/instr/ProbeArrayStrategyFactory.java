@@ -14,6 +14,7 @@ package org.jacoco.core.internal.instr;
 
 import org.jacoco.core.internal.flow.ClassProbesAdapter;
 import org.jacoco.core.runtime.IExecutionDataAccessorGenerator;
+import org.jacoco.core.runtime.ProbeArena;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Opcodes;
 
@@ -72,6 +73,39 @@ public final class ProbeArrayStrategyFactory {
 		}
 	}
 
+	/**
+	 * Creates a suitable strategy instance for the class described by the given
+	 * reader. The probes of regular classes are stored in the given arena,
+	 * interfaces and modules use the same strategies as
+	 * {@link #createFor(long, ClassReader, IExecutionDataAccessorGenerator)}.
+	 *
+	 * @param classId
+	 *            class identifier
+	 * @param reader
+	 *            reader to get information about the class
+	 * @param accessorGenerator
+	 *            accessor to the coverage runtime
+	 * @param arena
+	 *            arena to assign the probes of regular classes in
+	 * @return strategy instance
+	 */
+	public static IProbeArrayStrategy createFor(final long classId,
+			final ClassReader reader,
+			final IExecutionDataAccessorGenerator accessorGenerator,
+			final ProbeArena arena) {
+		if (isInterfaceOrModule(reader)) {
+			return createFor(classId, reader, accessorGenerator);
+		}
+		final int count = getProbeCounter(reader).getCount();
+		if (count == 0) {
+			return new NoneProbeArrayStrategy();
+		}
+		final int version = InstrSupport.getMajorVersion(reader);
+		return new ArenaProbeArrayStrategy(reader.getClassName(), classId,
+				count, InstrSupport.needsFrames(version), accessorGenerator,
+				arena);
+	}
+
 	private static boolean isInterfaceOrModule(final ClassReader reader) {
 		return (reader.getAccess()
 				& (Opcodes.ACC_INTERFACE | Opcodes.ACC_MODULE)) != 0;
@@ -23,7 +23,8 @@ import org.objectweb.asm.TypePath;
  * Internal utility to add probes into the control flow of a method. The code
  * for a probe simply sets a certain slot of a boolean array to true. In
  * addition the probe array has to be retrieved at the beginning of the method
- * and stored in a local variable.
+ * and stored in a local variable. Conditional probes delegate to a static
+ * probe method which only sets the slot if it is not set yet.
  */
 class ProbeInserter extends MethodVisitor implements IProbeInserter {
 
@@ -38,6 +39,15 @@ class ProbeInserter extends MethodVisitor implements IProbeInserter {
 	/** Position of the inserted variable. */
 	private final int variable;
 
+	/**
+	 * Owner of the probe method for conditional probes or <code>null</code>
+	 * for unconditional probes.
+	 */
+	private final String probeMethodOwner;
+
+	/** <code>true</code> if the owner of the probe method is an interface. */
+	private final boolean probeMethodItf;
+
 	/** Maximum stack usage of the code to access the probe array. */
 	private int accessorStackSize;
 
@@ -58,9 +68,39 @@ class ProbeInserter extends MethodVisitor implements IProbeInserter {
 	 */
 	ProbeInserter(final int access, final String name, final String desc,
 			final MethodVisitor mv, final IProbeArrayStrategy arrayStrategy) {
+		this(access, name, desc, mv, arrayStrategy, null, false);
+	}
+
+	/**
+	 * Creates a new {@link ProbeInserter} which optionally inserts conditional
+	 * probes. Conditional probes call the probe method of the given class which
+	 * only writes to the probe array if the probe is not set yet.
+	 *
+	 * @param access
+	 *            access flags of the adapted method
+	 * @param name
+	 *            the method's name
+	 * @param desc
+	 *            the method's descriptor
+	 * @param mv
+	 *            the method visitor to which this adapter delegates calls
+	 * @param arrayStrategy
+	 *            callback to create the code that retrieves the reference to
+	 *            the probe array
+	 * @param probeMethodOwner
+	 *            VM name of the class declaring the probe method or
+	 *            <code>null</code> for unconditional probes
+	 * @param probeMethodItf
+	 *            <code>true</code> if the declaring class is an interface
+	 */
+	ProbeInserter(final int access, final String name, final String desc,
+			final MethodVisitor mv, final IProbeArrayStrategy arrayStrategy,
+			final String probeMethodOwner, final boolean probeMethodItf) {
 		super(InstrSupport.ASM_API_VERSION, mv);
 		this.clinit = InstrSupport.CLINIT_NAME.equals(name);
 		this.arrayStrategy = arrayStrategy;
+		this.probeMethodOwner = probeMethodOwner;
+		this.probeMethodItf = probeMethodItf;
 		int pos = (Opcodes.ACC_STATIC & access) == 0 ? 1 : 0;
 		for (final Type t : Type.getArgumentTypes(desc)) {
 			pos += t.getSize();
@@ -77,11 +117,20 @@ class ProbeInserter extends MethodVisitor implements IProbeInserter {
 
 		// Stack[0]: [Z
 
-		InstrSupport.push(mv, id);
+		InstrSupport.push(mv, arrayStrategy.getProbeOffset() + id);
 
 		// Stack[1]: I
 		// Stack[0]: [Z
 
+		if (probeMethodOwner != null) {
+			// Avoid writes to probes which are already set, as concurrent
+			// writes to the same cache line slow down multi-core execution.
+			mv.visitMethodInsn(Opcodes.INVOKESTATIC, probeMethodOwner,
+					InstrSupport.PROBEMETHOD_NAME,
+					InstrSupport.PROBEMETHOD_DESC, probeMethodItf);
+			return;
+		}
+
 		mv.visitInsn(Opcodes.ICONST_1);
 
 		// Stack[2]: I
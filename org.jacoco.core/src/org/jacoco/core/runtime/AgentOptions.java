@@ -110,6 +110,7 @@ public final class AgentOptions {
 	 *
 	 * @see OutputMode#file
 	 * @see OutputMode#tcpserver
+	 * @see OutputMode#tcpmultiserver
 	 * @see OutputMode#tcpclient
 	 * @see OutputMode#none
 	 */
@@ -137,6 +138,15 @@ public final class AgentOptions {
 		 */
 		tcpserver,
 
+		/**
+		 * Value for the {@link AgentOptions#OUTPUT} parameter: The agent
+		 * listens for incoming connections on a TCP port specified by
+		 * {@link AgentOptions#ADDRESS} and {@link AgentOptions#PORT}. In
+		 * contrast to {@link #tcpserver} any number of clients can be served
+		 * concurrently by a single non-blocking selector thread.
+		 */
+		tcpmultiserver,
+
 		/**
 		 * Value for the {@link AgentOptions#OUTPUT} parameter: At startup the
 		 * agent connects to a TCP port specified by the
@@ -183,16 +193,151 @@ public final class AgentOptions {
 	 */
 	public static final String CLASSDUMPDIR = "classdumpdir";
 
+	/**
+	 * Specifies a directory where the agent caches instrumented class files
+	 * between JVM runs. The location is specified as a relative path to the
+	 * working directory. Default is <code>null</code> (no cache).
+	 */
+	public static final String CLASSCACHEDIR = "classcachedir";
+
 	/**
 	 * Specifies whether the agent should expose functionality via JMX under the
 	 * name "org.jacoco:type=Runtime". Default is <code>false</code>.
 	 */
 	public static final String JMX = "jmx";
 
+	/**
+	 * Specifies how instrumented classes obtain their probe arrays from the
+	 * runtime. Default is {@link AccessorMode#handshake}.
+	 *
+	 * @see AccessorMode#handshake
+	 * @see AccessorMode#bridge
+	 */
+	public static final String ACCESSOR = "accessor";
+
+	/**
+	 * Possible values for {@link AgentOptions#ACCESSOR}.
+	 */
+	public static enum AccessorMode {
+
+		/**
+		 * Value for the {@link AgentOptions#ACCESSOR} parameter: Instrumented
+		 * classes pass an argument array to the runtime through
+		 * {@link Object#equals(Object)}.
+		 */
+		handshake,
+
+		/**
+		 * Value for the {@link AgentOptions#ACCESSOR} parameter: Instrumented
+		 * classes call a static bridge method with primitive arguments. No
+		 * objects are allocated for the call.
+		 */
+		bridge
+
+	}
+
+	/**
+	 * Specifies how probes record their execution. Default is
+	 * {@link ProbeMode#unconditional}.
+	 *
+	 * @see ProbeMode#unconditional
+	 * @see ProbeMode#conditional
+	 */
+	public static final String PROBES = "probes";
+
+	/**
+	 * Possible values for {@link AgentOptions#PROBES}.
+	 */
+	public static enum ProbeMode {
+
+		/**
+		 * Value for the {@link AgentOptions#PROBES} parameter: Probes write to
+		 * the probe array every time they are executed.
+		 */
+		unconditional,
+
+		/**
+		 * Value for the {@link AgentOptions#PROBES} parameter: Probes only
+		 * write to the probe array if they are not set yet. This avoids
+		 * contention when many threads execute the same code.
+		 */
+		conditional
+
+	}
+
+	/**
+	 * Specifies the interval in seconds in which the agent periodically dumps
+	 * coverage data in a background thread. With output mode
+	 * {@link OutputMode#file} the data is written to rotating segment files
+	 * derived from {@link #DESTFILE}. The value must not be negative,
+	 * <code>0</code> disables periodic dumps. Default is <code>0</code> (no
+	 * periodic dumps).
+	 */
+	public static final String DUMPINTERVAL = "dumpinterval";
+
+	/**
+	 * Specifies the size in bytes after which a new segment file is started
+	 * for periodic dumps. Default is defined by {@link #DEFAULT_SEGMENTSIZE}.
+	 */
+	public static final String SEGMENTSIZE = "segmentsize";
+
+	/**
+	 * Default value for the "segmentsize" agent option.
+	 */
+	public static final int DEFAULT_SEGMENTSIZE = 10 * 1024 * 1024;
+
+	/**
+	 * Specifies the maximum number of segment files kept for periodic dumps.
+	 * Older segments are deleted. Default is defined by
+	 * {@link #DEFAULT_SEGMENTCOUNT}.
+	 */
+	public static final String SEGMENTCOUNT = "segmentcount";
+
+	/**
+	 * Default value for the "segmentcount" agent option.
+	 */
+	public static final int DEFAULT_SEGMENTCOUNT = 10;
+
+	/**
+	 * Specifies whether periodic dumps only contain the classes with probes
+	 * hit since the previous dump into the same segment file. Every segment
+	 * still starts with a complete dump. Default is <code>false</code>.
+	 */
+	public static final String DUMPDELTA = "dumpdelta";
+
+	/**
+	 * Specifies the interval in seconds in which the agent scans for classes
+	 * where all probes have been executed. Such classes are retransformed to a
+	 * version without probes, the coverage data recorded so far is retained.
+	 * Can not be combined with {@link #MINIMALPROBES}. Default is
+	 * <code>0</code> (no de-instrumentation).
+	 */
+	public static final String DEINSTRUMENTINTERVAL = "deinstrumentinterval";
+
+	/**
+	 * Specifies whether the probes of all regular classes are stored in large
+	 * shared segments instead of a separate array per class. This reduces the
+	 * number of objects for applications with many classes. Default is
+	 * <code>false</code>.
+	 */
+	public static final String PROBEARENA = "probearena";
+
+	/**
+	 * Specifies whether probes are omitted if their execution status is
+	 * implied by other probes of the same method. The status of such probes is
+	 * derived during analysis. As omitted probes are never set, classes are
+	 * never fully covered, therefore this option can not be combined with
+	 * {@link #DEINSTRUMENTINTERVAL}. Default is <code>false</code>.
+	 */
+	public static final String MINIMALPROBES = "minimalprobes";
+
 	private static final Collection<String> VALID_OPTIONS = Arrays.asList(
 			DESTFILE, APPEND, INCLUDES, EXCLUDES, EXCLCLASSLOADER,
 			INCLBOOTSTRAPCLASSES, INCLNOLOCATIONCLASSES, SESSIONID, DUMPONEXIT,
-			OUTPUT, ADDRESS, PORT, CLASSDUMPDIR, JMX);
+			OUTPUT, ADDRESS, PORT, CLASSDUMPDIR, CLASSCACHEDIR, JMX,
+			ACCESSOR, PROBES, DUMPINTERVAL,
+			SEGMENTSIZE, SEGMENTCOUNT, DUMPDELTA, DEINSTRUMENTINTERVAL,
+			PROBEARENA, MINIMALPROBES);
 
 	private final Map<String, String> options;
 
@@ -251,6 +396,13 @@ public final class AgentOptions {
 	private void validateAll() {
 		validatePort(getPort());
 		getOutput();
+		getAccessor();
+		getProbes();
+		validateDumpInterval(getDumpInterval());
+		validateSegmentSize(getSegmentSize());
+		validateSegmentCount(getSegmentCount());
+		validateDeinstrumentInterval(getDeinstrumentInterval());
+		validateMinimalProbes(getMinimalProbes(), getDeinstrumentInterval());
 	}
 
 	private void validatePort(final int port) {
@@ -259,6 +411,42 @@ public final class AgentOptions {
 		}
 	}
 
+	private void validateDumpInterval(final int interval) {
+		if (interval < 0) {
+			throw new IllegalArgumentException(
+					"dumpinterval must not be negative");
+		}
+	}
+
+	private void validateDeinstrumentInterval(final int interval) {
+		if (interval < 0) {
+			throw new IllegalArgumentException(
+					"deinstrumentinterval must be positive");
+		}
+	}
+
+	private void validateMinimalProbes(final boolean minimal,
+			final int deinstrumentInterval) {
+		if (minimal && deinstrumentInterval > 0) {
+			throw new IllegalArgumentException(
+					"minimalprobes can not be combined with deinstrumentinterval");
+		}
+	}
+
+	private void validateSegmentSize(final int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException(
+					"segmentsize must be greater than zero");
+		}
+	}
+
+	private void validateSegmentCount(final int count) {
+		if (count <= 0) {
+			throw new IllegalArgumentException(
+					"segmentcount must be greater than zero");
+		}
+	}
+
 	/**
 	 * Returns the output file location.
 	 *
@@ -538,6 +726,26 @@ public final class AgentOptions {
 		setOption(CLASSDUMPDIR, location);
 	}
 
+	/**
+	 * Returns the location of the directory where instrumented class files are
+	 * cached.
+	 *
+	 * @return cache location or <code>null</code> (no cache)
+	 */
+	public String getClassCacheDir() {
+		return getOption(CLASSCACHEDIR, null);
+	}
+
+	/**
+	 * Sets the directory where instrumented class files are cached.
+	 *
+	 * @param location
+	 *            cache location or <code>null</code> (no cache)
+	 */
+	public void setClassCacheDir(final String location) {
+		setOption(CLASSCACHEDIR, location);
+	}
+
 	/**
 	 * Returns whether the agent exposes functionality via JMX.
 	 *
@@ -557,6 +765,211 @@ public final class AgentOptions {
 		setOption(JMX, jmx);
 	}
 
+	/**
+	 * Returns the mechanism instrumented classes use to access the runtime.
+	 *
+	 * @return current accessor mode
+	 */
+	public AccessorMode getAccessor() {
+		final String value = options.get(ACCESSOR);
+		return value == null ? AccessorMode.handshake
+				: AccessorMode.valueOf(value);
+	}
+
+	/**
+	 * Sets the mechanism instrumented classes use to access the runtime.
+	 *
+	 * @param accessor
+	 *            accessor mode
+	 */
+	public void setAccessor(final String accessor) {
+		setAccessor(AccessorMode.valueOf(accessor));
+	}
+
+	/**
+	 * Sets the mechanism instrumented classes use to access the runtime.
+	 *
+	 * @param accessor
+	 *            accessor mode
+	 */
+	public void setAccessor(final AccessorMode accessor) {
+		setOption(ACCESSOR, accessor.name());
+	}
+
+	/**
+	 * Returns how probes record their execution.
+	 *
+	 * @return current probe mode
+	 */
+	public ProbeMode getProbes() {
+		final String value = options.get(PROBES);
+		return value == null ? ProbeMode.unconditional
+				: ProbeMode.valueOf(value);
+	}
+
+	/**
+	 * Sets how probes record their execution.
+	 *
+	 * @param probes
+	 *            probe mode
+	 */
+	public void setProbes(final String probes) {
+		setProbes(ProbeMode.valueOf(probes));
+	}
+
+	/**
+	 * Sets how probes record their execution.
+	 *
+	 * @param probes
+	 *            probe mode
+	 */
+	public void setProbes(final ProbeMode probes) {
+		setOption(PROBES, probes.name());
+	}
+
+	/**
+	 * Returns the interval in seconds for periodic dumps.
+	 *
+	 * @return dump interval in seconds, <code>0</code> if disabled
+	 */
+	public int getDumpInterval() {
+		return getOption(DUMPINTERVAL, 0);
+	}
+
+	/**
+	 * Sets the interval in seconds for periodic dumps.
+	 *
+	 * @param interval
+	 *            dump interval in seconds, <code>0</code> to disable
+	 */
+	public void setDumpInterval(final int interval) {
+		validateDumpInterval(interval);
+		setOption(DUMPINTERVAL, interval);
+	}
+
+	/**
+	 * Returns the size in bytes after which a new segment file is started.
+	 *
+	 * @return maximum segment size in bytes
+	 */
+	public int getSegmentSize() {
+		return getOption(SEGMENTSIZE, DEFAULT_SEGMENTSIZE);
+	}
+
+	/**
+	 * Sets the size in bytes after which a new segment file is started.
+	 *
+	 * @param size
+	 *            maximum segment size in bytes
+	 */
+	public void setSegmentSize(final int size) {
+		validateSegmentSize(size);
+		setOption(SEGMENTSIZE, size);
+	}
+
+	/**
+	 * Returns the maximum number of segment files kept.
+	 *
+	 * @return maximum number of segment files
+	 */
+	public int getSegmentCount() {
+		return getOption(SEGMENTCOUNT, DEFAULT_SEGMENTCOUNT);
+	}
+
+	/**
+	 * Sets the maximum number of segment files kept.
+	 *
+	 * @param count
+	 *            maximum number of segment files
+	 */
+	public void setSegmentCount(final int count) {
+		validateSegmentCount(count);
+		setOption(SEGMENTCOUNT, count);
+	}
+
+	/**
+	 * Returns whether periodic dumps only contain data hit since the previous
+	 * dump into the same segment.
+	 *
+	 * @return <code>true</code> if deltas are written
+	 */
+	public boolean getDumpDelta() {
+		return getOption(DUMPDELTA, false);
+	}
+
+	/**
+	 * Sets whether periodic dumps only contain data hit since the previous
+	 * dump into the same segment.
+	 *
+	 * @param delta
+	 *            <code>true</code> if deltas should be written
+	 */
+	public void setDumpDelta(final boolean delta) {
+		setOption(DUMPDELTA, delta);
+	}
+
+	/**
+	 * Returns the interval in seconds for scans for fully covered classes.
+	 *
+	 * @return scan interval in seconds, <code>0</code> if disabled
+	 */
+	public int getDeinstrumentInterval() {
+		return getOption(DEINSTRUMENTINTERVAL, 0);
+	}
+
+	/**
+	 * Sets the interval in seconds for scans for fully covered classes.
+	 *
+	 * @param interval
+	 *            scan interval in seconds, <code>0</code> to disable
+	 */
+	public void setDeinstrumentInterval(final int interval) {
+		validateDeinstrumentInterval(interval);
+		validateMinimalProbes(getMinimalProbes(), interval);
+		setOption(DEINSTRUMENTINTERVAL, interval);
+	}
+
+	/**
+	 * Returns whether the probes of all regular classes are stored in shared
+	 * segments.
+	 *
+	 * @return <code>true</code> if shared segments are used
+	 */
+	public boolean getProbeArena() {
+		return getOption(PROBEARENA, false);
+	}
+
+	/**
+	 * Sets whether the probes of all regular classes are stored in shared
+	 * segments.
+	 *
+	 * @param arena
+	 *            <code>true</code> if shared segments should be used
+	 */
+	public void setProbeArena(final boolean arena) {
+		setOption(PROBEARENA, arena);
+	}
+
+	/**
+	 * Returns whether probes implied by other probes are omitted.
+	 *
+	 * @return <code>true</code> if implied probes are omitted
+	 */
+	public boolean getMinimalProbes() {
+		return getOption(MINIMALPROBES, false);
+	}
+
+	/**
+	 * Sets whether probes implied by other probes are omitted.
+	 *
+	 * @param minimal
+	 *            <code>true</code> if implied probes should be omitted
+	 */
+	public void setMinimalProbes(final boolean minimal) {
+		validateMinimalProbes(minimal, getDeinstrumentInterval());
+		setOption(MINIMALPROBES, minimal);
+	}
+
 	private void setOption(final String key, final int value) {
 		setOption(key, Integer.toString(value));
 	}
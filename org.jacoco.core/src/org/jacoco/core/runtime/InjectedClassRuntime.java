@@ -32,6 +32,8 @@ public class InjectedClassRuntime extends AbstractRuntime {
 
 	private final String injectedClassName;
 
+	private final boolean bridge;
+
 	/**
 	 * Creates a new runtime which will define a class to the same class loader
 	 * and in the same package and protection domain as given class.
@@ -43,19 +45,41 @@ public class InjectedClassRuntime extends AbstractRuntime {
 	 */
 	public InjectedClassRuntime(final Class<?> locator,
 			final String simpleClassName) {
+		this(locator, simpleClassName, false);
+	}
+
+	/**
+	 * Creates a new runtime which will define a class to the same class loader
+	 * and in the same package and protection domain as given class.
+	 *
+	 * @param locator
+	 *            class to identify the target class loader and package
+	 * @param simpleClassName
+	 *            simple name of the class to be defined
+	 * @param bridge
+	 *            if <code>true</code> the defined class provides a static
+	 *            bridge method which instrumented classes call with primitive
+	 *            arguments
+	 */
+	public InjectedClassRuntime(final Class<?> locator,
+			final String simpleClassName, final boolean bridge) {
 		this.locator = locator;
 		this.injectedClassName = locator.getPackage().getName().replace('.',
 				'/') + '/' + simpleClassName;
+		this.bridge = bridge;
 	}
 
 	@Override
 	public void startup(final RuntimeData data) throws Exception {
 		super.startup(data);
-		Lookup //
+		final Class<?> injectedClass = Lookup //
 				.privateLookupIn(locator, Lookup.lookup()) //
-				.defineClass(createClass(injectedClassName)) //
-				.getField(FIELD_NAME) //
-				.set(null, data);
+				.defineClass(createClass(injectedClassName, bridge));
+		if (bridge) {
+			RuntimeBridge.connect(injectedClass, FIELD_NAME, data);
+		} else {
+			injectedClass.getField(FIELD_NAME).set(null, data);
+		}
 	}
 
 	public void shutdown() {
@@ -64,6 +88,11 @@ public class InjectedClassRuntime extends AbstractRuntime {
 
 	public int generateDataAccessor(final long classid, final String classname,
 			final int probecount, final MethodVisitor mv) {
+		if (bridge) {
+			return RuntimeBridge.generateCall(injectedClassName, FIELD_NAME,
+					classid, classname, probecount, mv);
+		}
+
 		mv.visitFieldInsn(Opcodes.GETSTATIC, injectedClassName, FIELD_NAME,
 				FIELD_TYPE);
 
@@ -72,12 +101,17 @@ public class InjectedClassRuntime extends AbstractRuntime {
 		return 6;
 	}
 
-	private static byte[] createClass(final String name) {
+	private static byte[] createClass(final String name, final boolean bridge) {
 		final ClassWriter cw = new ClassWriter(0);
 		cw.visit(Opcodes.V9, Opcodes.ACC_SYNTHETIC | Opcodes.ACC_PUBLIC,
 				name.replace('.', '/'), null, "java/lang/Object", null);
-		cw.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, FIELD_NAME,
-				FIELD_TYPE, null, null);
+		if (bridge) {
+			RuntimeBridge.createMembers(cw, name.replace('.', '/'),
+					FIELD_NAME);
+		} else {
+			cw.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, FIELD_NAME,
+					FIELD_TYPE, null, null);
+		}
 		cw.visitEnd();
 		return cw.toByteArray();
 	}
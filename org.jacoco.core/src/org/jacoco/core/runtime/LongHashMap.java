@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.runtime;
+
+/**
+ * Minimal hash map with primitive <code>long</code> keys. Lookups neither box
+ * the key nor allocate any other objects. Entries can't be removed. Instances
+ * are not thread safe.
+ *
+ * @param <V>
+ *            type of the values
+ */
+final class LongHashMap<V> {
+
+	private long[] keys;
+
+	private Object[] values;
+
+	private int size;
+
+	LongHashMap() {
+		keys = new long[16];
+		values = new Object[16];
+	}
+
+	/**
+	 * Returns the value for the given key.
+	 *
+	 * @param key
+	 *            key to look up
+	 * @return value or <code>null</code> if there is no entry for the key
+	 */
+	@SuppressWarnings("unchecked")
+	V get(final long key) {
+		final int mask = keys.length - 1;
+		for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+			final Object value = values[i];
+			if (value == null || keys[i] == key) {
+				return (V) value;
+			}
+		}
+	}
+
+	/**
+	 * Adds or replaces the entry for the given key.
+	 *
+	 * @param key
+	 *            key of the entry
+	 * @param value
+	 *            value of the entry, must not be <code>null</code>
+	 */
+	void put(final long key, final V value) {
+		if (value == null) {
+			throw new IllegalArgumentException("value must not be null");
+		}
+		if (insert(keys, values, key, value)) {
+			size++;
+			// Keep the load factor below 1/2:
+			if (size * 2 > keys.length) {
+				grow();
+			}
+		}
+	}
+
+	/**
+	 * @return number of entries
+	 */
+	int size() {
+		return size;
+	}
+
+	private void grow() {
+		final long[] newKeys = new long[keys.length * 2];
+		final Object[] newValues = new Object[values.length * 2];
+		for (int i = 0; i < keys.length; i++) {
+			if (values[i] != null) {
+				insert(newKeys, newValues, keys[i], values[i]);
+			}
+		}
+		keys = newKeys;
+		values = newValues;
+	}
+
+	/**
+	 * @return <code>true</code> if a new entry has been added
+	 */
+	private static boolean insert(final long[] keys, final Object[] values,
+			final long key, final Object value) {
+		final int mask = keys.length - 1;
+		for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+			if (values[i] == null) {
+				keys[i] = key;
+				values[i] = value;
+				return true;
+			}
+			if (keys[i] == key) {
+				values[i] = value;
+				return false;
+			}
+		}
+	}
+
+	private static int hash(final long key) {
+		final int h = (int) (key ^ (key >>> 32));
+		return h ^ (h >>> 16);
+	}
+
+}
@@ -43,6 +43,8 @@ public class ModifiedSystemClassRuntime extends AbstractRuntime {
 
 	private final String accessFieldName;
 
+	private final boolean bridge;
+
 	/**
 	 * Creates a new runtime based on the given class and members.
 	 *
@@ -54,17 +56,40 @@ public class ModifiedSystemClassRuntime extends AbstractRuntime {
 	 */
 	public ModifiedSystemClassRuntime(final Class<?> systemClass,
 			final String accessFieldName) {
+		this(systemClass, accessFieldName, false);
+	}
+
+	/**
+	 * Creates a new runtime based on the given class and members.
+	 *
+	 * @param systemClass
+	 *            system class that contains the execution data
+	 * @param accessFieldName
+	 *            name of the public static runtime access field
+	 * @param bridge
+	 *            if <code>true</code> the system class provides a static
+	 *            bridge method with the same name as the access field and
+	 *            instrumented classes call this method with primitive
+	 *            arguments
+	 */
+	public ModifiedSystemClassRuntime(final Class<?> systemClass,
+			final String accessFieldName, final boolean bridge) {
 		super();
 		this.systemClass = systemClass;
 		this.systemClassName = systemClass.getName().replace('.', '/');
 		this.accessFieldName = accessFieldName;
+		this.bridge = bridge;
 	}
 
 	@Override
 	public void startup(final RuntimeData data) throws Exception {
 		super.startup(data);
-		final Field field = systemClass.getField(accessFieldName);
-		field.set(null, data);
+		if (bridge) {
+			RuntimeBridge.connect(systemClass, accessFieldName, data);
+		} else {
+			final Field field = systemClass.getField(accessFieldName);
+			field.set(null, data);
+		}
 	}
 
 	public void shutdown() {
@@ -74,6 +99,11 @@ public class ModifiedSystemClassRuntime extends AbstractRuntime {
 	public int generateDataAccessor(final long classid, final String classname,
 			final int probecount, final MethodVisitor mv) {
 
+		if (bridge) {
+			return RuntimeBridge.generateCall(systemClassName,
+					accessFieldName, classid, classname, probecount, mv);
+		}
+
 		mv.visitFieldInsn(Opcodes.GETSTATIC, systemClassName, accessFieldName,
 				ACCESS_FIELD_TYPE);
 
@@ -120,13 +150,38 @@ public class ModifiedSystemClassRuntime extends AbstractRuntime {
 	public static IRuntime createFor(final Instrumentation inst,
 			final String className, final String accessFieldName)
 			throws ClassNotFoundException {
+		return createFor(inst, className, accessFieldName, false);
+	}
+
+	/**
+	 * Creates a new {@link ModifiedSystemClassRuntime} using the given class as
+	 * the data container. The given class must not have been loaded before by
+	 * the agent.
+	 *
+	 * @param inst
+	 *            instrumentation interface
+	 * @param className
+	 *            VM name of the class to use
+	 * @param accessFieldName
+	 *            name of the added runtime access field
+	 * @param bridge
+	 *            if <code>true</code> a static bridge method is added in
+	 *            addition to the access field
+	 * @return new runtime instance
+	 *
+	 * @throws ClassNotFoundException
+	 *             if the given class can not be found
+	 */
+	public static IRuntime createFor(final Instrumentation inst,
+			final String className, final String accessFieldName,
+			final boolean bridge) throws ClassNotFoundException {
 		final ClassFileTransformer transformer = new ClassFileTransformer() {
 			public byte[] transform(final ClassLoader loader, final String name,
 					final Class<?> classBeingRedefined,
 					final ProtectionDomain protectionDomain,
 					final byte[] source) throws IllegalClassFormatException {
 				if (name.equals(className)) {
-					return instrument(source, accessFieldName);
+					return instrument(source, accessFieldName, bridge);
 				}
 				return null;
 			}
@@ -141,7 +196,7 @@ public class ModifiedSystemClassRuntime extends AbstractRuntime {
 					format("Class %s could not be instrumented.", className),
 					e);
 		}
-		return new ModifiedSystemClassRuntime(clazz, accessFieldName);
+		return new ModifiedSystemClassRuntime(clazz, accessFieldName, bridge);
 	}
 
 	/**
@@ -155,13 +210,45 @@ public class ModifiedSystemClassRuntime extends AbstractRuntime {
 	 */
 	public static byte[] instrument(final byte[] source,
 			final String accessFieldName) {
+		return instrument(source, accessFieldName, false);
+	}
+
+	/**
+	 * Adds the static data field or the static bridge members to the given
+	 * class definition.
+	 *
+	 * @param source
+	 *            class definition source
+	 * @param accessFieldName
+	 *            name of the runtime access field
+	 * @param bridge
+	 *            if <code>true</code> the bridge field and method are added
+	 * @return instrumented version with added members
+	 */
+	public static byte[] instrument(final byte[] source,
+			final String accessFieldName, final boolean bridge) {
 		final ClassReader reader = InstrSupport.classReaderFor(source);
 		final ClassWriter writer = new ClassWriter(reader, 0);
 		reader.accept(new ClassVisitor(InstrSupport.ASM_API_VERSION, writer) {
 
+			private String name;
+
+			@Override
+			public void visit(final int version, final int access,
+					final String name, final String signature,
+					final String superName, final String[] interfaces) {
+				this.name = name;
+				super.visit(version, access, name, signature, superName,
+						interfaces);
+			}
+
 			@Override
 			public void visitEnd() {
-				createDataField(cv, accessFieldName);
+				if (bridge) {
+					RuntimeBridge.createMembers(cv, name, accessFieldName);
+				} else {
+					createDataField(cv, accessFieldName);
+				}
 				super.visitEnd();
 			}
 
@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.runtime;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.IExecutionDataVisitor;
+
+/**
+ * Storage for the probes of many classes in a few large shared
+ * <code>boolean[]</code> segments. Every class gets a range of consecutive
+ * indexes within a segment. The range is assigned when the class is
+ * instrumented, the instrumented class directly uses the offset of its range
+ * for the probe indexes. Per class only a small descriptor is kept and
+ * collecting or resetting the probes only copies or fills the segments. All
+ * access to the arena is thread safe.
+ */
+public class ProbeArena {
+
+	/**
+	 * Default number of probes per segment.
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+
+	private final int segmentSize;
+
+	private final List<boolean[]> segments = new ArrayList<boolean[]>();
+
+	private final List<Entry> entries = new ArrayList<Entry>();
+
+	private final LongHashMap<Entry> index = new LongHashMap<Entry>();
+
+	private int position;
+
+	/**
+	 * Creates a new arena with the default segment size.
+	 */
+	public ProbeArena() {
+		this(DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Creates a new arena with the given segment size.
+	 *
+	 * @param segmentSize
+	 *            number of probes per segment
+	 */
+	public ProbeArena(final int segmentSize) {
+		if (segmentSize <= 0) {
+			throw new IllegalArgumentException(
+					"segment size must be greater than zero");
+		}
+		this.segmentSize = segmentSize;
+		this.position = segmentSize;
+	}
+
+	/**
+	 * Assigns a range of probes to the given class. If a range has already been
+	 * assigned to a class with the same id the existing range is returned.
+	 * Classes with more probes than the segment size get a segment of their
+	 * own.
+	 *
+	 * @param id
+	 *            class identifier
+	 * @param name
+	 *            VM name of the class
+	 * @param probeCount
+	 *            number of probes of the class
+	 * @return index of the first probe of the class within its segment
+	 * @throws IllegalStateException
+	 *             if a range with a different size has already been assigned
+	 *             to the class
+	 */
+	public synchronized int allocate(final long id, final String name,
+			final int probeCount) {
+		final Entry existing = index.get(id);
+		if (existing != null) {
+			if (existing.length != probeCount) {
+				throw new IllegalStateException(format(
+						"Incompatible execution data for class %s with id %016x.",
+						name, Long.valueOf(id)));
+			}
+			return existing.offset;
+		}
+		if (probeCount > segmentSize - position) {
+			if (probeCount > segmentSize) {
+				segments.add(new boolean[probeCount]);
+				final Entry entry = add(id, name, 0, probeCount);
+				// Small classes continue in a new segment:
+				position = segmentSize;
+				return entry.offset;
+			}
+			segments.add(new boolean[segmentSize]);
+			position = 0;
+		}
+		final Entry entry = add(id, name, position, probeCount);
+		position += probeCount;
+		return entry.offset;
+	}
+
+	private Entry add(final long id, final String name, final int offset,
+			final int length) {
+		final Entry entry = new Entry(id, name, segments.size() - 1, offset,
+				length);
+		entries.add(entry);
+		index.put(id, entry);
+		return entry;
+	}
+
+	/**
+	 * Returns the segment holding the probes of the class with the given id.
+	 *
+	 * @param id
+	 *            class identifier
+	 * @return segment or <code>null</code> if no range has been assigned to
+	 *         the class
+	 */
+	public synchronized boolean[] getSegment(final long id) {
+		final Entry entry = index.get(id);
+		return entry == null ? null : segments.get(entry.segment);
+	}
+
+	/**
+	 * Writes the probes of all classes with an assigned range to the given
+	 * visitor. The segments are copied at once, so the data of all classes
+	 * reflects the same point in time.
+	 *
+	 * @param visitor
+	 *            visitor to write execution data to
+	 * @param reset
+	 *            if <code>true</code> all probes are cleared after the copy
+	 */
+	public void collect(final IExecutionDataVisitor visitor,
+			final boolean reset) {
+		final boolean[][] copies;
+		final Entry[] snapshot;
+		synchronized (this) {
+			copies = new boolean[segments.size()][];
+			for (int i = 0; i < copies.length; i++) {
+				copies[i] = segments.get(i).clone();
+			}
+			snapshot = entries.toArray(new Entry[entries.size()]);
+			if (reset) {
+				reset();
+			}
+		}
+		for (final Entry e : snapshot) {
+			final boolean[] probes = Arrays.copyOfRange(copies[e.segment],
+					e.offset, e.offset + e.length);
+			visitor.visitClassExecution(new ExecutionData(e.id, e.name, probes));
+		}
+	}
+
+	/**
+	 * Clears all probes. The assigned ranges are kept.
+	 */
+	public synchronized void reset() {
+		for (final boolean[] segment : segments) {
+			Arrays.fill(segment, false);
+		}
+	}
+
+	/**
+	 * Descriptor of the range assigned to a class.
+	 */
+	private static final class Entry {
+
+		final long id;
+		final String name;
+		final int segment;
+		final int offset;
+		final int length;
+
+		Entry(final long id, final String name, final int segment,
+				final int offset, final int length) {
+			this.id = id;
+			this.name = name;
+			this.segment = segment;
+			this.offset = offset;
+			this.length = length;
+		}
+
+	}
+
+}
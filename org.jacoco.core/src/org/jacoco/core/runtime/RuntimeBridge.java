@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import org.jacoco.core.internal.instr.InstrSupport;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Static bridge between instrumented classes and a {@link RuntimeData}
+ * instance. The bridge consists of a static {@link MethodHandle} field and a
+ * static method with the same name which are added to a class visible to all
+ * instrumented classes. Instrumented classes invoke the static method with
+ * primitive arguments, the method delegates to
+ * {@link RuntimeData#getProbes(long, String, int)} through the handle. In
+ * contrast to {@link RuntimeData#generateAccessCall(long, String, int,
+ * MethodVisitor)} no argument array is allocated and no boxing is required.
+ */
+final class RuntimeBridge {
+
+	/** Type of the handle field */
+	static final String HANDLE_TYPE = "Ljava/lang/invoke/MethodHandle;";
+
+	/** Descriptor of the bridge method and the handle */
+	static final String METHOD_DESC = "(JLjava/lang/String;I)[Z";
+
+	private RuntimeBridge() {
+		// no instances
+	}
+
+	/**
+	 * Adds the static handle field and the static bridge method to the given
+	 * class.
+	 *
+	 * @param cv
+	 *            visitor of the class the members are added to
+	 * @param owner
+	 *            VM name of this class
+	 * @param name
+	 *            name of the field and the method
+	 */
+	static void createMembers(final ClassVisitor cv, final String owner,
+			final String name) {
+		cv.visitField(
+				Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC
+						| Opcodes.ACC_TRANSIENT,
+				name, HANDLE_TYPE, null, null);
+
+		final MethodVisitor mv = cv.visitMethod(
+				Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC,
+				name, METHOD_DESC, null, null);
+		mv.visitCode();
+		mv.visitFieldInsn(Opcodes.GETSTATIC, owner, name, HANDLE_TYPE);
+		mv.visitVarInsn(Opcodes.LLOAD, 0);
+		mv.visitVarInsn(Opcodes.ALOAD, 2);
+		mv.visitVarInsn(Opcodes.ILOAD, 3);
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL,
+				"java/lang/invoke/MethodHandle", "invokeExact", METHOD_DESC,
+				false);
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(5, 4);
+		mv.visitEnd();
+	}
+
+	/**
+	 * Connects the bridge in the given class with the given runtime data.
+	 *
+	 * @param bridgeClass
+	 *            class containing the bridge members
+	 * @param name
+	 *            name of the field and the method
+	 * @param data
+	 *            runtime data the bridge should delegate to
+	 * @throws Exception
+	 *             if the handle cannot be created or assigned
+	 */
+	static void connect(final Class<?> bridgeClass, final String name,
+			final RuntimeData data) throws Exception {
+		final MethodHandle handle = MethodHandles.publicLookup()
+				.findVirtual(RuntimeData.class, "getProbes",
+						MethodType.methodType(boolean[].class, long.class,
+								String.class, int.class))
+				.bindTo(data);
+		bridgeClass.getField(name).set(null, handle);
+	}
+
+	/**
+	 * Generates the code that calls the static bridge method. The code pushes
+	 * the probe array of type <code>boolean[]</code> on the operand stack.
+	 *
+	 * @param owner
+	 *            VM name of the class containing the bridge
+	 * @param name
+	 *            name of the bridge method
+	 * @param classid
+	 *            class identifier
+	 * @param classname
+	 *            VM class name
+	 * @param probecount
+	 *            probe count for this class
+	 * @param mv
+	 *            visitor to emit generated code
+	 * @return stack size required by the generated code
+	 */
+	static int generateCall(final String owner, final String name,
+			final long classid, final String classname, final int probecount,
+			final MethodVisitor mv) {
+		mv.visitLdcInsn(Long.valueOf(classid));
+		mv.visitLdcInsn(classname);
+		InstrSupport.push(mv, probecount);
+		mv.visitMethodInsn(Opcodes.INVOKESTATIC, owner, name, METHOD_DESC,
+				false);
+		return 4;
+	}
+
+}
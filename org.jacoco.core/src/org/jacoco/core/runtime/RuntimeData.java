@@ -30,6 +30,12 @@ public class RuntimeData {
 	/** store for execution data */
 	protected final ExecutionDataStore store;
 
+	/** primitive keyed index of the entries in {@link #store} */
+	private final LongHashMap<ExecutionData> index;
+
+	/** created on first request, as only the arena strategy needs it */
+	private volatile ProbeArena arena;
+
 	private long startTimeStamp;
 
 	private String sessionId;
@@ -39,6 +45,7 @@ public class RuntimeData {
 	 */
 	public RuntimeData() {
 		store = new ExecutionDataStore();
+		index = new LongHashMap<ExecutionData>();
 		sessionId = "<none>";
 		startTimeStamp = System.currentTimeMillis();
 	}
@@ -86,6 +93,9 @@ public class RuntimeData {
 					System.currentTimeMillis());
 			sessionInfoVisitor.visitSessionInfo(info);
 			store.accept(executionDataVisitor);
+			if (arena != null) {
+				arena.collect(executionDataVisitor, false);
+			}
 			if (reset) {
 				reset();
 			}
@@ -98,6 +108,9 @@ public class RuntimeData {
 	public final void reset() {
 		synchronized (store) {
 			store.reset();
+			if (arena != null) {
+				arena.reset();
+			}
 			startTimeStamp = System.currentTimeMillis();
 		}
 	}
@@ -122,6 +135,23 @@ public class RuntimeData {
 		}
 	}
 
+	/**
+	 * Returns the arena which holds the probes of classes instrumented with
+	 * shared probe segments. The probes of these classes are included when
+	 * execution data is collected. The arena is created with the first call
+	 * of this method. Until then probe lookups don't consult an arena at all.
+	 *
+	 * @return probe arena of this runtime
+	 */
+	public ProbeArena getProbeArena() {
+		synchronized (store) {
+			if (arena == null) {
+				arena = new ProbeArena();
+			}
+			return arena;
+		}
+	}
+
 	/**
 	 * Retrieves the execution probe array for a given class. The passed
 	 * {@link Object} array instance is used for parameters and the return value
@@ -139,6 +169,9 @@ public class RuntimeData {
 	 * <li>args[0]: probe array (<code>boolean[]</code>)
 	 * </ul>
 	 *
+	 * For classes with a range in the {@link #getProbeArena() probe arena} the
+	 * shared segment is returned.
+	 *
 	 * @param args
 	 *            parameter array of length 3
 	 */
@@ -146,7 +179,43 @@ public class RuntimeData {
 		final Long classid = (Long) args[0];
 		final String name = (String) args[1];
 		final int probecount = ((Integer) args[2]).intValue();
-		args[0] = getExecutionData(classid, name, probecount).getProbes();
+		args[0] = getProbes(classid.longValue(), name, probecount);
+	}
+
+	/**
+	 * Retrieves the execution probe array for a given class. In contrast to
+	 * {@link #getProbes(Object[])} the parameters are passed directly, which
+	 * allows access through a static bridge method. Classes which already have
+	 * execution data are looked up by their primitive id, so repeated calls
+	 * neither box nor allocate.
+	 *
+	 * @param classid
+	 *            class identifier
+	 * @param name
+	 *            VM name of the class
+	 * @param probecount
+	 *            probe data length
+	 * @return probe array instance for this class
+	 */
+	public boolean[] getProbes(final long classid, final String name,
+			final int probecount) {
+		final ProbeArena a = arena;
+		if (a != null) {
+			final boolean[] segment = a.getSegment(classid);
+			if (segment != null) {
+				return segment;
+			}
+		}
+		synchronized (store) {
+			ExecutionData data = index.get(classid);
+			if (data == null) {
+				data = store.get(Long.valueOf(classid), name, probecount);
+				index.put(classid, data);
+			} else {
+				data.assertCompatibility(classid, name, probecount);
+			}
+			return data.getProbes();
+		}
 	}
 
 	/**
@@ -12,6 +12,9 @@
  *******************************************************************************/
 package org.jacoco.core.runtime;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Pattern;
 
 /**
@@ -19,11 +22,19 @@ import java.util.regex.Pattern;
  * matches any single character and <code>*</code> matches any number of any
  * character. Multiple expressions can be separated with a colon (:). In this
  * case the expression matches if at least one part matches.
+ * <p>
+ * Expressions without wildcards and expressions with a single trailing
+ * <code>*</code>, like <code>com/example/*</code>, are compiled into a prefix
+ * trie. Only the remaining expressions are matched one by one.
  */
 public class WildcardMatcher {
 
 	private final Pattern pattern;
 
+	private final Node root = new Node();
+
+	private final char[][] globs;
+
 	/**
 	 * Creates a new matcher with the given expression.
 	 *
@@ -33,6 +44,7 @@ public class WildcardMatcher {
 	public WildcardMatcher(final String expression) {
 		final String[] parts = expression.split("\\:");
 		final StringBuilder regex = new StringBuilder(expression.length() * 2);
+		final List<char[]> globList = new ArrayList<char[]>();
 		boolean next = false;
 		for (final String part : parts) {
 			if (next) {
@@ -40,8 +52,45 @@ public class WildcardMatcher {
 			}
 			regex.append('(').append(toRegex(part)).append(')');
 			next = true;
+			if (!compile(part)) {
+				globList.add(part.toCharArray());
+			}
+		}
+		if (parts.length == 0) {
+			// Like the empty regular expression
+			root.exact = true;
 		}
 		pattern = Pattern.compile(regex.toString());
+		globs = globList.toArray(new char[globList.size()][]);
+	}
+
+	/**
+	 * Adds expressions without wildcards or with a single trailing
+	 * <code>*</code> to the prefix trie.
+	 *
+	 * @return <code>true</code> if the expression has been added
+	 */
+	private boolean compile(final String expression) {
+		final int length = expression.length();
+		final boolean prefix = length > 0
+				&& expression.charAt(length - 1) == '*';
+		final int end = prefix ? length - 1 : length;
+		for (int i = 0; i < end; i++) {
+			final char c = expression.charAt(i);
+			if (c == '*' || c == '?') {
+				return false;
+			}
+		}
+		Node node = root;
+		for (int i = 0; i < end; i++) {
+			node = node.add(expression.charAt(i));
+		}
+		if (prefix) {
+			node.prefix = true;
+		} else {
+			node.exact = true;
+		}
+		return true;
 	}
 
 	private static CharSequence toRegex(final String expression) {
@@ -70,7 +119,121 @@ public class WildcardMatcher {
 	 * @return <code>true</code>, if the expression matches
 	 */
 	public boolean matches(final String s) {
-		return pattern.matcher(s).matches();
+		if (requiresRegex(s)) {
+			return pattern.matcher(s).matches();
+		}
+		final int length = s.length();
+		Node node = root;
+		for (int i = 0;; i++) {
+			if (node.prefix) {
+				return true;
+			}
+			if (i == length) {
+				if (node.exact) {
+					return true;
+				}
+				break;
+			}
+			node = node.get(s.charAt(i));
+			if (node == null) {
+				break;
+			}
+		}
+		for (final char[] glob : globs) {
+			if (matchesGlob(glob, s)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Wildcards in regular expressions neither match line terminators nor
+	 * single surrogate characters. Such rare strings are matched with the
+	 * regular expression to get identical results.
+	 */
+	private static boolean requiresRegex(final String s) {
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028'
+					|| c == '\u2029' || Character.isSurrogate(c)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Matches a single expression with wildcards. When a mismatch occurs the
+	 * last <code>*</code> absorbs one more character, which is sufficient as
+	 * any earlier <code>*</code> could only absorb characters the last one can
+	 * absorb as well.
+	 */
+	private static boolean matchesGlob(final char[] glob, final String s) {
+		final int length = s.length();
+		int g = 0;
+		int i = 0;
+		int star = -1;
+		int starMatch = 0;
+		while (i < length) {
+			if (g < glob.length && glob[g] == '*') {
+				star = g++;
+				starMatch = i;
+			} else if (g < glob.length
+					&& (glob[g] == '?' || glob[g] == s.charAt(i))) {
+				g++;
+				i++;
+			} else if (star != -1) {
+				g = star + 1;
+				i = ++starMatch;
+			} else {
+				return false;
+			}
+		}
+		while (g < glob.length && glob[g] == '*') {
+			g++;
+		}
+		return g == glob.length;
+	}
+
+	/**
+	 * Node of the prefix trie.
+	 */
+	private static final class Node {
+
+		private char[] keys = new char[0];
+
+		private Node[] children = new Node[0];
+
+		/** Any string starting with the path to this node matches */
+		boolean prefix;
+
+		/** The string ending at this node matches */
+		boolean exact;
+
+		Node get(final char c) {
+			final char[] k = keys;
+			for (int i = 0; i < k.length; i++) {
+				if (k[i] == c) {
+					return children[i];
+				}
+			}
+			return null;
+		}
+
+		Node add(final char c) {
+			Node child = get(c);
+			if (child == null) {
+				child = new Node();
+				final int size = keys.length;
+				keys = Arrays.copyOf(keys, size + 1);
+				children = Arrays.copyOf(children, size + 1);
+				keys[size] = c;
+				children[size] = child;
+			}
+			return child;
+		}
+
 	}
 
 }
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.tools;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jacoco.core.analysis.CoverageBuilder;
+
+/**
+ * Cache for loaded execution data and analyzed class files which can be shared
+ * by multiple report or check tasks within the same build. Entries are
+ * identified by a {@link Key} describing the state of all inputs, so changed
+ * files never hit an outdated entry. Values are softly referenced and may be
+ * dropped under memory pressure, in which case the caller simply loads or
+ * analyzes again. All methods are thread safe.
+ * <p>
+ * Analyses restricted to a code diff or merged with the data of another
+ * version on the current thread are never cached.
+ */
+public class AnalysisCache {
+
+	private final Map<Key, SoftReference<ExecFileLoader>> executionData = new HashMap<Key, SoftReference<ExecFileLoader>>();
+
+	private final Map<Key, SoftReference<CoverageBuilder>> analyses = new HashMap<Key, SoftReference<CoverageBuilder>>();
+
+	/**
+	 * Returns the execution data loaded before for the given key.
+	 *
+	 * @param key
+	 *            key describing the loaded execution data files
+	 * @return loader with the execution data or <code>null</code> if not
+	 *         cached
+	 */
+	public synchronized ExecFileLoader getExecutionData(final Key key) {
+		return get(executionData, key);
+	}
+
+	/**
+	 * Adds loaded execution data to this cache. The content of the loader must
+	 * not be modified afterwards.
+	 *
+	 * @param key
+	 *            key describing the loaded execution data files
+	 * @param loader
+	 *            loader with the execution data
+	 */
+	public synchronized void putExecutionData(final Key key,
+			final ExecFileLoader loader) {
+		executionData.put(key, new SoftReference<ExecFileLoader>(loader));
+	}
+
+	/**
+	 * Returns the builder of an analysis performed before for the given key.
+	 * Bundles with any name can be created from the returned builder.
+	 *
+	 * @param key
+	 *            key describing the analyzed class files and the execution
+	 *            data used
+	 * @return builder with the analyzed classes or <code>null</code> if not
+	 *         cached
+	 */
+	public synchronized CoverageBuilder getAnalysis(final Key key) {
+		if (hasThreadData()) {
+			return null;
+		}
+		return get(analyses, key);
+	}
+
+	/**
+	 * Adds the builder of a completed analysis to this cache. No more classes
+	 * must be added to the builder afterwards.
+	 *
+	 * @param key
+	 *            key describing the analyzed class files and the execution
+	 *            data used
+	 * @param builder
+	 *            builder with the analyzed classes
+	 */
+	public synchronized void putAnalysis(final Key key,
+			final CoverageBuilder builder) {
+		if (!hasThreadData()) {
+			analyses.put(key, new SoftReference<CoverageBuilder>(builder));
+		}
+	}
+
+	private static <T> T get(final Map<Key, SoftReference<T>> map,
+			final Key key) {
+		final SoftReference<T> ref = map.get(key);
+		if (ref == null) {
+			return null;
+		}
+		final T value = ref.get();
+		if (value == null) {
+			map.remove(key);
+		}
+		return value;
+	}
+
+	private static boolean hasThreadData() {
+		return ExecFileLoader.classInfo.get() != null
+				|| ExecFileLoader.classInfoDto.get() != null
+				|| ExecFileLoader.instrunctionsThreadLocal.get() != null
+				|| ExecFileLoader.probesMap.get() != null;
+	}
+
+	/**
+	 * Identifies the inputs of a cache entry. Two keys are equal if the same
+	 * values and files with the same state have been added in the same order.
+	 */
+	public static final class Key {
+
+		private final List<Object> parts = new ArrayList<Object>();
+
+		/**
+		 * Adds a plain value like a name or a pattern to this key.
+		 *
+		 * @param value
+		 *            value to add, may be <code>null</code>
+		 * @return this key
+		 */
+		public Key add(final Object value) {
+			parts.add(value);
+			return this;
+		}
+
+		/**
+		 * Adds the path, length and modification time of the given file to
+		 * this key. For directories all contained files are added recursively
+		 * in a stable order.
+		 *
+		 * @param file
+		 *            file or directory to add
+		 * @return this key
+		 */
+		public Key addFile(final File file) {
+			if (file.isDirectory()) {
+				final File[] children = file.listFiles();
+				if (children != null) {
+					Arrays.sort(children);
+					for (final File child : children) {
+						addFile(child);
+					}
+				}
+			} else {
+				parts.add(file.getAbsolutePath());
+				parts.add(Long.valueOf(file.length()));
+				parts.add(Long.valueOf(file.lastModified()));
+			}
+			return this;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			return obj instanceof Key && parts.equals(((Key) obj).parts);
+		}
+
+		@Override
+		public int hashCode() {
+			return parts.hashCode();
+		}
+
+	}
+
+}
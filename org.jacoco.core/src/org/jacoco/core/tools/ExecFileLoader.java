@@ -23,6 +23,7 @@ import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.jacoco.core.data.ExecutionDataReader;
 import org.jacoco.core.data.ExecutionDataStore;
@@ -50,6 +51,51 @@ public class ExecFileLoader {
 
 	public static ThreadLocal<Map<String, boolean[]>> probesMap = new ThreadLocal<>();
 
+	/**
+	 * Wraps the given task so that it runs with the diff and merge data of the
+	 * calling thread. This allows to analyze classes on other threads, e.g. in
+	 * a thread pool. The data of the executing thread is restored when the
+	 * task has finished. The merge data is only read by the analysis, so the
+	 * same data may be used by multiple tasks concurrently.
+	 *
+	 * @param task
+	 *            task to wrap
+	 * @param <V>
+	 *            result type of the task
+	 * @return task running with the data of the calling thread
+	 */
+	public static <V> Callable<V> withThreadData(final Callable<V> task) {
+		final Map<String, Map<String, Map<String, Instruction>>> instructions = instrunctionsThreadLocal
+				.get();
+		final Map<String, Map<String, List<MethodInfoDto>>> classes = classInfo
+				.get();
+		final List<ClassInfoDto> classDtos = classInfoDto.get();
+		final Map<String, boolean[]> probes = probesMap.get();
+		return new Callable<V>() {
+			public V call() throws Exception {
+				final Map<String, Map<String, Map<String, Instruction>>> previousInstructions = instrunctionsThreadLocal
+						.get();
+				final Map<String, Map<String, List<MethodInfoDto>>> previousClasses = classInfo
+						.get();
+				final List<ClassInfoDto> previousClassDtos = classInfoDto
+						.get();
+				final Map<String, boolean[]> previousProbes = probesMap.get();
+				instrunctionsThreadLocal.set(instructions);
+				classInfo.set(classes);
+				classInfoDto.set(classDtos);
+				probesMap.set(probes);
+				try {
+					return task.call();
+				} finally {
+					instrunctionsThreadLocal.set(previousInstructions);
+					classInfo.set(previousClasses);
+					classInfoDto.set(previousClassDtos);
+					probesMap.set(previousProbes);
+				}
+			}
+		};
+	}
+
 	/**
 	 * New instance to combine session infos and execution data from multiple
 	 * files.
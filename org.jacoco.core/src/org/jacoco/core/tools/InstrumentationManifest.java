@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.tools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jacoco.core.JaCoCo;
+import org.jacoco.core.internal.data.CRC64;
+
+/**
+ * Manifest for incremental offline instrumentation. The manifest records a
+ * CRC64 checksum of the original content for every instrumented location, so
+ * a later run can skip locations which did not change since. The manifest is
+ * stored as a text file with one <code>checksum location</code> line per
+ * location. The first line describes the settings the locations have been
+ * instrumented with: a manifest written with different settings, e.g. by a
+ * different JaCoCo version, is ignored when loaded. All methods of this class
+ * are thread safe.
+ */
+public class InstrumentationManifest {
+
+	private static final String ENCODING = "UTF-8";
+
+	private static final String HEADER = "# ";
+
+	private final String settings;
+
+	private final Map<String, Long> checksums = new TreeMap<String, Long>();
+
+	/**
+	 * Creates an empty manifest for the current JaCoCo version.
+	 */
+	public InstrumentationManifest() {
+		this("");
+	}
+
+	/**
+	 * Creates an empty manifest for the current JaCoCo version and the given
+	 * instrumentation settings.
+	 *
+	 * @param settings
+	 *            description of all settings which influence the instrumented
+	 *            classes
+	 */
+	public InstrumentationManifest(final String settings) {
+		final long settingsId;
+		try {
+			settingsId = CRC64.checksum(
+					new ByteArrayInputStream(settings.getBytes(ENCODING)));
+		} catch (final IOException e) {
+			// UTF-8 is always supported and the stream can't fail
+			throw new AssertionError(e);
+		}
+		this.settings = String.format("JaCoCo %s %016x", JaCoCo.VERSION,
+				Long.valueOf(settingsId));
+	}
+
+	/**
+	 * Calculates the checksum of the given file as stored in the manifest.
+	 *
+	 * @param file
+	 *            file to calculate the checksum for
+	 * @return checksum of the file content
+	 * @throws IOException
+	 *             if the file can't be read
+	 */
+	public static long checksum(final File file) throws IOException {
+		final InputStream in = new FileInputStream(file);
+		try {
+			return CRC64.checksum(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Adds all locations from the given manifest file. Missing files and files
+	 * written with different settings are ignored.
+	 *
+	 * @param file
+	 *            manifest file to read
+	 * @throws IOException
+	 *             if the file can't be read or has an invalid format
+	 */
+	public void load(final File file) throws IOException {
+		final InputStream in;
+		try {
+			in = new FileInputStream(file);
+		} catch (final FileNotFoundException e) {
+			return;
+		}
+		try {
+			final BufferedReader reader = new BufferedReader(
+					new InputStreamReader(in, ENCODING));
+			if (!(HEADER + settings).equals(reader.readLine())) {
+				return;
+			}
+			final Map<String, Long> loaded = new TreeMap<String, Long>();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final int sep = line.indexOf(' ');
+				if (sep != 16) {
+					throw invalidFormat(file);
+				}
+				final long checksum;
+				try {
+					checksum = Long.parseUnsignedLong(line.substring(0, sep),
+							16);
+				} catch (final NumberFormatException e) {
+					throw invalidFormat(file);
+				}
+				loaded.put(line.substring(sep + 1), Long.valueOf(checksum));
+			}
+			synchronized (this) {
+				checksums.putAll(loaded);
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	private static IOException invalidFormat(final File file) {
+		return new IOException(
+				String.format("Invalid instrumentation manifest %s.", file));
+	}
+
+	/**
+	 * Writes all locations to the given manifest file.
+	 *
+	 * @param file
+	 *            manifest file to write
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public synchronized void save(final File file) throws IOException {
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(file), ENCODING));
+		try {
+			writer.write(HEADER + settings);
+			writer.write('\n');
+			for (final Map.Entry<String, Long> e : checksums.entrySet()) {
+				writer.write(String.format("%016x %s", e.getValue(),
+						e.getKey()));
+				writer.write('\n');
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Records the checksum of the given location.
+	 *
+	 * @param location
+	 *            location of the original content, e.g. a relative path
+	 * @param checksum
+	 *            checksum of the original content
+	 */
+	public synchronized void put(final String location, final long checksum) {
+		checksums.put(location, Long.valueOf(checksum));
+	}
+
+	/**
+	 * Checks whether the given checksum has been recorded for the location.
+	 *
+	 * @param location
+	 *            location of the original content
+	 * @param checksum
+	 *            current checksum of the original content
+	 * @return <code>true</code> if the content has not changed
+	 */
+	public synchronized boolean isUnchanged(final String location,
+			final long checksum) {
+		final Long recorded = checksums.get(location);
+		return recorded != null && recorded.longValue() == checksum;
+	}
+
+	/**
+	 * @return number of recorded locations
+	 */
+	public synchronized int size() {
+		return checksums.size();
+	}
+
+}
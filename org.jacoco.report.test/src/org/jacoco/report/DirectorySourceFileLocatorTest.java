@@ -15,6 +15,7 @@ package org.jacoco.report;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeNoException;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -23,6 +24,11 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -70,6 +76,87 @@ public class DirectorySourceFileLocatorTest {
 		assertContent(source);
 	}
 
+	@Test
+	public void buildIndex_should_list_all_files() throws IOException {
+		createFile("org/jacoco/example/Test.java");
+		createFile("Default.java");
+		new File(sourceFolder.getRoot(), "empty").mkdirs();
+
+		final Set<String> index = ((DirectorySourceFileLocator) locator)
+				.buildIndex();
+
+		assertEquals(new HashSet<String>(Arrays.asList(
+				"org/jacoco/example/Test.java", "Default.java")), index);
+		assertContent(locator.getSourceFile("org/jacoco/example",
+				"Test.java"));
+		assertContent(locator.getSourceFile("", "Default.java"));
+	}
+
+	@Test
+	public void buildIndex_should_only_list_source_files() throws IOException {
+		createFile("org/jacoco/example/Test.java");
+		createFile("org/jacoco/example/Test.kt");
+		createFile("org/jacoco/example/Test.class");
+		createFile("README");
+
+		final Set<String> index = ((DirectorySourceFileLocator) locator)
+				.buildIndex();
+
+		assertEquals(new HashSet<String>(Arrays.asList(
+				"org/jacoco/example/Test.java", "org/jacoco/example/Test.kt")),
+				index);
+	}
+
+	@Test
+	public void buildIndex_should_list_files_with_configured_extensions()
+			throws IOException {
+		createFile("org/jacoco/example/Test.java");
+		createFile("org/jacoco/example/Test.xtend");
+		final DirectorySourceFileLocator directoryLocator = (DirectorySourceFileLocator) locator;
+		directoryLocator.setSourceExtensions(Arrays.asList(".xtend"));
+
+		assertEquals(Collections.singleton("org/jacoco/example/Test.xtend"),
+				directoryLocator.buildIndex());
+	}
+
+	@Test
+	public void buildIndex_should_not_follow_symbolic_link_cycles()
+			throws IOException {
+		createFile("org/jacoco/example/Test.java");
+		try {
+			Files.createSymbolicLink(
+					new File(sourceFolder.getRoot(), "org/jacoco/example/loop")
+							.toPath(),
+					sourceFolder.getRoot().toPath());
+		} catch (final UnsupportedOperationException e) {
+			assumeNoException(e);
+		} catch (final IOException e) {
+			assumeNoException(e);
+		}
+
+		assertEquals(Collections.singleton("org/jacoco/example/Test.java"),
+				((DirectorySourceFileLocator) locator).buildIndex());
+	}
+
+	@Test
+	public void getSourceFile_should_only_return_indexed_files()
+			throws IOException {
+		((DirectorySourceFileLocator) locator).buildIndex();
+		createFile("org/jacoco/example/Test.java");
+
+		assertNull(locator.getSourceFile("org/jacoco/example", "Test.java"));
+	}
+
+	@Test
+	public void buildIndex_should_return_empty_index_when_folder_does_not_exist()
+			throws IOException {
+		locator = new DirectorySourceFileLocator(
+				new File(sourceFolder.getRoot(), "missing"), "UTF-8", 4);
+
+		assertEquals(Collections.emptySet(),
+				((DirectorySourceFileLocator) locator).buildIndex());
+	}
+
 	private void createFile(String path) throws IOException {
 		final File file = new File(sourceFolder.getRoot(), path);
 		file.getParentFile().mkdirs();
@@ -13,6 +13,8 @@
 package org.jacoco.report;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -60,4 +62,36 @@ public class FileMultiReportOutputTest {
 		output.createFile("a/b/c/test");
 	}
 
+	@Test
+	public void exists_should_return_true_for_existing_files()
+			throws IOException {
+		final FileMultiReportOutput output = new FileMultiReportOutput(
+				folder.getRoot());
+		output.createFile("a/test").close();
+
+		assertTrue(output.exists("a/test"));
+		assertFalse(output.exists("a"));
+		assertFalse(output.exists("a/other"));
+	}
+
+	@Test
+	public void openFile_should_read_file_content() throws IOException {
+		final FileMultiReportOutput output = new FileMultiReportOutput(
+				folder.getRoot());
+		final OutputStream stream = output.createFile("a/test");
+		stream.write(42);
+		stream.close();
+
+		final InputStream actual = output.openFile("a/test");
+		assertEquals(42, actual.read());
+		assertEquals(-1, actual.read());
+		actual.close();
+	}
+
+	@Test(expected = IOException.class)
+	public void openFile_should_throw_exception_for_missing_file()
+			throws IOException {
+		new FileMultiReportOutput(folder.getRoot()).openFile("test");
+	}
+
 }
@@ -16,19 +16,31 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Unit tests for {@link MultiSourceFileLocator}.
  */
 public class MultiSourceFileLocatorTest {
 
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
 	private MultiSourceFileLocator locator;
 
 	@Before
@@ -94,6 +106,75 @@ public class MultiSourceFileLocatorTest {
 		assertEquals('2', source.read());
 	}
 
+	@Test
+	public void testIndexedPrecedence() throws IOException {
+		final DirectorySourceFileLocator dir1 = createDirectory("1",
+				"org/jacoco/example/TestX.java");
+		final DirectorySourceFileLocator dir2 = createDirectory("2",
+				"org/jacoco/example/Test.java");
+		final DirectorySourceFileLocator dir3 = createDirectory("3",
+				"org/jacoco/example/Test.java", "Default.java");
+		locator.add(dir1);
+		locator.add(dir2);
+		locator.add(dir3);
+		final List<Runnable> tasks = new ArrayList<Runnable>();
+
+		// Tasks which are not started are executed by the calling thread
+		locator.buildIndex(new Executor() {
+			public void execute(final Runnable command) {
+				tasks.add(command);
+			}
+		});
+
+		assertEquals(3, tasks.size());
+		assertEquals('2', locator
+				.getSourceFile("org/jacoco/example", "Test.java").read());
+		assertEquals('3', locator.getSourceFile("", "Default.java").read());
+		assertNull(locator.getSourceFile("org/jacoco/example", "Test4.java"));
+	}
+
+	@Test
+	public void testIndexedWithOtherLocators() throws IOException {
+		final StubLocator loc1 = new StubLocator();
+		loc1.put("org/jacoco/example/Test1.java", 'a');
+		locator.add(loc1);
+		locator.add(createDirectory("2", "org/jacoco/example/Test1.java",
+				"org/jacoco/example/Test2.java"));
+		final StubLocator loc3 = new StubLocator();
+		loc3.put("org/jacoco/example/Test2.java", 'c');
+		loc3.put("org/jacoco/example/Test3.java", 'c');
+		locator.add(loc3);
+
+		locator.buildIndex(null);
+		final StubLocator loc4 = new StubLocator();
+		loc4.put("org/jacoco/example/Test4.java", 'd');
+		locator.add(loc4);
+
+		assertEquals('a', locator
+				.getSourceFile("org/jacoco/example", "Test1.java").read());
+		assertEquals('2', locator
+				.getSourceFile("org/jacoco/example", "Test2.java").read());
+		assertEquals('c', locator
+				.getSourceFile("org/jacoco/example", "Test3.java").read());
+		assertEquals('d', locator
+				.getSourceFile("org/jacoco/example", "Test4.java").read());
+		assertNull(locator.getSourceFile("org/jacoco/example", "Test5.java"));
+	}
+
+	private DirectorySourceFileLocator createDirectory(final String name,
+			final String... paths) throws IOException {
+		final File dir = folder.newFolder(name);
+		for (final String path : paths) {
+			final File file = new File(dir, path);
+			file.getParentFile().mkdirs();
+			final Writer writer = new OutputStreamWriter(
+					new FileOutputStream(file), "UTF-8");
+			writer.write(name);
+			writer.close();
+		}
+		return new DirectorySourceFileLocator(dir, "UTF-8", 4);
+	}
+
 	private static class StubLocator implements ISourceFileLocator {
 
 		private final Map<String, Reader> sources = new HashMap<String, Reader>();
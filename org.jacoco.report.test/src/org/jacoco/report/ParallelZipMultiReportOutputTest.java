@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link ParallelZipMultiReportOutput}.
+ */
+public class ParallelZipMultiReportOutputTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ByteArrayOutputStream buffer;
+
+	private List<Runnable> tasks;
+
+	private ParallelZipMultiReportOutput zipOutput;
+
+	@Before
+	public void setup() throws Exception {
+		buffer = new ByteArrayOutputStream();
+		tasks = new ArrayList<Runnable>();
+		// Tasks which are not started are executed by the writing thread
+		zipOutput = new ParallelZipMultiReportOutput(buffer, new Executor() {
+			public void execute(final Runnable command) {
+				tasks.add(command);
+			}
+		});
+	}
+
+	@Test
+	public void testWrite1() throws IOException {
+		final byte[] content1 = "HelloZip".getBytes();
+
+		OutputStream out = zipOutput.createFile("a.txt");
+		out.write(content1);
+		out.close();
+
+		zipOutput.close();
+
+		final Map<String, byte[]> entries = readEntries();
+		assertEquals(Collections.singleton("a.txt"), entries.keySet());
+		assertArrayEquals(content1, entries.get("a.txt"));
+		assertEquals(1, tasks.size());
+	}
+
+	@Test
+	public void testWrite2() throws IOException {
+		final byte[] content1 = "HelloZip".getBytes("ISO-8859-1");
+
+		OutputStream out = zipOutput.createFile("b.txt");
+		out.write(content1, 5, 3);
+		out.write(40);
+		out.flush();
+		out.close();
+
+		zipOutput.close();
+
+		final Map<String, byte[]> entries = readEntries();
+		assertArrayEquals("Zip(".getBytes("ISO-8859-1"), entries.get("b.txt"));
+	}
+
+	@Test
+	public void testEmptyFile() throws IOException {
+		zipOutput.createFile("empty.txt").close();
+
+		zipOutput.close();
+
+		assertArrayEquals(new byte[0], readEntries().get("empty.txt"));
+	}
+
+	@Test
+	public void testConcurrentlyOpenFiles() throws IOException {
+		final OutputStream out1 = zipOutput.createFile("dir/index.html");
+		final OutputStream out2 = zipOutput.createFile("readme.txt");
+		out2.write("HelloWorld".getBytes());
+		out1.write("HelloZip".getBytes());
+		out2.close();
+		out1.close();
+
+		zipOutput.close();
+
+		final Map<String, byte[]> entries = readEntries();
+		assertArrayEquals("HelloZip".getBytes(),
+				entries.get("dir/index.html"));
+		assertArrayEquals("HelloWorld".getBytes(), entries.get("readme.txt"));
+	}
+
+	@Test
+	public void testCreateFilesWithoutClose() throws IOException {
+		OutputStream out = zipOutput.createFile("dir/index.html");
+		out.write("HelloZip".getBytes());
+
+		zipOutput.close();
+
+		assertArrayEquals("HelloZip".getBytes(),
+				readEntries().get("dir/index.html"));
+	}
+
+	@Test
+	public void testCompressWithoutExecutor() throws IOException {
+		zipOutput = new ParallelZipMultiReportOutput(buffer, null);
+		final byte[] content = new byte[100000];
+		Arrays.fill(content, (byte) 'a');
+
+		OutputStream out = zipOutput.createFile("a.txt");
+		out.write(content);
+		out.close();
+		zipOutput.close();
+
+		assertArrayEquals(content, readEntries().get("a.txt"));
+	}
+
+	@Test
+	public void testCentralDirectory() throws IOException {
+		final File file = folder.newFile("report.zip");
+		zipOutput = new ParallelZipMultiReportOutput(
+				new FileOutputStream(file), null);
+		for (int i = 0; i < 3; i++) {
+			final OutputStream out = zipOutput.createFile("dir/" + i + ".txt");
+			out.write(("Content" + i).getBytes());
+			out.close();
+		}
+		final OutputStream out = zipOutput.createFile("ä.txt");
+		out.write(1);
+		out.close();
+		zipOutput.close();
+
+		final Map<String, byte[]> entries = readZipFile(file);
+		assertEquals(4, entries.size());
+		assertArrayEquals("Content2".getBytes(), entries.get("dir/2.txt"));
+		assertArrayEquals(new byte[] { 1 }, entries.get("ä.txt"));
+	}
+
+	@Test
+	public void testZip64CentralDirectory() throws IOException {
+		final File file = folder.newFile("report.zip");
+		zipOutput = new ParallelZipMultiReportOutput(
+				new FileOutputStream(file), null);
+		final int count = 0x10000;
+		for (int i = 0; i < count; i++) {
+			final OutputStream out = zipOutput.createFile(i + ".txt");
+			out.write(i);
+			out.close();
+		}
+		zipOutput.close();
+
+		final Map<String, byte[]> entries = readZipFile(file);
+		assertEquals(count, entries.size());
+		assertArrayEquals(new byte[] { (byte) 0xff },
+				entries.get((count - 1) + ".txt"));
+	}
+
+	@Test(expected = ZipException.class)
+	public void testDuplicateFile() throws IOException {
+		zipOutput.createFile("a.txt").close();
+		zipOutput.createFile("a.txt");
+	}
+
+	@Test(expected = IOException.class)
+	public void testWriteToClosedStream1() throws IOException {
+		OutputStream out = zipOutput.createFile("index.html");
+		out.close();
+		out.write("HelloZip".getBytes());
+	}
+
+	@Test(expected = IOException.class)
+	public void testWriteToClosedStream2() throws IOException {
+		OutputStream out = zipOutput.createFile("index.html");
+		out.close();
+		out.write(32);
+	}
+
+	@Test(expected = IOException.class)
+	public void testFlushToClosedStream() throws IOException {
+		OutputStream out = zipOutput.createFile("index.html");
+		out.close();
+		out.flush();
+	}
+
+	private Map<String, byte[]> readEntries() throws IOException {
+		final Map<String, byte[]> entries = new HashMap<String, byte[]>();
+		final ZipInputStream input = new ZipInputStream(
+				new ByteArrayInputStream(buffer.toByteArray()));
+		ZipEntry entry;
+		while ((entry = input.getNextEntry()) != null) {
+			final byte[] old = entries.put(entry.getName(), read(input));
+			assertNull("Duplicate entry " + entry.getName(), old);
+		}
+		return entries;
+	}
+
+	private static Map<String, byte[]> readZipFile(final File file)
+			throws IOException {
+		final Map<String, byte[]> entries = new HashMap<String, byte[]>();
+		final ZipFile zip = new ZipFile(file);
+		try {
+			final Enumeration<? extends ZipEntry> e = zip.entries();
+			while (e.hasMoreElements()) {
+				final ZipEntry entry = e.nextElement();
+				final InputStream input = zip.getInputStream(entry);
+				entries.put(entry.getName(), read(input));
+				input.close();
+			}
+		} finally {
+			zip.close();
+		}
+		return entries;
+	}
+
+	private static byte[] read(final InputStream input) throws IOException {
+		final ByteArrayOutputStream content = new ByteArrayOutputStream();
+		final byte[] b = new byte[1024];
+		int len;
+		while ((len = input.read(b)) != -1) {
+			content.write(b, 0, len);
+		}
+		return content.toByteArray();
+	}
+
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.html;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.jacoco.report.FileMultiReportOutput;
+import org.jacoco.report.ReportStructureTestDriver;
+import org.jacoco.report.internal.html.PageManifest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for incremental reports of {@link HTMLFormatter}.
+ */
+public class HTMLFormatterIncrementalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ReportStructureTestDriver driver;
+
+	private HTMLFormatter formatter;
+
+	private File classPage;
+
+	private File sourcePage;
+
+	private File sessionsPage;
+
+	@Before
+	public void setup() {
+		driver = new ReportStructureTestDriver();
+		formatter = new HTMLFormatter();
+		formatter.setIncremental(true);
+		final File dir = folder.getRoot();
+		classPage = new File(dir, "bundle/org.jacoco.example/FooClass.html");
+		sourcePage = new File(dir,
+				"bundle/org.jacoco.example/FooClass.java.html");
+		sessionsPage = new File(dir, "jacoco-sessions.html");
+	}
+
+	@Test
+	public void should_skip_unchanged_pages() throws IOException {
+		createReport();
+		touch(classPage, sourcePage, sessionsPage);
+
+		formatter = new HTMLFormatter();
+		formatter.setIncremental(true);
+		createReport();
+
+		assertEquals(0, classPage.lastModified());
+		assertEquals(0, sourcePage.lastModified());
+		assertTrue(sessionsPage.lastModified() != 0);
+	}
+
+	@Test
+	public void should_write_missing_pages() throws IOException {
+		createReport();
+		assertTrue(classPage.delete());
+
+		createReport();
+
+		assertTrue(classPage.isFile());
+	}
+
+	@Test
+	public void should_write_all_pages_for_new_settings() throws IOException {
+		createReport();
+		touch(classPage, sourcePage);
+
+		formatter.setFooterText("changed");
+		createReport();
+
+		assertTrue(classPage.lastModified() != 0);
+		assertTrue(sourcePage.lastModified() != 0);
+	}
+
+	@Test
+	public void should_write_all_pages_when_not_incremental()
+			throws IOException {
+		formatter.setIncremental(false);
+		createReport();
+		touch(classPage);
+
+		createReport();
+
+		assertTrue(classPage.lastModified() != 0);
+		assertFalse(new File(folder.getRoot(), PageManifest.FILE).exists());
+	}
+
+	private void createReport() throws IOException {
+		driver.sendGroup(formatter.createVisitor(
+				new FileMultiReportOutput(folder.getRoot())));
+	}
+
+	private static void touch(final File... files) {
+		for (final File f : files) {
+			assertTrue(f.setLastModified(0));
+		}
+	}
+
+}
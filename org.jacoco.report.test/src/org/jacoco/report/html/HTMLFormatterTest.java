@@ -12,17 +12,25 @@
  *******************************************************************************/
 package org.jacoco.report.html;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.jacoco.report.ILanguageNames;
 import org.jacoco.report.MemoryMultiReportOutput;
+import org.jacoco.report.ParallelZipMultiReportOutput;
 import org.jacoco.report.ReportStructureTestDriver;
 import org.junit.After;
 import org.junit.Before;
@@ -98,6 +106,85 @@ public class HTMLFormatterTest {
 		output.assertNoFile("empty/Empty.java.html");
 	}
 
+	@Test
+	public void should_render_changed_code_only_when_diff_only()
+			throws IOException {
+		formatter.setDiffOnly(true);
+		driver.sendGroup(formatter.createVisitor(output));
+		output.assertFile("index.html");
+		output.assertFile("bundle/index.html");
+		output.assertFile("bundle/diff.html");
+		output.assertFile("bundle/org.jacoco.example/FooClass.html");
+		output.assertFile("bundle/org.jacoco.example/FooClass.java.html");
+		output.assertNoFile("bundle/org.jacoco.example/Empty.java.html");
+		output.assertNoFile("bundle/empty/index.html");
+	}
+
+	@Test
+	public void should_render_same_pages_with_executor() throws IOException {
+		driver.sendGroup(formatter.createVisitor(output));
+		final MemoryMultiReportOutput parallelOutput = new MemoryMultiReportOutput();
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			formatter.setExecutor(executor);
+			driver.sendGroup(formatter.createVisitor(parallelOutput));
+		} finally {
+			executor.shutdown();
+		}
+
+		parallelOutput.assertAllClosed();
+		for (final String path : new String[] { "index.html",
+				"bundle/index.html", "bundle/org.jacoco.example/index.html",
+				"bundle/org.jacoco.example/index.source.html",
+				"bundle/org.jacoco.example/FooClass.html",
+				"bundle/org.jacoco.example/FooClass.java.html" }) {
+			assertArrayEquals(path, output.getFile(path),
+					parallelOutput.getFile(path));
+		}
+	}
+
+	@Test
+	public void should_render_same_pages_into_parallel_zip()
+			throws IOException {
+		driver.sendGroup(formatter.createVisitor(output));
+		final ByteArrayOutputStream zip = new ByteArrayOutputStream();
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			formatter.setExecutor(executor);
+			driver.sendGroup(formatter.createVisitor(
+					new ParallelZipMultiReportOutput(zip, executor)));
+		} finally {
+			executor.shutdown();
+		}
+
+		final ZipInputStream input = new ZipInputStream(
+				new ByteArrayInputStream(zip.toByteArray()));
+		int count = 0;
+		ZipEntry entry;
+		while ((entry = input.getNextEntry()) != null) {
+			final ByteArrayOutputStream content = new ByteArrayOutputStream();
+			final byte[] b = new byte[1024];
+			int len;
+			while ((len = input.read(b)) != -1) {
+				content.write(b, 0, len);
+			}
+			assertArrayEquals(entry.getName(),
+					output.getFile(entry.getName()), content.toByteArray());
+			count++;
+		}
+		assertTrue(count > 6);
+	}
+
+	@Test
+	public void should_write_row_data_for_virtual_tables() throws IOException {
+		formatter.setVirtualTableThreshold(1);
+		driver.sendGroup(formatter.createVisitor(output));
+
+		output.assertFile("bundle/index.html.js");
+		output.assertFile("bundle/org.jacoco.example/index.html.js");
+		output.assertFile("bundle/org.jacoco.example/FooClass.html.js");
+	}
+
 	@Test
 	public void testDefaultEncoding() throws Exception {
 		driver.sendBundle(formatter.createVisitor(output));
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.analysis.ISourceFileCoverage;
+import org.jacoco.core.internal.analysis.BundleCoverageImpl;
+import org.jacoco.core.internal.analysis.ClassCoverageImpl;
+import org.jacoco.core.internal.analysis.CounterImpl;
+import org.jacoco.core.internal.analysis.MethodCoverageImpl;
+import org.jacoco.core.internal.analysis.SourceFileCoverageImpl;
+import org.jacoco.core.internal.diff.ClassInfoDto;
+import org.jacoco.core.tools.ExecFileLoader;
+import org.jacoco.report.IReportGroupVisitor;
+import org.jacoco.report.ISourceFileLocator;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link DiffScopeFilter}.
+ */
+public class DiffScopeFilterTest {
+
+	@After
+	public void teardown() {
+		ExecFileLoader.classInfoDto.remove();
+	}
+
+	@Test
+	public void should_remove_classes_without_code() {
+		final IBundleCoverage bundle = createBundle(
+				createClass("a/Changed", "Changed.java", true),
+				createClass("a/Changed$Inner", "Changed.java", false),
+				createClass("a/Other", "Other.java", false),
+				createClass("b/Empty", "Empty.java", false));
+
+		final IBundleCoverage filtered = DiffScopeFilter.filter(bundle);
+
+		assertEquals("bundle", filtered.getName());
+		assertEquals(1, filtered.getPackages().size());
+		final IPackageCoverage p = filtered.getPackages().iterator().next();
+		assertEquals("a", p.getName());
+		assertEquals(1, p.getClasses().size());
+		assertEquals("a/Changed", p.getClasses().iterator().next().getName());
+		assertEquals(1, p.getSourceFiles().size());
+		assertEquals("Changed.java",
+				p.getSourceFiles().iterator().next().getName());
+		assertEquals(1, filtered.getInstructionCounter().getTotalCount());
+		assertEquals(1, filtered.getClassCounter().getTotalCount());
+	}
+
+	@Test
+	public void should_keep_classes_of_diff_scope_only() {
+		setScope("a/Changed");
+		final IBundleCoverage bundle = createBundle(
+				createClass("a/Changed", "Changed.java", true),
+				createClass("a/Changed$1", "Changed.java", true),
+				createClass("a/Other", "Other.java", true));
+
+		final IBundleCoverage filtered = DiffScopeFilter.filter(bundle);
+
+		final IPackageCoverage p = filtered.getPackages().iterator().next();
+		final Iterator<IClassCoverage> classes = p.getClasses().iterator();
+		assertEquals("a/Changed", classes.next().getName());
+		assertEquals("a/Changed$1", classes.next().getName());
+		assertEquals(2, p.getClasses().size());
+		assertEquals(1, p.getSourceFiles().size());
+	}
+
+	@Test
+	public void should_filter_bundles_of_nested_groups() throws IOException {
+		final List<IBundleCoverage> bundles = new ArrayList<IBundleCoverage>();
+		final IReportGroupVisitor visitor = DiffScopeFilter
+				.filter(new IReportGroupVisitor() {
+					public void visitBundle(final IBundleCoverage bundle,
+							final ISourceFileLocator locator) {
+						bundles.add(bundle);
+					}
+
+					public IReportGroupVisitor visitGroup(final String name) {
+						return this;
+					}
+				});
+
+		visitor.visitGroup("group").visitBundle(
+				createBundle(createClass("a/Empty", "Empty.java", false)),
+				null);
+
+		assertEquals(1, bundles.size());
+		assertTrue(bundles.get(0).getPackages().isEmpty());
+	}
+
+	private static IClassCoverage createClass(final String name,
+			final String sourceFileName, final boolean code) {
+		final ClassCoverageImpl c = new ClassCoverageImpl(name, 0, false);
+		c.setSourceFileName(sourceFileName);
+		if (code) {
+			final MethodCoverageImpl m = new MethodCoverageImpl("m", "()V",
+					null);
+			m.increment(CounterImpl.COUNTER_1_0, CounterImpl.COUNTER_0_0, 1);
+			m.incrementMethodCounter();
+			c.addMethod(m);
+		}
+		return c;
+	}
+
+	private static IBundleCoverage createBundle(
+			final IClassCoverage... classes) {
+		final Map<String, SourceFileCoverageImpl> sourceFiles = new LinkedHashMap<String, SourceFileCoverageImpl>();
+		for (final IClassCoverage c : classes) {
+			final String key = c.getPackageName() + "/"
+					+ c.getSourceFileName();
+			SourceFileCoverageImpl s = sourceFiles.get(key);
+			if (s == null) {
+				s = new SourceFileCoverageImpl(c.getSourceFileName(),
+						c.getPackageName());
+				sourceFiles.put(key, s);
+			}
+			s.increment(c);
+		}
+		return new BundleCoverageImpl("bundle", Arrays.asList(classes),
+				new ArrayList<ISourceFileCoverage>(sourceFiles.values()));
+	}
+
+	private static void setScope(final String classFile) {
+		final ClassInfoDto dto = new ClassInfoDto();
+		dto.setClassFile(classFile);
+		dto.setType("MODIFY");
+		ExecFileLoader.classInfoDto.set(Collections.singletonList(dto));
+	}
+
+}
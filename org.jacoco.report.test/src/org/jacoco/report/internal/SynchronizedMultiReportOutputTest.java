@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jacoco.report.MemoryMultiReportOutput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SynchronizedMultiReportOutput}.
+ */
+public class SynchronizedMultiReportOutputTest {
+
+	private MemoryMultiReportOutput delegate;
+
+	private SynchronizedMultiReportOutput output;
+
+	@Before
+	public void setup() {
+		delegate = new MemoryMultiReportOutput();
+		output = new SynchronizedMultiReportOutput(delegate);
+	}
+
+	@After
+	public void teardown() {
+		delegate.assertAllClosed();
+	}
+
+	@Test
+	public void should_write_files_when_closed() throws IOException {
+		final OutputStream a = output.createFile("a.txt");
+		final OutputStream b = output.createFile("b.txt");
+		a.write(1);
+		b.write(2);
+		delegate.assertEmpty();
+
+		b.close();
+		delegate.assertSingleFile("b.txt");
+		a.close();
+		a.close();
+		output.close();
+
+		assertArrayEquals(new byte[] { 1 }, delegate.getFile("a.txt"));
+		assertArrayEquals(new byte[] { 2 }, delegate.getFile("b.txt"));
+	}
+
+}
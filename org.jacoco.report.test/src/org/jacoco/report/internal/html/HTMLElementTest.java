@@ -16,6 +16,7 @@ import static org.junit.Assert.assertEquals;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringWriter;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -231,6 +232,18 @@ public class HTMLElementTest {
 				"<script type=\"text/javascript\" src=\"file.js\"></script>");
 	}
 
+	@Test
+	public void fragment_should_write_element_without_header()
+			throws IOException {
+		final StringWriter writer = new StringWriter();
+		final HTMLElement td = new HTMLElement(writer, "td");
+		td.span("x").text("<a>");
+		td.close();
+
+		assertEquals("<td><span class=\"x\">&lt;a&gt;</span></td>",
+				writer.toString());
+	}
+
 	private void assertContent(String expected) throws IOException {
 		root.close();
 		assertEquals(PREFIX + expected + SUFFIX, buffer.toString("UTF-8"));
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.html;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.jacoco.core.internal.analysis.CounterImpl;
+import org.jacoco.core.internal.analysis.SourceFileCoverageImpl;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PageFingerprint}.
+ */
+public class PageFingerprintTest {
+
+	@Test
+	public void getValue_should_return_same_value_for_same_input() {
+		final String a = new PageFingerprint().add("x").add(1).add(true)
+				.getValue();
+		final String b = new PageFingerprint().add("x").add(1).add(true)
+				.getValue();
+
+		assertEquals(a, b);
+		assertEquals(40, a.length());
+	}
+
+	@Test
+	public void getValue_should_be_stable() {
+		final PageFingerprint fingerprint = new PageFingerprint().add("x");
+
+		assertEquals(fingerprint.getValue(), fingerprint.getValue());
+	}
+
+	@Test
+	public void add_should_distinguish_null_and_empty_string() {
+		assertFalse(new PageFingerprint().add((String) null).getValue()
+				.equals(new PageFingerprint().add("").getValue()));
+	}
+
+	@Test
+	public void add_should_distinguish_string_boundaries() {
+		assertFalse(new PageFingerprint().add("ab").add("c").getValue()
+				.equals(new PageFingerprint().add("a").add("bc").getValue()));
+	}
+
+	@Test
+	public void add_should_include_counters_of_node() {
+		final SourceFileCoverageImpl node = new SourceFileCoverageImpl(
+				"Foo.java", "org/example");
+		final String empty = new PageFingerprint().add(node).getValue();
+		node.increment(CounterImpl.COUNTER_1_0, CounterImpl.COUNTER_0_0, 3);
+
+		assertFalse(empty.equals(new PageFingerprint().add(node).getValue()));
+	}
+
+	@Test
+	public void add_should_return_content_of_reader() throws IOException {
+		final PageFingerprint fingerprint = new PageFingerprint();
+
+		assertEquals("content",
+				fingerprint.add(new StringReader("content")));
+		assertEquals(new PageFingerprint().add("content").getValue(),
+				fingerprint.getValue());
+	}
+
+}
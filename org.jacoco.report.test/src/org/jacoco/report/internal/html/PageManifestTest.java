@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.html;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jacoco.report.FileMultiReportOutput;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link PageManifest}.
+ */
+public class PageManifestTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private FileMultiReportOutput output;
+
+	@Before
+	public void setup() throws IOException {
+		output = new FileMultiReportOutput(folder.getRoot());
+		output.createFile("a/page.html").close();
+		output.createFile("b.html").close();
+	}
+
+	@Test
+	public void update_should_return_false_without_previous_manifest()
+			throws IOException {
+		final PageManifest manifest = new PageManifest(output, "s");
+		manifest.load();
+
+		assertFalse(manifest.update("a/page.html", "1234"));
+	}
+
+	@Test
+	public void update_should_return_true_for_unchanged_pages()
+			throws IOException {
+		final PageManifest first = new PageManifest(output, "s");
+		first.load();
+		first.update("a/page.html", "1234");
+		first.update("b.html", "5678");
+		first.save();
+
+		final PageManifest second = new PageManifest(output, "s");
+		second.load();
+
+		assertTrue(second.update("a/page.html", "1234"));
+		assertFalse(second.update("b.html", "abcd"));
+		assertFalse(second.update("c.html", "5678"));
+	}
+
+	@Test
+	public void update_should_return_false_for_missing_page()
+			throws IOException {
+		final PageManifest first = new PageManifest(output, "s");
+		first.load();
+		first.update("a/page.html", "1234");
+		first.save();
+		assertTrue(new File(folder.getRoot(), "a/page.html").delete());
+
+		final PageManifest second = new PageManifest(output, "s");
+		second.load();
+
+		assertFalse(second.update("a/page.html", "1234"));
+	}
+
+	@Test
+	public void load_should_ignore_manifest_with_other_settings()
+			throws IOException {
+		final PageManifest first = new PageManifest(output, "s1");
+		first.load();
+		first.update("a/page.html", "1234");
+		first.save();
+
+		final PageManifest second = new PageManifest(output, "s2");
+		second.load();
+
+		assertFalse(second.update("a/page.html", "1234"));
+	}
+
+	@Test
+	public void load_should_truncate_manifest_until_saved()
+			throws IOException {
+		final PageManifest first = new PageManifest(output, "s");
+		first.load();
+		first.update("a/page.html", "1234");
+		first.save();
+
+		new PageManifest(output, "s").load();
+
+		assertEquals(0,
+				new File(folder.getRoot(), PageManifest.FILE).length());
+		final PageManifest third = new PageManifest(output, "s");
+		third.load();
+		assertFalse(third.update("a/page.html", "1234"));
+	}
+
+	@Test(expected = IOException.class)
+	public void load_should_throw_exception_for_invalid_manifest()
+			throws IOException {
+		final PageManifest first = new PageManifest(output, "s");
+		first.load();
+		first.save();
+		final OutputStream out = output.createFile(PageManifest.FILE);
+		final String header = "# JaCoCo " + org.jacoco.core.JaCoCo.VERSION
+				+ " s\ninvalid\n";
+		out.write(header.getBytes("UTF-8"));
+		out.close();
+
+		new PageManifest(output, "s").load();
+	}
+
+}
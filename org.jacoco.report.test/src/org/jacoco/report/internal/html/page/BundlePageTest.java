@@ -14,8 +14,11 @@ package org.jacoco.report.internal.html.page;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.IClassCoverage;
@@ -75,6 +78,83 @@ public class BundlePageTest extends PageTestBase {
 				support.findStr(doc, "count(/html/body/table[1]/tbody/tr)"));
 	}
 
+	@Test
+	public void should_render_packages_with_executor()
+			throws Exception {
+		final List<Runnable> tasks = new ArrayList<Runnable>();
+		// Tasks which are not started are executed by the waiting thread
+		executor = new Executor() {
+			public void execute(final Runnable command) {
+				tasks.add(command);
+			}
+		};
+		final IBundleCoverage node = new BundleCoverageImpl("bundle",
+				Arrays.asList(createPackage("b"), createPackage("a")));
+
+		final BundlePage page = new BundlePage(node, null, null, rootFolder,
+				context);
+		page.render();
+
+		assertEquals(2, tasks.size());
+		output.assertFile("a/index.html");
+		output.assertFile("b/index.html");
+		final Document doc = support.parse(output.getFile("index.html"));
+		assertEquals("a", support.findStr(doc,
+				"/html/body/table[1]/tbody/tr[1]/td[1]/a"));
+		assertEquals("b", support.findStr(doc,
+				"/html/body/table[1]/tbody/tr[2]/td[1]/a"));
+	}
+
+	@Test
+	public void should_render_diff_summary_when_diff_only() throws Exception {
+		diffOnly = true;
+		final IBundleCoverage node = new BundleCoverageImpl("bundle",
+				Arrays.asList(createPackage("b"), createPackage("a")));
+
+		final BundlePage page = new BundlePage(node, null, null, rootFolder,
+				context);
+		page.render();
+
+		Document doc = support.parse(output.getFile("index.html"));
+		assertEquals("diff.html", support.findStr(doc,
+				"/html/body/div[1]/span[1]/a[1]/@href"));
+		doc = support.parse(output.getFile("diff.html"));
+		assertEquals("Changed Code", support.findStr(doc, "/html/body/h1"));
+		assertEquals("a.Class", support.findStr(doc,
+				"/html/body/table[1]/tbody/tr[1]/td[1]/a"));
+		assertEquals("a/Class.html", support.findStr(doc,
+				"/html/body/table[1]/tbody/tr[1]/td[1]/a/@href"));
+		assertEquals("b.Class", support.findStr(doc,
+				"/html/body/table[1]/tbody/tr[2]/td[1]/a"));
+		assertEquals("2",
+				support.findStr(doc, "count(/html/body/table[1]/tbody/tr)"));
+	}
+
+	@Test
+	public void should_not_render_diff_summary_by_default() throws Exception {
+		final IBundleCoverage node = new BundleCoverageImpl("bundle",
+				Arrays.asList(createPackage("a")));
+
+		final BundlePage page = new BundlePage(node, null, null, rootFolder,
+				context);
+		page.render();
+
+		output.assertNoFile("diff.html");
+	}
+
+	private static IPackageCoverage createPackage(final String name) {
+		final ClassCoverageImpl classCoverage = new ClassCoverageImpl(
+				name + "/Class", 0, false);
+		final MethodCoverageImpl methodCoverage = new MethodCoverageImpl("m",
+				"()V", null);
+		methodCoverage.increment(CounterImpl.COUNTER_1_0,
+				CounterImpl.COUNTER_0_0, 42);
+		classCoverage.addMethod(methodCoverage);
+		return new PackageCoverageImpl(name,
+				Collections.<IClassCoverage> singleton(classCoverage),
+				Collections.<ISourceFileCoverage> emptySet());
+	}
+
 	@Test
 	public void should_render_message_when_no_class_files_specified()
 			throws Exception {
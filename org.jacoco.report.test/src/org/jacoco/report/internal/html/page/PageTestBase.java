@@ -14,6 +14,7 @@ package org.jacoco.report.internal.html.page;
 
 import java.io.IOException;
 import java.util.Locale;
+import java.util.concurrent.Executor;
 
 import org.jacoco.report.ILanguageNames;
 import org.jacoco.report.JavaNames;
@@ -23,6 +24,7 @@ import org.jacoco.report.internal.html.HTMLSupport;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.ILinkable;
 import org.jacoco.report.internal.html.LinkableStub;
+import org.jacoco.report.internal.html.PageManifest;
 import org.jacoco.report.internal.html.index.IIndexUpdate;
 import org.jacoco.report.internal.html.resources.Resources;
 import org.jacoco.report.internal.html.resources.Styles;
@@ -43,6 +45,12 @@ public abstract class PageTestBase {
 
 	protected HTMLSupport support;
 
+	protected Executor executor;
+
+	protected PageManifest manifest;
+
+	protected boolean diffOnly;
+
 	protected void setup() throws Exception {
 		output = new MemoryMultiReportOutput();
 		rootFolder = new ReportOutputFolder(output);
@@ -92,6 +100,18 @@ public abstract class PageTestBase {
 				return Locale.ENGLISH;
 			}
 
+			public Executor getExecutor() {
+				return executor;
+			}
+
+			public PageManifest getPageManifest() {
+				return manifest;
+			}
+
+			public boolean isDiffOnly() {
+				return diffOnly;
+			}
+
 		};
 		support = new HTMLSupport();
 	}
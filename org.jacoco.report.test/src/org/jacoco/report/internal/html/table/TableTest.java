@@ -13,6 +13,7 @@
 package org.jacoco.report.internal.html.table;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
@@ -227,6 +228,83 @@ public class TableTest {
 				support.findStr(doc, "/html/body/table/tbody/tr[5]/td[1]"));
 	}
 
+	@Test
+	public void should_write_rows_of_virtual_table_to_data_file()
+			throws Exception {
+		final List<ITableItem> items = Arrays.asList(createItem("C", 3),
+				createItem("E", 4), createItem("A", 1), createItem("D", 2));
+		table.add("Forward", null,
+				new StubRenderer(
+						CounterComparator.TOTALITEMS.on(CounterEntity.CLASS)),
+				true);
+		table.add("Reverse", "ctr2", new StubRenderer(
+				CounterComparator.TOTALITEMS.reverse().on(CounterEntity.CLASS)),
+				false);
+		table.setVirtualThreshold(4);
+		table.render(body, items, createTotal("Sum", 10), resources, root,
+				"Test.html.js");
+		html.close();
+
+		final HTMLSupport support = new HTMLSupport();
+		final Document doc = support.parse(output.getFile("Test.html"));
+		assertEquals("1",
+				support.findStr(doc, "count(/html/body/table/tbody/tr)"));
+		assertEquals("2", support.findStr(doc,
+				"/html/body/table/tbody/tr/td/@colspan"));
+		assertEquals("2",
+				support.findStr(doc, "count(/html/body/table/thead/tr/td)"));
+		assertEquals("Test.html.js",
+				support.findStr(doc, "/html/body/script/@src"));
+		assertEquals("initTable({\"styles\":[null,\"ctr2\"],\n" //
+				+ "\"rows\":[\n" //
+				+ "[\"A\",\"A\"],\n" //
+				+ "[\"D\",\"D\"],\n" //
+				+ "[\"C\",\"C\"],\n" //
+				+ "[\"E\",\"E\"]],\n" //
+				+ "\"order\":[\n" //
+				+ "[0,1,2,3],\n" //
+				+ "[3,2,1,0]]});\n",
+				new String(output.getFile("Test.html.js"), "US-ASCII"));
+	}
+
+	@Test
+	public void should_escape_cells_of_virtual_table() throws Exception {
+		final List<ITableItem> items = Arrays
+				.asList(createItem("a\"\\\u00fc<", 1));
+		table.add("Forward", null,
+				new StubRenderer(
+						CounterComparator.TOTALITEMS.on(CounterEntity.CLASS)),
+				false);
+		table.setVirtualThreshold(1);
+		table.render(body, items, createTotal("Sum", 1), resources, root,
+				"Test.html.js");
+		html.close();
+
+		final String data = new String(output.getFile("Test.html.js"),
+				"US-ASCII");
+		assertTrue(data, data.contains("[\"a&quot;\\\\\\u00fc&lt;\"]"));
+	}
+
+	@Test
+	public void should_render_rows_of_small_virtual_table() throws Exception {
+		final List<ITableItem> items = Arrays.asList(createItem("A", 1),
+				createItem("B", 2));
+		table.add("Forward", null,
+				new StubRenderer(
+						CounterComparator.TOTALITEMS.on(CounterEntity.CLASS)),
+				false);
+		table.setVirtualThreshold(3);
+		table.render(body, items, createTotal("Sum", 3), resources, root,
+				"Test.html.js");
+		html.close();
+
+		final HTMLSupport support = new HTMLSupport();
+		final Document doc = support.parse(output.getFile("Test.html"));
+		assertEquals("2",
+				support.findStr(doc, "count(/html/body/table/tbody/tr)"));
+		output.assertNoFile("Test.html.js");
+	}
+
 	private ITableItem createItem(final String name, final int count) {
 		final ICoverageNode node = new CoverageNodeImpl(ElementType.GROUP,
 				name) {
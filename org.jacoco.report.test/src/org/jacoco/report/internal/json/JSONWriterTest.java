@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.json;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link JSONWriter}.
+ */
+public class JSONWriterTest {
+
+	private StringWriter buffer;
+
+	private JSONWriter writer;
+
+	@Before
+	public void setup() {
+		buffer = new StringWriter();
+		writer = new JSONWriter(buffer);
+	}
+
+	@Test
+	public void should_write_empty_object() throws IOException {
+		writer.beginObject();
+		writer.endObject();
+		assertContent("{}");
+	}
+
+	@Test
+	public void should_separate_members() throws IOException {
+		writer.beginObject();
+		writer.member("a", 1);
+		writer.member("b", "x");
+		writer.name("c");
+		writer.beginArray();
+		writer.value(2);
+		writer.beginObject();
+		writer.endObject();
+		writer.beginArray();
+		writer.endArray();
+		writer.value((String) null);
+		writer.endArray();
+		writer.name("d");
+		writer.beginObject();
+		writer.endObject();
+		writer.endObject();
+		assertContent("{\"a\":1,\"b\":\"x\",\"c\":[2,{},[],null],\"d\":{}}");
+	}
+
+	@Test
+	public void should_escape_strings() throws IOException {
+		writer.value("a\"b\\c\nd\re\tf\u0001gä");
+		assertContent("\"a\\\"b\\\\c\\nd\\re\\tf\\u0001gä\"");
+	}
+
+	@Test
+	public void should_escape_names() throws IOException {
+		writer.beginObject();
+		writer.member("\"", "");
+		writer.endObject();
+		assertContent("{\"\\\"\":\"\"}");
+	}
+
+	private void assertContent(final String expected) throws IOException {
+		writer.close();
+		assertEquals(expected, buffer.toString());
+	}
+
+}
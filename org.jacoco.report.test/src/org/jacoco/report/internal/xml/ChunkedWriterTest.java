@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ChunkedWriter}.
+ */
+public class ChunkedWriterTest {
+
+	private StringWriter target;
+
+	private ChunkedWriter writer;
+
+	@Before
+	public void setup() {
+		target = new StringWriter();
+		writer = new ChunkedWriter(target, 4);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void should_reject_invalid_chunk_size() {
+		new ChunkedWriter(target, 0);
+	}
+
+	@Test
+	public void should_write_complete_chunks_only() throws IOException {
+		writer.write("abc");
+		assertEquals("", target.toString());
+
+		writer.write('d');
+		writer.write('e');
+		assertEquals("abcd", target.toString());
+	}
+
+	@Test
+	public void should_split_long_strings_into_chunks() throws IOException {
+		writer.write("x");
+		writer.write("0123456789", 1, 8);
+		assertEquals("x1234567", target.toString());
+
+		writer.flush();
+		assertEquals("x12345678", target.toString());
+	}
+
+	@Test
+	public void should_write_char_arrays() throws IOException {
+		writer.write("ab");
+		writer.write(new char[] { 'c', 'd', 'e' }, 0, 3);
+		writer.write(new char[] { '0', '1', '2', '3', '4', '5' }, 1, 4);
+		writer.flush();
+		assertEquals("abcde1234", target.toString());
+	}
+
+	@Test
+	public void close_should_flush_and_close_target() throws IOException {
+		final boolean[] closed = new boolean[1];
+		final StringWriter closeable = new StringWriter() {
+			@Override
+			public void close() throws IOException {
+				closed[0] = true;
+				super.close();
+			}
+		};
+		writer = new ChunkedWriter(closeable);
+		writer.write("content");
+		writer.close();
+
+		assertEquals("content", closeable.toString());
+		assertTrue(closed[0]);
+	}
+
+}
@@ -133,6 +133,20 @@ public class XMLElementTest {
 		assertContent("<root id=\"12345\"/>");
 	}
 
+	@Test
+	public void text_should_write_long_text_with_and_without_markup()
+			throws IOException {
+		final StringBuilder plain = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			plain.append("abcdef");
+		}
+		root.text(plain.toString());
+		root.text("a<b&c");
+		root.text("<");
+		root.text("");
+		assertContent("<root>" + plain + "a&lt;b&amp;c&lt;</root>");
+	}
+
 	@Test
 	public void attr_should_quote_string_value() throws IOException {
 		root.attr("quote", "<\">");
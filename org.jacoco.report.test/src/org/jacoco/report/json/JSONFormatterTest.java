@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.internal.diff.ChangeLine;
+import org.jacoco.core.internal.diff.ClassInfoDto;
+import org.jacoco.core.internal.diff.MethodInfoDto;
+import org.jacoco.core.tools.ExecFileLoader;
+import org.jacoco.report.IReportVisitor;
+import org.jacoco.report.MemoryOutput;
+import org.jacoco.report.ReportStructureTestDriver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Unit tests for {@link JSONFormatter}.
+ */
+public class JSONFormatterTest {
+
+	private ReportStructureTestDriver driver;
+
+	private JSONFormatter formatter;
+
+	private MemoryOutput output;
+
+	private List<SessionInfo> infos;
+
+	private Collection<ExecutionData> data;
+
+	@Before
+	public void setup() {
+		driver = new ReportStructureTestDriver();
+		formatter = new JSONFormatter();
+		output = new MemoryOutput();
+		infos = new ArrayList<SessionInfo>();
+		data = new ArrayList<ExecutionData>();
+	}
+
+	@After
+	public void teardown() {
+		output.assertClosed();
+		ExecFileLoader.classInfo.remove();
+		ExecFileLoader.classInfoDto.remove();
+	}
+
+	@Test
+	public void testSessionInfo() throws Exception {
+		infos.add(new SessionInfo("session-1", 12345, 67890));
+		infos.add(new SessionInfo("session-2", 1, 2));
+		final IReportVisitor visitor = formatter.createVisitor(output);
+		visitor.visitInfo(infos, data);
+		visitor.visitGroup("foo");
+		visitor.visitEnd();
+
+		final JsonArray sessions = parse().getAsJsonArray("sessions");
+		assertEquals(2, sessions.size());
+		final JsonObject session = sessions.get(0).getAsJsonObject();
+		assertEquals("session-1", session.get("id").getAsString());
+		assertEquals(12345, session.get("start").getAsLong());
+		assertEquals(67890, session.get("dump").getAsLong());
+		assertEquals("session-2", sessions.get(1).getAsJsonObject().get("id")
+				.getAsString());
+	}
+
+	@Test
+	public void testStructureWithNestedGroups() throws Exception {
+		final IReportVisitor visitor = formatter.createVisitor(output);
+		visitor.visitInfo(infos, data);
+		driver.sendNestedGroups(visitor);
+
+		final JsonObject report = parse();
+		assertEquals("report", report.get("name").getAsString());
+		final JsonArray groups = report.getAsJsonArray("groups");
+		assertEquals(2, groups.size());
+		final JsonObject group1 = groups.get(0).getAsJsonObject();
+		assertEquals("group1", group1.get("name").getAsString());
+		final JsonObject group = group1.getAsJsonArray("groups").get(0)
+				.getAsJsonObject();
+		assertEquals("group", group.get("name").getAsString());
+		assertEquals("bundle", group.getAsJsonArray("groups").get(0)
+				.getAsJsonObject().get("name").getAsString());
+		assertEquals("bundle",
+				groups.get(1).getAsJsonObject().get("name").getAsString());
+		assertEquals(20, counter(report, "INSTRUCTION", "missed"));
+		assertEquals(30, counter(report, "INSTRUCTION", "covered"));
+		assertEquals(10, counter(group1, "INSTRUCTION", "missed"));
+	}
+
+	@Test
+	public void testStructureWithGroup() throws Exception {
+		final IReportVisitor visitor = formatter.createVisitor(output);
+		visitor.visitInfo(infos, data);
+		driver.sendGroup(visitor);
+
+		final JsonObject report = parse();
+		assertEquals("group", report.get("name").getAsString());
+		final JsonObject bundle = report.getAsJsonArray("groups").get(0)
+				.getAsJsonObject();
+		assertEquals("bundle", bundle.get("name").getAsString());
+		final JsonObject pkg = bundle.getAsJsonArray("packages").get(0)
+				.getAsJsonObject();
+		assertEquals("org/jacoco/example", pkg.get("name").getAsString());
+		final JsonObject clazz = pkg.getAsJsonArray("classes").get(0)
+				.getAsJsonObject();
+		assertEquals("org/jacoco/example/FooClass",
+				clazz.get("name").getAsString());
+		assertEquals("FooClass.java", clazz.get("sourcefilename").getAsString());
+		assertFalse(clazz.has("diff"));
+		final JsonObject method = clazz.getAsJsonArray("methods").get(0)
+				.getAsJsonObject();
+		assertEquals("fooMethod", method.get("name").getAsString());
+		assertEquals("()V", method.get("desc").getAsString());
+		assertEquals(1, method.get("line").getAsInt());
+		assertFalse(method.has("author"));
+
+		assertEquals(10, counter(report, "INSTRUCTION", "missed"));
+		assertEquals(15, counter(report, "INSTRUCTION", "covered"));
+		assertEquals(1, counter(report, "BRANCH", "missed"));
+		assertEquals(2, counter(report, "BRANCH", "covered"));
+		assertEquals(0, counter(report, "LINE", "missed"));
+		assertEquals(3, counter(report, "LINE", "covered"));
+		assertEquals(1, counter(report, "CLASS", "covered"));
+		assertEquals(1, counter(method, "METHOD", "covered"));
+		assertEquals(10, counter(clazz, "INSTRUCTION", "missed"));
+		assertEquals(10, counter(pkg, "INSTRUCTION", "missed"));
+		assertEquals(10, counter(bundle, "INSTRUCTION", "missed"));
+	}
+
+	@Test
+	public void testStructureWithBundleOnly() throws Exception {
+		final IReportVisitor visitor = formatter.createVisitor(output);
+		visitor.visitInfo(infos, data);
+		driver.sendBundle(visitor);
+
+		final JsonObject report = parse();
+		assertEquals("bundle", report.get("name").getAsString());
+		assertFalse(report.has("groups"));
+		assertEquals("org/jacoco/example",
+				report.getAsJsonArray("packages").get(0).getAsJsonObject()
+						.get("name").getAsString());
+		assertEquals(10, counter(report, "INSTRUCTION", "missed"));
+	}
+
+	@Test
+	public void testEmptyCountersOmitted() throws Exception {
+		final IReportVisitor visitor = formatter.createVisitor(output);
+		visitor.visitInfo(infos, data);
+		driver.sendBundle(visitor);
+
+		final JsonObject empty = parse().getAsJsonArray("packages").get(1)
+				.getAsJsonObject();
+		assertEquals("empty", empty.get("name").getAsString());
+		assertEquals(0, empty.getAsJsonObject("counters").size());
+	}
+
+	@Test
+	public void testDiffOmittedByDefault() throws Exception {
+		setDiff();
+		final IReportVisitor visitor = formatter.createVisitor(output);
+		visitor.visitInfo(infos, data);
+		driver.sendBundle(visitor);
+
+		final JsonObject clazz = getFooClass(parse());
+		assertFalse(clazz.has("diff"));
+		assertFalse(getFooMethod(clazz).has("author"));
+	}
+
+	@Test
+	public void testIncludeDiff() throws Exception {
+		setDiff();
+		formatter.setIncludeDiff(true);
+		final IReportVisitor visitor = formatter.createVisitor(output);
+		visitor.visitInfo(infos, data);
+		driver.sendBundle(visitor);
+
+		final JsonObject clazz = getFooClass(parse());
+		final JsonObject diff = clazz.getAsJsonObject("diff");
+		assertEquals("MODIFY", diff.get("type").getAsString());
+		final JsonObject line = diff.getAsJsonArray("lines").get(0)
+				.getAsJsonObject();
+		assertEquals("INSERT", line.get("type").getAsString());
+		assertEquals(2, line.get("start").getAsInt());
+		assertEquals(4, line.get("end").getAsInt());
+		final JsonObject method = getFooMethod(clazz);
+		assertEquals("john", method.get("author").getAsString());
+		assertEquals("fix \"bug\"\n", method.get("commitMessage").getAsString());
+	}
+
+	@Test
+	public void testIncludeDiffSkipsLinesWithoutLineNumbers()
+			throws Exception {
+		setDiff();
+		final ChangeLine noStart = new ChangeLine();
+		noStart.setType("DELETE");
+		noStart.setEndLineNum(Integer.valueOf(7));
+		final ChangeLine noEnd = new ChangeLine();
+		noEnd.setType("DELETE");
+		noEnd.setStartLineNum(Integer.valueOf(7));
+		final ClassInfoDto clazzInfo = ExecFileLoader.classInfoDto.get()
+				.get(0);
+		clazzInfo.setLines(Arrays.asList(noStart, clazzInfo.getLines().get(0),
+				noEnd));
+		formatter.setIncludeDiff(true);
+		final IReportVisitor visitor = formatter.createVisitor(output);
+		visitor.visitInfo(infos, data);
+		driver.sendBundle(visitor);
+
+		final JsonArray lines = getFooClass(parse()).getAsJsonObject("diff")
+				.getAsJsonArray("lines");
+		assertEquals(1, lines.size());
+		assertEquals("INSERT",
+				lines.get(0).getAsJsonObject().get("type").getAsString());
+	}
+
+	@Test
+	public void testIncludeDiffWithoutDiffData() throws Exception {
+		formatter.setIncludeDiff(true);
+		final IReportVisitor visitor = formatter.createVisitor(output);
+		visitor.visitInfo(infos, data);
+		driver.sendBundle(visitor);
+
+		final JsonObject clazz = getFooClass(parse());
+		assertNull(clazz.get("diff"));
+		assertFalse(getFooMethod(clazz).has("author"));
+	}
+
+	private void setDiff() {
+		final MethodInfoDto method = new MethodInfoDto();
+		method.setMethodName("fooMethod");
+		method.setAuthor("john");
+		method.setCommitMessage("fix \"bug\"\n");
+		final ChangeLine line = new ChangeLine();
+		line.setType("INSERT");
+		line.setStartLineNum(Integer.valueOf(2));
+		line.setEndLineNum(Integer.valueOf(4));
+		final ClassInfoDto clazz = new ClassInfoDto();
+		clazz.setClassFile("org/jacoco/example/FooClass");
+		clazz.setType("MODIFY");
+		clazz.setMethodInfos(Collections.singletonList(method));
+		clazz.setLines(Collections.singletonList(line));
+		ExecFileLoader.classInfoDto.set(Collections.singletonList(clazz));
+		final Map<String, List<MethodInfoDto>> methods = Collections
+				.singletonMap("fooMethod",
+						Collections.singletonList(method));
+		ExecFileLoader.classInfo.set(Collections
+				.singletonMap("org/jacoco/example/FooClass", methods));
+	}
+
+	private JsonObject getFooClass(final JsonObject report) {
+		return report.getAsJsonArray("packages").get(0).getAsJsonObject()
+				.getAsJsonArray("classes").get(0).getAsJsonObject();
+	}
+
+	private JsonObject getFooMethod(final JsonObject clazz) {
+		return clazz.getAsJsonArray("methods").get(0).getAsJsonObject();
+	}
+
+	private long counter(final JsonObject node, final String entity,
+			final String value) {
+		return node.getAsJsonObject("counters").getAsJsonObject(entity)
+				.get(value).getAsLong();
+	}
+
+	private JsonObject parse() throws Exception {
+		return new Gson().fromJson(new String(output.toByteArray(), "UTF-8"),
+				JsonObject.class);
+	}
+
+}
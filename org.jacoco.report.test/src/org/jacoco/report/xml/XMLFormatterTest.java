@@ -16,10 +16,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.SessionInfo;
@@ -202,6 +205,42 @@ public class XMLFormatterTest {
 				"count(report/package[@name='empty']/sourcefile/*)");
 	}
 
+	@Test
+	public void should_omit_lines_when_lines_are_not_included()
+			throws Exception {
+		formatter.setIncludeLines(false);
+		final IReportVisitor visitor = formatter.createVisitor(output);
+		visitor.visitInfo(infos, data);
+		driver.sendGroup(visitor);
+		assertPathMatches("0", "count(//line)");
+		assertPathMatches("6", "count(/report/group/package/"
+				+ "sourcefile[@name='FooClass.java']/counter)");
+		assertPathMatches("10", "report/counter[@type='INSTRUCTION']/@missed");
+	}
+
+	@Test
+	public void should_write_gzip_compressed_report() throws Exception {
+		formatter.setGzip(true);
+		final IReportVisitor visitor = formatter.createVisitor(output);
+		visitor.visitInfo(infos, data);
+		driver.sendBundle(visitor);
+
+		final InputStream in = new GZIPInputStream(
+				output.getContentsAsStream());
+		final ByteArrayOutputStream content = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[1024];
+		int len;
+		while ((len = in.read(buffer)) != -1) {
+			content.write(buffer, 0, len);
+		}
+		in.close();
+		final XMLSupport support = new XMLSupport(XMLFormatter.class);
+		final Document document = support.parse(content.toByteArray());
+		assertEquals("bundle", support.findStr(document, "/report/@name"));
+		assertEquals("3", support.findStr(document,
+				"count(report/package/sourcefile/line)"));
+	}
+
 	@Test
 	public void testDefaultEncoding() throws Exception {
 		final IReportVisitor visitor = formatter.createVisitor(output);
@@ -16,6 +16,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Locator for source files that picks source files from a given directory in
@@ -23,8 +28,20 @@ import java.io.InputStream;
  */
 public class DirectorySourceFileLocator extends InputStreamSourceFileLocator {
 
+	/**
+	 * File extensions indexed by {@link #buildIndex()} unless configured
+	 * otherwise.
+	 */
+	public static final Set<String> DEFAULT_SOURCE_EXTENSIONS = Collections
+			.unmodifiableSet(new HashSet<String>(Arrays.asList(".java", ".kt",
+					".groovy", ".scala", ".clj")));
+
 	private final File directory;
 
+	private Set<String> sourceExtensions = DEFAULT_SOURCE_EXTENSIONS;
+
+	private volatile Set<String> index;
+
 	/**
 	 * Creates a new locator that searches for source files in the given
 	 * directory.
@@ -43,9 +60,75 @@ public class DirectorySourceFileLocator extends InputStreamSourceFileLocator {
 		this.directory = directory;
 	}
 
+	/**
+	 * Sets the extensions of the files which are indexed by
+	 * {@link #buildIndex()}. Default is {@link #DEFAULT_SOURCE_EXTENSIONS}.
+	 * Lookups without index are not affected.
+	 *
+	 * @param sourceExtensions
+	 *            file extensions including the leading dot, e.g.
+	 *            <code>.java</code>
+	 */
+	public void setSourceExtensions(
+			final Collection<String> sourceExtensions) {
+		this.sourceExtensions = Collections
+				.unmodifiableSet(new HashSet<String>(sourceExtensions));
+	}
+
+	/**
+	 * Scans the directory once and keeps the local paths of all source files
+	 * in memory. Afterwards source files are looked up in this index, only
+	 * files contained in the index are opened. Files created after the scan
+	 * are not found. Directories reached a second time through symbolic links
+	 * are not scanned again.
+	 *
+	 * @return local paths of all files with one of the configured source
+	 *         extensions with <code>/</code> as separator
+	 * @throws IOException
+	 *             if a directory can't be listed
+	 */
+	public Set<String> buildIndex() throws IOException {
+		final Set<String> paths = new HashSet<String>();
+		if (directory.isDirectory()) {
+			scan(directory, "", paths, new HashSet<String>());
+		}
+		index = Collections.unmodifiableSet(paths);
+		return index;
+	}
+
+	private void scan(final File dir, final String prefix,
+			final Set<String> paths, final Set<String> visited)
+			throws IOException {
+		if (!visited.add(dir.getCanonicalPath())) {
+			return;
+		}
+		final File[] files = dir.listFiles();
+		if (files == null) {
+			throw new IOException("Can't list directory " + dir);
+		}
+		for (final File f : files) {
+			if (f.isDirectory()) {
+				scan(f, prefix + f.getName() + "/", paths, visited);
+			} else if (isSourceFile(f.getName())) {
+				paths.add(prefix + f.getName());
+			}
+		}
+	}
+
+	private boolean isSourceFile(final String name) {
+		final int dot = name.lastIndexOf('.');
+		return dot != -1 && sourceExtensions.contains(name.substring(dot));
+	}
+
 	@Override
 	protected InputStream getSourceStream(final String path)
 			throws IOException {
+		final Set<String> index = this.index;
+		if (index != null) {
+			return index.contains(path)
+					? new FileInputStream(new File(directory, path))
+					: null;
+		}
 		final File file = new File(directory, path);
 		if (file.isFile()) {
 			return new FileInputStream(file);
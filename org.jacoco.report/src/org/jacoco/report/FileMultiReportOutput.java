@@ -14,15 +14,19 @@ package org.jacoco.report;
 
 import static java.lang.String.format;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 
 /**
  * Implementation of {@link IMultiReportOutput} that writes files directly to a
- * given directory.
+ * given directory. Files written by a previous report can be read back, which
+ * allows formatters to skip files whose content would not change.
  */
 public class FileMultiReportOutput implements IMultiReportOutput {
 
@@ -48,6 +52,31 @@ public class FileMultiReportOutput implements IMultiReportOutput {
 		return new BufferedOutputStream(new FileOutputStream(file));
 	}
 
+	/**
+	 * Checks whether a file with the given path exists in the base directory.
+	 *
+	 * @param path
+	 *            local path to the file
+	 * @return <code>true</code> if the file exists
+	 */
+	public boolean exists(final String path) {
+		return new File(basedir, path).isFile();
+	}
+
+	/**
+	 * Opens an existing file in the base directory for reading.
+	 *
+	 * @param path
+	 *            local path to the file
+	 * @return stream to read the file content from
+	 * @throws IOException
+	 *             if the file does not exist or can't be opened
+	 */
+	public InputStream openFile(final String path) throws IOException {
+		return new BufferedInputStream(
+				new FileInputStream(new File(basedir, path)));
+	}
+
 	public void close() throws IOException {
 		// nothing to do here
 	}
@@ -13,14 +13,27 @@
 package org.jacoco.report;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 /**
  * Locator that searches source files in multiple {@link ISourceFileLocator}
  * instances. For each lookup request the first locator that returns a
  * {@link Reader} for source content is selected.
+ * <p>
+ * With {@link #buildIndex(Executor)} all {@link DirectorySourceFileLocator}
+ * delegates are scanned once. Lookups then directly select the first
+ * directory containing the file without accessing the file system, only
+ * other locators are still queried in sequence.
  */
 public class MultiSourceFileLocator implements ISourceFileLocator {
 
@@ -28,6 +41,12 @@ public class MultiSourceFileLocator implements ISourceFileLocator {
 
 	private final List<ISourceFileLocator> delegates;
 
+	/** Position of the first directory delegate containing a local path */
+	private Map<String, Integer> index;
+
+	/** Positions of the delegates which are not part of the index */
+	private List<Integer> unindexed;
+
 	/**
 	 * Creates a new empty locator.
 	 *
@@ -48,11 +67,103 @@ public class MultiSourceFileLocator implements ISourceFileLocator {
 	 *            Additional locator to query
 	 */
 	public void add(final ISourceFileLocator locator) {
+		if (index != null) {
+			unindexed.add(Integer.valueOf(delegates.size()));
+		}
 		delegates.add(locator);
 	}
 
+	/**
+	 * Scans the directories of all {@link DirectorySourceFileLocator}
+	 * delegates added so far and builds an index of all their source files.
+	 * The directories are scanned in parallel with the given executor. Files
+	 * created after the scan are not found.
+	 *
+	 * @param executor
+	 *            executor to scan the directories or <code>null</code> to
+	 *            scan all directories on the calling thread
+	 * @throws IOException
+	 *             if a directory can't be listed
+	 */
+	public void buildIndex(final Executor executor) throws IOException {
+		final List<FutureTask<Set<String>>> tasks = new ArrayList<FutureTask<Set<String>>>();
+		final List<Integer> others = new ArrayList<Integer>();
+		for (int i = 0; i < delegates.size(); i++) {
+			final ISourceFileLocator d = delegates.get(i);
+			if (d instanceof DirectorySourceFileLocator) {
+				final FutureTask<Set<String>> task = new FutureTask<Set<String>>(
+						new Callable<Set<String>>() {
+							public Set<String> call() throws IOException {
+								return ((DirectorySourceFileLocator) d)
+										.buildIndex();
+							}
+						});
+				tasks.add(task);
+				if (executor != null) {
+					executor.execute(task);
+				}
+			} else {
+				tasks.add(null);
+				others.add(Integer.valueOf(i));
+			}
+		}
+		final Map<String, Integer> paths = new HashMap<String, Integer>();
+		try {
+			for (int i = 0; i < tasks.size(); i++) {
+				if (tasks.get(i) == null) {
+					continue;
+				}
+				final Integer position = Integer.valueOf(i);
+				for (final String path : await(tasks.get(i))) {
+					if (!paths.containsKey(path)) {
+						paths.put(path, position);
+					}
+				}
+			}
+		} finally {
+			for (final FutureTask<Set<String>> task : tasks) {
+				if (task != null) {
+					task.cancel(false);
+				}
+			}
+		}
+		index = paths;
+		unindexed = others;
+	}
+
+	/**
+	 * Waits for the given task. If the task has not been started yet it is
+	 * executed on the calling thread, so a busy executor can't block the
+	 * scan.
+	 */
+	private static Set<String> await(final FutureTask<Set<String>> task)
+			throws IOException {
+		task.run();
+		try {
+			return task.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
 	public Reader getSourceFile(final String packageName, final String fileName)
 			throws IOException {
+		if (index != null) {
+			return getIndexedSourceFile(packageName, fileName);
+		}
 		for (final ISourceFileLocator d : delegates) {
 			final Reader reader = d.getSourceFile(packageName, fileName);
 			if (reader != null) {
@@ -62,6 +173,29 @@ public class MultiSourceFileLocator implements ISourceFileLocator {
 		return null;
 	}
 
+	private Reader getIndexedSourceFile(final String packageName,
+			final String fileName) throws IOException {
+		final String path = packageName.length() > 0
+				? packageName + "/" + fileName
+				: fileName;
+		final Integer position = index.get(path);
+		for (final Integer i : unindexed) {
+			if (position != null && i.intValue() > position.intValue()) {
+				break;
+			}
+			final Reader reader = delegates.get(i.intValue())
+					.getSourceFile(packageName, fileName);
+			if (reader != null) {
+				return reader;
+			}
+		}
+		if (position == null) {
+			return null;
+		}
+		return delegates.get(position.intValue()).getSourceFile(packageName,
+				fileName);
+	}
+
 	public int getTabWidth() {
 		return tabWidth;
 	}
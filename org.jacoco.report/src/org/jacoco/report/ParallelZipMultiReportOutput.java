@@ -0,0 +1,395 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+/**
+ * Implementation of {@link IMultiReportOutput} that writes files into a ZIP
+ * archive and compresses the files in parallel. The content of every file is
+ * buffered in memory and compressed by the given executor as soon as the file
+ * is closed. The compressed files are written in the order in which they have
+ * been closed, the central directory of the archive is written when the
+ * output is closed. In contrast to {@link ZipMultiReportOutput} multiple files
+ * may be open at the same time and files may be created and written by
+ * multiple threads concurrently.
+ */
+public class ParallelZipMultiReportOutput implements IMultiReportOutput {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final int LOCAL_HEADER = 0x04034b50;
+	private static final int CENTRAL_HEADER = 0x02014b50;
+	private static final int ZIP64_END = 0x06064b50;
+	private static final int ZIP64_LOCATOR = 0x07064b50;
+	private static final int END = 0x06054b50;
+
+	/** Language encoding flag, names are UTF-8 encoded */
+	private static final int FLAG_UTF8 = 0x0800;
+
+	private static final int VERSION = 20;
+	private static final int VERSION_ZIP64 = 45;
+
+	private final OutputStream out;
+
+	private final Executor executor;
+
+	private final int dosTime;
+
+	private final Set<String> names = new HashSet<String>();
+
+	private final Set<EntryOutput> openEntries = new LinkedHashSet<EntryOutput>();
+
+	private final Queue<FutureTask<Entry>> pending = new ArrayDeque<FutureTask<Entry>>();
+
+	private final List<Entry> entries = new ArrayList<Entry>();
+
+	private long position;
+
+	/**
+	 * Creates a new instance based on the given {@link OutputStream}.
+	 *
+	 * @param out
+	 *            stream to write the archive to
+	 * @param executor
+	 *            executor to compress the files or <code>null</code> to
+	 *            compress every file on the thread closing it
+	 */
+	public ParallelZipMultiReportOutput(final OutputStream out,
+			final Executor executor) {
+		this.out = out;
+		this.executor = executor;
+		this.dosTime = toDosTime(System.currentTimeMillis());
+	}
+
+	public synchronized OutputStream createFile(final String path)
+			throws IOException {
+		if (!names.add(path)) {
+			throw new ZipException("duplicate entry: " + path);
+		}
+		final EntryOutput entry = new EntryOutput(path);
+		openEntries.add(entry);
+		return entry;
+	}
+
+	private synchronized void closeEntry(final EntryOutput output)
+			throws IOException {
+		openEntries.remove(output);
+		final FutureTask<Entry> task = new FutureTask<Entry>(
+				new Callable<Entry>() {
+					public Entry call() {
+						return compress(output);
+					}
+				});
+		pending.add(task);
+		if (executor == null) {
+			task.run();
+		} else {
+			executor.execute(task);
+		}
+		// Write all files at the head of the queue which are ready:
+		while (!pending.isEmpty() && pending.peek().isDone()) {
+			writeEntry(await(pending.remove()));
+		}
+	}
+
+	public synchronized void close() throws IOException {
+		try {
+			for (final EntryOutput entry : new ArrayList<EntryOutput>(
+					openEntries)) {
+				entry.close();
+			}
+			while (!pending.isEmpty()) {
+				writeEntry(await(pending.remove()));
+			}
+			writeCentralDirectory();
+		} finally {
+			for (final FutureTask<Entry> task : pending) {
+				task.cancel(false);
+			}
+			out.close();
+		}
+	}
+
+	private static Entry compress(final EntryOutput output) {
+		final byte[] content = output.toByteArray();
+		final CRC32 crc = new CRC32();
+		crc.update(content, 0, content.length);
+		final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION,
+				true);
+		try {
+			deflater.setInput(content);
+			deflater.finish();
+			byte[] buffer = new byte[Math.max(64, content.length / 2)];
+			int length = 0;
+			while (!deflater.finished()) {
+				if (length == buffer.length) {
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+				}
+				length += deflater.deflate(buffer, length,
+						buffer.length - length);
+			}
+			return new Entry(output.path.getBytes(UTF8), crc.getValue(),
+					content.length, Arrays.copyOf(buffer, length));
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Waits for the given task. If the task has not been started yet it is
+	 * executed on the calling thread, so a busy executor can't block the
+	 * output.
+	 */
+	private static Entry await(final FutureTask<Entry> task)
+			throws IOException {
+		task.run();
+		try {
+			return task.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	private void writeEntry(final Entry entry) throws IOException {
+		entry.offset = position;
+		final Header header = new Header();
+		header.int32(LOCAL_HEADER);
+		header.int16(VERSION);
+		header.int16(FLAG_UTF8);
+		header.int16(Deflater.DEFLATED);
+		header.int32(dosTime);
+		header.int32((int) entry.crc);
+		header.int32(entry.data.length);
+		header.int32(entry.size);
+		header.int16(entry.name.length);
+		header.int16(0);
+		header.write(entry.name, 0, entry.name.length);
+		write(header);
+		out.write(entry.data);
+		position += entry.data.length;
+		entry.data = null;
+		entries.add(entry);
+	}
+
+	private void writeCentralDirectory() throws IOException {
+		final long start = position;
+		for (final Entry entry : entries) {
+			final boolean zip64 = entry.offset >= 0xFFFFFFFFL;
+			final Header header = new Header();
+			header.int32(CENTRAL_HEADER);
+			header.int16(zip64 ? VERSION_ZIP64 : VERSION);
+			header.int16(zip64 ? VERSION_ZIP64 : VERSION);
+			header.int16(FLAG_UTF8);
+			header.int16(Deflater.DEFLATED);
+			header.int32(dosTime);
+			header.int32((int) entry.crc);
+			header.int32(entry.compressedSize);
+			header.int32(entry.size);
+			header.int16(entry.name.length);
+			header.int16(zip64 ? 12 : 0);
+			header.int16(0);
+			header.int16(0);
+			header.int16(0);
+			header.int32(0);
+			header.int32(zip64 ? 0xFFFFFFFF : (int) entry.offset);
+			header.write(entry.name, 0, entry.name.length);
+			if (zip64) {
+				header.int16(0x0001);
+				header.int16(8);
+				header.int64(entry.offset);
+			}
+			write(header);
+		}
+		final long size = position - start;
+		final int count = entries.size();
+		final boolean zip64 = count >= 0xFFFF || start >= 0xFFFFFFFFL
+				|| size >= 0xFFFFFFFFL;
+		final Header header = new Header();
+		if (zip64) {
+			final long end = position;
+			header.int32(ZIP64_END);
+			header.int64(44);
+			header.int16(VERSION_ZIP64);
+			header.int16(VERSION_ZIP64);
+			header.int32(0);
+			header.int32(0);
+			header.int64(count);
+			header.int64(count);
+			header.int64(size);
+			header.int64(start);
+			header.int32(ZIP64_LOCATOR);
+			header.int32(0);
+			header.int64(end);
+			header.int32(1);
+		}
+		header.int32(END);
+		header.int16(0);
+		header.int16(0);
+		header.int16(zip64 ? 0xFFFF : count);
+		header.int16(zip64 ? 0xFFFF : count);
+		header.int32(zip64 ? 0xFFFFFFFF : (int) size);
+		header.int32(zip64 ? 0xFFFFFFFF : (int) start);
+		header.int16(0);
+		write(header);
+		out.flush();
+	}
+
+	private void write(final Header header) throws IOException {
+		header.writeTo(out);
+		position += header.size();
+	}
+
+	private static int toDosTime(final long time) {
+		final Calendar c = Calendar.getInstance();
+		c.setTimeInMillis(time);
+		final int year = c.get(Calendar.YEAR);
+		if (year < 1980) {
+			return (1 << 21) | (1 << 16);
+		}
+		return (year - 1980) << 25 | (c.get(Calendar.MONTH) + 1) << 21
+				| c.get(Calendar.DAY_OF_MONTH) << 16
+				| c.get(Calendar.HOUR_OF_DAY) << 11
+				| c.get(Calendar.MINUTE) << 5 | c.get(Calendar.SECOND) >> 1;
+	}
+
+	/**
+	 * Buffer for the content of a single file.
+	 */
+	private final class EntryOutput extends OutputStream {
+
+		final String path;
+
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		private boolean closed = false;
+
+		EntryOutput(final String path) {
+			this.path = path;
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len)
+				throws IOException {
+			ensureNotClosed();
+			buffer.write(b, off, len);
+		}
+
+		@Override
+		public void write(final int b) throws IOException {
+			ensureNotClosed();
+			buffer.write(b);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			ensureNotClosed();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!closed) {
+				closed = true;
+				closeEntry(this);
+			}
+		}
+
+		byte[] toByteArray() {
+			return buffer.toByteArray();
+		}
+
+		private void ensureNotClosed() throws IOException {
+			if (closed) {
+				throw new IOException("Zip entry already closed.");
+			}
+		}
+
+	}
+
+	/**
+	 * Compressed file which has not been written yet or entry of the central
+	 * directory.
+	 */
+	private static final class Entry {
+
+		final byte[] name;
+		final long crc;
+		final int size;
+		final int compressedSize;
+		byte[] data;
+		long offset;
+
+		Entry(final byte[] name, final long crc, final int size,
+				final byte[] data) {
+			this.name = name;
+			this.crc = crc;
+			this.size = size;
+			this.compressedSize = data.length;
+			this.data = data;
+		}
+
+	}
+
+	/**
+	 * Little endian encoded header.
+	 */
+	private static final class Header extends ByteArrayOutputStream {
+
+		void int16(final int value) {
+			write(value);
+			write(value >>> 8);
+		}
+
+		void int32(final int value) {
+			int16(value);
+			int16(value >>> 16);
+		}
+
+		void int64(final long value) {
+			int32((int) value);
+			int32((int) (value >>> 32));
+		}
+
+	}
+
+}
@@ -16,21 +16,28 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
 
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.ICoverageNode.CounterEntity;
 import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.SessionInfo;
+import org.jacoco.report.FileMultiReportOutput;
 import org.jacoco.report.ILanguageNames;
 import org.jacoco.report.IMultiReportOutput;
 import org.jacoco.report.IReportGroupVisitor;
 import org.jacoco.report.IReportVisitor;
 import org.jacoco.report.ISourceFileLocator;
 import org.jacoco.report.JavaNames;
+import org.jacoco.report.ParallelZipMultiReportOutput;
+import org.jacoco.report.internal.DiffScopeFilter;
 import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.SynchronizedMultiReportOutput;
 import org.jacoco.report.internal.html.HTMLGroupVisitor;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.ILinkable;
+import org.jacoco.report.internal.html.PageFingerprint;
+import org.jacoco.report.internal.html.PageManifest;
 import org.jacoco.report.internal.html.index.ElementIndex;
 import org.jacoco.report.internal.html.index.IIndexUpdate;
 import org.jacoco.report.internal.html.page.BundlePage;
@@ -63,9 +70,19 @@ public class HTMLFormatter implements IHTMLReportContext {
 
 	private SessionsPage sessionsPage;
 
-	private Table table;
+	private Executor executor;
 
-	private Table table_;
+	private boolean incremental;
+
+	private int virtualTableThreshold;
+
+	private boolean diffOnly;
+
+	private PageManifest manifest;
+
+	private final ThreadLocal<Table> table = new ThreadLocal<Table>();
+
+	private final ThreadLocal<Table> table_ = new ThreadLocal<Table>();
 
 	/**
 	 * New instance with default settings.
@@ -115,6 +132,65 @@ public class HTMLFormatter implements IHTMLReportContext {
 		this.outputEncoding = outputEncoding;
 	}
 
+	/**
+	 * Sets an executor to render the pages of the packages of a bundle in
+	 * parallel. The overview pages and the sessions page are still rendered by
+	 * the calling thread once all package pages have been rendered. Outputs
+	 * other than {@link FileMultiReportOutput} and
+	 * {@link ParallelZipMultiReportOutput} only see one file at a time, the
+	 * files are buffered in memory until they are complete. Default is
+	 * <code>null</code> which renders all pages on the calling thread.
+	 *
+	 * @param executor
+	 *            executor for package pages or <code>null</code>
+	 */
+	public void setExecutor(final Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Enables incremental reports. A manifest with a fingerprint of the inputs
+	 * of every page is kept in the report directory: pages whose inputs did
+	 * not change since the previous report are neither rendered nor written
+	 * again. Incremental reports are only supported for a
+	 * {@link FileMultiReportOutput}, all other outputs always get all pages.
+	 * Default is <code>false</code>.
+	 *
+	 * @param incremental
+	 *            <code>true</code> to skip unchanged pages
+	 */
+	public void setIncremental(final boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * Sets the number of rows from which on tables are rendered as virtual
+	 * tables. The rows of such tables are written as compact JSON data to a
+	 * script file next to the page, the browser only creates the rows within
+	 * the visible area. Default is <code>0</code> which renders all rows of
+	 * all tables into the pages.
+	 *
+	 * @param virtualTableThreshold
+	 *            minimum number of rows for virtual tables or <code>0</code>
+	 */
+	public void setVirtualTableThreshold(final int virtualTableThreshold) {
+		this.virtualTableThreshold = virtualTableThreshold;
+	}
+
+	/**
+	 * Restricts the report to the changed code. Only packages, classes and
+	 * source files with changed methods of the diff scope are rendered, all
+	 * totals are calculated from the changed code only, and every bundle gets
+	 * a summary page listing all changed classes. Without a diff scope all
+	 * classes containing code are reported. Default is <code>false</code>.
+	 *
+	 * @param diffOnly
+	 *            <code>true</code> to report the changed code only
+	 */
+	public void setDiffOnly(final boolean diffOnly) {
+		this.diffOnly = diffOnly;
+	}
+
 	// === IHTMLReportContext ===
 
 	public ILanguageNames getLanguageNames() {
@@ -126,18 +202,23 @@ public class HTMLFormatter implements IHTMLReportContext {
 	}
 
 	public Table getTable() {
-		if (table == null) {
-			table = createTable();
+		// Tables keep state while rendering, so every thread needs its own
+		Table t = table.get();
+		if (t == null) {
+			t = createTable();
+			table.set(t);
 		}
-		return table;
+		return t;
 	}
 
 	@Override
 	public Table getTable(boolean flag) {
-		if (table_ == null) {
-			table_ = createTable(flag);
+		Table t = table_.get();
+		if (t == null) {
+			t = createTable(flag);
+			table_.set(t);
 		}
-		return table_;
+		return t;
 	}
 
 	private Table createTable() {
@@ -155,6 +236,7 @@ public class HTMLFormatter implements IHTMLReportContext {
 		addMissedTotalColumns(t, "Lines", CounterEntity.LINE);
 		addMissedTotalColumns(t, "Methods", CounterEntity.METHOD);
 		addMissedTotalColumns(t, "Classes", CounterEntity.CLASS);
+		t.setVirtualThreshold(virtualTableThreshold);
 		return t;
 	}
 
@@ -179,6 +261,7 @@ public class HTMLFormatter implements IHTMLReportContext {
 			t.add("提交信息", Styles.CTR2,
 					new PercentageColumn(CounterEntity.BRANCH, locale), false);
 		}
+		t.setVirtualThreshold(virtualTableThreshold);
 		return t;
 	}
 
@@ -210,6 +293,24 @@ public class HTMLFormatter implements IHTMLReportContext {
 		return locale;
 	}
 
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	public PageManifest getPageManifest() {
+		return manifest;
+	}
+
+	public boolean isDiffOnly() {
+		return diffOnly;
+	}
+
+	private String getSettings() {
+		return new PageFingerprint().add(languageNames.getClass().getName())
+				.add(locale.toString()).add(footerText).add(outputEncoding)
+				.add(virtualTableThreshold).add(diffOnly).getValue();
+	}
+
 	/**
 	 * Creates a new visitor to write a report to the given output.
 	 *
@@ -221,10 +322,20 @@ public class HTMLFormatter implements IHTMLReportContext {
 	 */
 	public IReportVisitor createVisitor(final IMultiReportOutput output)
 			throws IOException {
-		final ReportOutputFolder root = new ReportOutputFolder(output);
+		final IMultiReportOutput target = executor == null
+				|| output instanceof FileMultiReportOutput
+				|| output instanceof ParallelZipMultiReportOutput ? output
+						: new SynchronizedMultiReportOutput(output);
+		final ReportOutputFolder root = new ReportOutputFolder(target);
 		resources = new Resources(root);
 		resources.copyResources();
 		index = new ElementIndex(root);
+		manifest = null;
+		if (incremental && output instanceof FileMultiReportOutput) {
+			manifest = new PageManifest((FileMultiReportOutput) output,
+					getSettings());
+			manifest.load();
+		}
 		return new IReportVisitor() {
 
 			private List<SessionInfo> sessionInfos;
@@ -241,8 +352,9 @@ public class HTMLFormatter implements IHTMLReportContext {
 
 			public void visitBundle(final IBundleCoverage bundle,
 					final ISourceFileLocator locator) throws IOException {
-				final BundlePage page = new BundlePage(bundle, null, locator,
-						root, HTMLFormatter.this);
+				final BundlePage page = new BundlePage(
+						diffOnly ? DiffScopeFilter.filter(bundle) : bundle, null,
+						locator, root, HTMLFormatter.this);
 				createSessionsPage(page);
 				page.render();
 			}
@@ -252,7 +364,8 @@ public class HTMLFormatter implements IHTMLReportContext {
 				groupHandler = new HTMLGroupVisitor(null, root,
 						HTMLFormatter.this, name);
 				createSessionsPage(groupHandler.getPage());
-				return groupHandler;
+				return diffOnly ? DiffScopeFilter.filter(groupHandler)
+						: groupHandler;
 
 			}
 
@@ -266,7 +379,10 @@ public class HTMLFormatter implements IHTMLReportContext {
 					groupHandler.visitEnd();
 				}
 				sessionsPage.render();
-				output.close();
+				if (manifest != null) {
+					manifest.save();
+				}
+				target.close();
 			}
 		};
 	}
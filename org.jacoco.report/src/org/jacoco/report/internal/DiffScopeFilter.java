@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.analysis.ISourceFileCoverage;
+import org.jacoco.core.internal.analysis.BundleCoverageImpl;
+import org.jacoco.core.internal.analysis.PackageCoverageImpl;
+import org.jacoco.core.internal.diff.ClassInfoDto;
+import org.jacoco.core.internal.diff.CodeDiffUtil;
+import org.jacoco.core.tools.ExecFileLoader;
+import org.jacoco.report.IReportGroupVisitor;
+import org.jacoco.report.ISourceFileLocator;
+
+/**
+ * Reduces bundles to the classes of the diff scope. Methods outside of the
+ * diff scope are not analyzed, so only classes with changed methods contain
+ * code. Classes which are only part of the scope as inner classes of a
+ * changed class but have no changed methods themselves are removed, as well
+ * as the source files and packages without remaining classes.
+ */
+public final class DiffScopeFilter {
+
+	/**
+	 * Returns a copy of the given bundle with the classes of the diff scope
+	 * of the current thread only. Without a diff scope all classes containing
+	 * code are kept.
+	 *
+	 * @param bundle
+	 *            bundle to filter
+	 * @return bundle with the changed classes
+	 */
+	public static IBundleCoverage filter(final IBundleCoverage bundle) {
+		final List<ClassInfoDto> classInfos = ExecFileLoader.classInfoDto
+				.get();
+		final List<IPackageCoverage> packages = new ArrayList<IPackageCoverage>();
+		for (final IPackageCoverage p : bundle.getPackages()) {
+			final List<IClassCoverage> classes = new ArrayList<IClassCoverage>();
+			final Set<String> sourceFileNames = new HashSet<String>();
+			for (final IClassCoverage c : p.getClasses()) {
+				if (isChanged(c, classInfos)) {
+					classes.add(c);
+					sourceFileNames.add(c.getSourceFileName());
+				}
+			}
+			if (classes.isEmpty()) {
+				continue;
+			}
+			final List<ISourceFileCoverage> sourceFiles = new ArrayList<ISourceFileCoverage>();
+			for (final ISourceFileCoverage s : p.getSourceFiles()) {
+				if (sourceFileNames.contains(s.getName())) {
+					sourceFiles.add(s);
+				}
+			}
+			packages.add(new PackageCoverageImpl(p.getName(), classes,
+					sourceFiles));
+		}
+		return new BundleCoverageImpl(bundle.getName(), packages);
+	}
+
+	private static boolean isChanged(final IClassCoverage c,
+			final List<ClassInfoDto> classInfos) {
+		if (!c.containsCode()) {
+			return false;
+		}
+		return classInfos == null || classInfos.isEmpty()
+				|| CodeDiffUtil.checkClassIn(c.getName(), classInfos)
+						.booleanValue();
+	}
+
+	/**
+	 * Wraps the given group visitor so that all bundles of the group and its
+	 * child groups are filtered before they are passed on. The totals of the
+	 * groups are therefore calculated from the changed classes only.
+	 *
+	 * @param visitor
+	 *            visitor to wrap
+	 * @return visitor filtering all bundles
+	 */
+	public static IReportGroupVisitor filter(
+			final IReportGroupVisitor visitor) {
+		return new IReportGroupVisitor() {
+
+			public void visitBundle(final IBundleCoverage bundle,
+					final ISourceFileLocator locator) throws IOException {
+				visitor.visitBundle(filter(bundle), locator);
+			}
+
+			public IReportGroupVisitor visitGroup(final String name)
+					throws IOException {
+				return filter(visitor.visitGroup(name));
+			}
+
+		};
+	}
+
+	private DiffScopeFilter() {
+	}
+
+}
@@ -79,6 +79,18 @@ public class ReportOutputFolder {
 		return folder;
 	}
 
+	/**
+	 * Returns the path of the file with the given local name relative to the
+	 * root folder.
+	 *
+	 * @param name
+	 *            local name of the file
+	 * @return path of the file within the output
+	 */
+	public String getPath(final String name) {
+		return path + normalize(name);
+	}
+
 	/**
 	 * Creates a new file in this folder with the given local name.
 	 *
@@ -89,7 +101,7 @@ public class ReportOutputFolder {
 	 *             if the file creation fails
 	 */
 	public OutputStream createFile(final String name) throws IOException {
-		return output.createFile(path + normalize(name));
+		return output.createFile(getPath(name));
 	}
 
 	/**
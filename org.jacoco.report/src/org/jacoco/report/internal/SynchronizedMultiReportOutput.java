@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jacoco.report.IMultiReportOutput;
+
+/**
+ * Wrapper which allows files to be created by multiple threads concurrently.
+ * The content of every file is buffered in memory and only written to the
+ * underlying output when the file is closed. Therefore the underlying output
+ * only sees one file at a time.
+ */
+public class SynchronizedMultiReportOutput implements IMultiReportOutput {
+
+	private final IMultiReportOutput delegate;
+
+	/**
+	 * Creates a new wrapper for the given output.
+	 *
+	 * @param delegate
+	 *            output to write files to
+	 */
+	public SynchronizedMultiReportOutput(final IMultiReportOutput delegate) {
+		this.delegate = delegate;
+	}
+
+	public OutputStream createFile(final String path) throws IOException {
+		return new ByteArrayOutputStream() {
+
+			private boolean closed;
+
+			@Override
+			public void close() throws IOException {
+				if (!closed) {
+					closed = true;
+					writeFile(path, this);
+				}
+			}
+		};
+	}
+
+	private synchronized void writeFile(final String path,
+			final ByteArrayOutputStream content) throws IOException {
+		final OutputStream out = delegate.createFile(path);
+		content.writeTo(out);
+		out.close();
+	}
+
+	public synchronized void close() throws IOException {
+		delegate.close();
+	}
+
+}
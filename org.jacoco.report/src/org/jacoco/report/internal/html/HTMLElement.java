@@ -14,6 +14,7 @@ package org.jacoco.report.internal.html;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.Writer;
 
 import org.jacoco.report.internal.ReportOutputFolder;
 import org.jacoco.report.internal.xml.XMLElement;
@@ -44,6 +45,22 @@ public class HTMLElement extends XMLElement {
 		attr("xmlns", "http://www.w3.org/1999/xhtml");
 	}
 
+	/**
+	 * Creates a detached element which writes a HTML fragment to the given
+	 * writer. Closing the element does not close the writer.
+	 *
+	 * @param writer
+	 *            writer for the fragment
+	 * @param name
+	 *            element name
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	public HTMLElement(final Writer writer, final String name)
+			throws IOException {
+		super(writer, name);
+	}
+
 	private HTMLElement(final String name, final HTMLElement parent)
 			throws IOException {
 		super(name, parent);
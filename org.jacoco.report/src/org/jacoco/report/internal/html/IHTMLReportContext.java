@@ -13,6 +13,7 @@
 package org.jacoco.report.internal.html;
 
 import java.util.Locale;
+import java.util.concurrent.Executor;
 
 import org.jacoco.report.ILanguageNames;
 import org.jacoco.report.internal.html.index.IIndexUpdate;
@@ -82,4 +83,28 @@ public interface IHTMLReportContext {
 	 */
 	Locale getLocale();
 
+	/**
+	 * Returns the executor to render the pages of packages in parallel.
+	 *
+	 * @return executor or <code>null</code> if all pages are rendered on the
+	 *         calling thread
+	 */
+	Executor getExecutor();
+
+	/**
+	 * Returns the manifest of an incremental report. Pages whose fingerprint
+	 * is unchanged in the manifest are not written again.
+	 *
+	 * @return manifest or <code>null</code> if all pages are written
+	 */
+	PageManifest getPageManifest();
+
+	/**
+	 * Returns whether only the changed code is reported. In this case every
+	 * bundle gets an additional summary page of all changed classes.
+	 *
+	 * @return <code>true</code> if only the changed code is reported
+	 */
+	boolean isDiffOnly();
+
 }
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.html;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.core.analysis.ICoverageNode.CounterEntity;
+
+/**
+ * Fingerprint of all inputs which are used to render a page. Pages with the
+ * same fingerprint have identical content.
+ */
+public class PageFingerprint {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final MessageDigest digest;
+
+	private String value;
+
+	/**
+	 * Creates a new empty fingerprint.
+	 */
+	public PageFingerprint() {
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (final NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-1
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Adds the given number.
+	 *
+	 * @param value
+	 *            number to add
+	 * @return this instance
+	 */
+	public PageFingerprint add(final int value) {
+		digest.update((byte) (value >>> 24));
+		digest.update((byte) (value >>> 16));
+		digest.update((byte) (value >>> 8));
+		digest.update((byte) value);
+		return this;
+	}
+
+	/**
+	 * Adds the given flag.
+	 *
+	 * @param value
+	 *            flag to add
+	 * @return this instance
+	 */
+	public PageFingerprint add(final boolean value) {
+		digest.update((byte) (value ? 1 : 0));
+		return this;
+	}
+
+	/**
+	 * Adds the given string. <code>null</code> is distinguished from the empty
+	 * string.
+	 *
+	 * @param value
+	 *            string to add or <code>null</code>
+	 * @return this instance
+	 */
+	public PageFingerprint add(final String value) {
+		if (value == null) {
+			return add(-1);
+		}
+		final byte[] bytes = value.getBytes(UTF8);
+		add(bytes.length);
+		digest.update(bytes);
+		return this;
+	}
+
+	/**
+	 * Adds the missed and covered items of the given counter.
+	 *
+	 * @param counter
+	 *            counter to add
+	 * @return this instance
+	 */
+	public PageFingerprint add(final ICounter counter) {
+		return add(counter.getMissedCount()).add(counter.getCoveredCount());
+	}
+
+	/**
+	 * Adds the name and all counters of the given node.
+	 *
+	 * @param node
+	 *            node to add
+	 * @return this instance
+	 */
+	public PageFingerprint add(final ICoverageNode node) {
+		add(node.getName());
+		for (final CounterEntity entity : CounterEntity.values()) {
+			add(node.getCounter(entity));
+		}
+		return this;
+	}
+
+	/**
+	 * Reads the given reader to its end and adds its content.
+	 *
+	 * @param reader
+	 *            reader to read from, will not be closed
+	 * @return the content
+	 * @throws IOException
+	 *             if the reader can't be read
+	 */
+	public String add(final Reader reader) throws IOException {
+		final StringBuilder content = new StringBuilder();
+		final char[] buffer = new char[4096];
+		int len;
+		while ((len = reader.read(buffer)) != -1) {
+			content.append(buffer, 0, len);
+		}
+		final String s = content.toString();
+		add(s);
+		return s;
+	}
+
+	/**
+	 * Returns the fingerprint as a hexadecimal string. Nothing must be added
+	 * after this method has been called.
+	 *
+	 * @return fingerprint as hexadecimal string
+	 */
+	public String getValue() {
+		if (value == null) {
+			final StringBuilder hex = new StringBuilder();
+			for (final byte b : digest.digest()) {
+				hex.append(Character.forDigit((b >> 4) & 0xf, 16));
+				hex.append(Character.forDigit(b & 0xf, 16));
+			}
+			value = hex.toString();
+		}
+		return value;
+	}
+
+}
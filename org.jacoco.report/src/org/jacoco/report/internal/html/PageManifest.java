@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.html;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jacoco.core.JaCoCo;
+import org.jacoco.report.FileMultiReportOutput;
+
+/**
+ * Manifest for incremental HTML reports. The manifest records the
+ * {@link PageFingerprint} of every page written to the report directory, so a
+ * later run can skip pages whose inputs did not change since. The manifest is
+ * stored as a text file with one <code>fingerprint path</code> line per page in
+ * the root of the report. The first line describes the settings the pages have
+ * been rendered with: a manifest written with different settings, e.g. by a
+ * different JaCoCo version, is ignored. All methods of this class are thread
+ * safe.
+ */
+public class PageManifest {
+
+	/** Path of the manifest file within the report directory */
+	public static final String FILE = ".jacoco-manifest";
+
+	private static final String ENCODING = "UTF-8";
+
+	private static final String HEADER = "# ";
+
+	private final FileMultiReportOutput output;
+
+	private final String settings;
+
+	private final Map<String, String> previous = new HashMap<String, String>();
+
+	private final Map<String, String> current = new TreeMap<String, String>();
+
+	/**
+	 * Creates an empty manifest for the given report directory.
+	 *
+	 * @param output
+	 *            report directory
+	 * @param settings
+	 *            description of all report settings which influence every
+	 *            page
+	 */
+	public PageManifest(final FileMultiReportOutput output,
+			final String settings) {
+		this.output = output;
+		this.settings = String.format("JaCoCo %s %s", JaCoCo.VERSION,
+				settings);
+	}
+
+	/**
+	 * Reads the manifest of the previous report, if any. The manifest file is
+	 * truncated afterwards, so pages of a report which does not complete are
+	 * never considered unchanged.
+	 *
+	 * @throws IOException
+	 *             if the manifest file can't be read or has an invalid format
+	 */
+	public void load() throws IOException {
+		if (output.exists(FILE)) {
+			final BufferedReader reader = new BufferedReader(
+					new InputStreamReader(output.openFile(FILE), ENCODING));
+			try {
+				read(reader);
+			} finally {
+				reader.close();
+			}
+		}
+		output.createFile(FILE).close();
+	}
+
+	private void read(final BufferedReader reader) throws IOException {
+		if (!(HEADER + settings).equals(reader.readLine())) {
+			return;
+		}
+		final Map<String, String> loaded = new HashMap<String, String>();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			final int sep = line.indexOf(' ');
+			if (sep <= 0) {
+				throw new IOException(String.format(
+						"Invalid report manifest %s.", FILE));
+			}
+			loaded.put(line.substring(sep + 1), line.substring(0, sep));
+		}
+		synchronized (this) {
+			previous.putAll(loaded);
+		}
+	}
+
+	/**
+	 * Writes the fingerprints of all pages of the current report.
+	 *
+	 * @throws IOException
+	 *             if the manifest file can't be written
+	 */
+	public synchronized void save() throws IOException {
+		final Writer writer = new BufferedWriter(
+				new OutputStreamWriter(output.createFile(FILE), ENCODING));
+		try {
+			writer.write(HEADER + settings);
+			writer.write('\n');
+			for (final Map.Entry<String, String> e : current.entrySet()) {
+				writer.write(e.getValue());
+				writer.write(' ');
+				writer.write(e.getKey());
+				writer.write('\n');
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Records the fingerprint of the given page for the current report and
+	 * checks whether the page needs to be written.
+	 *
+	 * @param path
+	 *            path of the page within the report directory
+	 * @param fingerprint
+	 *            fingerprint of the inputs of the page
+	 * @return <code>true</code> if the previous report contains the page with
+	 *         the same fingerprint and the page file still exists
+	 */
+	public boolean update(final String path, final String fingerprint) {
+		final boolean unchanged;
+		synchronized (this) {
+			current.put(path, fingerprint);
+			unchanged = fingerprint.equals(previous.get(path));
+		}
+		return unchanged && output.exists(path);
+	}
+
+}
@@ -12,8 +12,8 @@
  *******************************************************************************/
 package org.jacoco.report.internal.html.index;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jacoco.report.internal.ReportOutputFolder;
 import org.jacoco.report.internal.html.ILinkable;
@@ -26,7 +26,7 @@ public class ElementIndex implements IIndexUpdate {
 
 	private final ReportOutputFolder baseFolder;
 
-	private final Map<Long, String> allClasses = new HashMap<Long, String>();
+	private final Map<Long, String> allClasses = new ConcurrentHashMap<Long, String>();
 
 	/**
 	 * Creates a new empty index for a HTML report.
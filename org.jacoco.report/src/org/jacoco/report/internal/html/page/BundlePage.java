@@ -13,10 +13,21 @@
 package org.jacoco.report.internal.html.page;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.ICoverageNode;
 import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.internal.diff.ClassInfoDto;
+import org.jacoco.core.internal.diff.MethodInfoDto;
+import org.jacoco.core.tools.ExecFileLoader;
 import org.jacoco.report.ISourceFileLocator;
 import org.jacoco.report.internal.ReportOutputFolder;
 import org.jacoco.report.internal.html.HTMLElement;
@@ -32,6 +43,8 @@ public class BundlePage extends TablePage<ICoverageNode> {
 
 	private IBundleCoverage bundle;
 
+	private final DiffSummaryPage diffSummaryPage;
+
 	/**
 	 * Creates a new visitor in the given context.
 	 *
@@ -52,17 +65,25 @@ public class BundlePage extends TablePage<ICoverageNode> {
 		super(bundle.getPlainCopy(), parent, folder, context);
 		this.bundle = bundle;
 		this.locator = locator;
+		this.diffSummaryPage = context.isDiffOnly()
+				? new DiffSummaryPage(bundle.getPlainCopy(), this, folder,
+						context)
+				: null;
 	}
 
 	@Override
 	public void render() throws IOException {
 		renderPackages();
+		if (diffSummaryPage != null) {
+			diffSummaryPage.render();
+		}
 		super.render();
 		// Don't keep the bundle structure in memory
 		bundle = null;
 	}
 
 	private void renderPackages() throws IOException {
+		final List<PackagePage> pages = new ArrayList<PackagePage>();
 		for (final IPackageCoverage p : bundle.getPackages()) {
 			if (!p.containsCode()) {
 				continue;
@@ -70,10 +91,102 @@ public class BundlePage extends TablePage<ICoverageNode> {
 			final String packagename = p.getName();
 			final String foldername = packagename.length() == 0 ? "default"
 					: packagename.replace('/', '.');
-			final PackagePage page = new PackagePage(p, this, locator,
-					folder.subFolder(foldername), context);
-			page.render();
-			addItem(page);
+			pages.add(new PackagePage(p, this, locator,
+					folder.subFolder(foldername), context));
+		}
+		final Executor executor = context.getExecutor();
+		if (executor == null) {
+			for (final PackagePage page : pages) {
+				page.render();
+				addPackage(page);
+			}
+		} else {
+			renderParallel(pages, executor);
+		}
+	}
+
+	private void addPackage(final PackagePage page) {
+		addItem(page);
+		if (diffSummaryPage != null) {
+			for (final ClassPage classPage : page.getClassPages()) {
+				diffSummaryPage.addClass(classPage);
+			}
+		}
+	}
+
+	/**
+	 * Renders the given package pages with the executor. Every package only
+	 * writes to its own folder. The pages are added in their original order,
+	 * so the bundle page is identical to serial rendering.
+	 */
+	private void renderParallel(final List<PackagePage> pages,
+			final Executor executor) throws IOException {
+		// The diff information is kept in thread locals of the calling thread
+		final Map<String, Map<String, List<MethodInfoDto>>> classInfo = ExecFileLoader.classInfo
+				.get();
+		final List<ClassInfoDto> classInfoDto = ExecFileLoader.classInfoDto
+				.get();
+		final List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>();
+		for (final PackagePage page : pages) {
+			final FutureTask<Void> task = new FutureTask<Void>(
+					new Callable<Void>() {
+						public Void call() throws IOException {
+							final Map<String, Map<String, List<MethodInfoDto>>> previousClassInfo = ExecFileLoader.classInfo
+									.get();
+							final List<ClassInfoDto> previousClassInfoDto = ExecFileLoader.classInfoDto
+									.get();
+							ExecFileLoader.classInfo.set(classInfo);
+							ExecFileLoader.classInfoDto.set(classInfoDto);
+							try {
+								page.render();
+							} finally {
+								ExecFileLoader.classInfo.set(previousClassInfo);
+								ExecFileLoader.classInfoDto
+										.set(previousClassInfoDto);
+							}
+							return null;
+						}
+					});
+			tasks.add(task);
+			executor.execute(task);
+		}
+		try {
+			for (int i = 0; i < tasks.size(); i++) {
+				await(tasks.get(i));
+				addPackage(pages.get(i));
+			}
+		} finally {
+			for (final FutureTask<Void> task : tasks) {
+				task.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * Waits for the given task. If the task has not been started yet it is
+	 * executed on the calling thread, so a busy executor can't block the
+	 * report.
+	 */
+	private static void await(final FutureTask<Void> task)
+			throws IOException {
+		task.run();
+		try {
+			task.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
 		}
 	}
 
@@ -87,6 +200,14 @@ public class BundlePage extends TablePage<ICoverageNode> {
 		return "index.html";
 	}
 
+	@Override
+	protected void infoLinks(final HTMLElement span) throws IOException {
+		if (diffSummaryPage != null) {
+			span.a(diffSummaryPage, folder);
+		}
+		super.infoLinks(span);
+	}
+
 	@Override
 	protected void content(HTMLElement body) throws IOException {
 		if (bundle.getPackages().isEmpty()) {
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.html.page;
+
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.html.resources.Styles;
+import org.jacoco.report.internal.html.table.ITableItem;
+
+/**
+ * Table items representing a changed class with its qualified name.
+ */
+final class ChangedClassItem implements ITableItem {
+
+	private final ClassPage page;
+
+	private final String label;
+
+	ChangedClassItem(final ClassPage page, final String label) {
+		this.page = page;
+		this.label = label;
+	}
+
+	public String getLinkLabel() {
+		return label;
+	}
+
+	public String getLinkStyle() {
+		return Styles.EL_CLASS;
+	}
+
+	public String getLink(final ReportOutputFolder base) {
+		return page.getLink(base);
+	}
+
+	public ICoverageNode getNode() {
+		return page.getNode();
+	}
+
+}
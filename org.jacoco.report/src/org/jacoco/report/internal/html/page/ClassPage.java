@@ -13,13 +13,18 @@
 package org.jacoco.report.internal.html.page;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 import org.jacoco.core.analysis.IClassCoverage;
 import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.internal.diff.MethodInfoDto;
+import org.jacoco.core.tools.ExecFileLoader;
 import org.jacoco.report.internal.ReportOutputFolder;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.ILinkable;
+import org.jacoco.report.internal.html.PageFingerprint;
 
 /**
  * Page showing coverage information for a class as a table of methods. The
@@ -67,6 +72,34 @@ public class ClassPage extends TablePage<IClassCoverage> {
 		super.render();
 	}
 
+	@Override
+	protected boolean fingerprint(final PageFingerprint fingerprint)
+			throws IOException {
+		if (!super.fingerprint(fingerprint)) {
+			return false;
+		}
+		final IClassCoverage node = getNode();
+		fingerprint.add(node.isNoMatch()).add(node.getPackageName())
+				.add(node.getSourceFileName()).add(sourcePage == null);
+		// 差异信息：方法的修改人和提交信息
+		final Map<String, Map<String, List<MethodInfoDto>>> classInfo = ExecFileLoader.classInfo
+				.get();
+		fingerprint.add(classInfo != null);
+		if (classInfo != null && classInfo.containsKey(node.getName())) {
+			final Map<String, List<MethodInfoDto>> methods = classInfo
+					.get(node.getName());
+			for (final IMethodCoverage m : node.getMethods()) {
+				final List<MethodInfoDto> infos = methods.get(m.getName());
+				fingerprint.add(m.getName()).add(infos != null);
+				if (infos != null) {
+					fingerprint.add(infos.get(0).getAuthor())
+							.add(infos.get(0).getCommitMessage());
+				}
+			}
+		}
+		return true;
+	}
+
 	@Override
 	protected String getFileName() {
 		final String vmname = getNode().getName();
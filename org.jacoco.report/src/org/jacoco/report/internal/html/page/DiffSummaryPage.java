@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.html.page;
+
+import java.io.IOException;
+
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.html.HTMLElement;
+import org.jacoco.report.internal.html.IHTMLReportContext;
+
+/**
+ * Page showing the coverage of the changed code of a bundle. The page
+ * contains a single table with all changed classes of the bundle.
+ */
+public class DiffSummaryPage extends TablePage<ICoverageNode> {
+
+	/**
+	 * Creates a new visitor in the given context.
+	 *
+	 * @param node
+	 *            coverage data of the changed code of the bundle
+	 * @param parent
+	 *            page of the bundle
+	 * @param folder
+	 *            base folder of the bundle
+	 * @param context
+	 *            settings context
+	 */
+	public DiffSummaryPage(final ICoverageNode node, final ReportPage parent,
+			final ReportOutputFolder folder, final IHTMLReportContext context) {
+		super(node, parent, folder, context);
+	}
+
+	/**
+	 * Adds the page of a changed class to the table. Method must be called
+	 * before the page is rendered.
+	 *
+	 * @param page
+	 *            page of a changed class
+	 */
+	public void addClass(final ClassPage page) {
+		final String label = context.getLanguageNames()
+				.getQualifiedClassName(page.getNode().getName());
+		addItem(new ChangedClassItem(page, label));
+	}
+
+	@Override
+	protected String getOnload() {
+		return "initialSort(['breadcrumb', 'coveragetable'])";
+	}
+
+	@Override
+	protected String getFileName() {
+		return "diff.html";
+	}
+
+	@Override
+	public String getLinkLabel() {
+		return "Changed Code";
+	}
+
+	@Override
+	protected void content(final HTMLElement body) throws IOException {
+		if (getNode().getInstructionCounter().getTotalCount() == 0) {
+			body.p().text("No changed code in this bundle.");
+		} else {
+			super.content(body);
+		}
+	}
+
+}
@@ -12,9 +12,12 @@
  *******************************************************************************/
 package org.jacoco.report.internal.html.page;
 
+import java.io.IOException;
+
 import org.jacoco.core.analysis.ICoverageNode;
 import org.jacoco.report.internal.ReportOutputFolder;
 import org.jacoco.report.internal.html.IHTMLReportContext;
+import org.jacoco.report.internal.html.PageFingerprint;
 import org.jacoco.report.internal.html.resources.Resources;
 import org.jacoco.report.internal.html.resources.Styles;
 import org.jacoco.report.internal.html.table.ITableItem;
@@ -48,6 +51,16 @@ public abstract class NodePage<NodeType extends ICoverageNode>
 		this.node = node;
 	}
 
+	@Override
+	protected boolean fingerprint(final PageFingerprint fingerprint)
+			throws IOException {
+		if (!super.fingerprint(fingerprint)) {
+			return false;
+		}
+		fingerprint.add(node);
+		return true;
+	}
+
 	// === ILinkable ===
 
 	public String getLinkStyle() {
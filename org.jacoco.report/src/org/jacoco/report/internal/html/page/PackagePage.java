@@ -13,6 +13,8 @@
 package org.jacoco.report.internal.html.page;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.jacoco.core.analysis.IClassCoverage;
 import org.jacoco.core.analysis.IPackageCoverage;
@@ -21,6 +23,7 @@ import org.jacoco.report.internal.ReportOutputFolder;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.ILinkable;
+import org.jacoco.report.internal.html.PageFingerprint;
 import org.jacoco.report.internal.html.resources.Styles;
 
 /**
@@ -31,6 +34,7 @@ public class PackagePage extends TablePage<IPackageCoverage> {
 
 	private final PackageSourcePage packageSourcePage;
 	private final boolean sourceCoverageExists;
+	private final List<ClassPage> classPages = new ArrayList<ClassPage>();
 
 	/**
 	 * Creates a new visitor in the given context.
@@ -75,7 +79,30 @@ public class PackagePage extends TablePage<IPackageCoverage> {
 					folder, context);
 			page.render();
 			addItem(page);
+			if (context.isDiffOnly()) {
+				classPages.add(page);
+			}
+		}
+	}
+
+	/**
+	 * Returns the rendered pages of all classes of this package. The pages are
+	 * only kept if only the changed code is reported.
+	 *
+	 * @return rendered class pages
+	 */
+	List<ClassPage> getClassPages() {
+		return classPages;
+	}
+
+	@Override
+	protected boolean fingerprint(final PageFingerprint fingerprint)
+			throws IOException {
+		if (!super.fingerprint(fingerprint)) {
+			return false;
 		}
+		fingerprint.add(sourceCoverageExists);
+		return true;
 	}
 
 	@Override
@@ -24,6 +24,7 @@ import org.jacoco.report.internal.ReportOutputFolder;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.ILinkable;
+import org.jacoco.report.internal.html.PageFingerprint;
 import org.jacoco.report.internal.html.resources.Styles;
 
 /**
@@ -99,6 +100,16 @@ public class PackageSourcePage extends TablePage<IPackageCoverage> {
 		}
 	}
 
+	@Override
+	protected boolean fingerprint(final PageFingerprint fingerprint)
+			throws IOException {
+		if (!super.fingerprint(fingerprint)) {
+			return false;
+		}
+		fingerprint.add(packagePage.getLink(folder));
+		return true;
+	}
+
 	@Override
 	protected String getOnload() {
 		return "initialSort(['breadcrumb', 'coveragetable'])";
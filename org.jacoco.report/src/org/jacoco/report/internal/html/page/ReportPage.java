@@ -19,6 +19,8 @@ import org.jacoco.report.internal.ReportOutputFolder;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.ILinkable;
+import org.jacoco.report.internal.html.PageFingerprint;
+import org.jacoco.report.internal.html.PageManifest;
 import org.jacoco.report.internal.html.resources.Resources;
 import org.jacoco.report.internal.html.resources.Styles;
 
@@ -71,6 +73,9 @@ public abstract class ReportPage implements ILinkable {
 	 *             if the page can't be written
 	 */
 	public void render() throws IOException {
+		if (isUnchanged()) {
+			return;
+		}
 		final HTMLElement html = new HTMLElement(
 				folder.createFile(getFileName()), context.getOutputEncoding());
 		html.attr("lang", context.getLocale().getLanguage());
@@ -79,6 +84,43 @@ public abstract class ReportPage implements ILinkable {
 		html.close();
 	}
 
+	private boolean isUnchanged() throws IOException {
+		final PageManifest manifest = context.getPageManifest();
+		if (manifest == null) {
+			return false;
+		}
+		final PageFingerprint fingerprint = new PageFingerprint();
+		if (!fingerprint(fingerprint)) {
+			return false;
+		}
+		return manifest.update(folder.getPath(getFileName()),
+				fingerprint.getValue());
+	}
+
+	/**
+	 * Adds all inputs of this page to the given fingerprint. Settings which
+	 * apply to every page are covered by the manifest itself. Subclasses must
+	 * add all inputs of their content.
+	 *
+	 * @param fingerprint
+	 *            fingerprint to add to
+	 * @return <code>true</code> if the fingerprint covers all inputs,
+	 *         <code>false</code> if the page has to be written in any case
+	 * @throws IOException
+	 *             if inputs of the page can't be read
+	 */
+	protected boolean fingerprint(final PageFingerprint fingerprint)
+			throws IOException {
+		fingerprint.add(getFileName()).add(getLinkLabel()).add(getLinkStyle())
+				.add(getOnload());
+		fingerprint.add(context.getSessionsPage().getLink(folder));
+		for (ReportPage p = parent; p != null; p = p.parent) {
+			fingerprint.add(p.getLinkLabel()).add(p.getLinkStyle())
+					.add(p.getLink(folder));
+		}
+		return true;
+	}
+
 	/**
 	 * Creates the elements within the head element.
 	 *
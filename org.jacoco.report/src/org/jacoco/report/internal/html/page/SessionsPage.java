@@ -27,6 +27,7 @@ import org.jacoco.report.ILanguageNames;
 import org.jacoco.report.internal.ReportOutputFolder;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
+import org.jacoco.report.internal.html.PageFingerprint;
 import org.jacoco.report.internal.html.index.ElementIndex;
 import org.jacoco.report.internal.html.resources.Styles;
 
@@ -88,6 +89,12 @@ public class SessionsPage extends ReportPage {
 		});
 	}
 
+	@Override
+	protected boolean fingerprint(final PageFingerprint fingerprint) {
+		// cheap to render, always written
+		return false;
+	}
+
 	@Override
 	protected void content(final HTMLElement body) throws IOException {
 		if (sessionInfos.isEmpty()) {
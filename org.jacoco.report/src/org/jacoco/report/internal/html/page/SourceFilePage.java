@@ -16,11 +16,16 @@ import static java.lang.String.format;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
 
+import org.jacoco.core.analysis.ILine;
 import org.jacoco.core.analysis.ISourceNode;
+import org.jacoco.core.internal.diff.ChangeLine;
 import org.jacoco.report.internal.ReportOutputFolder;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
+import org.jacoco.report.internal.html.PageFingerprint;
 import org.jacoco.report.internal.html.resources.Resources;
 
 /**
@@ -33,6 +38,8 @@ public class SourceFilePage extends NodePage<ISourceNode> {
 
 	private final int tabWidth;
 
+	private String source;
+
 	/**
 	 * Creates a new page with given information.
 	 *
@@ -58,11 +65,47 @@ public class SourceFilePage extends NodePage<ISourceNode> {
 		this.tabWidth = tabWidth;
 	}
 
+	@Override
+	protected boolean fingerprint(final PageFingerprint fingerprint)
+			throws IOException {
+		if (!super.fingerprint(fingerprint)) {
+			return false;
+		}
+		try {
+			source = fingerprint.add(sourceReader);
+		} finally {
+			sourceReader.close();
+		}
+		final ISourceNode node = getNode();
+		fingerprint.add(node.getFirstLine()).add(node.getLastLine());
+		for (int nr = node.getFirstLine(); nr <= node.getLastLine(); nr++) {
+			final ILine line = node.getLine(nr);
+			fingerprint.add(line.getInstructionCounter())
+					.add(line.getBranchCounter());
+		}
+		final List<ChangeLine> changeLines = SourceHighlighter
+				.getChangeLines(node);
+		fingerprint.add(changeLines != null);
+		if (changeLines != null) {
+			for (final ChangeLine c : changeLines) {
+				fingerprint.add(c.getType())
+						.add(String.valueOf(c.getStartLineNum()))
+						.add(String.valueOf(c.getEndLineNum()));
+			}
+		}
+		return true;
+	}
+
 	@Override
 	protected void content(final HTMLElement body) throws IOException {
 		final SourceHighlighter hl = new SourceHighlighter(context.getLocale());
-		hl.render(body, getNode(), sourceReader);
-		sourceReader.close();
+		if (source == null) {
+			hl.render(body, getNode(), sourceReader);
+			sourceReader.close();
+		} else {
+			// the reader has already been consumed for the fingerprint
+			hl.render(body, getNode(), new StringReader(source));
+		}
 	}
 
 	@Override
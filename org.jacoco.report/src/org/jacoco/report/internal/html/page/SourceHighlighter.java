@@ -72,6 +72,22 @@ final class SourceHighlighter {
         final HTMLElement pre = parent.pre(Styles.SOURCE + " lang-" + lang + " linenums");
         final BufferedReader lineBuffer = new BufferedReader(contents);
         String line;
+        final List<ChangeLine> changeLineList = getChangeLines(source);
+        int nr = 0;
+        while ((line = lineBuffer.readLine()) != null) {
+            nr++;
+            renderCodeLine(pre, line, source.getLine(nr), nr, changeLineList);
+        }
+    }
+
+    /**
+     * Returns the changed lines of the given source file from the diff of the
+     * current report.
+     *
+     * @param source source file
+     * @return changed lines or <code>null</code> if there is no diff for the file
+     */
+    static List<ChangeLine> getChangeLines(final ISourceNode source) {
         List<ChangeLine> changeLineList = null;
         if (source instanceof SourceFileCoverageImpl && ExecFileLoader.classInfoDto.get() != null) {
             final String packageName=((SourceFileCoverageImpl) source).getPackageName();
@@ -83,11 +99,7 @@ final class SourceHighlighter {
                 changeLineList = classInfoDto.get().getLines();
             }
         }
-        int nr = 0;
-        while ((line = lineBuffer.readLine()) != null) {
-            nr++;
-            renderCodeLine(pre, line, source.getLine(nr), nr, changeLineList);
-        }
+        return changeLineList;
     }
 
     private void renderCodeLine(final HTMLElement pre, final String linesrc, final ILine line, final int lineNr, List<ChangeLine> changeLineList) throws IOException {
@@ -20,6 +20,7 @@ import org.jacoco.core.analysis.ICoverageNode;
 import org.jacoco.report.internal.ReportOutputFolder;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
+import org.jacoco.report.internal.html.PageFingerprint;
 import org.jacoco.report.internal.html.resources.Resources;
 import org.jacoco.report.internal.html.table.ITableItem;
 
@@ -62,6 +63,27 @@ public abstract class TablePage<NodeType extends ICoverageNode>
 		items.add(item);
 	}
 
+	@Override
+	public void render() throws IOException {
+		super.render();
+		// free memory, otherwise we will keep the complete page tree:
+		items.clear();
+	}
+
+	@Override
+	protected boolean fingerprint(final PageFingerprint fingerprint)
+			throws IOException {
+		if (!super.fingerprint(fingerprint)) {
+			return false;
+		}
+		fingerprint.add(items.size());
+		for (final ITableItem item : items) {
+			fingerprint.add(item.getLinkLabel()).add(item.getLinkStyle())
+					.add(item.getLink(folder)).add(item.getNode());
+		}
+		return true;
+	}
+
 	@Override
 	protected void head(final HTMLElement head) throws IOException {
 		super.head(head);
@@ -72,16 +94,15 @@ public abstract class TablePage<NodeType extends ICoverageNode>
 	@Override
 	protected void content(final HTMLElement body) throws IOException {
 		// 修改点--
+		// rows of virtual tables are written next to the page
+		final String dataFile = getFileName() + ".js";
 		if (this instanceof ClassPage) {
 			context.getTable(true).render(body, items, getNode(),
-					context.getResources(), folder);
+					context.getResources(), folder, dataFile);
 		} else {
 			context.getTable().render(body, items, getNode(),
-					context.getResources(), folder);
+					context.getResources(), folder, dataFile);
 		}
-
-		// free memory, otherwise we will keep the complete page tree:
-		items.clear();
 	}
 
 }
@@ -61,30 +61,138 @@
 
     resetSortedStyle(table);
 
-    var rows = body.rows;
-    var sortedrows = [];
-    for (var i = 0; i < rows.length; i++) {
-      r = rows[i];
-      sortedrows[parseInt(r.childNodes[colidx].id.slice(1))] = r;
-    }
-
     var hash;
 
-    if (sortup) {
-      for (var i = sortedrows.length - 1; i >= 0; i--) {
-        body.appendChild(sortedrows[i]);
+    if (table.tableData) {
+      table.tableOrder = table.tableData.order[colidx];
+      table.tableSortup = sortup;
+      table.tableFirst = -1;
+    } else {
+      var rows = body.rows;
+      var sortedrows = [];
+      for (var i = 0; i < rows.length; i++) {
+        r = rows[i];
+        sortedrows[parseInt(r.childNodes[colidx].id.slice(1))] = r;
       }
+      if (sortup) {
+        for (var i = sortedrows.length - 1; i >= 0; i--) {
+          body.appendChild(sortedrows[i]);
+        }
+      } else {
+        for (var i = 0; i < sortedrows.length; i++) {
+          body.appendChild(sortedrows[i]);
+        }
+      }
+    }
+
+    if (sortup) {
       header.className = 'up ' + header.className;
       hash = 'up-' + header.id;
     } else {
-      for (var i = 0; i < sortedrows.length; i++) {
-        body.appendChild(sortedrows[i]);
-      }
       header.className = 'down ' + header.className;
       hash = 'dn-' + header.id;
     }
 
     setHash(hash);
+    if (table.tableData) {
+      renderRows(table);
+    }
+  }
+
+  /**
+   * Number of rows rendered above and below the visible area.
+   */
+  var OVERSCAN = 50;
+
+  /**
+   * Initializes the virtual coverage table with the given row data: the
+   * style of every column, the inner HTML of all cells in default order and
+   * for every column the row indexes in sort order.
+   */
+  function initTable(data) {
+    var table = window.document.getElementById('coveragetable');
+    table.tableData = data;
+    table.tableOrder = null;
+    table.tableFirst = -1;
+    table.tableRowHeight = 0;
+    var update = function () {
+      renderRows(table);
+    };
+    window.addEventListener('scroll', update);
+    window.addEventListener('resize', update);
+    renderRows(table);
+  }
+
+  /**
+   * Creates the rows of the virtual table within the visible area of the
+   * window. All other rows are replaced by two spacer rows of the same height.
+   */
+  function renderRows(table) {
+    var data = table.tableData;
+    var count = data.rows.length;
+    var body = table.tBodies[0];
+    var height = table.tableRowHeight || 20;
+    var top = body.getBoundingClientRect().top;
+    var first = Math.max(0, Math.floor(-top / height) - OVERSCAN);
+    first = Math.min(first, count);
+    var last = Math.min(count,
+        Math.ceil((window.innerHeight - top) / height) + OVERSCAN);
+    last = Math.max(last, first);
+    if (first == table.tableFirst && last == table.tableLast) {
+      return;
+    }
+    table.tableFirst = first;
+    table.tableLast = last;
+
+    var html = [];
+    spacer(html, first * height, data.styles.length);
+    for (var i = first; i < last; i++) {
+      var row = data.rows[getRowIndex(table, i)];
+      html.push('<tr>');
+      for (var c = 0; c < row.length; c++) {
+        var style = data.styles[c];
+        html.push(style ? '<td class="' + style + '">' : '<td>');
+        html.push(row[c]);
+        html.push('</td>');
+      }
+      html.push('</tr>');
+    }
+    spacer(html, (count - last) * height, data.styles.length);
+    body.innerHTML = html.join('');
+
+    if (window.tablehash) {
+      setHashOnAllLinks(body, window.tablehash);
+    }
+    if (!table.tableRowHeight && last > first) {
+      // Measure the actual row height once and render again with it
+      table.tableRowHeight = body.rows[first > 0 ? 1 : 0].offsetHeight || 20;
+      table.tableFirst = -1;
+      renderRows(table);
+    }
+  }
+
+  /**
+   * Returns the index of the data row at the given position of the table.
+   */
+  function getRowIndex(table, position) {
+    var order = table.tableOrder;
+    if (!order) {
+      return position;
+    }
+    if (table.tableSortup) {
+      return order[order.length - 1 - position];
+    }
+    return order[position];
+  }
+
+  /**
+   * Adds a row with the given height and no content.
+   */
+  function spacer(html, height, colspan) {
+    if (height > 0) {
+      html.push('<tr><td colspan="' + colspan + '" style="height:' + height
+          + 'px;padding:0;border:0"></td></tr>');
+    }
   }
 
   /**
@@ -92,6 +200,7 @@
    */
   function setHash(hash) {
     window.document.location.hash = hash;
+    window.tablehash = hash;
     ids = window.linkelementids;
     for (var i = 0; i < ids.length; i++) {
         setHashOnAllLinks(document.getElementById(ids[i]), hash);
@@ -144,5 +253,6 @@
 
   window['initialSort'] = initialSort;
   window['toggleSort'] = toggleSort;
+  window['initTable'] = initTable;
 
 })();
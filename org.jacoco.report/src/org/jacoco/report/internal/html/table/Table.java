@@ -12,7 +12,12 @@
  *******************************************************************************/
 package org.jacoco.report.internal.html.table;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.*;
 
 import org.jacoco.core.analysis.ICoverageNode;
@@ -33,6 +38,8 @@ public class Table {
 
     private Comparator<ITableItem> defaultComparator;
 
+    private int virtualThreshold;
+
     /**
      * Create a new table without any columns yet.
      */
@@ -63,6 +70,20 @@ public class Table {
         }
     }
 
+    /**
+     * Sets the number of rows from which on tables are rendered as virtual
+     * tables: the rows are not part of the page but written as JSON data to a
+     * separate script file. The browser only creates the rows within the
+     * visible area and sorts with the pre-calculated sort indexes. Default is
+     * <code>0</code> which always renders all rows into the page.
+     *
+     * @param virtualThreshold minimum number of rows for virtual tables or
+     *                         <code>0</code>
+     */
+    public void setVirtualThreshold(final int virtualThreshold) {
+        this.virtualThreshold = virtualThreshold;
+    }
+
     /**
      * Renders a table for the given icon
      *
@@ -78,12 +99,50 @@ public class Table {
                        final List<? extends ITableItem> items, final ICoverageNode total,
                        final Resources resources, final ReportOutputFolder base)
             throws IOException {
+        render(parent, items, total, resources, base, null);
+    }
+
+    /**
+     * Renders a table for the given icon. If the table has enough rows for a
+     * virtual table its rows are written to the given data file.
+     *
+     * @param parent    parent element in which the table is created
+     * @param items     items that will make the table rows
+     * @param total     the summary of all coverage data items in the table static
+     *                  resources that might be referenced
+     * @param resources static resources that might be referenced
+     * @param base      base folder of the table
+     * @param dataFile  local name of the script file for the row data in the
+     *                  base folder or <code>null</code> to render all rows into
+     *                  the page
+     * @throws IOException in case of IO problems with the element output
+     */
+    public void render(final HTMLElement parent,
+                       final List<? extends ITableItem> items, final ICoverageNode total,
+                       final Resources resources, final ReportOutputFolder base,
+                       final String dataFile) throws IOException {
         final List<? extends ITableItem> sortedItems = sort(items);
         final HTMLElement table = parent.table(Styles.COVERAGETABLE);
         table.attr("id", "coveragetable");
         header(table, sortedItems, total);
         footer(table, total, resources, base);
-        body(table, sortedItems, resources, base, total);
+        if (dataFile != null && virtualThreshold > 0
+                && sortedItems.size() >= virtualThreshold) {
+            final List<Column> visible = new ArrayList<Column>();
+            for (final Column c : columns) {
+                if (c.visible) {
+                    visible.add(c);
+                }
+            }
+            // placeholder row, replaced by the script
+            table.tbody().tr().td().attr("colspan", visible.size());
+            table.close();
+            data(base.createFile(dataFile), visible, sortedItems, resources,
+                    base, total);
+            parent.script(base.getLink(base, dataFile));
+        } else {
+            body(table, sortedItems, resources, base, total);
+        }
     }
 
     private void header(final HTMLElement table,
@@ -119,6 +178,82 @@ public class Table {
         }
     }
 
+    /**
+     * Writes the row data of a virtual table as a script which passes it to
+     * <code>initTable()</code> from the sort script: the CSS style of every
+     * visible column, the inner HTML of all cells in default order and for
+     * every column the row indexes in sort order.
+     */
+    private void data(final OutputStream output, final List<Column> visible,
+                      final List<? extends ITableItem> items, final Resources resources,
+                      final ReportOutputFolder base, final ICoverageNode total)
+            throws IOException {
+        final Writer writer = new BufferedWriter(
+                new OutputStreamWriter(output, "US-ASCII"));
+        try {
+            writer.write("initTable({\"styles\":[");
+            for (int c = 0; c < visible.size(); c++) {
+                if (c > 0) {
+                    writer.write(',');
+                }
+                json(writer, visible.get(c).style);
+            }
+            writer.write("],\n\"rows\":[");
+            for (int idx = 0; idx < items.size(); idx++) {
+                writer.write(idx == 0 ? "\n[" : ",\n[");
+                for (int c = 0; c < visible.size(); c++) {
+                    if (c > 0) {
+                        writer.write(',');
+                    }
+                    json(writer, visible.get(c).cell(items.get(idx),
+                            resources, base, total));
+                }
+                writer.write(']');
+            }
+            writer.write("],\n\"order\":[");
+            for (int c = 0; c < visible.size(); c++) {
+                writer.write(c == 0 ? "\n[" : ",\n[");
+                final int[] order = visible.get(c).order(items.size());
+                for (int i = 0; i < order.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(Integer.toString(order[i]));
+                }
+                writer.write(']');
+            }
+            writer.write("]});\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes the given string as a JSON string literal. All non ASCII
+     * characters are escaped, so the script does not depend on the encoding
+     * of the page.
+     */
+    private static void json(final Writer writer, final String s)
+            throws IOException {
+        if (s == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                writer.write(String.format("\\u%04x", Integer.valueOf(c)));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+
     private List<? extends ITableItem> sort(
             final List<? extends ITableItem> items) {
         if (defaultComparator != null) {
@@ -177,23 +312,55 @@ public class Table {
             if (visible) {
                 final HTMLElement td = tr.td(style);
                 td.attr("id", idprefix + String.valueOf(index.getPosition(idx)));
-                if (this.header.equals("修改人") || this.header.equals("提交信息")) {
-                    if (ExecFileLoader.classInfo.get() != null) {
-                        Map<String, Map<String, List<MethodInfoDto>>> classInfoDtos = ExecFileLoader.classInfo.get();
-                        if (classInfoDtos.containsKey(total.getName())) {
-                            Map<String, List<MethodInfoDto>> method = classInfoDtos.get(total.getName());
-                            if (method.containsKey(item.getNode().getName())) {
-                                String text = this.header.equals("修改人") ? method.get(item.getNode().getName()).get(0).getAuthor() : method.get(item.getNode().getName()).get(0).getCommitMessage();
-                                text = text == null ? "未知，请联系平台管理员！" : text;
-                                td.text(text);
-                            }
+                content(td, item, resources, base, total);
+            }
+        }
+
+        /**
+         * Renders the inner HTML of the cell of the given item.
+         */
+        String cell(final ITableItem item, final Resources resources,
+                    final ReportOutputFolder base, final ICoverageNode total)
+                throws IOException {
+            final StringWriter writer = new StringWriter();
+            final HTMLElement td = new HTMLElement(writer, "td");
+            content(td, item, resources, base, total);
+            td.close();
+            final String cell = writer.toString();
+            // strip the enclosing td element, "<td/>" for empty cells
+            return cell.length() <= 5 ? "" : cell.substring(4, cell.length() - 5);
+        }
+
+        /**
+         * Returns the indexes of the items in the sort order of this column.
+         */
+        int[] order(final int size) {
+            final int[] order = new int[size];
+            for (int idx = 0; idx < size; idx++) {
+                order[index.getPosition(idx)] = idx;
+            }
+            return order;
+        }
+
+        private void content(final HTMLElement td, final ITableItem item,
+                             final Resources resources, final ReportOutputFolder base,
+                             final ICoverageNode total) throws IOException {
+            if (this.header.equals("修改人") || this.header.equals("提交信息")) {
+                if (ExecFileLoader.classInfo.get() != null) {
+                    Map<String, Map<String, List<MethodInfoDto>>> classInfoDtos = ExecFileLoader.classInfo.get();
+                    if (classInfoDtos.containsKey(total.getName())) {
+                        Map<String, List<MethodInfoDto>> method = classInfoDtos.get(total.getName());
+                        if (method.containsKey(item.getNode().getName())) {
+                            String text = this.header.equals("修改人") ? method.get(item.getNode().getName()).get(0).getAuthor() : method.get(item.getNode().getName()).get(0).getCommitMessage();
+                            text = text == null ? "未知，请联系平台管理员！" : text;
+                            td.text(text);
                         }
-                    } else {
-                        td.text("未知，请联系平台管理员！");
                     }
                 } else {
-                    renderer.item(td, item, resources, base);
+                    td.text("未知，请联系平台管理员！");
                 }
+            } else {
+                renderer.item(td, item, resources, base);
             }
         }
 
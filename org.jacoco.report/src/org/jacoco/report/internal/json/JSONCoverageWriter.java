@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.json;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.core.analysis.ICoverageNode.CounterEntity;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.internal.diff.ChangeLine;
+import org.jacoco.core.internal.diff.ClassInfoDto;
+import org.jacoco.core.internal.diff.MethodInfoDto;
+import org.jacoco.core.tools.ExecFileLoader;
+
+/**
+ * Serializes coverage data as JSON members. Every coverage node is written as
+ * soon as it is visited, nothing is buffered besides the lookup table of the
+ * diff metadata.
+ */
+public final class JSONCoverageWriter {
+
+	/**
+	 * Writes the structure of a given bundle as members of the current
+	 * object.
+	 *
+	 * @param bundle
+	 *            bundle coverage data
+	 * @param writer
+	 *            writer positioned within the object for the bundle
+	 * @param includeDiff
+	 *            if <code>true</code> the diff metadata of the current thread
+	 *            is written for classes and methods
+	 * @throws IOException
+	 *             if JSON can't be written to the underlying output
+	 */
+	public static void writeBundle(final IBundleCoverage bundle,
+			final JSONWriter writer, final boolean includeDiff)
+			throws IOException {
+		final Diff diff = includeDiff ? new Diff() : null;
+		writer.name("packages");
+		writer.beginArray();
+		for (final IPackageCoverage p : bundle.getPackages()) {
+			writePackage(p, writer, diff);
+		}
+		writer.endArray();
+		writeCounters(bundle, writer);
+	}
+
+	private static void writePackage(final IPackageCoverage p,
+			final JSONWriter writer, final Diff diff) throws IOException {
+		writer.beginObject();
+		writer.member("name", p.getName());
+		writer.name("classes");
+		writer.beginArray();
+		for (final IClassCoverage c : p.getClasses()) {
+			writeClass(c, writer, diff);
+		}
+		writer.endArray();
+		writeCounters(p, writer);
+		writer.endObject();
+	}
+
+	private static void writeClass(final IClassCoverage c,
+			final JSONWriter writer, final Diff diff) throws IOException {
+		writer.beginObject();
+		writer.member("name", c.getName());
+		if (c.getSourceFileName() != null) {
+			writer.member("sourcefilename", c.getSourceFileName());
+		}
+		if (diff != null) {
+			diff.writeClass(c.getName(), writer);
+		}
+		writer.name("methods");
+		writer.beginArray();
+		for (final IMethodCoverage m : c.getMethods()) {
+			writeMethod(c.getName(), m, writer, diff);
+		}
+		writer.endArray();
+		writeCounters(c, writer);
+		writer.endObject();
+	}
+
+	private static void writeMethod(final String className,
+			final IMethodCoverage m, final JSONWriter writer, final Diff diff)
+			throws IOException {
+		writer.beginObject();
+		writer.member("name", m.getName());
+		writer.member("desc", m.getDesc());
+		final int line = m.getFirstLine();
+		if (line != -1) {
+			writer.member("line", line);
+		}
+		if (diff != null) {
+			diff.writeMethod(className, m.getName(), writer);
+		}
+		writeCounters(m, writer);
+		writer.endObject();
+	}
+
+	/**
+	 * Writes a <code>counters</code> member with all counters of the given
+	 * node which are not empty.
+	 *
+	 * @param node
+	 *            node to write the counters for
+	 * @param writer
+	 *            writer positioned within the object for the node
+	 * @throws IOException
+	 *             if JSON can't be written to the underlying output
+	 */
+	public static void writeCounters(final ICoverageNode node,
+			final JSONWriter writer) throws IOException {
+		writer.name("counters");
+		writer.beginObject();
+		for (final CounterEntity counterEntity : CounterEntity.values()) {
+			final ICounter counter = node.getCounter(counterEntity);
+			if (counter.getTotalCount() > 0) {
+				writer.name(counterEntity.name());
+				writer.beginObject();
+				writer.member("missed", counter.getMissedCount());
+				writer.member("covered", counter.getCoveredCount());
+				writer.endObject();
+			}
+		}
+		writer.endObject();
+	}
+
+	/**
+	 * 差异信息：当前线程的变更类和方法的修改人、提交信息
+	 */
+	private static class Diff {
+
+		private final Map<String, Map<String, List<MethodInfoDto>>> methods;
+
+		private final Map<String, ClassInfoDto> classes = new HashMap<String, ClassInfoDto>();
+
+		Diff() {
+			final Map<String, Map<String, List<MethodInfoDto>>> classInfo = ExecFileLoader.classInfo
+					.get();
+			methods = classInfo == null
+					? Collections.<String, Map<String, List<MethodInfoDto>>> emptyMap()
+					: classInfo;
+			final List<ClassInfoDto> classInfoDto = ExecFileLoader.classInfoDto
+					.get();
+			if (classInfoDto != null) {
+				for (final ClassInfoDto dto : classInfoDto) {
+					classes.put(dto.getClassFile(), dto);
+				}
+			}
+		}
+
+		void writeClass(final String name, final JSONWriter writer)
+				throws IOException {
+			final ClassInfoDto dto = classes.get(name);
+			if (dto == null) {
+				return;
+			}
+			writer.name("diff");
+			writer.beginObject();
+			writer.member("type", dto.getType());
+			if (dto.getLines() != null) {
+				writer.name("lines");
+				writer.beginArray();
+				for (final ChangeLine l : dto.getLines()) {
+					// 没有行号的变更无法定位，跳过
+					if (l.getStartLineNum() == null
+							|| l.getEndLineNum() == null) {
+						continue;
+					}
+					writer.beginObject();
+					writer.member("type", l.getType());
+					writer.member("start", l.getStartLineNum().intValue());
+					writer.member("end", l.getEndLineNum().intValue());
+					writer.endObject();
+				}
+				writer.endArray();
+			}
+			writer.endObject();
+		}
+
+		void writeMethod(final String className, final String name,
+				final JSONWriter writer) throws IOException {
+			final Map<String, List<MethodInfoDto>> classMethods = methods
+					.get(className);
+			if (classMethods == null) {
+				return;
+			}
+			final List<MethodInfoDto> infos = classMethods.get(name);
+			if (infos == null || infos.isEmpty()) {
+				return;
+			}
+			writer.member("author", infos.get(0).getAuthor());
+			writer.member("commitMessage", infos.get(0).getCommitMessage());
+		}
+
+	}
+
+	private JSONCoverageWriter() {
+	}
+
+}
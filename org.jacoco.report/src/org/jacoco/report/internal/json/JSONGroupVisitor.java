@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.json;
+
+import java.io.IOException;
+
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.report.ISourceFileLocator;
+import org.jacoco.report.internal.AbstractGroupVisitor;
+
+/**
+ * A {@link org.jacoco.report.IReportGroupVisitor} that streams the report
+ * structure as JSON objects. Every group and bundle is written as an object
+ * with a <code>name</code> member to the <code>groups</code> array of its
+ * parent group.
+ */
+public class JSONGroupVisitor extends AbstractGroupVisitor {
+
+	/** Writer of the report */
+	protected final JSONWriter writer;
+
+	private final boolean includeDiff;
+
+	private boolean children;
+
+	/**
+	 * New handler for a group with the given name. The object of the group
+	 * must already be started, it is ended when the group ends.
+	 *
+	 * @param writer
+	 *            writer positioned within the object for this group
+	 * @param name
+	 *            name of the group
+	 * @param includeDiff
+	 *            if <code>true</code> the diff metadata is written for classes
+	 *            and methods
+	 */
+	public JSONGroupVisitor(final JSONWriter writer, final String name,
+			final boolean includeDiff) {
+		super(name);
+		this.writer = writer;
+		this.includeDiff = includeDiff;
+	}
+
+	private void beginChild(final String name) throws IOException {
+		if (!children) {
+			writer.name("groups");
+			writer.beginArray();
+			children = true;
+		}
+		writer.beginObject();
+		writer.member("name", name);
+	}
+
+	@Override
+	protected void handleBundle(final IBundleCoverage bundle,
+			final ISourceFileLocator locator) throws IOException {
+		beginChild(bundle.getName());
+		JSONCoverageWriter.writeBundle(bundle, writer, includeDiff);
+		writer.endObject();
+	}
+
+	@Override
+	protected AbstractGroupVisitor handleGroup(final String name)
+			throws IOException {
+		beginChild(name);
+		return new JSONGroupVisitor(writer, name, includeDiff);
+	}
+
+	@Override
+	protected void handleEnd() throws IOException {
+		if (children) {
+			writer.endArray();
+		}
+		JSONCoverageWriter.writeCounters(total, writer);
+		writer.endObject();
+	}
+
+}
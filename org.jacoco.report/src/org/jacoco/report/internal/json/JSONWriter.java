@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.jacoco.report.internal.xml.ChunkedWriter;
+
+/**
+ * Streaming writer for UTF-8 encoded JSON documents. Only the separator state
+ * of the current position is kept, so the memory consumption does not depend
+ * on the size of the document. The caller is responsible for a well-formed
+ * sequence of calls.
+ */
+public class JSONWriter {
+
+	private final Writer writer;
+
+	private boolean separator;
+
+	/**
+	 * Creates a new writer for the given stream.
+	 *
+	 * @param output
+	 *            output stream, will be closed when the writer is closed
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	public JSONWriter(final OutputStream output) throws IOException {
+		this(new OutputStreamWriter(output, "UTF-8"));
+	}
+
+	/**
+	 * Creates a new writer for the given character output.
+	 *
+	 * @param writer
+	 *            character output, will be closed when the writer is closed
+	 */
+	public JSONWriter(final Writer writer) {
+		this.writer = new ChunkedWriter(writer);
+	}
+
+	private void separate() throws IOException {
+		if (separator) {
+			writer.write(',');
+		}
+	}
+
+	/**
+	 * Starts a new object.
+	 *
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	public void beginObject() throws IOException {
+		separate();
+		writer.write('{');
+		separator = false;
+	}
+
+	/**
+	 * Ends the current object.
+	 *
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	public void endObject() throws IOException {
+		writer.write('}');
+		separator = true;
+	}
+
+	/**
+	 * Starts a new array.
+	 *
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	public void beginArray() throws IOException {
+		separate();
+		writer.write('[');
+		separator = false;
+	}
+
+	/**
+	 * Ends the current array.
+	 *
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	public void endArray() throws IOException {
+		writer.write(']');
+		separator = true;
+	}
+
+	/**
+	 * Writes the name of the next member of the current object.
+	 *
+	 * @param name
+	 *            member name
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	public void name(final String name) throws IOException {
+		separate();
+		string(name);
+		writer.write(':');
+		separator = false;
+	}
+
+	/**
+	 * Writes a string value.
+	 *
+	 * @param value
+	 *            string value or <code>null</code>
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	public void value(final String value) throws IOException {
+		separate();
+		if (value == null) {
+			writer.write("null");
+		} else {
+			string(value);
+		}
+		separator = true;
+	}
+
+	/**
+	 * Writes a number value.
+	 *
+	 * @param value
+	 *            number value
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	public void value(final long value) throws IOException {
+		separate();
+		writer.write(Long.toString(value));
+		separator = true;
+	}
+
+	/**
+	 * Writes a member with a string value.
+	 *
+	 * @param name
+	 *            member name
+	 * @param value
+	 *            string value or <code>null</code>
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	public void member(final String name, final String value)
+			throws IOException {
+		name(name);
+		value(value);
+	}
+
+	/**
+	 * Writes a member with a number value.
+	 *
+	 * @param name
+	 *            member name
+	 * @param value
+	 *            number value
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	public void member(final String name, final long value)
+			throws IOException {
+		name(name);
+		value(value);
+	}
+
+	/**
+	 * Writes the given string as a string literal. Runs of characters which
+	 * need no escaping are written at once.
+	 */
+	private void string(final String s) throws IOException {
+		writer.write('"');
+		final int len = s.length();
+		int start = 0;
+		for (int i = 0; i < len; i++) {
+			final char c = s.charAt(i);
+			if (c != '"' && c != '\\' && c >= 0x20) {
+				continue;
+			}
+			writer.write(s, start, i - start);
+			switch (c) {
+			case '"':
+				writer.write("\\\"");
+				break;
+			case '\\':
+				writer.write("\\\\");
+				break;
+			case '\n':
+				writer.write("\\n");
+				break;
+			case '\r':
+				writer.write("\\r");
+				break;
+			case '\t':
+				writer.write("\\t");
+				break;
+			default:
+				writer.write(String.format("\\u%04x", Integer.valueOf(c)));
+				break;
+			}
+			start = i + 1;
+		}
+		writer.write(s, start, len - start);
+		writer.write('"');
+	}
+
+	/**
+	 * Writes all buffered content and closes the underlying output.
+	 *
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	public void close() throws IOException {
+		writer.close();
+	}
+
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.xml;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer which collects characters in a fixed size chunk and passes only
+ * complete chunks to the underlying writer. Unlike
+ * {@link java.io.BufferedWriter} this writer does not synchronize, so writing
+ * single characters and short strings is a plain array copy. Instances must
+ * not be used by multiple threads concurrently.
+ */
+public class ChunkedWriter extends Writer {
+
+	/** Default chunk size in characters */
+	public static final int DEFAULT_CHUNK_SIZE = 0x10000;
+
+	private final Writer out;
+
+	private final char[] chunk;
+
+	private int position;
+
+	/**
+	 * Creates a new writer with the default chunk size.
+	 *
+	 * @param out
+	 *            underlying writer
+	 */
+	public ChunkedWriter(final Writer out) {
+		this(out, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a new writer with the given chunk size.
+	 *
+	 * @param out
+	 *            underlying writer
+	 * @param chunkSize
+	 *            chunk size in characters
+	 */
+	public ChunkedWriter(final Writer out, final int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException(
+					"chunk size must be greater than zero");
+		}
+		this.out = out;
+		this.chunk = new char[chunkSize];
+	}
+
+	@Override
+	public void write(final int c) throws IOException {
+		if (position == chunk.length) {
+			flushChunk();
+		}
+		chunk[position++] = (char) c;
+	}
+
+	@Override
+	public void write(final String s) throws IOException {
+		write(s, 0, s.length());
+	}
+
+	@Override
+	public void write(final String s, int off, int len) throws IOException {
+		while (len > 0) {
+			if (position == chunk.length) {
+				flushChunk();
+			}
+			final int n = Math.min(len, chunk.length - position);
+			s.getChars(off, off + n, chunk, position);
+			position += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	@Override
+	public void write(final char[] cbuf, final int off, final int len)
+			throws IOException {
+		if (len >= chunk.length) {
+			// Large arrays are not worth copying
+			flushChunk();
+			out.write(cbuf, off, len);
+			return;
+		}
+		if (len > chunk.length - position) {
+			flushChunk();
+		}
+		System.arraycopy(cbuf, off, chunk, position, len);
+		position += len;
+	}
+
+	private void flushChunk() throws IOException {
+		if (position > 0) {
+			out.write(chunk, 0, position);
+			position = 0;
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		flushChunk();
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flushChunk();
+		} finally {
+			out.close();
+		}
+	}
+
+}
@@ -42,20 +42,41 @@ public final class XMLCoverageWriter {
 	 */
 	public static void writeBundle(final IBundleCoverage bundle,
 			final ReportElement element) throws IOException {
+		writeBundle(bundle, element, true);
+	}
+
+	/**
+	 * Writes the structure of a given bundle, optionally without the
+	 * <code>line</code> elements of the source files.
+	 *
+	 * @param bundle
+	 *            bundle coverage data
+	 * @param element
+	 *            container element for the bundle data
+	 * @param includeLines
+	 *            if <code>false</code> only the counters of source files are
+	 *            written
+	 * @throws IOException
+	 *             if XML can't be written to the underlying output
+	 */
+	public static void writeBundle(final IBundleCoverage bundle,
+			final ReportElement element, final boolean includeLines)
+			throws IOException {
 		for (final IPackageCoverage p : bundle.getPackages()) {
-			writePackage(p, element);
+			writePackage(p, element, includeLines);
 		}
 		writeCounters(bundle, element);
 	}
 
 	private static void writePackage(final IPackageCoverage p,
-			final ReportElement parent) throws IOException {
+			final ReportElement parent, final boolean includeLines)
+			throws IOException {
 		final ReportElement element = parent.packageElement(p.getName());
 		for (final IClassCoverage c : p.getClasses()) {
 			writeClass(c, element);
 		}
 		for (final ISourceFileCoverage s : p.getSourceFiles()) {
-			writeSourceFile(s, element);
+			writeSourceFile(s, element, includeLines);
 		}
 		writeCounters(p, element);
 	}
@@ -76,9 +97,12 @@ public final class XMLCoverageWriter {
 	}
 
 	private static void writeSourceFile(final ISourceFileCoverage s,
-			final ReportElement parent) throws IOException {
+			final ReportElement parent, final boolean includeLines)
+			throws IOException {
 		final ReportElement element = parent.sourcefile(s.getName());
-		writeLines(s, element);
+		if (includeLines) {
+			writeLines(s, element);
+		}
 		writeCounters(s, element);
 	}
 
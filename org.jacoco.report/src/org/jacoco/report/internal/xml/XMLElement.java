@@ -81,7 +81,8 @@ public class XMLElement {
 			final String system, final boolean standalone,
 			final String encoding, final OutputStream output)
 			throws IOException {
-		this(new OutputStreamWriter(output, encoding), name, true);
+		this(new ChunkedWriter(new OutputStreamWriter(output, encoding)), name,
+				true);
 		if (standalone) {
 			writer.write(format(HEADER_STANDALONE, encoding));
 		} else {
@@ -94,6 +95,25 @@ public class XMLElement {
 		writer.write(name);
 	}
 
+	/**
+	 * Creates a detached element which writes its markup to the given writer
+	 * without any document header. Closing the element does not close the
+	 * writer.
+	 *
+	 * @param writer
+	 *            writer for the markup of the element
+	 * @param name
+	 *            element name
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	protected XMLElement(final Writer writer, final String name)
+			throws IOException {
+		this(writer, name, false);
+		writer.write('<');
+		writer.write(name);
+	}
+
 	/**
 	 * Creates a new child element within a XML document. May only be called
 	 * before the parent element has been closed.
@@ -132,28 +152,36 @@ public class XMLElement {
 		}
 	}
 
+	/**
+	 * Writes the given text with escaped markup characters. Runs of characters
+	 * which need no escaping, typically the whole text, are written at once.
+	 */
 	private void quote(final String text) throws IOException {
 		final int len = text.length();
+		int start = 0;
 		for (int i = 0; i < len; i++) {
-			final char c = text.charAt(i);
-			switch (c) {
+			final String entity;
+			switch (text.charAt(i)) {
 			case '<':
-				writer.write("&lt;");
+				entity = "&lt;";
 				break;
 			case '>':
-				writer.write("&gt;");
+				entity = "&gt;";
 				break;
 			case '"':
-				writer.write("&quot;");
+				entity = "&quot;";
 				break;
 			case '&':
-				writer.write("&amp;");
+				entity = "&amp;";
 				break;
 			default:
-				writer.write(c);
-				break;
+				continue;
 			}
+			writer.write(text, start, i - start);
+			writer.write(entity);
+			start = i + 1;
 		}
+		writer.write(text, start, len - start);
 	}
 
 	/**
@@ -175,6 +203,11 @@ public class XMLElement {
 		if (value == null) {
 			return;
 		}
+		attr(name, value, true);
+	}
+
+	private void attr(final String name, final String value,
+			final boolean quote) throws IOException {
 		if (closed || openTagDone) {
 			throw new IOException(
 					format("Element %s already closed.", this.name));
@@ -183,7 +216,11 @@ public class XMLElement {
 		writer.write(name);
 		writer.write('=');
 		writer.write('"');
-		quote(value);
+		if (quote) {
+			quote(value);
+		} else {
+			writer.write(value);
+		}
 		writer.write('"');
 	}
 
@@ -202,7 +239,8 @@ public class XMLElement {
 	 */
 	public final void attr(final String name, final int value)
 			throws IOException {
-		attr(name, String.valueOf(value));
+		// numbers never need escaping
+		attr(name, String.valueOf(value), false);
 	}
 
 	/**
@@ -220,7 +258,7 @@ public class XMLElement {
 	 */
 	public final void attr(final String name, final long value)
 			throws IOException {
-		attr(name, String.valueOf(value));
+		attr(name, String.valueOf(value), false);
 	}
 
 	/**
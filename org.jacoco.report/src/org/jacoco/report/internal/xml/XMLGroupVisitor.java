@@ -28,6 +28,8 @@ public class XMLGroupVisitor extends AbstractGroupVisitor {
 	/** XML element of this group */
 	protected final ReportElement element;
 
+	private final boolean includeLines;
+
 	/**
 	 * New handler for a group with the given name.
 	 *
@@ -41,22 +43,42 @@ public class XMLGroupVisitor extends AbstractGroupVisitor {
 	 */
 	public XMLGroupVisitor(final ReportElement element, final String name)
 			throws IOException {
+		this(element, name, true);
+	}
+
+	/**
+	 * New handler for a group with the given name.
+	 *
+	 * @param element
+	 *            XML-Element representing this coverage node. The start tag
+	 *            must not be closed yet to allow adding additional attributes.
+	 * @param name
+	 *            name of the group
+	 * @param includeLines
+	 *            if <code>false</code> no <code>line</code> elements are
+	 *            written for source files
+	 * @throws IOException
+	 *             in case of problems with the underlying writer
+	 */
+	public XMLGroupVisitor(final ReportElement element, final String name,
+			final boolean includeLines) throws IOException {
 		super(name);
 		this.element = element;
+		this.includeLines = includeLines;
 	}
 
 	@Override
 	protected void handleBundle(final IBundleCoverage bundle,
 			final ISourceFileLocator locator) throws IOException {
 		final ReportElement child = element.group(bundle.getName());
-		XMLCoverageWriter.writeBundle(bundle, child);
+		XMLCoverageWriter.writeBundle(bundle, child, includeLines);
 	}
 
 	@Override
 	protected AbstractGroupVisitor handleGroup(final String name)
 			throws IOException {
 		final ReportElement child = element.group(name);
-		return new XMLGroupVisitor(child, name);
+		return new XMLGroupVisitor(child, name, includeLines);
 	}
 
 	@Override
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.report.IReportGroupVisitor;
+import org.jacoco.report.IReportVisitor;
+import org.jacoco.report.ISourceFileLocator;
+import org.jacoco.report.internal.json.JSONCoverageWriter;
+import org.jacoco.report.internal.json.JSONGroupVisitor;
+import org.jacoco.report.internal.json.JSONWriter;
+
+/**
+ * Report formatter that streams a single UTF-8 encoded JSON document for a
+ * coverage session. The document is written while the report structure is
+ * visited, so the memory consumption does not depend on the report size.
+ */
+public class JSONFormatter {
+
+	private boolean includeDiff;
+
+	/**
+	 * Sets whether the diff metadata of the analyzed classes is written. For
+	 * changed classes the change type and the changed lines are written, for
+	 * changed methods the author and commit message. Default is
+	 * <code>false</code>.
+	 *
+	 * @param includeDiff
+	 *            <code>true</code> to write the diff metadata
+	 */
+	public void setIncludeDiff(final boolean includeDiff) {
+		this.includeDiff = includeDiff;
+	}
+
+	/**
+	 * Creates a new visitor to write a report to the given stream.
+	 *
+	 * @param output
+	 *            output stream to write the report to
+	 * @return visitor to emit the report data to
+	 * @throws IOException
+	 *             in case of problems with the output stream
+	 */
+	public IReportVisitor createVisitor(final OutputStream output)
+			throws IOException {
+		final JSONWriter writer = new JSONWriter(output);
+		class RootVisitor implements IReportVisitor {
+
+			private List<SessionInfo> sessionInfos;
+			private JSONGroupVisitor groupVisitor;
+
+			public void visitInfo(final List<SessionInfo> sessionInfos,
+					final Collection<ExecutionData> executionData)
+					throws IOException {
+				this.sessionInfos = sessionInfos;
+			}
+
+			public void visitBundle(final IBundleCoverage bundle,
+					final ISourceFileLocator locator) throws IOException {
+				beginRoot(bundle.getName());
+				JSONCoverageWriter.writeBundle(bundle, writer, includeDiff);
+			}
+
+			public IReportGroupVisitor visitGroup(final String name)
+					throws IOException {
+				beginRoot(name);
+				groupVisitor = new JSONGroupVisitor(writer, name,
+						includeDiff);
+				return groupVisitor;
+			}
+
+			private void beginRoot(final String name) throws IOException {
+				writer.beginObject();
+				writer.member("name", name);
+				writer.name("sessions");
+				writer.beginArray();
+				for (final SessionInfo i : sessionInfos) {
+					writer.beginObject();
+					writer.member("id", i.getId());
+					writer.member("start", i.getStartTimeStamp());
+					writer.member("dump", i.getDumpTimeStamp());
+					writer.endObject();
+				}
+				writer.endArray();
+			}
+
+			public void visitEnd() throws IOException {
+				if (groupVisitor != null) {
+					groupVisitor.visitEnd();
+				} else {
+					writer.endObject();
+				}
+				writer.close();
+			}
+		}
+		return new RootVisitor();
+	}
+
+}
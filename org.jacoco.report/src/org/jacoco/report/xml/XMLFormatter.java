@@ -16,6 +16,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.data.ExecutionData;
@@ -23,6 +24,7 @@ import org.jacoco.core.data.SessionInfo;
 import org.jacoco.report.IReportGroupVisitor;
 import org.jacoco.report.IReportVisitor;
 import org.jacoco.report.ISourceFileLocator;
+import org.jacoco.report.internal.xml.ChunkedWriter;
 import org.jacoco.report.internal.xml.ReportElement;
 import org.jacoco.report.internal.xml.XMLCoverageWriter;
 import org.jacoco.report.internal.xml.XMLGroupVisitor;
@@ -34,6 +36,10 @@ public class XMLFormatter {
 
 	private String outputEncoding = "UTF-8";
 
+	private boolean gzip;
+
+	private boolean includeLines = true;
+
 	/**
 	 * Sets the encoding used for generated XML document. Default is UTF-8.
 	 *
@@ -44,6 +50,30 @@ public class XMLFormatter {
 		this.outputEncoding = outputEncoding;
 	}
 
+	/**
+	 * Sets whether the report is compressed with gzip before it is written to
+	 * the output stream. Default is <code>false</code>.
+	 *
+	 * @param gzip
+	 *            <code>true</code> for a gzip compressed report
+	 */
+	public void setGzip(final boolean gzip) {
+		this.gzip = gzip;
+	}
+
+	/**
+	 * Sets whether <code>line</code> elements with the coverage of every
+	 * source line are written. Without them the report only contains the
+	 * counters of all elements and is considerably smaller. Default is
+	 * <code>true</code>.
+	 *
+	 * @param includeLines
+	 *            <code>false</code> to omit <code>line</code> elements
+	 */
+	public void setIncludeLines(final boolean includeLines) {
+		this.includeLines = includeLines;
+	}
+
 	/**
 	 * Creates a new visitor to write a report to the given stream.
 	 *
@@ -55,6 +85,9 @@ public class XMLFormatter {
 	 */
 	public IReportVisitor createVisitor(final OutputStream output)
 			throws IOException {
+		final OutputStream target = gzip
+				? new GZIPOutputStream(output, ChunkedWriter.DEFAULT_CHUNK_SIZE)
+				: output;
 		class RootVisitor implements IReportVisitor {
 
 			private ReportElement report;
@@ -70,19 +103,20 @@ public class XMLFormatter {
 			public void visitBundle(final IBundleCoverage bundle,
 					final ISourceFileLocator locator) throws IOException {
 				createRootElement(bundle.getName());
-				XMLCoverageWriter.writeBundle(bundle, report);
+				XMLCoverageWriter.writeBundle(bundle, report, includeLines);
 			}
 
 			public IReportGroupVisitor visitGroup(final String name)
 					throws IOException {
 				createRootElement(name);
-				groupVisitor = new XMLGroupVisitor(report, name);
+				groupVisitor = new XMLGroupVisitor(report, name,
+						includeLines);
 				return groupVisitor;
 			}
 
 			private void createRootElement(final String name)
 					throws IOException {
-				report = new ReportElement(name, output, outputEncoding);
+				report = new ReportElement(name, target, outputEncoding);
 				for (final SessionInfo i : sessionInfos) {
 					report.sessioninfo(i);
 				}